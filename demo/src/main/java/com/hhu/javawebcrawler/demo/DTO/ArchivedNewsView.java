@@ -0,0 +1,39 @@
+package com.hhu.javawebcrawler.demo.DTO;
+
+import com.hhu.javawebcrawler.demo.entity.NewsData;
+
+// 定义一个名为ArchivedNewsView的公共接口，作为Spring Data的接口投影，只查询归档新闻的元数据列而不读取压缩正文
+public interface ArchivedNewsView extends NewsSummaryView {
+    // 获取新闻的来源
+    String getSource();
+    // 获取新闻的关键词
+    String getKeywords();
+
+    // 转换为不带正文、标记为归档的新闻实体，并设置所在的历史记录ID，供历史记录的新闻列表返回
+    default NewsData toNewsData(Long historyId) {
+        // 创建新的新闻实体
+        NewsData newsData = new NewsData();
+        // 复制主键
+        newsData.setId(getId());
+        // 复制URL
+        newsData.setUrl(getUrl());
+        // 复制标题
+        newsData.setTitle(getTitle());
+        // 复制来源
+        newsData.setSource(getSource());
+        // 复制发布时间
+        newsData.setPublishTime(getPublishTime());
+        // 复制关键词
+        newsData.setKeywords(getKeywords());
+        // 复制抓取时间
+        newsData.setFetchTime(getFetchTime());
+        // 标记为归档新闻
+        newsData.setArchived(true);
+        // 设置所在的历史记录ID
+        newsData.setCrawlHistoryId(historyId);
+        // 返回新闻实体
+        return newsData;
+    // toNewsData方法结束
+    }
+// ArchivedNewsView接口定义结束
+}
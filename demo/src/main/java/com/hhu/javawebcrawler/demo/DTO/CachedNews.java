@@ -0,0 +1,48 @@
+package com.hhu.javawebcrawler.demo.DTO;
+
+import com.hhu.javawebcrawler.demo.entity.NewsData;
+import java.time.LocalDateTime;
+
+// 定义一个记录类 CachedNews，表示进程内缓存中的一篇带正文的新闻；与持久化上下文无关且不可变，可被多个请求共享
+public record CachedNews(Long id, String url, Long urlHash, String title, String source, LocalDateTime publishTime,
+                         String content, String plainText, String keywords, LocalDateTime fetchTime, boolean archived) {
+
+    // 定义一个静态工厂方法，从新闻实体复制字段，之后实体的修改不会影响缓存
+    public static CachedNews of(NewsData newsData) {
+        // 复制除历史记录ID以外的字段并返回，历史记录ID只在单次请求中有意义
+        return new CachedNews(newsData.getId(), newsData.getUrl(), newsData.getUrlHash(), newsData.getTitle(),
+                newsData.getSource(), newsData.getPublishTime(), newsData.getContent(), newsData.getPlainText(),
+                newsData.getKeywords(), newsData.getFetchTime(), newsData.isArchived());
+    }
+
+    // 定义一个公共方法，为调用方创建一个独立的新闻实体，调用方可以自由修改
+    public NewsData toNewsData() {
+        // 创建新的新闻实体
+        NewsData newsData = new NewsData();
+        // 复制主键
+        newsData.setId(id);
+        // 复制URL
+        newsData.setUrl(url);
+        // 复制URL哈希
+        newsData.setUrlHash(urlHash);
+        // 复制标题
+        newsData.setTitle(title);
+        // 复制来源
+        newsData.setSource(source);
+        // 复制发布时间
+        newsData.setPublishTime(publishTime);
+        // 复制正文
+        newsData.setContent(content);
+        // 复制纯文本正文
+        newsData.setPlainText(plainText);
+        // 复制关键词
+        newsData.setKeywords(keywords);
+        // 复制抓取时间
+        newsData.setFetchTime(fetchTime);
+        // 复制归档标记
+        newsData.setArchived(archived);
+        // 返回新闻实体
+        return newsData;
+    }
+// CachedNews记录定义结束
+}
@@ -0,0 +1,42 @@
+package com.hhu.javawebcrawler.demo.DTO;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+// @Data是Lombok库的注解，它会自动为所有字段生成getter、setter方法
+@Data
+// @NoArgsConstructor注解，生成无参构造函数
+@NoArgsConstructor
+// 定义一个名为CrawlHistorySummary的公共类，作为历史记录列表的JPQL构造器投影，默认不包含TEXT类型的url和params列
+public class CrawlHistorySummary {
+
+    // 声明一个私有的Long类型字段，用于存储历史记录的主键ID
+    private Long id;
+    // 声明一个私有的String类型字段，用于存储爬取类型
+    private String crawlType;
+    // 声明一个私有的String类型字段，用于存储历史记录的标题
+    private String title;
+    // 声明一个私有的LocalDateTime类型字段，用于存储爬取时间
+    private LocalDateTime crawlTime;
+    // 声明一个私有的String类型字段，用于存储爬取的URL，只在请求包含url时返回
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String url;
+    // 声明一个私有的String类型字段，用于存储JSON格式的爬取参数，只在请求包含params时返回
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String params;
+
+    // 定义供JPQL构造器表达式使用的构造函数，只接收列表所需的窄列
+    public CrawlHistorySummary(Long id, String crawlType, String title, LocalDateTime crawlTime) {
+        // 设置主键ID
+        this.id = id;
+        // 设置爬取类型
+        this.crawlType = crawlType;
+        // 设置标题
+        this.title = title;
+        // 设置爬取时间
+        this.crawlTime = crawlTime;
+    }
+// CrawlHistorySummary类定义结束
+}
@@ -0,0 +1,12 @@
+package com.hhu.javawebcrawler.demo.DTO;
+
+// 定义一个名为CrawlHistoryTextView的公共接口，作为Spring Data的接口投影，只查询历史记录的TEXT类型列
+public interface CrawlHistoryTextView {
+    // 获取历史记录的主键ID
+    Long getId();
+    // 获取爬取的URL
+    String getUrl();
+    // 获取JSON格式的爬取参数
+    String getParams();
+// CrawlHistoryTextView接口定义结束
+}
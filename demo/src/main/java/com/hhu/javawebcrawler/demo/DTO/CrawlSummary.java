@@ -0,0 +1,45 @@
+package com.hhu.javawebcrawler.demo.DTO;
+
+import com.hhu.javawebcrawler.demo.entity.NewsData;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+// @Data是Lombok库的注解，它会自动为所有字段生成getter、setter方法
+@Data
+// @AllArgsConstructor注解，生成包含全部字段的构造函数
+@AllArgsConstructor
+// 定义一个名为CrawlSummary的公共类，表示批量爬取中单篇新闻的轻量结果，不持有正文内容
+public class CrawlSummary {
+
+    // 定义一个公共枚举，表示该新闻在本次爬取中的处理结果
+    public enum Status {
+        // 本次爬取新抓取并保存的新闻
+        NEW,
+        // 数据库中已存在、未做任何修改的新闻
+        EXISTING,
+        // 数据库中已存在、本次被关联到爬取历史的新闻
+        LINKED
+    }
+
+    // 声明一个私有的Long类型字段，用于存储新闻的主键ID
+    private Long id;
+    // 声明一个私有的String类型字段，用于存储新闻的URL
+    private String url;
+    // 声明一个私有的String类型字段，用于存储新闻的标题
+    private String title;
+    // 声明一个私有的LocalDateTime类型字段，用于存储新闻的发布时间
+    private LocalDateTime publishTime;
+    // 声明一个私有的LocalDateTime类型字段，用于存储新闻首次被抓取的时间
+    private LocalDateTime fetchTime;
+    // 声明一个私有的Status类型字段，用于存储本次爬取的处理结果
+    private Status status;
+
+    // 定义一个静态工厂方法，从已保存的新闻实体中提取摘要，之后实体及其正文即可被回收
+    public static CrawlSummary of(NewsData newsData, Status status) {
+        // 复制除正文以外的字段并返回新的摘要对象
+        return new CrawlSummary(newsData.getId(), newsData.getUrl(), newsData.getTitle(),
+                newsData.getPublishTime(), newsData.getFetchTime(), status);
+    }
+// CrawlSummary类定义结束
+}
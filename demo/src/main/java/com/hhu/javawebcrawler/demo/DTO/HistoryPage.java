@@ -0,0 +1,21 @@
+package com.hhu.javawebcrawler.demo.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import java.util.List;
+
+// @Data是Lombok库的注解，它会自动为所有字段生成getter、setter方法
+@Data
+// @AllArgsConstructor注解，生成包含全部字段的构造函数
+@AllArgsConstructor
+// 定义一个名为HistoryPage的公共类，表示按(crawl_time, id)游标分页查询到的一页爬取历史
+public class HistoryPage {
+
+    // 声明一个私有的列表字段，用于存储本页的历史记录摘要
+    private List<CrawlHistorySummary> items;
+    // 声明一个私有的String类型字段，用于存储获取下一页所需的游标，没有下一页时为null
+    private String nextCursor;
+    // 声明一个私有的boolean类型字段，表示是否还有下一页
+    private boolean hasMore;
+// HistoryPage类定义结束
+}
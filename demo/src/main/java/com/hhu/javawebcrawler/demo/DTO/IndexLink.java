@@ -0,0 +1,17 @@
+package com.hhu.javawebcrawler.demo.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// @Data是Lombok库的注解，它会自动为所有字段生成getter、setter方法
+@Data
+// @AllArgsConstructor注解，生成包含全部字段的构造函数
+@AllArgsConstructor
+// 定义一个名为IndexLink的公共类，表示入口页中解析出的一条链接（URL与锚文本）
+public class IndexLink {
+    // 声明一个私有的String类型字段，用于存储已去除查询参数和哈希片段的绝对URL
+    private String url;
+    // 声明一个私有的String类型字段，用于存储链接的锚文本
+    private String text;
+// IndexLink类定义结束
+}
@@ -0,0 +1,41 @@
+package com.hhu.javawebcrawler.demo.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.ArrayList;
+import java.util.List;
+
+// @Data是Lombok库的注解，它会自动为所有字段生成getter、setter方法
+@Data
+// 定义一个名为MultiEntryCrawlResult的公共类，表示一次跨多个入口页的批量爬取结果
+public class MultiEntryCrawlResult {
+
+    // 声明一个私有的列表字段，用于存储合并去重后爬取到的新闻摘要
+    private List<CrawlSummary> news = new ArrayList<>();
+    // 声明一个私有的列表字段，用于存储每个入口页的统计信息，顺序与请求中的入口页一致
+    private List<EntryStats> entries = new ArrayList<>();
+
+    // @Data注解，为入口页统计信息生成getter、setter方法
+    @Data
+    // @NoArgsConstructor注解，生成无参构造函数
+    @NoArgsConstructor
+    // @AllArgsConstructor注解，生成包含全部字段的构造函数
+    @AllArgsConstructor
+    // 定义一个公共静态内部类，表示单个入口页的统计信息
+    public static class EntryStats {
+        // 入口页URL
+        private String url;
+        // 入口页中解析出的链接总数
+        private int linkCount;
+        // 通过筛选的候选新闻链接数量
+        private int candidateCount;
+        // 未被排在前面的入口页收录、由该入口页首次贡献的候选链接数量
+        private int uniqueCandidateCount;
+        // 由该入口页首次贡献、并成功获取到的新闻数量
+        private int crawledCount;
+        // 入口页下载失败时的错误信息，成功时为null
+        private String error;
+    }
+// MultiEntryCrawlResult类定义结束
+}
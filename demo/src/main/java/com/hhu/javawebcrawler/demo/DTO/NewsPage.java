@@ -0,0 +1,24 @@
+package com.hhu.javawebcrawler.demo.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import java.util.List;
+import java.util.Map;
+
+// @Data是Lombok库的注解，它会自动为所有字段生成getter、setter方法
+@Data
+// @AllArgsConstructor注解，生成包含全部字段的构造函数
+@AllArgsConstructor
+// 定义一个名为NewsPage的公共类，表示按(publish_time, id)游标分页查询到的一页新闻列表
+public class NewsPage {
+
+    // 声明一个私有的列表字段，每个元素只包含请求的列表字段，不包含正文
+    private List<Map<String, Object>> items;
+    // 声明一个私有的String类型字段，用于存储获取下一页所需的游标，没有下一页时为null
+    private String nextCursor;
+    // 声明一个私有的boolean类型字段，表示是否还有下一页
+    private boolean hasMore;
+    // 声明一个私有的Long类型字段，用于存储新闻总数，只在请求第一页时计算，其他页为null
+    private Long total;
+// NewsPage类定义结束
+}
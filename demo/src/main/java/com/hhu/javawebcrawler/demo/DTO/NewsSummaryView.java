@@ -0,0 +1,18 @@
+package com.hhu.javawebcrawler.demo.DTO;
+
+import java.time.LocalDateTime;
+
+// 定义一个名为NewsSummaryView的公共接口，作为Spring Data的接口投影，只查询新闻的摘要列而不加载正文
+public interface NewsSummaryView {
+    // 获取新闻的主键ID
+    Long getId();
+    // 获取新闻的URL
+    String getUrl();
+    // 获取新闻的标题
+    String getTitle();
+    // 获取新闻的发布时间
+    LocalDateTime getPublishTime();
+    // 获取新闻的抓取时间
+    LocalDateTime getFetchTime();
+// NewsSummaryView接口定义结束
+}
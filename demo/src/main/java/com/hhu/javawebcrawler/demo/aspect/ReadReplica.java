@@ -0,0 +1,20 @@
+package com.hhu.javawebcrawler.demo.aspect;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// 声明该注解可以用在类和方法上
+@Target({ElementType.TYPE, ElementType.METHOD})
+// 声明该注解在运行时保留，供切面读取
+@Retention(RetentionPolicy.RUNTIME)
+// 声明该注解包含在生成的文档中
+@Documented
+// 定义一个名为ReadReplica的注解，标注的方法（或类中的所有方法）在配置了只读副本时从副本读取数据；
+// 方法执行时如果已在主库的事务中，则继续使用该事务的连接；在DataSourceRouting.onPrimary中调用时读取主库；
+// 路由只作用于调用线程，方法内交给线程池或并行流执行的查询读取主库，除非用DataSourceRouting.propagate包装
+public @interface ReadReplica {
+// ReadReplica注解定义结束
+}
@@ -0,0 +1,33 @@
+package com.hhu.javawebcrawler.demo.aspect;
+
+import com.hhu.javawebcrawler.demo.config.DataSourceRouting;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+// @Aspect注解将这个类标识为一个切面
+@Aspect
+// @Component注解让Spring容器能够扫描并管理这个切面Bean
+@Component
+// 定义一个名为ReadReplicaAspect的公共类，在@ReadReplica标注的方法执行期间将当前线程路由到只读副本
+public class ReadReplicaAspect {
+
+    // @Around注解声明这是一个环绕通知，作用于标注了@ReadReplica的类中的方法或标注了@ReadReplica的方法
+    @Around("@within(com.hhu.javawebcrawler.demo.aspect.ReadReplica) || @annotation(com.hhu.javawebcrawler.demo.aspect.ReadReplica)")
+    // 定义环绕通知的方法
+    public Object routeToReplica(ProceedingJoinPoint joinPoint) throws Throwable {
+        // 将当前线程设置为使用只读副本，并记下之前的设置
+        boolean previous = DataSourceRouting.useReplica(true);
+        // 开始一个try-finally块，确保方法结束后恢复设置
+        try {
+            // 执行目标方法；连接在第一条语句执行时才获取，此时路由数据源读取到的是副本
+            return joinPoint.proceed();
+        } finally {
+            // 恢复之前的设置
+            DataSourceRouting.restore(previous);
+        }
+    // routeToReplica方法结束
+    }
+// ReadReplicaAspect类定义结束
+}
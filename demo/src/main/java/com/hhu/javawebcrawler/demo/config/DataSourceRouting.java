@@ -0,0 +1,95 @@
+// 定义了该Java文件所在的包名
+package com.hhu.javawebcrawler.demo.config;
+
+// 导入 Java 标准库中的函数式接口，用于包装需要在主库上执行的操作
+import java.util.function.Supplier;
+
+// 定义一个公共类 DataSourceRouting，保存当前线程应使用的数据源，由 @ReadReplica 切面设置，由路由数据源读取；
+// 路由设置保存在线程本地变量中，不会跟随任务传递到线程池、ForkJoin或CompletableFuture的工作线程，
+// 工作线程上的查询总是读取主库，需要沿用当前设置时用 propagate 包装提交的任务
+public final class DataSourceRouting {
+
+    // 定义主库数据源的查找键
+    public static final String PRIMARY = "primary";
+    // 定义只读副本数据源的查找键
+    public static final String REPLICA = "replica";
+
+    // 定义一个线程本地变量，记录当前线程是否处于 @ReadReplica 标注的方法中
+    private static final ThreadLocal<Boolean> USE_REPLICA = ThreadLocal.withInitial(() -> Boolean.FALSE);
+    // 定义一个线程本地变量，记录当前线程是否被固定到主库，固定期间 @ReadReplica 也不会切换到副本
+    private static final ThreadLocal<Boolean> PIN_PRIMARY = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+    // 定义一个私有构造函数，防止工具类被实例化
+    private DataSourceRouting() {
+    }
+
+    // 定义一个公共的静态方法，设置当前线程是否使用只读副本，返回之前的设置以便恢复
+    public static boolean useReplica(boolean replica) {
+        // 读取之前的设置
+        boolean previous = USE_REPLICA.get();
+        // 写入新的设置
+        USE_REPLICA.set(replica);
+        // 返回之前的设置
+        return previous;
+    }
+
+    // 定义一个公共的静态方法，恢复之前的设置，回到最外层时清除线程本地变量
+    public static void restore(boolean previous) {
+        // 如果之前未使用副本
+        if (!previous) {
+            // 清除线程本地变量，避免线程池复用线程时残留
+            USE_REPLICA.remove();
+        // 否则
+        } else {
+            // 恢复为使用副本
+            USE_REPLICA.set(Boolean.TRUE);
+        }
+    }
+
+    // 定义一个公共的静态方法，在主库上执行操作：期间调用的 @ReadReplica 方法也读取主库，用于结果需要反映已提交数据的场景
+    public static <T> T onPrimary(Supplier<T> action) {
+        // 读取之前的设置
+        boolean previous = PIN_PRIMARY.get();
+        // 固定到主库
+        PIN_PRIMARY.set(Boolean.TRUE);
+        // 开始一个try-finally块，确保操作结束后恢复设置
+        try {
+            // 执行操作
+            return action.get();
+        } finally {
+            // 回到最外层时清除线程本地变量
+            if (!previous) {
+                // 清除固定
+                PIN_PRIMARY.remove();
+            }
+        }
+    }
+
+    // 定义一个公共的静态方法，捕获当前线程的路由设置并返回包装后的任务，任务在其他线程执行时沿用这些设置，结束后恢复该线程原来的设置
+    public static <T> Supplier<T> propagate(Supplier<T> task) {
+        // 捕获当前线程是否使用副本
+        boolean replica = USE_REPLICA.get();
+        // 捕获当前线程是否固定到主库
+        boolean pinned = PIN_PRIMARY.get();
+        // 返回包装后的任务
+        return () -> {
+            // 在执行线程上应用捕获的副本设置
+            boolean previous = useReplica(replica);
+            // 开始一个try-finally块，确保任务结束后恢复设置
+            try {
+                // 需要固定到主库时在主库上执行，否则直接执行
+                return pinned ? onPrimary(task) : task.get();
+            } finally {
+                // 恢复执行线程原来的设置
+                restore(previous);
+            }
+        };
+    }
+
+    // 定义一个公共的静态方法，返回当前线程应使用的数据源查找键
+    public static String currentKey() {
+        // 固定到主库时始终返回主库，否则根据线程本地变量返回副本或主库的查找键
+        return USE_REPLICA.get() && !PIN_PRIMARY.get() ? REPLICA : PRIMARY;
+    }
+// DataSourceRouting类结束
+}
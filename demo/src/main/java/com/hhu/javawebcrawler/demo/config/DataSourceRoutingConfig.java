@@ -0,0 +1,119 @@
+// 定义了该Java文件所在的包名
+package com.hhu.javawebcrawler.demo.config;
+
+// 导入 HikariCP 连接池的数据源类
+import com.zaxxer.hikari.HikariDataSource;
+// 导入 SLF4J 的日志类
+import lombok.extern.slf4j.Slf4j;
+// 导入 Spring 的 Value 注解，用于读取配置
+import org.springframework.beans.factory.annotation.Value;
+// 导入 Spring Boot 的条件注解，只有配置了副本URL时才启用路由
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+// 导入 Spring Boot 的配置属性注解，将 spring.datasource.hikari.* 绑定到主库连接池
+import org.springframework.boot.context.properties.ConfigurationProperties;
+// 导入 Spring Boot 的数据源配置属性类，读取 spring.datasource.*
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+// 导入 Spring 的 Bean 注解
+import org.springframework.context.annotation.Bean;
+// 导入 Spring 的 Configuration 注解，标记这是一个配置类
+import org.springframework.context.annotation.Configuration;
+// 导入 Spring 的 Primary 注解，使路由数据源成为默认注入的数据源
+import org.springframework.context.annotation.Primary;
+// 导入 Spring 的延迟连接代理，使连接在第一条语句执行时才获取
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+// 导入 Spring 的路由数据源基类
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+// 导入 Java 标准库中的数据源接口
+import javax.sql.DataSource;
+// 导入 Java 标准库中的 Map 接口
+import java.util.Map;
+
+// 标记这个类是一个Spring配置类
+@Configuration
+// 只有配置了 crawler.datasource.replica.url 时才启用读写路由，否则沿用 Spring Boot 自动配置的单一数据源
+@ConditionalOnProperty(prefix = "crawler.datasource.replica", name = "url")
+// 使用Lombok为该类自动生成一个SLF4J的logger实例，变量名为log
+@Slf4j
+// 定义一个公共类 DataSourceRoutingConfig，配置主库和只读副本两个连接池，以及按 @ReadReplica 路由的数据源
+public class DataSourceRoutingConfig {
+
+    // 定义主库连接池，连接参数来自 spring.datasource.*，连接池参数（最大连接数、超时等）与自动配置时一样来自 spring.datasource.hikari.*
+    @Bean(name = "primaryDataSource")
+    // 绑定Hikari连接池参数，启用路由后主库连接池的配置保持不变
+    @ConfigurationProperties("spring.datasource.hikari")
+    // 定义主库数据源的Bean方法
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        // 使用Spring Boot的数据源配置构建Hikari连接池
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        // 设置默认的连接池名称，便于在日志中区分；配置了 spring.datasource.hikari.pool-name 时以配置为准
+        dataSource.setPoolName("primary");
+        // 返回主库数据源
+        return dataSource;
+    }
+
+    // 定义只读副本连接池，连接参数来自 crawler.datasource.replica.*，未配置的用户名和密码沿用主库的
+    @Bean(name = "replicaDataSource")
+    // 定义副本数据源的Bean方法
+    public HikariDataSource replicaDataSource(DataSourceProperties properties,
+                                              @Value("${crawler.datasource.replica.url}") String url,
+                                              @Value("${crawler.datasource.replica.username:}") String username,
+                                              @Value("${crawler.datasource.replica.password:}") String password,
+                                              @Value("${crawler.datasource.replica.maximum-pool-size:10}") int maximumPoolSize) {
+        // 创建Hikari连接池
+        HikariDataSource dataSource = new HikariDataSource();
+        // 设置连接池名称
+        dataSource.setPoolName("replica");
+        // 设置副本的JDBC URL
+        dataSource.setJdbcUrl(url);
+        // 设置用户名，未配置时沿用主库的
+        dataSource.setUsername(username.isEmpty() ? properties.determineUsername() : username);
+        // 设置密码，未配置时沿用主库的
+        dataSource.setPassword(password.isEmpty() ? properties.determinePassword() : password);
+        // 设置驱动类名，与主库相同
+        dataSource.setDriverClassName(properties.determineDriverClassName());
+        // 设置最大连接数
+        dataSource.setMaximumPoolSize(maximumPoolSize);
+        // 副本连接只用于读取
+        dataSource.setReadOnly(true);
+        // 记录启用读写路由的日志
+        log.info("已启用读写数据源路由，只读副本: {}", url);
+        // 返回副本数据源
+        return dataSource;
+    }
+
+    // 定义默认注入的数据源：路由数据源外包一层延迟连接代理，使路由在第一条语句执行时决定，而不是在事务开始时
+    @Bean
+    // 标记为首选数据源，JPA和JdbcTemplate都使用它
+    @Primary
+    // 定义路由数据源的Bean方法
+    public DataSource dataSource(HikariDataSource primaryDataSource, HikariDataSource replicaDataSource) {
+        // 创建路由数据源
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource();
+        // 注册主库和副本两个目标数据源
+        routing.setTargetDataSources(Map.of(DataSourceRouting.PRIMARY, primaryDataSource, DataSourceRouting.REPLICA, replicaDataSource));
+        // 未标注 @ReadReplica 的操作默认使用主库
+        routing.setDefaultTargetDataSource(primaryDataSource);
+        // 初始化路由数据源
+        routing.afterPropertiesSet();
+        // 返回延迟连接代理
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    // 定义一个静态内部类，根据当前线程的路由设置选择主库或副本
+    static class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+        // 返回当前线程应使用的数据源查找键
+        @Override
+        protected Object determineCurrentLookupKey() {
+            // 读取当前线程的路由设置
+            String key = DataSourceRouting.currentKey();
+            // 记录调试日志
+            log.debug("数据源路由: {}", key);
+            // 返回查找键
+            return key;
+        }
+    // ReadWriteRoutingDataSource类结束
+    }
+// DataSourceRoutingConfig类结束
+}
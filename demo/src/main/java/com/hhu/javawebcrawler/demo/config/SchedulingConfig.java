@@ -0,0 +1,17 @@
+// 定义了该Java文件所在的包名
+package com.hhu.javawebcrawler.demo.config;
+
+// 导入 Spring 的 Configuration 注解，标记这是一个配置类
+import org.springframework.context.annotation.Configuration;
+// 导入 Spring 的 EnableScheduling 注解，用于启用 @Scheduled 定时任务
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// 标记这个类是一个Spring配置类
+@Configuration
+// 启用定时任务支持，关键词订阅的定时分发、冷数据归档和检索索引维护依赖于此；
+// 调度线程池的大小由spring.task.scheduling.pool.size配置，默认只有一个线程，各任务会相互排队
+@EnableScheduling
+// 定义一个公共类 SchedulingConfig
+public class SchedulingConfig {
+// SchedulingConfig类结束
+}
@@ -1,7 +1,8 @@
 package com.hhu.javawebcrawler.demo.controller;
 
+import com.hhu.javawebcrawler.demo.DTO.CrawlSummary;
+import com.hhu.javawebcrawler.demo.DTO.MultiEntryCrawlResult;
 import com.hhu.javawebcrawler.demo.entity.CrawlHistory;
-import com.hhu.javawebcrawler.demo.entity.NewsData;
 import com.hhu.javawebcrawler.demo.entity.User;
 import com.hhu.javawebcrawler.demo.service.CrawlHistoryService;
 import com.hhu.javawebcrawler.demo.service.NewsCrawlerService;
@@ -14,10 +15,13 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
@@ -30,6 +34,8 @@ public class BatchCrawlerController {
 
     // 创建一个静态不可变的Logger实例，用于记录日志。
     private static final Logger logger = LoggerFactory.getLogger(BatchCrawlerController.class);
+    // 定义单次批量爬取允许的最大入口页数量。
+    private static final int MAX_ENTRY_URLS = 20;
     
     // 声明一个不可变的新闻爬虫服务字段。
     private final NewsCrawlerService newsCrawlerService;
@@ -57,9 +63,11 @@ public class BatchCrawlerController {
     // 将此方法映射到HTTP POST请求的"/from-index"路径。
     @PostMapping("/from-index")
     // 定义从入口页进行二级爬取的API端点。
-    public ResponseEntity<Map<String, Object>> crawlFromIndex(@RequestBody Map<String, String> payload) {
-        // 从请求体Map中获取"url"字段的值。
-        String indexUrl = payload.get("url");
+    public ResponseEntity<Map<String, Object>> crawlFromIndex(@RequestBody Map<String, Object> payload) {
+        // 从请求体中解析入口页列表，支持单个"url"字段或多个"urls"字段。
+        List<String> entryUrls = resolveEntryUrls(payload, null);
+        // 取第一个入口页，用于日志和兼容单入口的返回字段。
+        String indexUrl = entryUrls.isEmpty() ? null : entryUrls.get(0);
         // 记录收到二级爬取请求的日志。
         logger.info("收到二级爬取请求，入口页面: {}", indexUrl);
 
@@ -81,6 +89,12 @@ public class BatchCrawlerController {
             return ResponseEntity.badRequest().body(Collections.singletonMap("error", "入口URL不能为空"));
         } // if条件结束。
 
+        // 检查入口页数量是否超过上限。
+        if (entryUrls.size() > MAX_ENTRY_URLS) {
+            // 返回400错误请求状态和错误信息。
+            return ResponseEntity.badRequest().body(Collections.singletonMap("error", "入口页数量不能超过" + MAX_ENTRY_URLS + "个"));
+        } // if条件结束。
+
         // 获取已认证用户的用户名。
         String username = authentication.getName();
         // 声明一个长整型变量用于存储用户ID。
@@ -108,16 +122,18 @@ public class BatchCrawlerController {
             crawlHistory.setUserId(userId);
             // 为历史记录设置爬取类型。
             crawlHistory.setCrawlType("INDEX_CRAWL");
-            // 为历史记录设置被爬取的入口URL。
-            crawlHistory.setUrl(indexUrl);
+            // 为历史记录设置被爬取的入口URL，多个入口页以换行分隔。
+            crawlHistory.setUrl(String.join("\n", entryUrls));
             // 为历史记录设置一个临时的标题。
-            crawlHistory.setTitle("二级爬取任务，入口页面: " + indexUrl);
+            crawlHistory.setTitle("二级爬取任务，入口页面: " + describeEntries(entryUrls));
             
             // 保存初始的历史记录，并获取包含数据库生成ID的返回对象。
             crawlHistory = crawlHistoryService.saveHistory(crawlHistory);
             
-            // 执行二级爬取，并传递CrawlHistory对象以建立关联。
-            List<NewsData> crawledNews = newsCrawlerService.crawlNewsFromIndexPage(indexUrl, crawlHistory);
+            // 并发下载所有入口页并合并去重后执行二级爬取，并传递CrawlHistory对象以建立关联。
+            MultiEntryCrawlResult crawlResult = newsCrawlerService.crawlNewsFromIndexPages(entryUrls, null, crawlHistory);
+            // 取出合并后的新闻摘要列表。
+            List<CrawlSummary> crawledNews = crawlResult.getNews();
             
             // 根据爬取结果更新历史记录的标题。
             crawlHistory.setTitle("二级爬取，成功获取 " + crawledNews.size() + " 条新闻");
@@ -126,14 +142,18 @@ public class BatchCrawlerController {
             Map<String, Object> params = new HashMap<>();
             // 将入口URL存入参数Map。
             params.put("entryUrl", indexUrl);
+            // 将全部入口URL存入参数Map。
+            params.put("entryUrls", entryUrls);
+            // 将每个入口页的统计信息存入参数Map。
+            params.put("entries", crawlResult.getEntries());
             // 将爬取到的总数存入参数Map。
             params.put("totalCount", crawledNews.size());
             // 将最多5个样本URL存入参数Map。
             params.put("sampleUrls", crawledNews.stream()
                     // 限制流中最多有5个元素。
                     .limit(5)
-                    // 提取每个NewsData对象的URL。
-                    .map(NewsData::getUrl)
+                    // 提取每个摘要对象的URL。
+                    .map(CrawlSummary::getUrl)
                     // 将提取出的URL收集到一个新的列表中。
                     .collect(Collectors.toList()));
             
@@ -159,8 +179,10 @@ public class BatchCrawlerController {
             result.put("crawledCount", crawledNews.size());
             // 设置入口URL。
             result.put("entryUrl", indexUrl);
+            // 设置每个入口页的统计信息。
+            result.put("entries", crawlResult.getEntries());
             // 设置所有爬取到的新闻标题列表。
-            result.put("titles", crawledNews.stream().map(NewsData::getTitle).collect(Collectors.toList()));
+            result.put("titles", crawledNews.stream().map(CrawlSummary::getTitle).collect(Collectors.toList()));
             
             // 记录二级爬取完成的日志。
             logger.info("二级爬取完成，从 {} 获取了 {} 条新闻", indexUrl, crawledNews.size());
@@ -184,11 +206,13 @@ public class BatchCrawlerController {
     // 将此方法映射到HTTP POST请求的"/by-keyword"路径。
     @PostMapping("/by-keyword")
     // 定义按关键词爬取的API端点。
-    public ResponseEntity<Map<String, Object>> crawlByKeyword(@RequestBody Map<String, String> payload) {
+    public ResponseEntity<Map<String, Object>> crawlByKeyword(@RequestBody Map<String, Object> payload) {
         // 从请求体Map中获取"keyword"字段的值。
-        String keyword = payload.get("keyword");
-        // 从请求体Map中获取"url"字段的值，如果不存在则使用默认值。
-        String indexUrl = payload.getOrDefault("url", "https://news.sina.com.cn/");
+        String keyword = payload.get("keyword") instanceof String ? (String) payload.get("keyword") : null;
+        // 从请求体中解析入口页列表，如果不存在则使用默认值。
+        List<String> entryUrls = resolveEntryUrls(payload, "https://news.sina.com.cn/");
+        // 取第一个入口页，用于日志和兼容单入口的返回字段。
+        String indexUrl = entryUrls.get(0);
         
         // 记录收到关键词爬取请求的日志。
         logger.info("收到关键词爬取请求，关键词: {}, 入口页面: {}", keyword, indexUrl);
@@ -211,6 +235,12 @@ public class BatchCrawlerController {
             return ResponseEntity.badRequest().body(Collections.singletonMap("error", "关键词不能为空"));
         } // if条件结束。
 
+        // 检查入口页数量是否超过上限。
+        if (entryUrls.size() > MAX_ENTRY_URLS) {
+            // 返回400错误请求状态和错误信息。
+            return ResponseEntity.badRequest().body(Collections.singletonMap("error", "入口页数量不能超过" + MAX_ENTRY_URLS + "个"));
+        } // if条件结束。
+
         // 获取已认证用户的用户名。
         String username = authentication.getName();
         // 声明一个长整型变量用于存储用户ID。
@@ -236,16 +266,18 @@ public class BatchCrawlerController {
             crawlHistory.setUserId(userId);
             // 为历史记录设置爬取类型。
             crawlHistory.setCrawlType("INDEX_CRAWL");
-            // 为历史记录设置被爬取的入口URL。
-            crawlHistory.setUrl(indexUrl);
+            // 为历史记录设置被爬取的入口URL，多个入口页以换行分隔。
+            crawlHistory.setUrl(String.join("\n", entryUrls));
             // 为历史记录设置一个临时的标题。
             crawlHistory.setTitle("关键词爬取任务: " + keyword);
             
             // 保存初始的历史记录，并获取包含数据库生成ID的返回对象。
             crawlHistory = crawlHistoryService.saveHistory(crawlHistory);
             
-            // 执行关键词爬取，并传递CrawlHistory对象以建立关联。
-            List<NewsData> crawledNews = newsCrawlerService.crawlNewsByKeyword(keyword, indexUrl, crawlHistory);
+            // 并发下载所有入口页并合并去重后执行关键词爬取，并传递CrawlHistory对象以建立关联。
+            MultiEntryCrawlResult crawlResult = newsCrawlerService.crawlNewsFromIndexPages(entryUrls, keyword, crawlHistory);
+            // 取出合并后的新闻摘要列表。
+            List<CrawlSummary> crawledNews = crawlResult.getNews();
             
             // 根据爬取结果更新历史记录的标题。
             crawlHistory.setTitle("关键词爬取: " + keyword + "，成功获取 " + crawledNews.size() + " 条新闻");
@@ -256,14 +288,18 @@ public class BatchCrawlerController {
             params.put("keyword", keyword);
             // 将入口URL存入参数Map。
             params.put("entryUrl", indexUrl);
+            // 将全部入口URL存入参数Map。
+            params.put("entryUrls", entryUrls);
+            // 将每个入口页的统计信息存入参数Map。
+            params.put("entries", crawlResult.getEntries());
             // 将爬取到的总数存入参数Map。
             params.put("totalCount", crawledNews.size());
             // 将最多5个样本URL存入参数Map。
             params.put("sampleUrls", crawledNews.stream()
                     // 限制流中最多有5个元素。
                     .limit(5)
-                    // 提取每个NewsData对象的URL。
-                    .map(NewsData::getUrl)
+                    // 提取每个摘要对象的URL。
+                    .map(CrawlSummary::getUrl)
                     // 将提取出的URL收集到一个新的列表中。
                     .collect(Collectors.toList()));
             
@@ -291,8 +327,10 @@ public class BatchCrawlerController {
             result.put("keyword", keyword);
             // 设置入口URL。
             result.put("entryUrl", indexUrl);
+            // 设置每个入口页的统计信息。
+            result.put("entries", crawlResult.getEntries());
             // 设置所有爬取到的新闻标题列表。
-            result.put("titles", crawledNews.stream().map(NewsData::getTitle).collect(Collectors.toList()));
+            result.put("titles", crawledNews.stream().map(CrawlSummary::getTitle).collect(Collectors.toList()));
             
             // 记录关键词爬取完成的日志。
             logger.info("关键词爬取完成，关键词: {}, 获取了 {} 条新闻", keyword, crawledNews.size());
@@ -314,4 +352,43 @@ public class BatchCrawlerController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResult);
         } // try-catch结束。
     } // crawlByKeyword方法结束。
+
+    // 定义一个私有方法，从请求体中解析入口页列表：优先使用"urls"数组，否则使用单个"url"字段，去除空白并去重。
+    private List<String> resolveEntryUrls(Map<String, Object> payload, String defaultUrl) {
+        // 使用LinkedHashSet保持请求中的顺序并去重。
+        Set<String> urls = new LinkedHashSet<>();
+        // 取出"urls"字段。
+        Object multi = payload.get("urls");
+        // 如果"urls"是一个数组。
+        if (multi instanceof List<?> list) {
+            // 遍历数组中的每个元素。
+            for (Object item : list) {
+                // 只接受非空字符串。
+                if (item instanceof String str && !str.isBlank()) {
+                    // 去除首尾空格后加入集合。
+                    urls.add(str.trim());
+                } // if条件结束。
+            } // for循环结束。
+        } // if条件结束。
+        // 取出单个"url"字段。
+        Object single = payload.get("url");
+        // 如果"urls"未提供有效值且"url"是非空字符串。
+        if (urls.isEmpty() && single instanceof String str && !str.isBlank()) {
+            // 去除首尾空格后加入集合。
+            urls.add(str.trim());
+        } // if条件结束。
+        // 如果仍然为空且提供了默认入口页。
+        if (urls.isEmpty() && defaultUrl != null) {
+            // 使用默认入口页。
+            urls.add(defaultUrl);
+        } // if条件结束。
+        // 返回入口页列表。
+        return new ArrayList<>(urls);
+    } // resolveEntryUrls方法结束。
+
+    // 定义一个私有方法，生成入口页列表的简短描述，用于历史记录标题。
+    private String describeEntries(List<String> entryUrls) {
+        // 单个入口页直接返回其URL，多个入口页返回第一个URL及总数。
+        return entryUrls.size() == 1 ? entryUrls.get(0) : entryUrls.get(0) + " 等 " + entryUrls.size() + " 个入口页";
+    } // describeEntries方法结束。
 } // BatchCrawlerController类定义结束。
\ No newline at end of file
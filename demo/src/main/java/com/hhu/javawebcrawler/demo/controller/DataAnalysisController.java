@@ -1,5 +1,6 @@
 package com.hhu.javawebcrawler.demo.controller;
 
+import com.hhu.javawebcrawler.demo.service.AnalysisResultCache;
 import com.hhu.javawebcrawler.demo.service.DataAnalysisService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -7,9 +8,17 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Set;
 
 // 声明这是一个RESTful风格的控制器。
 @RestController
@@ -23,11 +32,15 @@ public class DataAnalysisController {
     
     // 声明一个不可变的数据分析服务字段。
     private final DataAnalysisService dataAnalysisService;
+    // 声明一个不可变的分析结果缓存字段，相同参数的重复请求直接返回缓存结果。
+    private final AnalysisResultCache analysisResultCache;
 
-    // 定义类的构造函数，通过它注入数据分析服务依赖。
-    public DataAnalysisController(DataAnalysisService dataAnalysisService) {
+    // 定义类的构造函数，通过它注入数据分析服务和结果缓存依赖。
+    public DataAnalysisController(DataAnalysisService dataAnalysisService, AnalysisResultCache analysisResultCache) {
         // 将注入的数据分析服务实例赋值给类成员变量。
         this.dataAnalysisService = dataAnalysisService;
+        // 将注入的结果缓存实例赋值给类成员变量。
+        this.analysisResultCache = analysisResultCache;
     } // 构造函数结束。
 
     // 将此方法映射到HTTP POST请求的"/word-cloud"路径。
@@ -89,8 +102,13 @@ public class DataAnalysisController {
             logger.info("词云分析参数: source={}, limit={}, historyId={}", 
                        source, limit, historyId);
             
-            // 调用数据分析服务生成词云数据。
-            List<Map<String, Object>> wordCloudData = dataAnalysisService.generateWordCloudData(source, limit, historyId);
+            // 复制为final变量供lambda使用。
+            int finalLimit = limit;
+            // 复制为final变量供lambda使用。
+            Long finalHistoryId = historyId;
+            // 通过结果缓存调用数据分析服务生成词云数据。
+            List<Map<String, Object>> wordCloudData = analysisResultCache.get("word-cloud", historyId, List.of(source, limit),
+                    () -> dataAnalysisService.generateWordCloudData(source, finalLimit, finalHistoryId));
             
             // 创建一个新的HashMap来组织响应数据。
             Map<String, Object> response = new HashMap<>();
@@ -169,8 +187,13 @@ public class DataAnalysisController {
             logger.info("热词分析参数: limit={}, historyId={}", 
                        limit, historyId);
             
-            // 调用数据分析服务获取热词数据。
-            List<Map<String, Object>> hotWords = dataAnalysisService.getHotWords(limit, historyId);
+            // 复制为final变量供lambda使用。
+            int finalLimit = limit;
+            // 复制为final变量供lambda使用。
+            Long finalHistoryId = historyId;
+            // 通过结果缓存调用数据分析服务获取热词数据。
+            List<Map<String, Object>> hotWords = analysisResultCache.get("hot-words", historyId, List.of(limit),
+                    () -> dataAnalysisService.getHotWords(finalLimit, finalHistoryId));
             
             // 创建一个新的HashMap来组织响应数据。
             Map<String, Object> response = new HashMap<>();
@@ -213,8 +236,10 @@ public class DataAnalysisController {
             
             // 从请求参数中获取"keyword"值，如果不存在则默认为空字符串。
             String keyword = params.getOrDefault("keyword", "").toString();
+            // 解析关键词列表："keywords"数组优先，否则按逗号或空白拆分"keyword"。
+            List<String> keywords = parseKeywords(params.get("keywords"), keyword);
             // 检查关键词是否为空。
-            if (keyword.isEmpty()) {
+            if (keywords.isEmpty()) {
                 // 如果是，则记录警告日志。
                 logger.warn("缺少关键词参数");
                 // 返回400错误请求状态和错误信息。
@@ -245,17 +270,40 @@ public class DataAnalysisController {
                 return ResponseEntity.badRequest().body(Map.of("error", "historyId参数缺失"));
             } // if-else结束。
             
+            // 声明可选的时间范围。
+            LocalDateTime startTime;
+            // 声明可选的结束时间。
+            LocalDateTime endTime;
+            // 开始一个try块，处理时间格式错误。
+            try {
+                // 解析开始时间。
+                startTime = parseTime(params.get("startTime"));
+                // 解析结束时间。
+                endTime = parseTime(params.get("endTime"));
+            } catch (DateTimeParseException e) { // 捕获时间格式错误。
+                // 记录无效时间参数的警告日志。
+                logger.warn("无效的时间范围参数: {} ~ {}", params.get("startTime"), params.get("endTime"));
+                // 返回400错误请求状态和错误信息。
+                return ResponseEntity.badRequest().body(Map.of("error", "时间格式应为 yyyy-MM-dd 或 yyyy-MM-ddTHH:mm:ss"));
+            } // try-catch结束。
+            
             // 记录最终用于分析的参数。
-            logger.info("时间趋势分析参数: keyword={}, timeUnit={}, historyId={}", 
-                       keyword, timeUnit, historyId);
+            logger.info("时间趋势分析参数: keywords={}, timeUnit={}, historyId={}, startTime={}, endTime={}", 
+                       keywords, timeUnit, historyId, startTime, endTime);
             
-            // 调用数据分析服务获取关键词的时间趋势数据。
-            List<Map<String, Object>> trendData = dataAnalysisService.getKeywordTimeTrend(keyword, timeUnit, historyId);
+            // 复制为final变量供lambda使用。
+            Long finalHistoryId = historyId;
+            // 通过结果缓存调用数据分析服务获取关键词的时间趋势数据。
+            List<Map<String, Object>> trendData = analysisResultCache.get("keyword-trend", historyId,
+                    Arrays.asList(keywords, timeUnit, startTime, endTime),
+                    () -> dataAnalysisService.getKeywordTimeTrend(keywords, timeUnit, finalHistoryId, startTime, endTime));
             
             // 创建一个新的HashMap来组织响应数据。
             Map<String, Object> response = new HashMap<>();
             // 将关键词放入响应Map。
             response.put("keyword", keyword);
+            // 将解析后的关键词列表放入响应Map。
+            response.put("keywords", keywords);
             // 将时间单位放入响应Map。
             response.put("timeUnit", timeUnit);
             // 将趋势数据放入响应Map。
@@ -274,6 +322,47 @@ public class DataAnalysisController {
         } // try-catch结束。
     } // getTimeTrend方法结束。
 
+    // 定义一个私有方法，解析关键词列表："keywords"为数组时逐项读取，否则按中英文逗号或空白拆分单个关键词字符串。
+    private List<String> parseKeywords(Object keywordsParam, String keyword) {
+        // 使用有序集合去重并保持顺序。
+        Set<String> keywords = new LinkedHashSet<>();
+        // 如果提供了关键词数组。
+        if (keywordsParam instanceof Collection<?> values) {
+            // 遍历数组中的每一项。
+            for (Object value : values) {
+                // 跳过空项。
+                if (value != null && !value.toString().isBlank()) {
+                    // 加入去除首尾空白后的关键词。
+                    keywords.add(value.toString().trim());
+                } // if条件结束。
+            } // for循环结束。
+        } else { // 否则拆分单个关键词字符串。
+            // 按中英文逗号或空白拆分。
+            for (String part : keyword.split("[,，\\s]+")) {
+                // 跳过空项。
+                if (!part.isBlank()) {
+                    // 加入关键词。
+                    keywords.add(part);
+                } // if条件结束。
+            } // for循环结束。
+        } // if-else结束。
+        // 返回关键词列表。
+        return new ArrayList<>(keywords);
+    } // parseKeywords方法结束。
+
+    // 定义一个私有方法，解析可选的时间参数，支持 yyyy-MM-dd（当天零点）和 yyyy-MM-ddTHH:mm[:ss] 两种格式。
+    private LocalDateTime parseTime(Object value) {
+        // 如果未提供或为空。
+        if (value == null || value.toString().isBlank()) {
+            // 返回null表示不限制。
+            return null;
+        } // if条件结束。
+        // 去除首尾空白。
+        String text = value.toString().trim();
+        // 只有日期时取当天零点，否则按日期时间解析。
+        return text.length() == 10 ? LocalDate.parse(text).atStartOfDay() : LocalDateTime.parse(text);
+    } // parseTime方法结束。
+
     // 将此方法映射到HTTP POST请求的"/source-distribution"路径。
     @PostMapping("/source-distribution")
     // 定义获取内容来源分布的API端点。
@@ -318,8 +407,11 @@ public class DataAnalysisController {
             logger.info("来源分布分析参数: historyId={}", 
                        historyId);
             
-            // 调用数据分析服务获取来源分布数据。
-            List<Map<String, Object>> sourceData = dataAnalysisService.getSourceDistribution(historyId);
+            // 复制为final变量供lambda使用。
+            Long finalHistoryId = historyId;
+            // 通过结果缓存调用数据分析服务获取来源分布数据。
+            List<Map<String, Object>> sourceData = analysisResultCache.get("source-distribution", historyId, List.of(),
+                    () -> dataAnalysisService.getSourceDistribution(finalHistoryId));
             
             // 创建一个新的HashMap来组织响应数据。
             Map<String, Object> response = new HashMap<>();
@@ -340,4 +432,46 @@ public class DataAnalysisController {
             return ResponseEntity.status(500).body(Map.of("error", "获取内容来源分布失败: " + e.getMessage()));
         } // try-catch结束。
     } // getSourceDistribution方法结束。
+
+    // 将此方法映射到HTTP GET请求的"/content-storage"路径。
+    @GetMapping("/content-storage")
+    // 定义获取正文压缩存储统计的API端点。
+    public ResponseEntity<?> getContentStorageStats() {
+        // 开始一个try块，用于捕获整个处理过程中可能发生的异常。
+        try {
+            // 从Spring Security上下文中获取当前的认证信息。
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            // 检查用户是否已认证。
+            if (authentication == null || !authentication.isAuthenticated() || "anonymousUser".equals(authentication.getPrincipal())) {
+                // 如果未认证，则记录警告日志。
+                logger.warn("未认证用户尝试访问正文存储统计API");
+                // 返回401未授权状态和错误信息。
+                return ResponseEntity.status(401).body(Map.of("error", "用户未认证"));
+            } // if条件结束。
+            // 调用数据分析服务获取统计结果，并返回200 OK状态。
+            return ResponseEntity.ok(dataAnalysisService.getContentStorageStats());
+        } catch (Exception e) { // 捕获在try块中发生的任何异常。
+            // 记录获取统计时发生的错误日志。
+            logger.error("获取正文存储统计时发生错误: {}", e.getMessage(), e);
+            // 返回500服务器内部错误状态和错误信息。
+            return ResponseEntity.status(500).body(Map.of("error", "获取正文存储统计失败: " + e.getMessage()));
+        } // try-catch结束。
+    } // getContentStorageStats方法结束。
+
+    // 将此方法映射到HTTP GET请求的"/cache-stats"路径。
+    @GetMapping("/cache-stats")
+    // 定义获取分析结果缓存统计的API端点。
+    public ResponseEntity<?> getCacheStats() {
+        // 从Spring Security上下文中获取当前的认证信息。
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        // 检查用户是否已认证。
+        if (authentication == null || !authentication.isAuthenticated() || "anonymousUser".equals(authentication.getPrincipal())) {
+            // 如果未认证，则记录警告日志。
+            logger.warn("未认证用户尝试访问分析缓存统计API");
+            // 返回401未授权状态和错误信息。
+            return ResponseEntity.status(401).body(Map.of("error", "用户未认证"));
+        } // if条件结束。
+        // 返回命中、未命中、失效、淘汰次数和当前结果数量。
+        return ResponseEntity.ok(analysisResultCache.getStats());
+    } // getCacheStats方法结束。
 } // DataAnalysisController类定义结束。
\ No newline at end of file
@@ -1,10 +1,13 @@
 package com.hhu.javawebcrawler.demo.controller;
 
+import com.hhu.javawebcrawler.demo.DTO.HistoryPage;
+import com.hhu.javawebcrawler.demo.DTO.NewsPage;
 import com.hhu.javawebcrawler.demo.entity.CrawlHistory;
 import com.hhu.javawebcrawler.demo.entity.NewsData;
 import com.hhu.javawebcrawler.demo.entity.User;
 import com.hhu.javawebcrawler.demo.service.CrawlHistoryService;
 import com.hhu.javawebcrawler.demo.service.NewsCrawlerService;
+import com.hhu.javawebcrawler.demo.service.NewsListingService;
 import com.hhu.javawebcrawler.demo.service.UserService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -33,20 +36,27 @@ public class HistoryController {
     private final UserService userService;
     // 声明一个不可变的新闻爬虫服务字段。
     private final NewsCrawlerService newsCrawlerService;
+    // 声明一个不可变的新闻分页查询服务字段。
+    private final NewsListingService newsListingService;
 
     // 定义类的构造函数，通过它注入服务依赖。
-    public HistoryController(CrawlHistoryService crawlHistoryService, UserService userService, NewsCrawlerService newsCrawlerService) {
+    public HistoryController(CrawlHistoryService crawlHistoryService, UserService userService,
+                             NewsCrawlerService newsCrawlerService, NewsListingService newsListingService) {
         // 将注入的爬取历史服务实例赋值给类成员变量。
         this.crawlHistoryService = crawlHistoryService;
         // 将注入的用户服务实例赋值给类成员变量。
         this.userService = userService;
         // 将注入的新闻爬虫服务实例赋值给类成员变量。
         this.newsCrawlerService = newsCrawlerService;
+        // 将注入的新闻分页查询服务实例赋值给类成员变量。
+        this.newsListingService = newsListingService;
     } // 构造函数结束。
 
     // 将此方法映射到HTTP GET请求的"/history"路径。
     @GetMapping("/history")
-    // 定义获取用户历史记录的API端点。
+    // 标记为已弃用，前端已改用 /history/page。
+    @Deprecated
+    // 定义返回用户最近一页历史记录的API端点，保持原有的响应格式，最多返回分页接口的默认每页数量；更早的历史请使用 /history/page 按游标获取。
     public ResponseEntity<List<CrawlHistory>> getHistory() {
         // 记录收到获取历史记录请求的日志。
         logger.info("收到获取爬取历史记录请求");
@@ -87,6 +97,56 @@ public class HistoryController {
         // 返回200 OK状态以及历史记录列表。
         return ResponseEntity.ok(history);
     } // getHistory方法结束。
+
+    // 将此方法映射到HTTP GET请求的"/history/page"路径。
+    @GetMapping("/history/page")
+    // 定义按(爬取时间, ID)游标分页获取用户历史记录的API端点；include可取url、params，默认不返回这两个TEXT列。
+    public ResponseEntity<HistoryPage> getHistoryPage(@RequestParam(required = false) String cursor,
+                                                      @RequestParam(defaultValue = "" + CrawlHistoryService.DEFAULT_HISTORY_PAGE_SIZE) int size,
+                                                      @RequestParam(required = false) List<String> include) {
+        // 记录收到获取历史记录请求的日志。
+        logger.info("收到分页获取爬取历史记录请求，游标: {}, 每页: {}, 包含: {}", cursor, size, include);
+        
+        // 从Spring Security上下文中获取当前的认证信息。
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        // 检查用户是否已认证。
+        if (authentication == null || !authentication.isAuthenticated() || "anonymousUser".equals(authentication.getPrincipal())) {
+            // 如果未认证，则记录警告日志。
+            logger.warn("未认证用户尝试分页获取爬取历史记录");
+            // 返回401未授权状态。
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(null);
+        } // if条件结束。
+        
+        // 获取已认证用户的用户名。
+        String username = authentication.getName();
+        // 声明一个长整型变量用于存储用户ID。
+        Long userId;
+        // 开始一个try块，用于捕获获取用户信息时可能发生的异常。
+        try {
+            // 调用用户服务根据用户名查找用户实体。
+            User user = userService.findByUsername(username);
+            // 从用户实体中获取用户ID。
+            userId = user.getId();
+            // 记录调试日志，显示用户名和对应的ID。
+            logger.debug("用户 [{}] ID: {}", username, userId);
+        } catch (Exception e) { // 捕获在try块中发生的任何异常。
+            // 记录获取用户ID失败的错误日志。
+            logger.error("获取用户ID失败: {} - {}", username, e.getMessage());
+            // 返回500服务器内部错误状态。
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
+        } // try-catch结束。
+
+        // 判断是否需要返回url列。
+        boolean includeUrl = include != null && include.contains("url");
+        // 判断是否需要返回params列。
+        boolean includeParams = include != null && include.contains("params");
+        // 调用爬取历史服务获取该用户的一页历史记录。
+        HistoryPage page = crawlHistoryService.getUserHistoryPage(userId, cursor, size, includeUrl, includeParams);
+        // 记录成功获取用户历史记录的日志。
+        logger.info("成功获取用户 [{}] 的一页爬取历史记录，共 {} 条，是否还有更多: {}", username, page.getItems().size(), page.isHasMore());
+        // 返回200 OK状态以及分页结果。
+        return ResponseEntity.ok(page);
+    } // getHistoryPage方法结束。
     
     // 将此方法映射到HTTP DELETE请求的"/history/{id}"路径。
     @DeleteMapping("/history/{id}")
@@ -329,4 +389,57 @@ public class HistoryController {
         // 返回200 OK状态以及新闻数据列表。
         return ResponseEntity.ok(newsList);
     } // getNewsByHistoryId方法结束。
+
+    // 将此方法映射到HTTP GET请求的"/history/{historyId}/news/page"路径。
+    @GetMapping("/history/{historyId}/news/page")
+    // 定义分页获取历史记录关联新闻的API端点，按(发布时间, ID)降序排列，只返回fields指定的列表字段。
+    public ResponseEntity<NewsPage> getNewsPageByHistoryId(@PathVariable Long historyId,
+                                                           @RequestParam(required = false) String cursor,
+                                                           @RequestParam(required = false) Integer size,
+                                                           @RequestParam(required = false) String fields) {
+        // 记录收到分页获取关联新闻请求的日志。
+        logger.info("收到分页获取爬取历史关联新闻请求，历史ID: {}, 游标: {}", historyId, cursor);
+        
+        // 从Spring Security上下文中获取当前的认证信息。
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        // 检查用户是否已认证。
+        if (authentication == null || !authentication.isAuthenticated() || "anonymousUser".equals(authentication.getPrincipal())) {
+            // 如果未认证，则记录警告日志。
+            logger.warn("未认证用户尝试分页获取爬取历史关联新闻");
+            // 返回401未授权状态。
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(null);
+        } // if条件结束。
+        
+        // 获取已认证用户的用户名。
+        String username = authentication.getName();
+        // 声明一个长整型变量用于存储用户ID。
+        Long userId;
+        // 开始一个try块，用于捕获获取用户信息时可能发生的异常。
+        try {
+            // 调用用户服务根据用户名查找用户并获取其ID。
+            userId = userService.findByUsername(username).getId();
+        } catch (Exception e) { // 捕获在try块中发生的任何异常。
+            // 记录获取用户ID失败的错误日志。
+            logger.error("获取用户ID失败: {} - {}", username, e.getMessage());
+            // 返回500服务器内部错误状态。
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
+        } // try-catch结束。
+        
+        // 调用服务根据ID查找历史记录，以验证所有权。
+        Optional<CrawlHistory> historyOpt = crawlHistoryService.findById(historyId);
+        // 检查历史记录是否存在，并且其用户ID是否与当前登录用户匹配。
+        if (!historyOpt.isPresent() || !historyOpt.get().getUserId().equals(userId)) {
+            // 如果不匹配，则记录警告日志。
+            logger.warn("用户 [{}] 尝试访问不存在或不属于该用户的历史记录 ID: {}", username, historyId);
+            // 返回403禁止访问状态。
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(null);
+        } // if条件结束。
+        
+        // 按历史记录ID分页查询。
+        NewsPage page = newsListingService.pageByHistoryId(historyId, cursor, size, fields);
+        // 记录成功获取一页新闻的日志。
+        logger.info("成功获取历史记录 ID: {} 的一页关联新闻，共 {} 条，是否还有更多: {}", historyId, page.getItems().size(), page.isHasMore());
+        // 返回200 OK状态以及分页结果。
+        return ResponseEntity.ok(page);
+    } // getNewsPageByHistoryId方法结束。
 } // HistoryController类定义结束。
\ No newline at end of file
@@ -0,0 +1,118 @@
+package com.hhu.javawebcrawler.demo.controller;
+
+import com.hhu.javawebcrawler.demo.controller.base.BaseController;
+import com.hhu.javawebcrawler.demo.exception.CrawlerException;
+import com.hhu.javawebcrawler.demo.service.CrawlHistoryService;
+import com.hhu.javawebcrawler.demo.service.NewsSearchService;
+import com.hhu.javawebcrawler.demo.service.UserService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Map;
+
+// 声明这是一个RESTful风格的控制器。
+@RestController
+// 将此控制器下的所有请求路径映射到"/api/search"下。
+@RequestMapping("/api/search")
+// 定义一个名为 SearchController 的公开类，它继承自 BaseController，提供按相关度排序的新闻全文检索。
+public class SearchController extends BaseController {
+
+    // 声明一个不可变的全文检索服务字段。
+    private final NewsSearchService newsSearchService;
+    // 声明一个不可变的爬取历史服务字段。
+    private final CrawlHistoryService crawlHistoryService;
+    // 声明一个不可变的用户服务字段。
+    private final UserService userService;
+
+    // 定义类的构造函数，通过它注入服务依赖。
+    public SearchController(NewsSearchService newsSearchService, CrawlHistoryService crawlHistoryService, UserService userService) {
+        // 将注入的全文检索服务实例赋值给类成员变量。
+        this.newsSearchService = newsSearchService;
+        // 将注入的爬取历史服务实例赋值给类成员变量。
+        this.crawlHistoryService = crawlHistoryService;
+        // 将注入的用户服务实例赋值给类成员变量。
+        this.userService = userService;
+    } // 构造函数结束。
+
+    // 将此方法映射到HTTP GET请求的根路径。
+    @GetMapping
+    // 定义检索新闻的API端点：q为查询词，source、startTime、endTime和historyId为可选的过滤条件，page从0开始。
+    public ResponseEntity<Map<String, Object>> search(@RequestParam String q,
+                                                      @RequestParam(required = false) String source,
+                                                      @RequestParam(required = false) String startTime,
+                                                      @RequestParam(required = false) String endTime,
+                                                      @RequestParam(required = false) Long historyId,
+                                                      @RequestParam(defaultValue = "0") int page,
+                                                      @RequestParam(defaultValue = "20") int size) {
+        // 调用父类方法，验证当前用户是否已认证。
+        validateAuthentication();
+        // 调用父类方法，验证查询词是否有效（非空）。
+        validateStringParam(q, "查询词");
+        // 调用父类方法，验证每页数量范围。
+        validateNumberInRange(size, 1, 100, "每页数量");
+        // 调用父类方法，验证页码范围，只能翻到可排序的结果窗口之内。
+        validateNumberInRange(page, 0, NewsSearchService.MAX_WINDOW / size, "页码");
+        // 声明时间范围。
+        LocalDateTime start;
+        // 声明结束时间。
+        LocalDateTime end;
+        // 开始一个try块，捕获时间格式错误。
+        try {
+            // 解析开始时间。
+            start = parseTime(startTime);
+            // 解析结束时间。
+            end = parseTime(endTime);
+        } catch (DateTimeParseException e) { // 捕获解析异常。
+            // 抛出参数错误异常。
+            throw CrawlerException.badRequest("时间格式无效，应为yyyy-MM-dd或yyyy-MM-ddTHH:mm:ss");
+        } // try-catch结束。
+        // 指定历史记录时只在其关联的新闻中检索。
+        List<Long> newsIds = historyId == null ? null : historyNewsIds(historyId);
+        // 记录检索请求的日志。
+        logger.info("收到新闻检索请求，查询词: {}, 来源: {}, 历史ID: {}, 页码: {}", q, source, historyId, page);
+        // 执行检索并返回标准的成功响应体。
+        return ResponseEntity.ok(createSuccessResponse(
+                // 调用父类方法，执行检索并统一处理其中可能抛出的异常。
+                executeWithExceptionHandling(() -> newsSearchService.search(q, source == null || source.isBlank() ? null : source,
+                        start, end, newsIds, page, size))));
+    } // search方法结束。
+
+    // 将此方法映射到HTTP GET请求的"/stats"路径。
+    @GetMapping("/stats")
+    // 定义查看检索索引状态的API端点。
+    public ResponseEntity<Map<String, Object>> getStats() {
+        // 调用父类方法，验证当前用户是否已认证。
+        validateAuthentication();
+        // 返回索引统计信息。
+        return ResponseEntity.ok(createSuccessResponse(newsSearchService.getStats()));
+    } // getStats方法结束。
+
+    // 定义一个私有方法，校验历史记录属于当前用户并返回其关联的新闻ID。
+    private List<Long> historyNewsIds(Long historyId) {
+        // 调用父类方法，获取当前登录用户的ID。
+        Long userId = getCurrentUserId(userService);
+        // 只允许访问自己的历史记录，不存在或不属于该用户时抛出“未找到”异常。
+        if (crawlHistoryService.findById(historyId).filter(found -> found.getUserId().equals(userId)).isEmpty()) {
+            // 抛出异常。
+            throw CrawlerException.notFound("历史记录不存在或无权访问");
+        } // if条件结束。
+        // 读取关联表中的新闻ID。
+        return newsSearchService.historyNewsIds(historyId);
+    } // historyNewsIds方法结束。
+
+    // 定义一个私有方法，解析时间参数：只有日期时取当天零点，未提供时返回null。
+    private LocalDateTime parseTime(String value) {
+        // 如果未提供或为空。
+        if (value == null || value.isBlank()) {
+            // 返回null表示不限制。
+            return null;
+        } // if条件结束。
+        // 去除首尾空白。
+        String text = value.trim();
+        // 只有日期时取当天零点，否则按日期时间解析。
+        return text.length() == 10 ? LocalDate.parse(text).atStartOfDay() : LocalDateTime.parse(text);
+    } // parseTime方法结束。
+} // SearchController类定义结束。
@@ -143,8 +143,8 @@ public class SingleCrawlerController extends BaseController {
             // 首先使用原始（可能编码的）URL从数据库查询新闻。
             Optional<NewsData> newsDataOpt = newsCrawlerService.findNewsByUrl(url);
             
-            // 如果使用原始URL未找到新闻。
-            if (!newsDataOpt.isPresent()) {
+            // 如果使用原始URL未找到新闻，且解码后的URL与原始URL不同。
+            if (!newsDataOpt.isPresent() && !decodedUrl.equals(url)) {
                 // 则尝试使用解码后的URL再次查询。
                 newsDataOpt = newsCrawlerService.findNewsByUrl(decodedUrl);
                 // 记录使用解码后URL进行查询的日志。
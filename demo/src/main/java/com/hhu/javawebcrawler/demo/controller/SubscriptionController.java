@@ -0,0 +1,87 @@
+package com.hhu.javawebcrawler.demo.controller;
+
+import com.hhu.javawebcrawler.demo.controller.base.BaseController;
+import com.hhu.javawebcrawler.demo.entity.KeywordSubscription;
+import com.hhu.javawebcrawler.demo.exception.CrawlerException;
+import com.hhu.javawebcrawler.demo.service.KeywordSubscriptionService;
+import com.hhu.javawebcrawler.demo.service.UserService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.util.List;
+import java.util.Map;
+
+// 声明这是一个RESTful风格的控制器。
+@RestController
+// 将此控制器下的所有请求路径映射到"/api/subscriptions"下。
+@RequestMapping("/api/subscriptions")
+// 定义一个名为 SubscriptionController 的公开类，它继承自 BaseController。
+public class SubscriptionController extends BaseController {
+
+    // 声明一个不可变的关键词订阅服务字段。
+    private final KeywordSubscriptionService subscriptionService;
+    // 声明一个不可变的用户服务字段。
+    private final UserService userService;
+
+    // 定义类的构造函数，通过它注入服务依赖。
+    public SubscriptionController(KeywordSubscriptionService subscriptionService, UserService userService) {
+        // 将注入的订阅服务实例赋值给类成员变量。
+        this.subscriptionService = subscriptionService;
+        // 将注入的用户服务实例赋值给类成员变量。
+        this.userService = userService;
+    } // 构造函数结束。
+
+    // 将此方法映射到HTTP GET请求的根路径。
+    @GetMapping
+    // 定义获取当前用户所有订阅的API端点。
+    public ResponseEntity<Map<String, Object>> listSubscriptions() {
+        // 调用父类方法，验证当前用户是否已认证。
+        validateAuthentication();
+        // 调用父类方法，获取当前登录用户的ID。
+        Long userId = getCurrentUserId(userService);
+        // 查询该用户的订阅列表。
+        List<KeywordSubscription> subscriptions = subscriptionService.getUserSubscriptions(userId);
+        // 返回200 OK状态以及标准的成功响应体。
+        return ResponseEntity.ok(createSuccessResponse(subscriptions));
+    } // listSubscriptions方法结束。
+
+    // 将此方法映射到HTTP POST请求的根路径。
+    @PostMapping
+    // 定义创建关键词订阅的API端点。
+    public ResponseEntity<Map<String, Object>> subscribe(@RequestBody Map<String, String> payload) {
+        // 调用父类方法，验证当前用户是否已认证。
+        validateAuthentication();
+        // 从请求体Map中获取"keyword"字段的值。
+        String keyword = payload.get("keyword");
+        // 调用父类方法，验证关键词参数是否有效（非空）。
+        validateStringParam(keyword, "关键词");
+        // 从请求体Map中获取"url"字段的值，未指定时由服务使用默认入口页。
+        String indexUrl = payload.get("url");
+        // 调用父类方法，获取当前登录用户的ID。
+        Long userId = getCurrentUserId(userService);
+        // 记录收到订阅请求的日志。
+        logger.info("收到关键词订阅请求，用户ID: {}, 关键词: {}, 入口页面: {}", userId, keyword, indexUrl);
+        // 创建订阅并返回标准的成功响应体。
+        return ResponseEntity.ok(createSuccessResponse(
+                // 调用父类方法，执行订阅操作并统一处理其中可能抛出的异常。
+                executeWithExceptionHandling(() -> subscriptionService.subscribe(userId, keyword, indexUrl))));
+    } // subscribe方法结束。
+
+    // 将此方法映射到HTTP DELETE请求的"/{id}"路径。
+    @DeleteMapping("/{id}")
+    // 定义取消订阅的API端点。
+    public ResponseEntity<Map<String, Object>> unsubscribe(@PathVariable Long id) {
+        // 调用父类方法，验证当前用户是否已认证。
+        validateAuthentication();
+        // 调用父类方法，获取当前登录用户的ID。
+        Long userId = getCurrentUserId(userService);
+        // 尝试删除属于该用户的订阅。
+        if (!subscriptionService.unsubscribe(id, userId)) {
+            // 如果订阅不存在或不属于该用户，则抛出“未找到”异常。
+            throw CrawlerException.notFound("订阅不存在或无权删除");
+        } // if条件结束。
+        // 记录取消订阅成功的日志。
+        logger.info("用户ID: {} 已取消订阅 ID: {}", userId, id);
+        // 返回标准的成功响应体。
+        return ResponseEntity.ok(createSuccessResponse(Map.of("id", id)));
+    } // unsubscribe方法结束。
+} // SubscriptionController类定义结束。
@@ -0,0 +1,25 @@
+package com.hhu.javawebcrawler.demo.converter;
+
+import com.hhu.javawebcrawler.demo.utils.CompressedText;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+// 声明这是一个JPA属性转换器，用于在CompressedText和数据库的二进制列之间转换。
+@Converter
+// 定义一个名为 CompressedTextConverter 的公开类；读取时只包装压缩字节，真正的解压推迟到第一次读取文本时。
+public class CompressedTextConverter implements AttributeConverter<CompressedText, byte[]> {
+
+    // 将实体属性转换为数据库列的值。
+    @Override
+    public byte[] convertToDatabaseColumn(CompressedText attribute) {
+        // 返回压缩后的字节，null保持为null。
+        return attribute == null ? null : attribute.getBytes();
+    } // convertToDatabaseColumn方法结束。
+
+    // 将数据库列的值转换为实体属性。
+    @Override
+    public CompressedText convertToEntityAttribute(byte[] dbData) {
+        // 包装压缩字节，不立即解压。
+        return CompressedText.fromBytes(dbData);
+    } // convertToEntityAttribute方法结束。
+} // CompressedTextConverter类定义结束。
@@ -7,7 +7,10 @@ import java.time.LocalDateTime;
 
 //爬取历史实体类，映射 t_crawl_history 表
 @Entity // 声明这个类是一个JPA实体，它会映射到数据库中的一个表。
-@Table(name = "t_crawl_history") // 指定该实体映射的数据库表的名称为 "t_crawl_history"。
+@Table(name = "t_crawl_history", indexes = { // 指定该实体映射的数据库表的名称为 "t_crawl_history"，并定义索引。
+    @Index(name = "idx_history_user_time", columnList = "user_id, crawl_time, id, crawl_type, title"), // 历史列表的覆盖索引：按用户和时间分页时，游标条件、排序和列表列都只读索引，不回表读取TEXT列。
+    @Index(name = "idx_history_subscription", columnList = "subscription_id") // 订阅分发时按订阅查找已分发新闻使用的索引。
+}) // @Table 注解的结束括号。
 @Data // Lombok注解，自动为所有字段生成getter、setter等方法。
 public class CrawlHistory { // 定义一个名为 CrawlHistory 的公开类。
 
@@ -31,6 +34,9 @@ public class CrawlHistory { // 定义一个名为 CrawlHistory 的公开类。
     @Column(columnDefinition = "TEXT") // 明确指定数据库列类型为TEXT。
     private String params; // 定义参数字段，用于以文本格式（如JSON）存储复杂的请求参数。
 
+    @Column(name = "subscription_id") // 映射到 "subscription_id" 列，只有订阅分发产生的历史记录才有值。
+    private Long subscriptionId; // 定义产生该历史记录的订阅ID，分发时据此排除已分发给该订阅的新闻。
+
     @Column(name = "crawl_time", nullable = false, updatable = false) // 映射到 "crawl_time" 列，不可为空，并且在更新时此字段的值不会被改变。
     private LocalDateTime crawlTime; // 定义爬取时间字段，类型为Java 8的日期时间对象。
 
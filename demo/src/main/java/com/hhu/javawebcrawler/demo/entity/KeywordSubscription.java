@@ -0,0 +1,41 @@
+package com.hhu.javawebcrawler.demo.entity;
+
+import lombok.Data;
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+
+//关键词订阅实体类，映射 t_keyword_subscription 表
+@Entity // 声明这个类是一个JPA实体，它会映射到数据库中的一个表。
+@Table(name = "t_keyword_subscription", uniqueConstraints = { // 指定映射的表名为 "t_keyword_subscription"，并定义约束。
+    @UniqueConstraint(columnNames = {"user_id", "keyword", "index_url"}) // 同一用户对同一入口页的同一关键词只能订阅一次。
+}, indexes = { // 定义索引。
+    @Index(name = "idx_subscription_index_url", columnList = "index_url") // 按入口页分组调度时使用的索引。
+}) // @Table 注解的结束括号。
+@Data // Lombok注解，自动为所有字段生成getter、setter等方法。
+public class KeywordSubscription { // 定义一个名为 KeywordSubscription 的公开类。
+
+    @Id // 声明这个字段是表的主键。
+    @GeneratedValue(strategy = GenerationType.IDENTITY) // 指定主键的生成策略为自增（由数据库管理）。
+    private Long id; // 定义主键字段，类型为长整型(Long)。
+
+    @Column(name = "user_id", nullable = false) // 将此字段映射到名为 "user_id" 的列，并设置该列为不可为空。
+    private Long userId; // 定义订阅者的用户ID字段。
+
+    @Column(nullable = false, length = 100) // 映射到 "keyword" 列，不可为空，最大长度为100个字符。
+    private String keyword; // 定义订阅的关键词，统一保存为去除首尾空格后的小写形式。
+
+    @Column(name = "index_url", nullable = false, length = 500) // 映射到 "index_url" 列，不可为空，最大长度为500个字符。
+    private String indexUrl; // 定义扫描的入口页URL。
+
+    @Column(name = "created_time", nullable = false, updatable = false) // 映射到 "created_time" 列，不可为空，更新时不改变。
+    private LocalDateTime createdTime; // 定义订阅创建时间。
+
+    @Column(name = "last_run_time") // 映射到 "last_run_time" 列，首次调度前为空。
+    private LocalDateTime lastRunTime; // 定义上一次为该订阅执行分发的时间；是否为新文章按t_news_history中已分发的新闻判断，与此时间无关。
+
+    @PrePersist // JPA注解，表示在实体第一次被持久化（保存）到数据库之前，会执行此方法。
+    protected void onCreate() { // 定义一个受保护的方法，在创建实体时调用。
+        this.createdTime = LocalDateTime.now(); // 将创建时间设置为当前的系统时间。
+    } // onCreate 方法结束。
+} // KeywordSubscription 类定义结束。
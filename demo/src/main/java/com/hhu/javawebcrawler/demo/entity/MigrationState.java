@@ -0,0 +1,24 @@
+package com.hhu.javawebcrawler.demo.entity;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+//迁移状态实体类，映射 t_migration_state 表；保存可续跑的数据迁移的进度和版本号，每个名称一行。
+@Entity // 声明这个类是一个JPA实体，它会映射到数据库中的一个表。
+@Table(name = "t_migration_state") // 指定映射的表名为 "t_migration_state"。
+@Data // Lombok注解，自动为所有字段生成getter、setter等方法。
+@NoArgsConstructor // Lombok注解，生成JPA所需的无参构造函数。
+public class MigrationState { // 定义一个名为 MigrationState 的公开类。
+
+    @Id // 声明这个字段是表的主键。
+    @Column(length = 64) // 映射到数据库列，设置最大长度为64。
+    private String name; // 定义状态名称字段，例如分词器版本或回填进度。
+
+    @Column(name = "state_value", nullable = false) // 映射到 "state_value" 列，不可为空。
+    private Long value; // 定义状态值字段，版本号或新闻ID水位。
+
+    @Column(name = "updated_time") // 映射到 "updated_time" 列。
+    private LocalDateTime updatedTime; // 定义最后更新时间字段。
+} // MigrationState 类定义结束。
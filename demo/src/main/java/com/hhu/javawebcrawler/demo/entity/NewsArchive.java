@@ -0,0 +1,63 @@
+package com.hhu.javawebcrawler.demo.entity;
+
+import com.hhu.javawebcrawler.demo.converter.CompressedTextConverter;
+import com.hhu.javawebcrawler.demo.utils.CompressedText;
+import lombok.Data;
+import lombok.ToString;
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+//冷数据归档实体类，映射 t_news_archive 表；超过保留期的新闻连同压缩正文从热表移到这里，仍可按URL查到；与历史记录的关联沿用原ID保留在 t_news_history 表中。
+@Entity // 声明这个类是一个JPA实体，它会映射到数据库中的一个表。
+@Table(name = "t_news_archive", uniqueConstraints = { // 指定映射的表名为 "t_news_archive"，并定义约束。
+    @UniqueConstraint(name = "uk_news_archive_url_hash", columnNames = {"url_hash"}) // 与热表相同，按64位URL哈希保证唯一并支持按URL查找。
+}) // @Table 注解的结束括号。
+@Data // Lombok注解，自动为所有字段生成getter、setter等方法。
+public class NewsArchive { // 定义一个名为 NewsArchive 的公开类。
+
+    @Id // 声明这个字段是表的主键，沿用新闻在热表中的ID，不再生成。
+    private Long id; // 定义主键字段。
+
+    @Column(length = 768, nullable = false) // 映射到数据库列，设置最大长度为768，且不可为空。
+    private String url; // 定义URL字段。
+
+    @Column(name = "url_hash", nullable = false) // 映射到 "url_hash" 列，不可为空。
+    private Long urlHash; // 定义URL哈希字段，按URL查找时先按此列定位，再比对url确认。
+
+    @Column(length = 255) // 映射到数据库列，设置最大长度为255。
+    private String title; // 定义标题字段。
+
+    @Column(length = 100) // 映射到数据库列，设置最大长度为100。
+    private String source; // 定义来源字段。
+
+    private LocalDateTime publishTime; // 定义发布时间字段。
+
+    @Column(length = 255) // 映射到数据库列，设置最大长度为255。
+    private String keywords; // 定义关键词字段。
+
+    @Column(nullable = false) // 映射到数据库列，不可为空。
+    private LocalDateTime fetchTime; // 定义抓取时间字段。
+
+    @Column(name = "archived_time", nullable = false) // 映射到 "archived_time" 列，不可为空。
+    private LocalDateTime archivedTime; // 定义归档时间字段。
+
+    @Convert(converter = CompressedTextConverter.class) // 使用转换器读取压缩正文，读取时懒解压。
+    @Column(name = "content_z", columnDefinition = "LONGBLOB") // 映射到 "content_z" 列，归档时原样复制热表中的压缩正文。
+    @ToString.Exclude // 生成toString时排除此字段，避免触发解压。
+    private CompressedText content; // 定义压缩的新闻正文字段。
+
+    // 此方法将归档记录转换为新闻实体，供按URL查询时返回；转换结果不受持久化上下文管理，也不会被保存。
+    public NewsData toNewsData() { // 定义一个公开方法，返回带正文的新闻实体。
+        NewsData newsData = new NewsData(); // 创建新的新闻实体。
+        newsData.setId(id); // 复制主键。
+        newsData.setUrl(url); // 复制URL。
+        newsData.setTitle(title); // 复制标题。
+        newsData.setSource(source); // 复制来源。
+        newsData.setPublishTime(publishTime); // 复制发布时间。
+        newsData.setKeywords(keywords); // 复制关键词。
+        newsData.setFetchTime(fetchTime); // 复制抓取时间。
+        newsData.setContent(content == null ? null : content.getText()); // 解压正文。
+        newsData.setArchived(true); // 标记为归档新闻。
+        return newsData; // 返回新闻实体。
+    } // toNewsData 方法结束。
+} // NewsArchive 类定义结束。
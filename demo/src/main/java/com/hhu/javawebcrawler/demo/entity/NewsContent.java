@@ -0,0 +1,52 @@
+package com.hhu.javawebcrawler.demo.entity;
+
+import com.hhu.javawebcrawler.demo.converter.CompressedTextConverter;
+import com.hhu.javawebcrawler.demo.utils.CompressedText;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import jakarta.persistence.*;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+//新闻正文实体类，映射 t_news_content 表；正文与新闻元数据分表存放，列表、去重和按标题分析只读取窄的 t_news_data 行。
+@Entity // 声明这个类是一个JPA实体，它会映射到数据库中的一个表。
+@Table(name = "t_news_content") // 指定映射的表名为 "t_news_content"。
+@Data // Lombok注解，自动为所有字段生成getter、setter等方法。
+@NoArgsConstructor // Lombok注解，生成JPA所需的无参构造函数。
+public class NewsContent { // 定义一个名为 NewsContent 的公开类。
+
+    @Id // 声明这个字段是表的主键。
+    @Column(name = "news_id") // 映射到 "news_id" 列，与所属新闻的主键相同。
+    private Long newsId; // 定义主键字段，由关联的新闻主键派生。
+
+    @MapsId // 声明主键取自下面的一对一关联，保存时自动使用新闻的主键。
+    @OneToOne(fetch = FetchType.LAZY, optional = false) // 定义与新闻的一对一关系，并设置为懒加载。
+    @JoinColumn(name = "news_id") // 指定外键列的名称为 "news_id"。
+    @ToString.Exclude // 生成toString时排除此字段，避免触发懒加载。
+    private NewsData news; // 定义所属的新闻实体。
+
+    @Convert(converter = CompressedTextConverter.class) // 使用转换器以压缩形式存储正文，读取时懒解压。
+    @Column(name = "content_z", columnDefinition = "LONGBLOB") // 映射到 "content_z" 列，存放与MySQL COMPRESS()相同格式的压缩正文。
+    @ToString.Exclude // 生成toString时排除此字段，避免触发解压。
+    private CompressedText content; // 定义新闻正文字段。
+
+    @Convert(converter = CompressedTextConverter.class) // 与正文相同，以压缩形式存储纯文本。
+    @Column(name = "text_z", columnDefinition = "LONGBLOB") // 映射到 "text_z" 列，存放入库时由正文HTML提取的纯文本，正文分析只读取此列。
+    @ToString.Exclude // 生成toString时排除此字段，避免触发解压。
+    private CompressedText plainText; // 定义纯文本正文字段。
+
+    @Column(name = "search_text", columnDefinition = "MEDIUMTEXT") // 映射到 "search_text" 列，不压缩存放标题、关键词和纯文本，列上建有ngram全文索引。
+    @ToString.Exclude // 生成toString时排除此字段。
+    private String searchText; // 定义全文检索文本字段。
+
+    // 定义一个构造函数，为指定新闻创建正文记录。
+    public NewsContent(NewsData news, String content, String plainText) { // 构造函数接收所属新闻、正文HTML和提取后的纯文本。
+        this.news = news; // 设置所属新闻，主键在保存时由其派生。
+        this.content = CompressedText.of(content); // 设置正文内容，写入数据库时才压缩。
+        this.plainText = CompressedText.of(plainText); // 设置纯文本内容，写入数据库时才压缩。
+        this.searchText = Stream.of(news.getTitle(), news.getKeywords(), plainText) // 与迁移回填时的CONCAT_WS一致，跳过空值。
+                .filter(Objects::nonNull).collect(Collectors.joining("\n")); // 以换行分隔，ngram词元不跨越空白。
+    } // 构造函数结束。
+} // NewsContent 类定义结束。
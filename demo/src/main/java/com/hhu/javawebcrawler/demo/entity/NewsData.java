@@ -4,21 +4,31 @@ import lombok.Data;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.hhu.javawebcrawler.demo.utils.UrlHashUtils;
 
 @Entity // 声明这个类是一个JPA实体，将映射到数据库表。
 @Table(name = "t_news_data", uniqueConstraints = { // 指定映射的表名为 "t_news_data"，并定义约束。
-    @UniqueConstraint(columnNames = {"url"}) // 在 "url" 列上添加一个唯一性约束，确保URL不重复。
+    @UniqueConstraint(name = "uk_news_url_hash", columnNames = {"url_hash"}) // 在64位URL哈希列上添加唯一性约束，代替768字符的url唯一索引来保证URL不重复。
+}, indexes = { // 定义索引。
+    @Index(name = "idx_news_fetch_time", columnList = "fetch_time") // 归档任务按抓取时间查找过期新闻时使用的索引。
 }) // @Table 注解的结束括号。
 @Data // Lombok注解，自动生成getter、setter、toString等常用方法。
 public class NewsData { // 定义一个名为 NewsData 的公开类。
 
+    public static final int ID_ALLOCATION_SIZE = 50; // 定义每次从序列表预分配的主键数量，预分配使批量插入可以走JDBC批处理。
+
     @Id // 声明这个字段是表的主键。
-    @GeneratedValue(strategy = GenerationType.IDENTITY) // 指定主键的生成策略为数据库自增。
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "news_data_seq") // 使用序列生成主键（MySQL下由序列表模拟），IDENTITY会使Hibernate无法批量插入。
+    @SequenceGenerator(name = "news_data_seq", sequenceName = "t_news_data_seq", allocationSize = ID_ALLOCATION_SIZE) // 定义序列生成器，采用pooled优化器按块预分配主键。
     private Long id; // 定义主键ID字段，类型为长整型。
 
     @Column(length = 768, nullable = false) // 映射到数据库列，设置最大长度为768，且不可为空。
     private String url; // 定义URL字段，用于存储新闻的链接地址。
 
+    @JsonIgnore // Jackson注解，在将对象序列化为JSON时忽略此字段。
+    @Column(name = "url_hash") // 映射到 "url_hash" 列，由规范化URL计算得到。
+    private Long urlHash; // 定义URL哈希字段，按URL查找时先按此列定位，再比对url确认。
+
     @Column(length = 255) // 映射到数据库列，设置最大长度为255。
     private String title; // 定义标题字段，用于存储新闻的标题。
 
@@ -27,9 +37,14 @@ public class NewsData { // 定义一个名为 NewsData 的公开类。
 
     private LocalDateTime publishTime; // 定义发布时间字段，存储新闻的发布日期和时间。
 
-    @Lob // 表示这是一个大对象（Large Object）字段。
-    @Column(columnDefinition = "LONGTEXT") // 明确指定数据库中此列的类型为LONGTEXT，用于存储非常长的文本。
-    private String content; // 定义内容字段，用于存储新闻的正文。
+    // 正文存放在 t_news_content 表中，列表查询不会读取；只有单条新闻的详情、导出和新抓取时才会填充此字段。
+    @Transient // JPA注解，表示此字段不映射到 t_news_data 表的任何列。
+    private String content; // 定义内容字段，用于在保存和JSON序列化时携带新闻的正文。
+
+    // 正文的纯文本形式在抓取时由正文HTML提取一次，存放在 t_news_content.text_z 列；正文词频和按正文的关键词查询只读取纯文本。
+    @JsonIgnore // Jackson注解，在将对象序列化为JSON时忽略此字段。
+    @Transient // JPA注解，表示此字段不映射到 t_news_data 表的任何列。
+    private String plainText; // 定义纯文本字段，用于在保存和分词时携带提取后的正文文本。
 
     @Column(length = 255) // 映射到数据库列，设置最大长度为255。
     private String keywords; // 定义关键词字段，用于存储新闻的关键词。
@@ -37,21 +52,36 @@ public class NewsData { // 定义一个名为 NewsData 的公开类。
     @Column(nullable = false, updatable = false) // 映射到数据库列，设置不可为空，并且在更新时此字段的值不会被改变。
     private LocalDateTime fetchTime = LocalDateTime.now(); // 定义抓取时间字段，并默认为当前时间。
 
-    @JsonIgnore // Jackson注解，在将对象序列化为JSON时忽略此字段，以防止懒加载异常。
-    @ManyToOne(fetch = FetchType.LAZY) // 定义多对一关系，并设置加载策略为懒加载（LAZY）。
-    //检索相关的爬虫历史记录时，不会立即加载CrawlerHistory对象，只有访问CrawlHistory对象时才会进行加载。
-    @JoinColumn(name = "crawl_history_id") // 指定外键列的名称为 "crawl_history_id"。
-    private CrawlHistory crawlHistory; // 定义关联的爬取历史记录实体对象。
+    // 新闻与爬取历史是多对多关系，关联保存在 t_news_history 表中；此字段只表示本次查询或爬取所在的历史记录，供JSON返回。
+    @Transient // JPA注解，表示此字段不映射到数据库的任何列。
+    private Long crawlHistoryId; // 定义一个临时字段，用于在JSON中传递当前上下文的历史记录ID。
 
-    // 添加此字段是为了在JSON序列化时保留历史记录的ID。
+    // 按URL查到的新闻可能来自冷数据归档表，归档新闻的内容只读，但仍可按原ID关联到新的历史记录。
     @Transient // JPA注解，表示此字段不映射到数据库的任何列。
-    private Long crawlHistoryId; // 定义一个临时字段，用于在JSON中传递 crawlHistory 的ID。
-
-    // 此方法在获取实体后设置crawlHistoryId。
-    @PostLoad // JPA生命周期回调注解，在实体从数据库加载后执行此方法。
-    private void onLoad() { // 定义一个私有方法，在加载实体后被调用。
-        if (crawlHistory != null) { // 检查关联的 crawlHistory 对象是否存在。
-            this.crawlHistoryId = crawlHistory.getId(); // 如果存在，则将其ID赋值给临时的 crawlHistoryId 字段。
-        } // if语句结束。
-    } // onLoad 方法结束。
+    private boolean archived; // 定义一个临时字段，标记该新闻是否来自归档表。
+
+    // 此方法在保存或更新实体前根据URL计算哈希值。
+    @PrePersist // JPA生命周期回调注解，在实体首次保存前执行此方法。
+    @PreUpdate // JPA生命周期回调注解，在实体更新前执行此方法。
+    private void computeUrlHash() { // 定义一个私有方法，在保存实体前被调用。
+        this.urlHash = url == null ? null : UrlHashUtils.hash(url); // 根据规范化URL计算64位哈希值。
+    } // computeUrlHash 方法结束。
+
+    // 此方法复制一份新闻并设置所在的历史记录ID；传入的实例可能由持久化上下文管理，不能为一次请求的返回值直接修改。
+    public NewsData withHistoryId(Long historyId) { // 定义一个公开方法，返回设置了历史记录ID的副本。
+        NewsData copy = new NewsData(); // 创建新的新闻实体。
+        copy.setId(id); // 复制主键。
+        copy.setUrl(url); // 复制URL。
+        copy.setUrlHash(urlHash); // 复制URL哈希。
+        copy.setTitle(title); // 复制标题。
+        copy.setSource(source); // 复制来源。
+        copy.setPublishTime(publishTime); // 复制发布时间。
+        copy.setContent(content); // 复制正文。
+        copy.setPlainText(plainText); // 复制纯文本正文。
+        copy.setKeywords(keywords); // 复制关键词。
+        copy.setFetchTime(fetchTime); // 复制抓取时间。
+        copy.setArchived(archived); // 复制归档标记。
+        copy.setCrawlHistoryId(historyId); // 设置所在的历史记录ID。
+        return copy; // 返回副本。
+    } // withHistoryId 方法结束。
 } // NewsData 类定义结束。
\ No newline at end of file
@@ -0,0 +1,47 @@
+package com.hhu.javawebcrawler.demo.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+//新闻与爬取历史的关联实体类，映射 t_news_history 表；一篇新闻可以属于多次爬取，重复爬取到的已有新闻也会出现在新的历史记录中。
+//新闻归档时沿用原ID且保留关联，news_id 可能指向 t_news_data 或 t_news_archive，因此不建到新闻表的外键。
+@Entity // 声明这个类是一个JPA实体，它会映射到数据库中的一个表。
+@Table(name = "t_news_history", indexes = { // 指定映射的表名为 "t_news_history"，并定义索引。
+    @Index(name = "idx_news_history_news", columnList = "news_id") // 按新闻查找关联时使用的索引，订阅分发按此排除已分发的新闻。
+}) // @Table 注解的结束括号。
+@IdClass(NewsHistory.Key.class) // 使用(history_id, news_id)复合主键，按历史记录查找新闻时直接走主键。
+@Data // Lombok注解，自动为所有字段生成getter、setter等方法。
+@NoArgsConstructor // Lombok注解，生成JPA所需的无参构造函数。
+public class NewsHistory { // 定义一个名为 NewsHistory 的公开类。
+
+    @Id // 声明这个字段是复合主键的一部分。
+    @Column(name = "history_id") // 映射到 "history_id" 列。
+    private Long historyId; // 定义爬取历史ID字段。
+
+    @Id // 声明这个字段是复合主键的一部分。
+    @Column(name = "news_id") // 映射到 "news_id" 列。
+    private Long newsId; // 定义新闻ID字段。
+
+    @ManyToOne(fetch = FetchType.LAZY) // 定义与爬取历史的多对一关系，只用于生成外键，不通过它写入。
+    @JoinColumn(name = "history_id", insertable = false, updatable = false) // 复用 "history_id" 列作为外键。
+    @ToString.Exclude // 生成toString时排除此字段，避免触发懒加载。
+    private CrawlHistory history; // 定义关联的爬取历史实体。
+
+    @Column(name = "linked_time", nullable = false) // 映射到 "linked_time" 列，不可为空。
+    private LocalDateTime linkedTime = LocalDateTime.now(); // 定义关联时间字段，默认为当前时间。
+
+    // 定义复合主键类。
+    @Data // Lombok注解，生成equals和hashCode，复合主键必须实现。
+    @NoArgsConstructor // Lombok注解，生成无参构造函数。
+    @AllArgsConstructor // Lombok注解，生成包含全部字段的构造函数。
+    public static class Key implements Serializable { // 定义一个可序列化的静态内部类。
+        private static final long serialVersionUID = 1L; // 序列化版本号。
+        private Long historyId; // 爬取历史ID。
+        private Long newsId; // 新闻ID。
+    } // Key 类定义结束。
+} // NewsHistory 类定义结束。
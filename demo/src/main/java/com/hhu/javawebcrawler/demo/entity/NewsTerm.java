@@ -0,0 +1,46 @@
+package com.hhu.javawebcrawler.demo.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.time.LocalDate;
+
+//新闻词频实体类，映射 t_news_term 表；入库时对每篇新闻分词一次并保存，关联到新的历史记录时直接按此表累加词频，不必重新分词或解压正文。
+@Entity // 声明这个类是一个JPA实体，它会映射到数据库中的一个表。
+@Table(name = "t_news_term") // 指定映射的表名为 "t_news_term"。
+@IdClass(NewsTerm.Key.class) // 使用(news_id, source, term)复合主键，按新闻读取或删除词频时直接走主键。
+@Data // Lombok注解，自动为所有字段生成getter、setter等方法。
+@NoArgsConstructor // Lombok注解，生成JPA所需的无参构造函数。
+public class NewsTerm { // 定义一个名为 NewsTerm 的公开类。
+
+    @Id // 声明这个字段是复合主键的一部分。
+    @Column(name = "news_id") // 映射到 "news_id" 列，不建外键，与新闻一起写入和删除。
+    private Long newsId; // 定义新闻ID字段。
+
+    @Id // 声明这个字段是复合主键的一部分。
+    @Column(length = 10) // 映射到数据库列，设置最大长度为10。
+    private String source; // 定义词语来源字段，取值为 title、content 或 keywords。
+
+    @Id // 声明这个字段是复合主键的一部分。
+    @Column(length = 64) // 映射到数据库列，设置最大长度为64。
+    private String term; // 定义词语字段。
+
+    @Column(name = "stat_day", nullable = false) // 映射到 "stat_day" 列，不可为空。
+    private LocalDate statDay; // 定义统计日期字段，即新闻的抓取日期。
+
+    @Column(nullable = false) // 映射到数据库列，不可为空。
+    private Integer freq; // 定义词语在该新闻该来源中出现的次数。
+
+    // 定义复合主键类。
+    @Data // Lombok注解，生成equals和hashCode，复合主键必须实现。
+    @NoArgsConstructor // Lombok注解，生成无参构造函数。
+    @AllArgsConstructor // Lombok注解，生成包含全部字段的构造函数。
+    public static class Key implements Serializable { // 定义一个可序列化的静态内部类。
+        private static final long serialVersionUID = 1L; // 序列化版本号。
+        private Long newsId; // 新闻ID。
+        private String source; // 词语来源。
+        private String term; // 词语。
+    } // Key 类定义结束。
+} // NewsTerm 类定义结束。
@@ -0,0 +1,45 @@
+package com.hhu.javawebcrawler.demo.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+//词语小时桶实体类，映射 t_term_hour 表；按(历史记录, 词语, 小时)累计包含该词语的新闻数，关键词趋势按桶求和，不再用LIKE扫描正文。
+@Entity // 声明这个类是一个JPA实体，它会映射到数据库中的一个表。
+@Table(name = "t_term_hour", indexes = { // 指定映射的表名为 "t_term_hour"，并定义索引。
+    @Index(name = "idx_term_hour_scope", columnList = "history_id, term, bucket_hour, docs") // 覆盖索引：按历史记录和词语读取一段时间内的桶，无需回表。
+}) // @Table 注解的结束括号。
+@IdClass(TermHour.Key.class) // 使用(history_id, term, bucket_hour)复合主键，入库时按主键累加。
+@Data // Lombok注解，自动为所有字段生成getter、setter等方法。
+@NoArgsConstructor // Lombok注解，生成JPA所需的无参构造函数。
+public class TermHour { // 定义一个名为 TermHour 的公开类。
+
+    @Id // 声明这个字段是复合主键的一部分。
+    @Column(name = "history_id") // 映射到 "history_id" 列，全局统计为0，与 t_term_stat 一致。
+    private Long historyId; // 定义爬取历史ID字段。
+
+    @Id // 声明这个字段是复合主键的一部分。
+    @Column(length = 64) // 映射到数据库列，设置最大长度为64。
+    private String term; // 定义词语字段。
+
+    @Id // 声明这个字段是复合主键的一部分。
+    @Column(name = "bucket_hour") // 映射到 "bucket_hour" 列。
+    private LocalDateTime bucketHour; // 定义小时桶字段，即新闻发布时间（缺失时为抓取时间）截断到整点。
+
+    @Column(nullable = false) // 映射到数据库列，不可为空。
+    private Long docs; // 定义该小时内包含此词语的新闻数量字段。
+
+    // 定义复合主键类。
+    @Data // Lombok注解，生成equals和hashCode，复合主键必须实现。
+    @NoArgsConstructor // Lombok注解，生成无参构造函数。
+    @AllArgsConstructor // Lombok注解，生成包含全部字段的构造函数。
+    public static class Key implements Serializable { // 定义一个可序列化的静态内部类。
+        private static final long serialVersionUID = 1L; // 序列化版本号。
+        private Long historyId; // 爬取历史ID。
+        private String term; // 词语。
+        private LocalDateTime bucketHour; // 小时桶。
+    } // Key 类定义结束。
+} // TermHour 类定义结束。
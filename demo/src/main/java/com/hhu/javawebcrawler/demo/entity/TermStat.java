@@ -0,0 +1,52 @@
+package com.hhu.javawebcrawler.demo.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.time.LocalDate;
+
+//词频聚合实体类，映射 t_term_stat 表；按(历史记录, 来源, 词语, 日期)累计词频，词云和热词直接读取此表，不再扫描新闻全文。
+@Entity // 声明这个类是一个JPA实体，它会映射到数据库中的一个表。
+@Table(name = "t_term_stat", indexes = { // 指定映射的表名为 "t_term_stat"，并定义索引。
+    @Index(name = "idx_term_stat_scope", columnList = "history_id, source, term, stat_day, freq") // 覆盖索引：按历史记录和来源取词频时按词语顺序读取，分组时无需临时表。
+}) // @Table 注解的结束括号。
+@IdClass(TermStat.Key.class) // 使用(history_id, source, term, stat_day)复合主键，入库时按主键累加。
+@Data // Lombok注解，自动为所有字段生成getter、setter等方法。
+@NoArgsConstructor // Lombok注解，生成JPA所需的无参构造函数。
+public class TermStat { // 定义一个名为 TermStat 的公开类。
+
+    public static final long ALL_HISTORIES = 0L; // 定义全局统计使用的历史记录ID，所有入库新闻都计入此范围。
+
+    @Id // 声明这个字段是复合主键的一部分。
+    @Column(name = "history_id") // 映射到 "history_id" 列，不建外键，删除历史记录时一并删除其统计。
+    private Long historyId; // 定义爬取历史ID字段，全局统计为0。
+
+    @Id // 声明这个字段是复合主键的一部分。
+    @Column(length = 10) // 映射到数据库列，设置最大长度为10。
+    private String source; // 定义词语来源字段，取值为 title、content 或 keywords。
+
+    @Id // 声明这个字段是复合主键的一部分。
+    @Column(length = 64) // 映射到数据库列，设置最大长度为64。
+    private String term; // 定义词语字段。
+
+    @Id // 声明这个字段是复合主键的一部分。
+    @Column(name = "stat_day") // 映射到 "stat_day" 列。
+    private LocalDate statDay; // 定义统计日期字段，即新闻的抓取日期。
+
+    @Column(nullable = false) // 映射到数据库列，不可为空。
+    private Long freq; // 定义累计词频字段。
+
+    // 定义复合主键类。
+    @Data // Lombok注解，生成equals和hashCode，复合主键必须实现。
+    @NoArgsConstructor // Lombok注解，生成无参构造函数。
+    @AllArgsConstructor // Lombok注解，生成包含全部字段的构造函数。
+    public static class Key implements Serializable { // 定义一个可序列化的静态内部类。
+        private static final long serialVersionUID = 1L; // 序列化版本号。
+        private Long historyId; // 爬取历史ID。
+        private String source; // 词语来源。
+        private String term; // 词语。
+        private LocalDate statDay; // 统计日期。
+    } // Key 类定义结束。
+} // TermStat 类定义结束。
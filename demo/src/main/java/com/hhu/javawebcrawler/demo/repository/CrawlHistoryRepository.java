@@ -1,25 +1,60 @@
 package com.hhu.javawebcrawler.demo.repository;
 
+import com.hhu.javawebcrawler.demo.DTO.CrawlHistorySummary;
+import com.hhu.javawebcrawler.demo.DTO.CrawlHistoryTextView;
 import com.hhu.javawebcrawler.demo.entity.CrawlHistory;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository // 声明这是一个Spring的仓库（Repository）组件，用于数据访问。
 public interface CrawlHistoryRepository extends JpaRepository<CrawlHistory, Long> { 
     // 定义一个接口，继承自JpaRepository，提供对CrawlHistory实体的基本CRUD操作。
     //Spring Data JPA 框架会在运行时根据在接口中定义的方法名称来自动生成实际的 SQL 查询语句和方法实现
-    // 根据用户ID查询爬取历史，并按爬取时间（CrawlTime）降序（Desc）排列。
-    List<CrawlHistory> findByUserIdOrderByCrawlTimeDesc(Long userId);
+    // 根据用户ID查询爬取历史，按爬取时间（CrawlTime）和ID降序（Desc）排列，最多返回limit条。
+    List<CrawlHistory> findByUserIdOrderByCrawlTimeDescIdDesc(Long userId, Limit limit);
 
-    // 根据用户ID（UserId）查询所有相关的爬取历史记录。
-    List<CrawlHistory> findByUserId(Long userId);
+    // 查询用户历史列表的第一页，只选择覆盖索引中的窄列。
+    @Query("SELECT new com.hhu.javawebcrawler.demo.DTO.CrawlHistorySummary(h.id, h.crawlType, h.title, h.crawlTime) "
+            + "FROM CrawlHistory h WHERE h.userId = :userId ORDER BY h.crawlTime DESC, h.id DESC")
+    // 定义方法，返回按(爬取时间, ID)降序排列的前limit条历史摘要。
+    List<CrawlHistorySummary> findSummaries(@Param("userId") Long userId, Limit limit);
 
-    // 根据用户ID（UserId）和主键ID列表（IdIn）查询匹配的爬取历史记录。
-    List<CrawlHistory> findByUserIdAndIdIn(Long userId, List<Long> ids);
+    // 查询排在游标(爬取时间, ID)之后的一页历史摘要。
+    @Query("SELECT new com.hhu.javawebcrawler.demo.DTO.CrawlHistorySummary(h.id, h.crawlType, h.title, h.crawlTime) "
+            + "FROM CrawlHistory h WHERE h.userId = :userId "
+            + "AND (h.crawlTime < :cursorTime OR (h.crawlTime = :cursorTime AND h.id < :cursorId)) "
+            + "ORDER BY h.crawlTime DESC, h.id DESC")
+    // 定义方法，返回游标之后的limit条历史摘要。
+    List<CrawlHistorySummary> findSummariesBefore(@Param("userId") Long userId, @Param("cursorTime") LocalDateTime cursorTime,
+                                                  @Param("cursorId") Long cursorId, Limit limit);
 
-    @Transactional // 声明此方法需要在一个事务中执行，以确保数据操作的原子性。
-    // 根据用户ID（UserId）删除所有相关的爬取历史记录。
-    void deleteByUserId(Long userId);
+    // 按ID批量查询历史记录的TEXT列，只在列表请求包含url或params时调用。
+    @Query("SELECT h.id AS id, h.url AS url, h.params AS params FROM CrawlHistory h WHERE h.id IN :ids")
+    // 定义方法，返回指定历史记录的url和params。
+    List<CrawlHistoryTextView> findTextColumnsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // 按主键顺序查询用户的一块历史记录ID，只读主键列，不加载实体；删除后再次调用即得到下一块。
+    @Query("SELECT h.id FROM CrawlHistory h WHERE h.userId = :userId ORDER BY h.id")
+    // 定义方法，返回最多limit个历史记录ID。
+    List<Long> findIdsByUserId(@Param("userId") Long userId, Limit limit);
+
+    // 从给定ID中筛选出属于指定用户的历史记录ID，只读主键列。
+    @Query("SELECT h.id FROM CrawlHistory h WHERE h.userId = :userId AND h.id IN :ids")
+    // 定义方法，返回属于该用户的历史记录ID。
+    List<Long> findIdsByUserIdAndIdIn(@Param("userId") Long userId, @Param("ids") Collection<Long> ids);
+
+    @Modifying // 声明这是一个修改数据的查询。
+    @Transactional // 声明此方法需要在一个事务中执行。
+    // 用一条DELETE语句删除属于指定用户且ID在给定集合中的历史记录。
+    @Query("DELETE FROM CrawlHistory h WHERE h.userId = :userId AND h.id IN :ids")
+    // 定义方法，返回实际删除的记录数量。
+    int deleteByUserIdAndIdIn(@Param("userId") Long userId, @Param("ids") Collection<Long> ids);
 } // CrawlHistoryRepository 接口定义结束。
\ No newline at end of file
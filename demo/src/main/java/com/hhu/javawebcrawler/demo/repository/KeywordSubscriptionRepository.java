@@ -0,0 +1,21 @@
+package com.hhu.javawebcrawler.demo.repository;
+
+import com.hhu.javawebcrawler.demo.entity.KeywordSubscription;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+import java.util.Optional;
+
+@Repository // 声明这是一个Spring的仓库（Repository）组件，用于数据访问。
+public interface KeywordSubscriptionRepository extends JpaRepository<KeywordSubscription, Long> {
+    // 定义一个接口，继承自JpaRepository，提供对KeywordSubscription实体的基本CRUD操作。
+
+    // 根据用户ID查询其所有订阅，并按创建时间降序排列。
+    List<KeywordSubscription> findByUserIdOrderByCreatedTimeDesc(Long userId);
+
+    // 根据用户ID、关键词和入口页查询订阅，用于防止重复订阅。
+    Optional<KeywordSubscription> findByUserIdAndKeywordAndIndexUrl(Long userId, String keyword, String indexUrl);
+
+    // 根据主键ID和用户ID查询订阅，用于校验订阅归属。
+    Optional<KeywordSubscription> findByIdAndUserId(Long id, Long userId);
+} // KeywordSubscriptionRepository 接口定义结束。
@@ -0,0 +1,42 @@
+package com.hhu.javawebcrawler.demo.repository;
+
+import com.hhu.javawebcrawler.demo.DTO.ArchivedNewsView;
+import com.hhu.javawebcrawler.demo.DTO.NewsSummaryView;
+import com.hhu.javawebcrawler.demo.entity.NewsArchive;
+import com.hhu.javawebcrawler.demo.utils.UrlHashUtils;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository // 声明这是一个Spring的仓库（Repository）组件，用于数据访问。
+public interface NewsArchiveRepository extends JpaRepository<NewsArchive, Long> {
+    // 定义一个接口，继承自JpaRepository，提供对NewsArchive实体的基本CRUD操作。
+
+    // 用于通过URL查找归档新闻：url_hash按规范化URL计算且唯一，先按哈希定位，再比对规范化URL排除哈希碰撞；原始写法不同的同一URL也能查到。
+    default Optional<NewsArchive> findByUrl(String url) {
+        // 规范化待查URL。
+        String normalized = UrlHashUtils.normalize(url);
+        // 按哈希查询后比对规范化URL。
+        return findByUrlHash(UrlHashUtils.hash(normalized)).filter(found -> UrlHashUtils.normalize(found.getUrl()).equals(normalized));
+    } // findByUrl 方法结束。
+
+    // 按URL哈希查找归档新闻，唯一约束保证最多一条。
+    Optional<NewsArchive> findByUrlHash(Long urlHash);
+
+    // 用于批量爬取时一次性查出已归档的新闻，只查询摘要列；调用方需再比对规范化URL排除哈希碰撞。
+    @Query("SELECT a.id AS id, a.url AS url, a.title AS title, a.publishTime AS publishTime, a.fetchTime AS fetchTime "
+            + "FROM NewsArchive a WHERE a.urlHash IN :hashes")
+    // 定义方法，根据URL哈希集合批量查询归档新闻摘要。
+    List<NewsSummaryView> findSummariesByUrlHashIn(@Param("hashes") Collection<Long> hashes);
+
+    // 用于查找关联到特定爬取历史的归档新闻，只查询元数据列，不读取压缩正文；归档新闻与历史的关联与热表新闻一样保存在 t_news_history 表中。
+    @Query("SELECT a.id AS id, a.url AS url, a.title AS title, a.source AS source, a.publishTime AS publishTime, "
+            + "a.keywords AS keywords, a.fetchTime AS fetchTime "
+            + "FROM NewsArchive a WHERE a.id IN (SELECT l.newsId FROM NewsHistory l WHERE l.historyId = :historyId)")
+    // 定义方法，通过爬取历史ID查找归档新闻的元数据。
+    List<ArchivedNewsView> findViewsByHistoryId(@Param("historyId") Long historyId);
+} // NewsArchiveRepository 接口定义结束。
@@ -0,0 +1,19 @@
+package com.hhu.javawebcrawler.demo.repository;
+
+import com.hhu.javawebcrawler.demo.entity.NewsContent;
+import com.hhu.javawebcrawler.demo.utils.CompressedText;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository // 声明这是一个Spring的仓库（Repository）组件，用于数据访问。
+public interface NewsContentRepository extends JpaRepository<NewsContent, Long> {
+    // 定义一个接口，继承自JpaRepository，提供对NewsContent实体的基本CRUD操作，主键即新闻ID。
+
+    // 只查询正文列，按需为单条新闻加载压缩的正文。
+    @Query("SELECT c.content FROM NewsContent c WHERE c.newsId = :newsId")
+    // 定义方法，根据新闻ID查询正文，调用方读取文本时才解压。
+    Optional<CompressedText> findContentByNewsId(@Param("newsId") Long newsId);
+} // NewsContentRepository 接口定义结束。
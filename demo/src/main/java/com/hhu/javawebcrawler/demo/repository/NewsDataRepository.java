@@ -1,6 +1,9 @@
 package com.hhu.javawebcrawler.demo.repository;
 
+import com.hhu.javawebcrawler.demo.DTO.NewsSummaryView;
 import com.hhu.javawebcrawler.demo.entity.NewsData;
+import com.hhu.javawebcrawler.demo.utils.UrlHashUtils;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -10,12 +13,32 @@ import org.springframework.data.repository.query.Param;
 public interface NewsDataRepository extends JpaRepository<NewsData, Long> { 
     //定义新闻数据仓库接口，继承JpaRepository以管理NewsData实体，其主键类型为Long。
     
-    // 用于通过URL查找新闻，以实现数据去重，数据重复则覆盖原有记录。
-    Optional<NewsData> findByUrl(String url); 
+    // 用于通过URL查找新闻：url_hash按规范化URL计算且唯一，先按哈希定位，再比对规范化URL排除哈希碰撞；原始写法不同的同一URL也能查到。
+    default Optional<NewsData> findByUrl(String url) {
+        // 规范化待查URL。
+        String normalized = UrlHashUtils.normalize(url);
+        // 按哈希查询后比对规范化URL。
+        return findByUrlHash(UrlHashUtils.hash(normalized)).filter(found -> UrlHashUtils.normalize(found.getUrl()).equals(normalized));
+    } // findByUrl 方法结束。
+
+    // 按URL哈希查找新闻，唯一约束保证最多一条。
+    Optional<NewsData> findByUrlHash(Long urlHash);
     
     // 用于查找与特定爬取历史相关联的新闻数据。
-    @Query("SELECT n FROM NewsData n WHERE n.crawlHistory.id = :historyId") 
-    // 使用自定义JPQL查询，查询实体对象及其属性，避免歧义，根据crawlHistory的ID来查找NewsData实体。
+    @Query("SELECT n FROM NewsData n WHERE n.id IN (SELECT l.newsId FROM NewsHistory l WHERE l.historyId = :historyId)")
+    // 使用自定义JPQL查询，通过 t_news_history 关联表查找属于该历史记录的NewsData实体。
     List<NewsData> findByCrawlHistoryId(@Param("historyId") Long historyId);
      // 定义方法，通过爬取历史ID查找新闻列表，并使用@Param注解将方法参数绑定到JPQL查询中的命名参数。
+
+    // 用于批量爬取前一次性查出已存在的新闻，只查询摘要列，不加载正文；调用方需再比对规范化URL排除哈希碰撞。
+    @Query("SELECT n.id AS id, n.url AS url, n.title AS title, n.publishTime AS publishTime, n.fetchTime AS fetchTime "
+            + "FROM NewsData n WHERE n.urlHash IN :hashes")
+    // 定义方法，根据URL哈希集合批量查询新闻摘要。
+    List<NewsSummaryView> findSummariesByUrlHashIn(@Param("hashes") Collection<Long> hashes);
+
+    // 用于批量写入失败后逐条重试时判断URL是否已被其他任务写入，与唯一约束一样按规范化URL判断。
+    default boolean existsByUrl(String url) {
+        // 按哈希和规范化URL判断是否存在。
+        return findByUrl(url).isPresent();
+    } // existsByUrl 方法结束。
 } // NewsDataRepository 接口定义结束。
\ No newline at end of file
@@ -0,0 +1,45 @@
+package com.hhu.javawebcrawler.demo.repository;
+
+import com.hhu.javawebcrawler.demo.entity.NewsHistory;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository // 声明这是一个Spring的仓库（Repository）组件，用于数据访问。
+public interface NewsHistoryRepository extends JpaRepository<NewsHistory, NewsHistory.Key> {
+    // 定义一个接口，继承自JpaRepository，提供对新闻与历史关联的基本操作。
+
+    @Modifying(flushAutomatically = true) // 声明这是一个修改数据的查询，执行前先刷新同一事务中待插入的新闻。
+    @Transactional // 声明此方法需要在一个事务中执行。
+    // 用一条INSERT语句把一批新闻关联到指定的历史记录，热表和归档表中的新闻都可以关联；已存在的关联被忽略，两张表中都不存在的新闻ID不会写入。
+    @Query(value = "INSERT IGNORE INTO t_news_history (history_id, news_id, linked_time) "
+            + "SELECT :historyId, n.id, NOW() FROM t_news_data n WHERE n.id IN (:newsIds) "
+            + "UNION ALL SELECT :historyId, a.id, NOW() FROM t_news_archive a WHERE a.id IN (:newsIds)", nativeQuery = true)
+    // 定义方法，返回新写入的关联数量。
+    int linkAll(@Param("historyId") Long historyId, @Param("newsIds") Collection<Long> newsIds);
+
+    // 从给定的新闻ID中查出已关联到指定历史记录的ID，只读主键列。
+    @Query("SELECT l.newsId FROM NewsHistory l WHERE l.historyId = :historyId AND l.newsId IN :newsIds")
+    // 定义方法，返回已关联的新闻ID。
+    List<Long> findLinkedNewsIds(@Param("historyId") Long historyId, @Param("newsIds") Collection<Long> newsIds);
+
+    // 从给定的新闻ID中查出热表或归档表中存在、且尚未关联到该订阅任何一条历史记录的ID；归档前已分发的新闻保留关联，不会重发。
+    @Query(value = "SELECT n.id FROM (SELECT id FROM t_news_data WHERE id IN (:newsIds) "
+            + "UNION ALL SELECT id FROM t_news_archive WHERE id IN (:newsIds)) n WHERE NOT EXISTS ("
+            + "SELECT 1 FROM t_news_history l JOIN t_crawl_history h ON h.id = l.history_id "
+            + "WHERE l.news_id = n.id AND h.subscription_id = :subscriptionId)", nativeQuery = true)
+    // 定义方法，返回尚未分发的新闻ID。
+    List<Long> findUndeliveredNewsIds(@Param("subscriptionId") Long subscriptionId, @Param("newsIds") Collection<Long> newsIds);
+
+    @Modifying // 声明这是一个修改数据的查询。
+    @Transactional // 声明此方法需要在一个事务中执行。
+    // 删除历史记录前移除它们的新闻关联；每次最多删除limit行，调用方循环执行直到不足limit，避免一次锁住大量行。
+    @Query(value = "DELETE FROM t_news_history WHERE history_id IN (:historyIds) LIMIT :limit", nativeQuery = true)
+    // 定义方法，返回本次删除的关联数量。
+    int deleteByHistoryIdIn(@Param("historyIds") Collection<Long> historyIds, @Param("limit") int limit);
+} // NewsHistoryRepository 接口定义结束。
@@ -0,0 +1,139 @@
+package com.hhu.javawebcrawler.demo.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.hhu.javawebcrawler.demo.config.DataSourceRouting;
+import com.hhu.javawebcrawler.demo.entity.TermStat;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// 声明这是一个Spring的服务层组件。
+@Service
+// 使用Lombok为该类自动生成一个SLF4J的logger实例，变量名为log。
+@Slf4j
+// 定义一个名为 AnalysisResultCache 的公开类，缓存词云、热词、趋势和来源分布的计算结果，新闻变化的事务提交后按范围失效。
+public class AnalysisResultCache {
+
+    // 定义全局语料的范围键，与词频聚合表中表示全部历史记录的ID一致。
+    private static final long CORPUS_SCOPE = TermStat.ALL_HISTORIES;
+
+    // 声明以(接口, 范围, 参数)为键的结果缓存。
+    private final Cache<Key, Entry> results;
+    // 声明每个范围的数据版本号，新闻变化时递增；结果只在计算前后版本号一致时有效。
+    private final Map<Long, AtomicLong> generations = new ConcurrentHashMap<>();
+    // 声明所有范围共用的版本号，归档等影响所有范围的变化时递增。
+    private final AtomicLong epoch = new AtomicLong();
+
+    // 声明命中计数器。
+    private final AtomicLong hitCount = new AtomicLong();
+    // 声明未命中（重新计算）计数器。
+    private final AtomicLong missCount = new AtomicLong();
+    // 声明失效事件计数器。
+    private final AtomicLong invalidationCount = new AtomicLong();
+
+    // 定义类的构造函数，从配置中读取容量和有效期。
+    public AnalysisResultCache(@Value("${crawler.analysis-cache.max-size:2000}") long maxSize,
+                               @Value("${crawler.analysis-cache.ttl-seconds:3600}") long ttlSeconds) {
+        // 创建按数量限制、写入后过期的结果缓存；失效由事件驱动，有效期只是兜底。
+        this.results = Caffeine.newBuilder()
+                // 最多保留的结果数量。
+                .maximumSize(Math.max(1, maxSize))
+                // 写入后超过有效期即过期。
+                .expireAfterWrite(Duration.ofSeconds(Math.max(1, ttlSeconds)))
+                // 记录淘汰统计。
+                .recordStats()
+                // 构建缓存。
+                .build();
+    } // 构造函数结束。
+
+    // 定义读取分析结果的方法：endpoint为接口名，historyId为null时表示全局范围，params为影响结果的其他参数，未命中时调用loader计算。
+    @SuppressWarnings("unchecked")
+    public <T> T get(String endpoint, Long historyId, List<?> params, Supplier<T> loader) {
+        // 计算范围键。
+        long scope = historyId == null ? CORPUS_SCOPE : historyId;
+        // 构建缓存键。
+        Key key = new Key(endpoint, scope, params);
+        // 在计算之前读取版本号，计算期间发生的变化会使本次结果在下次读取时被视为过期。
+        long currentEpoch = epoch.get();
+        // 读取该范围的版本号。
+        long currentGeneration = generation(scope).get();
+        // 查找缓存的结果。
+        Entry entry = results.getIfPresent(key);
+        // 如果结果存在且版本号一致。
+        if (entry != null && entry.epoch() == currentEpoch && entry.generation() == currentGeneration) {
+            // 累加命中次数。
+            hitCount.incrementAndGet();
+            // 返回缓存的结果。
+            return (T) entry.value();
+        } // if条件结束。
+        // 累加未命中次数。
+        missCount.incrementAndGet();
+        // 在主库上重新计算结果：失效事件在主库提交后发出，副本可能尚未同步，从副本读到的旧数据会以新版本号缓存到过期为止。
+        // 异常直接抛给调用方，不缓存失败的结果。
+        T value = DataSourceRouting.onPrimary(loader);
+        // 以计算前的版本号保存结果。
+        results.put(key, new Entry(currentEpoch, currentGeneration, value));
+        // 返回计算结果。
+        return value;
+    } // get方法结束。
+
+    // 定义处理新闻变化事件的方法，在发布事件的事务提交后执行，没有事务时立即执行。
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onNewsChanged(NewsChangedEvent event) {
+        // 累加失效次数。
+        invalidationCount.incrementAndGet();
+        // 如果所有范围都受影响。
+        if (event.allScopes()) {
+            // 递增共用版本号。
+            epoch.incrementAndGet();
+            // 清空所有结果。
+            results.invalidateAll();
+            // 直接返回。
+            return;
+        } // if条件结束。
+        // 计算受影响的范围。
+        long scope = event.historyId() == null ? CORPUS_SCOPE : event.historyId();
+        // 递增该范围的版本号。
+        generation(scope).incrementAndGet();
+        // 移除该范围的结果，释放容量。
+        results.asMap().keySet().removeIf(key -> key.scope() == scope);
+    } // onNewsChanged方法结束。
+
+    // 定义一个私有方法，返回范围的版本号，不存在时创建。
+    private AtomicLong generation(long scope) {
+        // 获取或创建版本号。
+        return generations.computeIfAbsent(scope, key -> new AtomicLong());
+    } // generation方法结束。
+
+    // 定义返回缓存统计信息的方法。
+    public Map<String, Long> getStats() {
+        // 返回命中、未命中、失效、淘汰次数以及当前缓存的结果数量。
+        return Map.of(
+                // 命中次数。
+                "hits", hitCount.get(),
+                // 未命中次数。
+                "misses", missCount.get(),
+                // 失效事件次数。
+                "invalidations", invalidationCount.get(),
+                // 因容量或过期被淘汰的次数。
+                "evictions", results.stats().evictionCount(),
+                // 当前缓存的结果数量。
+                "size", results.estimatedSize());
+    } // getStats方法结束。
+
+    // 定义一个私有的记录类型，作为缓存键；params中的null值参与比较。
+    private record Key(String endpoint, long scope, List<?> params) {
+    } // Key记录结束。
+
+    // 定义一个私有的记录类型，保存结果及计算时的版本号。
+    private record Entry(long epoch, long generation, Object value) {
+    } // Entry记录结束。
+} // AnalysisResultCache类定义结束。
@@ -0,0 +1,838 @@
+package com.hhu.javawebcrawler.demo.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jsoup.Connection;
+import org.jsoup.HttpStatusException;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import jakarta.annotation.PostConstruct;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+// 声明这是一个Spring的服务层组件。
+@Service
+// 使用Lombok为该类自动生成一个SLF4J的logger实例，变量名为log。
+@Slf4j
+// 定义一个名为 CachedHttpClient 的公开类，所有对外的HTTP抓取都经过它，并使用磁盘缓存与条件请求。
+public class CachedHttpClient {
+
+    // 定义统一的User-Agent，模拟浏览器访问。
+    public static final String USER_AGENT = "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/91.0.4472.124 Safari/537.36";
+
+    // 定义单个响应体允许的最大字节数（16MB），防止异常大的资源撑爆内存；超过上限的响应被拒绝，而不是截断后当作完整内容使用。
+    static final int MAX_BODY_SIZE = 16 * 1024 * 1024;
+
+    // 定义缓存条目文件的格式标记，格式变化时修改，旧格式的文件在启动时删除。
+    private static final int ENTRY_FORMAT = 0x48434531;
+    // 定义缓存条目文件的扩展名，元数据和响应体保存在同一个文件中，整体原子替换。
+    private static final String ENTRY_SUFFIX = ".entry";
+
+    // 定义匹配Cache-Control中max-age指令的正则表达式。
+    private static final Pattern MAX_AGE_PATTERN = Pattern.compile("max-age\\s*=\\s*\"?(\\d+)\"?");
+    // 定义匹配Content-Type中charset参数的正则表达式。
+    private static final Pattern CHARSET_PATTERN = Pattern.compile("charset\\s*=\\s*\"?([^\\s;\"]+)\"?", Pattern.CASE_INSENSITIVE);
+
+    // 声明缓存是否启用的开关。
+    private final boolean enabled;
+    // 声明磁盘缓存目录。
+    private final Path cacheDir;
+    // 声明磁盘缓存的最大总字节数。
+    private final long maxBytes;
+    // 声明没有任何新鲜度信息时，按Last-Modified推算新鲜期的上限（毫秒）。
+    private final long maxHeuristicMillis;
+
+    // 声明一个按访问顺序排列的索引，用于实现LRU淘汰；键为URL的哈希，值为响应体大小。
+    private final LinkedHashMap<String, Long> lruIndex = new LinkedHashMap<>(256, 0.75f, true);
+    // 声明当前缓存响应体的总字节数。
+    private long totalBytes = 0;
+
+    // 声明直接命中（新鲜缓存，无网络请求）的计数器。
+    private final AtomicLong freshHits = new AtomicLong();
+    // 声明重新验证命中（服务器返回304）的计数器。
+    private final AtomicLong revalidatedHits = new AtomicLong();
+    // 声明完整下载的计数器。
+    private final AtomicLong fullFetches = new AtomicLong();
+
+    // 定义类的构造函数，从配置中读取缓存参数。
+    public CachedHttpClient(@Value("${crawler.http-cache.enabled:true}") boolean enabled,
+                            @Value("${crawler.http-cache.dir:cache/http}") String cacheDir,
+                            @Value("${crawler.http-cache.max-size-mb:512}") long maxSizeMb,
+                            @Value("${crawler.http-cache.max-heuristic-seconds:3600}") long maxHeuristicSeconds) {
+        // 保存开关。
+        this.enabled = enabled;
+        // 保存缓存目录。
+        this.cacheDir = Paths.get(cacheDir);
+        // 将MB换算为字节。
+        this.maxBytes = maxSizeMb * 1024L * 1024L;
+        // 将秒换算为毫秒。
+        this.maxHeuristicMillis = maxHeuristicSeconds * 1000L;
+    } // 构造函数结束。
+
+    // 在Bean初始化后加载磁盘上已有的缓存条目。
+    @PostConstruct
+    // 定义初始化方法。
+    public void init() {
+        // 如果缓存未启用，则直接返回。
+        if (!enabled) {
+            // 记录缓存已关闭的日志。
+            log.info("HTTP响应缓存已关闭");
+            // 直接返回。
+            return;
+        } // if条件结束。
+        // 开始一个try块，处理目录创建和扫描时的异常。
+        try {
+            // 确保缓存目录存在。
+            Files.createDirectories(cacheDir);
+            // 删除上次运行中断时遗留的临时文件和旧格式的缓存文件。
+            deleteStaleFiles();
+            // 收集所有条目文件及其最后访问时间。
+            List<Path> entries = new ArrayList<>();
+            // 遍历缓存目录下的文件。
+            try (Stream<Path> files = Files.list(cacheDir)) {
+                // 只保留条目文件。
+                files.filter(p -> p.getFileName().toString().endsWith(ENTRY_SUFFIX)).forEach(entries::add);
+            } // try-with-resources结束。
+            // 按最后修改时间（即最后访问时间）从旧到新排序，以便重建LRU顺序。
+            entries.sort((a, b) -> Long.compare(lastModified(a), lastModified(b)));
+            // 读取每个条目文件的大小，文件IO不在锁内进行。
+            Map<String, Long> sizes = new LinkedHashMap<>();
+            // 遍历所有条目文件。
+            for (Path entry : entries) {
+                // 取出文件名中的键。
+                String name = entry.getFileName().toString();
+                // 去除扩展名得到键，并记录文件大小。
+                sizes.put(name.substring(0, name.length() - ENTRY_SUFFIX.length()), Files.size(entry));
+            } // for循环结束。
+            // 声明需要淘汰的条目。
+            List<String> evicted;
+            // 同步访问索引。
+            synchronized (this) {
+                // 按从旧到新的顺序登记到LRU索引中。
+                sizes.forEach((key, size) -> {
+                    // 登记条目大小。
+                    lruIndex.put(key, size);
+                    // 累加总字节数。
+                    totalBytes += size;
+                });
+                // 如果超出上限则淘汰最久未使用的条目。
+                evicted = evictIfNecessary();
+            } // synchronized结束。
+            // 在锁外删除被淘汰条目的文件。
+            evicted.forEach(this::deleteFile);
+            // 记录加载完成的日志。
+            log.info("HTTP响应缓存已加载，目录: {}, 条目: {}, 占用: {} KB", cacheDir.toAbsolutePath(), lruIndex.size(), totalBytes / 1024);
+        } catch (IOException e) { // 捕获IO异常。
+            // 记录加载失败的警告日志，缓存仍可在后续写入时工作。
+            log.warn("加载HTTP响应缓存目录失败: {}", e.getMessage());
+        } // try-catch结束。
+    } // init方法结束。
+
+    // 定义获取并解析HTML文档的方法，响应体来自缓存或网络。
+    public Document getDocument(String url, int timeoutMillis) throws IOException {
+        // 获取响应。
+        Response response = get(url, timeoutMillis);
+        // 使用响应头中的字符集（为空时由Jsoup自动探测）解析文档，并以最终URL作为基准URI。
+        return Jsoup.parse(new ByteArrayInputStream(response.getBody()), response.getCharset(), response.getFinalUrl());
+    } // getDocument方法结束。
+
+    // 定义获取资源字节的方法，优先使用新鲜的缓存，过期时发送条件请求重新验证。
+    public Response get(String url, int timeoutMillis) throws IOException {
+        // 计算缓存键。
+        String key = keyOf(url);
+        // 读取已缓存的条目（可能为null）。
+        Entry cached = enabled ? readEntry(key) : null;
+        // 获取当前时间。
+        long now = System.currentTimeMillis();
+
+        // 如果缓存存在且仍在新鲜期内，并且未要求每次重新验证。
+        if (cached != null && !cached.noCache && now < cached.expiresAt) {
+            // 直接命中计数器加一。
+            freshHits.incrementAndGet();
+            // 刷新该条目的LRU位置。
+            touch(key);
+            // 记录命中日志。
+            log.debug("HTTP缓存命中（新鲜）: {}", url);
+            // 返回缓存的响应体。
+            return new Response(cached.body, cached.contentType, cached.finalUrl, true);
+        } // if条件结束。
+
+        // 创建一个Jsoup连接，用于发送GET请求。
+        Connection connection = Jsoup.connect(url)
+                // 设置User-Agent模拟浏览器访问。
+                .userAgent(USER_AGENT)
+                // 设置超时时间。
+                .timeout(timeoutMillis)
+                // 允许图片等非HTML类型的响应。
+                .ignoreContentType(true)
+                // 自行处理非2xx状态码，以便识别304。
+                .ignoreHttpErrors(true)
+                // 多读一个字节，Jsoup在达到上限时会静默截断，读满上限加一个字节即说明响应体超限。
+                .maxBodySize(MAX_BODY_SIZE + 1)
+                // 使用GET方法。
+                .method(Connection.Method.GET);
+        // 如果有可用于重新验证的缓存条目。
+        if (cached != null) {
+            // 如果有ETag，则附带If-None-Match头。
+            if (cached.etag != null) {
+                // 设置If-None-Match请求头。
+                connection.header("If-None-Match", cached.etag);
+            } // if条件结束。
+            // 如果有Last-Modified，则附带If-Modified-Since头。
+            if (cached.lastModified != null) {
+                // 设置If-Modified-Since请求头。
+                connection.header("If-Modified-Since", cached.lastModified);
+            } // if条件结束。
+        } // if条件结束。
+
+        // 执行请求。
+        Connection.Response response = connection.execute();
+        // 获取状态码。
+        int status = response.statusCode();
+
+        // 如果服务器确认资源未修改，且本地有缓存。
+        if (status == 304 && cached != null) {
+            // 重新验证命中计数器加一。
+            revalidatedHits.incrementAndGet();
+            // 使用304响应中的新头信息刷新新鲜期和验证器。
+            Entry refreshed = cached.refreshedBy(response, System.currentTimeMillis(), maxHeuristicMillis);
+            // 如果响应要求不再存储，则删除条目。
+            if (refreshed == null) {
+                // 删除缓存条目。
+                remove(key);
+            } else { // 否则。
+                // 连同响应体重写整个条目文件，验证器和新鲜期与响应体总是成对替换。
+                store(key, refreshed);
+            } // if-else结束。
+            // 记录重新验证命中的日志。
+            log.debug("HTTP缓存重新验证命中（304）: {}", url);
+            // 返回缓存的响应体。
+            return new Response(cached.body, cached.contentType, cached.finalUrl, true);
+        } // if条件结束。
+
+        // 如果状态码不是2xx，则按照Jsoup的惯例抛出状态异常。
+        if (status < 200 || status >= 300) {
+            // 抛出HTTP状态异常。
+            throw new HttpStatusException("HTTP error fetching URL", status, url);
+        } // if条件结束。
+
+        // 读取Content-Length头，声明的长度已超限时不再读取响应体。
+        long declaredLength = parseContentLength(response.header("Content-Length"));
+        // 如果声明的长度超过上限。
+        if (declaredLength > MAX_BODY_SIZE) {
+            // 拒绝该响应。
+            throw tooLarge(url, declaredLength);
+        } // if条件结束。
+        // 完整下载计数器加一。
+        fullFetches.incrementAndGet();
+        // 读取响应体字节，最多读取上限加一个字节。
+        byte[] body = response.bodyAsBytes();
+        // 如果实际读取的字节超过上限，说明响应体被截断。
+        if (body.length > MAX_BODY_SIZE) {
+            // 拒绝该响应，截断的页面和资源不会被解析或缓存。
+            throw tooLarge(url, body.length);
+        } // if条件结束。
+        // 获取Content-Type头。
+        String contentType = response.contentType();
+        // 获取重定向后的最终URL。
+        String finalUrl = response.url().toString();
+        // 如果缓存启用，则尝试存储该响应。
+        if (enabled) {
+            // 根据响应头构建缓存条目（不可缓存时返回null）。
+            Entry entry = Entry.from(response, body, System.currentTimeMillis(), maxHeuristicMillis);
+            // 如果可以缓存。
+            if (entry != null) {
+                // 写入磁盘。
+                store(key, entry);
+            } else if (cached != null) { // 如果不可缓存但之前有旧条目。
+                // 删除旧条目。
+                remove(key);
+            } // if-else结束。
+        } // if条件结束。
+        // 返回新下载的响应。
+        return new Response(body, contentType, finalUrl, false);
+    } // get方法结束。
+
+    // 定义一个私有的静态方法，记录并创建响应体超限的异常。
+    private static IOException tooLarge(String url, long size) {
+        // 记录警告日志。
+        log.warn("响应体超过 {} 字节的上限（至少 {} 字节），已拒绝: {}", MAX_BODY_SIZE, size, url);
+        // 返回IO异常，调用方按抓取失败处理。
+        return new IOException("响应体超过" + (MAX_BODY_SIZE / 1024 / 1024) + "MB上限: " + url);
+    } // tooLarge方法结束。
+
+    // 定义一个私有的静态方法，解析Content-Length头，缺失或无法解析时返回-1。
+    private static long parseContentLength(String value) {
+        // 如果头不存在。
+        if (value == null) {
+            // 返回-1。
+            return -1;
+        } // if条件结束。
+        // 开始一个try块，处理格式错误。
+        try {
+            // 解析并返回长度。
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) { // 捕获格式错误。
+            // 无法解析时视为未知长度。
+            return -1;
+        } // try-catch结束。
+    } // parseContentLength方法结束。
+
+    // 定义返回缓存统计信息的方法。
+    public Map<String, Long> getStats() {
+        // 同步读取索引信息。
+        synchronized (this) {
+            // 返回各类计数与占用情况。
+            return Map.of(
+                    // 新鲜命中次数。
+                    "freshHits", freshHits.get(),
+                    // 304重新验证命中次数。
+                    "revalidatedHits", revalidatedHits.get(),
+                    // 完整下载次数。
+                    "fullFetches", fullFetches.get(),
+                    // 当前条目数。
+                    "entries", (long) lruIndex.size(),
+                    // 当前占用字节数。
+                    "bytes", totalBytes);
+        } // synchronized结束。
+    } // getStats方法结束。
+
+    // 定义一个私有方法，从磁盘读取缓存条目。
+    private Entry readEntry(String key) {
+        // 同步检查索引中是否存在该键。
+        synchronized (this) {
+            // 如果索引中没有该键则返回null。
+            if (!lruIndex.containsKey(key)) {
+                // 返回null表示未缓存。
+                return null;
+            } // if条件结束。
+        } // synchronized结束。
+        // 开始一个try块，处理读取文件时的异常；条目文件整体替换，打开的文件总是同一次写入的元数据和响应体。
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(entryPath(key))))) {
+            // 检查格式标记。
+            if (in.readInt() != ENTRY_FORMAT) {
+                // 格式不符时按损坏处理。
+                throw new IOException("缓存条目格式不符: " + key);
+            } // if条件结束。
+            // 读取元数据的字节数。
+            byte[] metaBytes = new byte[in.readInt()];
+            // 读取元数据。
+            in.readFully(metaBytes);
+            // 创建Properties对象存放元数据。
+            Properties meta = new Properties();
+            // 以UTF-8解析元数据。
+            meta.load(new InputStreamReader(new ByteArrayInputStream(metaBytes), StandardCharsets.UTF_8));
+            // 剩余部分是响应体字节。
+            byte[] body = in.readAllBytes();
+            // 构建并返回缓存条目。
+            return Entry.fromMeta(meta, body);
+        } catch (IOException | RuntimeException e) { // 捕获读取失败的异常。
+            // 记录警告日志。
+            log.warn("读取HTTP缓存条目失败，将重新下载: {}", e.getMessage());
+            // 删除损坏的条目。
+            remove(key);
+            // 返回null表示未缓存。
+            return null;
+        } // try-catch结束。
+    } // readEntry方法结束。
+
+    // 定义一个私有方法，将缓存条目写入磁盘并登记到LRU索引；元数据和响应体写入同一个临时文件后原子替换，文件IO不在锁内进行。
+    private void store(String key, Entry entry) {
+        // 如果单个响应体已经超过总容量，则不缓存。
+        if (entry.body.length > maxBytes) {
+            // 删除可能存在的旧条目后返回。
+            remove(key);
+            // 直接返回。
+            return;
+        } // if条件结束。
+        // 声明临时文件，移动到正式位置后置为null。
+        Path tmp = null;
+        // 开始一个try块，处理写文件时的异常。
+        try {
+            // 确保缓存目录存在。
+            Files.createDirectories(cacheDir);
+            // 创建临时文件。
+            tmp = Files.createTempFile(cacheDir, key, ".tmp");
+            // 以UTF-8序列化元数据。
+            ByteArrayOutputStream metaBytes = new ByteArrayOutputStream();
+            // 写出元数据。
+            entry.toMeta().store(new OutputStreamWriter(metaBytes, StandardCharsets.UTF_8), null);
+            // 打开输出流。
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                // 写入格式标记。
+                out.writeInt(ENTRY_FORMAT);
+                // 写入元数据的字节数。
+                out.writeInt(metaBytes.size());
+                // 写入元数据。
+                metaBytes.writeTo(out);
+                // 写入响应体。
+                out.write(entry.body);
+            } // try-with-resources结束。
+            // 读取条目文件的大小。
+            long size = Files.size(tmp);
+            // 原子移动到正式位置，读取方要么读到旧条目，要么读到新条目。
+            Files.move(tmp, entryPath(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            // 临时文件已不存在。
+            tmp = null;
+            // 声明需要淘汰的条目。
+            List<String> evicted;
+            // 同步更新索引。
+            synchronized (this) {
+                // 登记新大小并取回旧大小，同时刷新LRU位置。
+                Long previous = lruIndex.put(key, size);
+                // 更新总字节数。
+                totalBytes += size - (previous == null ? 0 : previous);
+                // 超出上限时淘汰。
+                evicted = evictIfNecessary();
+            } // synchronized结束。
+            // 在锁外删除被淘汰条目的文件。
+            evicted.forEach(this::deleteFile);
+        } catch (IOException e) { // 捕获IO异常。
+            // 记录警告日志，缓存失败不影响本次抓取。
+            log.warn("写入HTTP缓存失败: {}", e.getMessage());
+        } finally { // 无论成功失败都执行。
+            // 删除未能移动到正式位置的临时文件。
+            deleteTempFile(tmp);
+        } // try-catch-finally结束。
+    } // store方法结束。
+
+    // 定义一个私有方法，删除缓存目录中上次运行中断（例如进程被杀死）时遗留的临时文件，以及元数据和响应体分开保存的旧格式文件。
+    private void deleteStaleFiles() throws IOException {
+        // 收集需要删除的文件。
+        List<Path> stale = new ArrayList<>();
+        // 遍历缓存目录下的文件。
+        try (Stream<Path> files = Files.list(cacheDir)) {
+            // 只保留临时文件和旧格式文件。
+            files.filter(p -> {
+                // 取出文件名。
+                String name = p.getFileName().toString();
+                // 判断扩展名。
+                return name.endsWith(".tmp") || name.endsWith(".body") || name.endsWith(".meta");
+            }).forEach(stale::add);
+        } // try-with-resources结束。
+        // 逐个删除。
+        stale.forEach(CachedHttpClient::deleteTempFile);
+        // 如果确实删除了文件。
+        if (!stale.isEmpty()) {
+            // 记录清理日志。
+            log.info("已删除 {} 个遗留的HTTP缓存临时文件或旧格式文件", stale.size());
+        } // if条件结束。
+    } // deleteStaleTempFiles方法结束。
+
+    // 定义一个私有的静态方法，删除临时文件，为null时不做任何操作，删除失败只记录日志。
+    private static void deleteTempFile(Path tmp) {
+        // 如果没有临时文件。
+        if (tmp == null) {
+            // 直接返回。
+            return;
+        } // if条件结束。
+        // 开始一个try块，处理删除时的异常。
+        try {
+            // 删除临时文件。
+            Files.deleteIfExists(tmp);
+        } catch (IOException e) { // 捕获IO异常。
+            // 记录警告日志，下次启动时会再次清理。
+            log.warn("删除HTTP缓存临时文件 {} 失败: {}", tmp, e.getMessage());
+        } // try-catch结束。
+    } // deleteTempFile方法结束。
+
+    // 定义一个私有方法，刷新条目的LRU位置，并把访问时间记录到文件上以便重启后恢复顺序。
+    private void touch(String key) {
+        // 同步访问索引。
+        synchronized (this) {
+            // 访问顺序的LinkedHashMap在get时会把条目移到末尾。
+            lruIndex.get(key);
+        } // synchronized结束。
+        // 开始一个try块，忽略更新文件时间的失败。
+        try {
+            // 将条目文件的修改时间设为当前时间。
+            Files.setLastModifiedTime(entryPath(key), FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) { // 捕获IO异常。
+            // 注释：访问时间只影响重启后的淘汰顺序，失败可以忽略。
+        } // try-catch结束。
+    } // touch方法结束。
+
+    // 定义一个私有方法，删除一个缓存条目。
+    private void remove(String key) {
+        // 同步访问索引。
+        synchronized (this) {
+            // 从索引中移除并取回大小。
+            Long size = lruIndex.remove(key);
+            // 如果存在则扣减总字节数。
+            if (size != null) {
+                // 扣减总字节数。
+                totalBytes -= size;
+            } // if条件结束。
+        } // synchronized结束。
+        // 在锁外删除磁盘文件。
+        deleteFile(key);
+    } // remove方法结束。
+
+    // 定义一个私有方法，在总字节数超出上限时按LRU顺序从索引中淘汰条目并返回它们的键（调用方需持有锁，并在释放锁后删除这些条目的文件）。
+    private List<String> evictIfNecessary() {
+        // 初始化被淘汰的键列表。
+        List<String> evicted = new ArrayList<>();
+        // 获取按访问顺序排列的迭代器，最久未使用的在最前面。
+        Iterator<Map.Entry<String, Long>> it = lruIndex.entrySet().iterator();
+        // 当超出上限且还有条目时循环淘汰。
+        while (totalBytes > maxBytes && it.hasNext()) {
+            // 取出最久未使用的条目。
+            Map.Entry<String, Long> eldest = it.next();
+            // 扣减总字节数。
+            totalBytes -= eldest.getValue();
+            // 从索引中移除。
+            it.remove();
+            // 记录被淘汰的键。
+            evicted.add(eldest.getKey());
+            // 记录淘汰日志。
+            log.debug("HTTP缓存容量超限，淘汰条目: {}", eldest.getKey());
+        } // while循环结束。
+        // 返回被淘汰的键。
+        return evicted;
+    } // evictIfNecessary方法结束。
+
+    // 定义一个私有方法，删除条目对应的磁盘文件。
+    private void deleteFile(String key) {
+        // 开始一个try块，忽略删除失败。
+        try {
+            // 删除条目文件。
+            Files.deleteIfExists(entryPath(key));
+        } catch (IOException e) { // 捕获IO异常。
+            // 记录警告日志。
+            log.warn("删除HTTP缓存文件失败: {}", e.getMessage());
+        } // try-catch结束。
+    } // deleteFile方法结束。
+
+    // 定义一个私有方法，返回条目文件路径。
+    private Path entryPath(String key) {
+        // 拼接条目扩展名。
+        return cacheDir.resolve(key + ENTRY_SUFFIX);
+    } // entryPath方法结束。
+
+    // 定义一个私有静态方法，读取文件的最后修改时间，失败时返回0。
+    private static long lastModified(Path path) {
+        // 开始一个try块。
+        try {
+            // 返回毫秒时间戳。
+            return Files.getLastModifiedTime(path).toMillis();
+        } catch (IOException e) { // 捕获IO异常。
+            // 返回0。
+            return 0L;
+        } // try-catch结束。
+    } // lastModified方法结束。
+
+    // 定义一个私有静态方法，将URL转换为SHA-256十六进制字符串作为文件名。
+    private static String keyOf(String url) {
+        // 开始一个try块，处理算法不可用的异常。
+        try {
+            // 获取SHA-256摘要实例。
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            // 计算URL的摘要。
+            byte[] hash = digest.digest(url.getBytes(StandardCharsets.UTF_8));
+            // 创建一个StringBuilder用于拼接十六进制字符串。
+            StringBuilder sb = new StringBuilder(hash.length * 2);
+            // 遍历每个字节。
+            for (byte b : hash) {
+                // 以两位十六进制追加。
+                sb.append(String.format("%02x", b));
+            } // for循环结束。
+            // 返回十六进制字符串。
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) { // SHA-256是JDK必备算法，理论上不会发生。
+            // 抛出非法状态异常。
+            throw new IllegalStateException("SHA-256不可用", e);
+        } // try-catch结束。
+    } // keyOf方法结束。
+
+    // 定义一个公开静态内部类，表示一次抓取的结果。
+    public static final class Response {
+        // 响应体字节。
+        private final byte[] body;
+        // Content-Type头。
+        private final String contentType;
+        // 重定向后的最终URL。
+        private final String finalUrl;
+        // 是否来自缓存。
+        private final boolean fromCache;
+
+        // 定义构造函数。
+        public Response(byte[] body, String contentType, String finalUrl, boolean fromCache) {
+            // 保存响应体。
+            this.body = body;
+            // 保存Content-Type。
+            this.contentType = contentType;
+            // 保存最终URL。
+            this.finalUrl = finalUrl;
+            // 保存是否来自缓存。
+            this.fromCache = fromCache;
+        } // 构造函数结束。
+
+        // 返回响应体字节。
+        public byte[] getBody() {
+            // 返回响应体。
+            return body;
+        } // getBody方法结束。
+
+        // 返回Content-Type头。
+        public String getContentType() {
+            // 返回Content-Type。
+            return contentType;
+        } // getContentType方法结束。
+
+        // 返回最终URL。
+        public String getFinalUrl() {
+            // 返回最终URL。
+            return finalUrl;
+        } // getFinalUrl方法结束。
+
+        // 返回是否来自缓存。
+        public boolean isFromCache() {
+            // 返回是否来自缓存。
+            return fromCache;
+        } // isFromCache方法结束。
+
+        // 从Content-Type中解析字符集，没有时返回null交由Jsoup自动探测。
+        public String getCharset() {
+            // 如果没有Content-Type则返回null。
+            if (contentType == null) {
+                // 返回null。
+                return null;
+            } // if条件结束。
+            // 匹配charset参数。
+            Matcher matcher = CHARSET_PATTERN.matcher(contentType);
+            // 找到则返回字符集名称，否则返回null。
+            return matcher.find() ? matcher.group(1) : null;
+        } // getCharset方法结束。
+    } // Response类结束。
+
+    // 定义一个私有静态内部类，表示一个缓存条目及其新鲜度信息。
+    private static final class Entry {
+        // 响应体字节。
+        private final byte[] body;
+        // Content-Type头。
+        private final String contentType;
+        // 最终URL。
+        private final String finalUrl;
+        // ETag验证器。
+        private final String etag;
+        // Last-Modified验证器。
+        private final String lastModified;
+        // 新鲜期截止时间（毫秒）。
+        private final long expiresAt;
+        // 是否每次使用前都必须重新验证（Cache-Control: no-cache）。
+        private final boolean noCache;
+
+        // 定义构造函数。
+        private Entry(byte[] body, String contentType, String finalUrl, String etag, String lastModified, long expiresAt, boolean noCache) {
+            // 保存响应体。
+            this.body = body;
+            // 保存Content-Type。
+            this.contentType = contentType;
+            // 保存最终URL。
+            this.finalUrl = finalUrl;
+            // 保存ETag。
+            this.etag = etag;
+            // 保存Last-Modified。
+            this.lastModified = lastModified;
+            // 保存新鲜期截止时间。
+            this.expiresAt = expiresAt;
+            // 保存no-cache标志。
+            this.noCache = noCache;
+        } // 构造函数结束。
+
+        // 根据200响应构建条目，不可缓存时返回null。
+        private static Entry from(Connection.Response response, byte[] body, long now, long maxHeuristicMillis) {
+            // 获取Cache-Control头并转为小写。
+            String cacheControl = lower(response.header("Cache-Control"));
+            // no-store表示不得存储；Vary: * 表示无法复用。
+            if (cacheControl.contains("no-store") || "*".equals(response.header("Vary"))) {
+                // 返回null表示不可缓存。
+                return null;
+            } // if条件结束。
+            // 读取验证器。
+            String etag = response.header("ETag");
+            // 读取Last-Modified。
+            String lastModified = response.header("Last-Modified");
+            // 计算新鲜期截止时间。
+            long expiresAt = computeExpiry(response, cacheControl, lastModified, now, maxHeuristicMillis);
+            // 既没有新鲜期也没有验证器的响应，缓存后每次都要完整下载，没有意义。
+            if (expiresAt <= now && etag == null && lastModified == null) {
+                // 返回null表示不缓存。
+                return null;
+            } // if条件结束。
+            // 构建并返回条目。
+            return new Entry(body, response.contentType(), response.url().toString(), etag, lastModified,
+                    expiresAt, cacheControl.contains("no-cache"));
+        } // from方法结束。
+
+        // 使用304响应中的头信息刷新条目，返回新的条目；响应要求不再存储时返回null。
+        private Entry refreshedBy(Connection.Response response, long now, long maxHeuristicMillis) {
+            // 获取Cache-Control头并转为小写。
+            String cacheControl = lower(response.header("Cache-Control"));
+            // 如果要求不存储则返回null。
+            if (cacheControl.contains("no-store")) {
+                // 返回null。
+                return null;
+            } // if条件结束。
+            // 304中如果带了新的ETag则使用新的，否则沿用旧的。
+            String newEtag = response.hasHeader("ETag") ? response.header("ETag") : etag;
+            // 同理处理Last-Modified。
+            String newLastModified = response.hasHeader("Last-Modified") ? response.header("Last-Modified") : lastModified;
+            // 重新计算新鲜期。
+            long newExpiresAt = computeExpiry(response, cacheControl, newLastModified, now, maxHeuristicMillis);
+            // 返回刷新后的条目。
+            return new Entry(body, contentType, finalUrl, newEtag, newLastModified, newExpiresAt,
+                    cacheControl.isEmpty() ? noCache : cacheControl.contains("no-cache"));
+        } // refreshedBy方法结束。
+
+        // 根据Cache-Control、Expires与Last-Modified计算新鲜期截止时间。
+        private static long computeExpiry(Connection.Response response, String cacheControl, String lastModified,
+                                          long now, long maxHeuristicMillis) {
+            // 优先使用max-age指令。
+            Matcher matcher = MAX_AGE_PATTERN.matcher(cacheControl);
+            // 如果找到max-age。
+            if (matcher.find()) {
+                // 读取max-age秒数。
+                long maxAgeSeconds = Long.parseLong(matcher.group(1));
+                // 读取Age头（代理中已经停留的秒数）。
+                long ageSeconds = parseLong(response.header("Age"));
+                // 返回截止时间。
+                return now + Math.max(0, maxAgeSeconds - ageSeconds) * 1000L;
+            } // if条件结束。
+            // 其次使用Expires头。
+            long expires = parseHttpDate(response.header("Expires"));
+            // 无法解析的Expires（例如 Expires: 0）按规范视为已经过期。
+            if (response.hasHeader("Expires") && expires <= 0) {
+                // 返回当前时间表示需要重新验证。
+                return now;
+            } // if条件结束。
+            // 如果Expires有效。
+            if (expires > 0) {
+                // 以服务器Date头为基准换算，避免本地时钟偏差。
+                long date = parseHttpDate(response.header("Date"));
+                // 返回截止时间。
+                return now + (expires - (date > 0 ? date : now));
+            } // if条件结束。
+            // 最后按Last-Modified启发式推算：资源已不变的时长的十分之一，且不超过上限。
+            long modified = parseHttpDate(lastModified);
+            // 如果Last-Modified有效。
+            if (modified > 0 && modified < now) {
+                // 返回截止时间。
+                return now + Math.min((now - modified) / 10, maxHeuristicMillis);
+            } // if条件结束。
+            // 没有任何新鲜度信息时视为立即过期，需要重新验证。
+            return now;
+        } // computeExpiry方法结束。
+
+        // 从元数据与响应体还原条目。
+        private static Entry fromMeta(Properties meta, byte[] body) {
+            // 构建并返回条目。
+            return new Entry(body,
+                    // 读取Content-Type。
+                    meta.getProperty("contentType"),
+                    // 读取最终URL。
+                    meta.getProperty("finalUrl"),
+                    // 读取ETag。
+                    meta.getProperty("etag"),
+                    // 读取Last-Modified。
+                    meta.getProperty("lastModified"),
+                    // 读取新鲜期截止时间。
+                    Long.parseLong(meta.getProperty("expiresAt", "0")),
+                    // 读取no-cache标志。
+                    Boolean.parseBoolean(meta.getProperty("noCache", "false")));
+        } // fromMeta方法结束。
+
+        // 将条目的元数据转换为Properties。
+        private Properties toMeta() {
+            // 创建Properties对象。
+            Properties meta = new Properties();
+            // 写入Content-Type。
+            putIfNotNull(meta, "contentType", contentType);
+            // 写入最终URL。
+            putIfNotNull(meta, "finalUrl", finalUrl);
+            // 写入ETag。
+            putIfNotNull(meta, "etag", etag);
+            // 写入Last-Modified。
+            putIfNotNull(meta, "lastModified", lastModified);
+            // 写入新鲜期截止时间。
+            meta.setProperty("expiresAt", Long.toString(expiresAt));
+            // 写入no-cache标志。
+            meta.setProperty("noCache", Boolean.toString(noCache));
+            // 返回Properties。
+            return meta;
+        } // toMeta方法结束。
+
+        // 仅在值不为null时写入属性。
+        private static void putIfNotNull(Properties meta, String name, String value) {
+            // 如果值不为null。
+            if (value != null) {
+                // 写入属性。
+                meta.setProperty(name, value);
+            } // if条件结束。
+        } // putIfNotNull方法结束。
+
+        // 将字符串转为小写，null时返回空字符串。
+        private static String lower(String value) {
+            // 返回小写字符串。
+            return value == null ? "" : value.toLowerCase(Locale.ROOT);
+        } // lower方法结束。
+
+        // 解析长整数，失败时返回0。
+        private static long parseLong(String value) {
+            // 开始一个try块。
+            try {
+                // 返回解析结果。
+                return value == null ? 0L : Long.parseLong(value.trim());
+            } catch (NumberFormatException e) { // 捕获格式异常。
+                // 返回0。
+                return 0L;
+            } // try-catch结束。
+        } // parseLong方法结束。
+
+        // 解析RFC 1123格式的HTTP日期，失败时返回0。
+        private static long parseHttpDate(String value) {
+            // 如果为空则返回0。
+            if (value == null || value.isBlank()) {
+                // 返回0。
+                return 0L;
+            } // if条件结束。
+            // 开始一个try块。
+            try {
+                // 解析日期并返回毫秒时间戳。
+                return ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+            } catch (RuntimeException e) { // 捕获解析异常（例如 Expires: 0）。
+                // 返回0。
+                return 0L;
+            } // try-catch结束。
+        } // parseHttpDate方法结束。
+    } // Entry类结束。
+} // CachedHttpClient类定义结束。
@@ -1,23 +1,55 @@
 package com.hhu.javawebcrawler.demo.service;
 
+import com.hhu.javawebcrawler.demo.DTO.CrawlHistorySummary;
+import com.hhu.javawebcrawler.demo.DTO.CrawlHistoryTextView;
+import com.hhu.javawebcrawler.demo.DTO.HistoryPage;
+import com.hhu.javawebcrawler.demo.aspect.ReadReplica;
 import com.hhu.javawebcrawler.demo.entity.CrawlHistory;
+import com.hhu.javawebcrawler.demo.exception.CrawlerException;
 import com.hhu.javawebcrawler.demo.repository.CrawlHistoryRepository;
+import com.hhu.javawebcrawler.demo.repository.NewsHistoryRepository;
+import com.hhu.javawebcrawler.demo.utils.KeysetCursor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 @Service // 声明这个类是一个Spring的服务层组件。
+@Slf4j // 使用Lombok为该类自动生成一个SLF4J的logger实例，变量名为log。
 public class CrawlHistoryService { // 定义一个名为 CrawlHistoryService 的公开类。
 
     private final CrawlHistoryRepository crawlHistoryRepository; // 声明一个用于数据访问的、不可变的爬取历史仓库字段。
     private final ObjectMapper objectMapper; // 声明一个用于处理JSON转换的、不可变的ObjectMapper字段。
+    private final NewsHistoryRepository newsHistoryRepository; // 声明一个用于写入和移除新闻与历史记录关联的仓库字段。
+    private final TermStatService termStatService; // 声明一个用于维护词频聚合的服务字段，关联或删除历史记录时同步更新统计。
+    private final TransactionTemplate transactionTemplate; // 声明一个用于以编程方式控制事务的模板，每块记录在一个短事务中删除。
+    private final ApplicationEventPublisher eventPublisher; // 声明一个用于发布新闻变化事件的发布器，关联或删除后使该历史记录的分析结果缓存失效。
 
-    public CrawlHistoryService(CrawlHistoryRepository crawlHistoryRepository) { // 定义类的构造函数，通过它注入CrawlHistoryRepository依赖。
+    public static final int DEFAULT_HISTORY_PAGE_SIZE = 50; // 定义历史列表每页的默认数量。
+    public static final int MAX_HISTORY_PAGE_SIZE = 200; // 定义历史列表每页允许的最大数量。
+    private static final int DELETE_CHUNK = 500; // 定义批量删除时每个事务处理的历史记录数量。
+    private static final int UNLINK_CHUNK = 5000; // 定义移除新闻关联时每条DELETE语句最多删除的行数。
+
+    public CrawlHistoryService(CrawlHistoryRepository crawlHistoryRepository, NewsHistoryRepository newsHistoryRepository, // 定义类的构造函数，通过它注入仓库、词频服务和事务管理器依赖。
+                               TermStatService termStatService, PlatformTransactionManager transactionManager,
+                               ApplicationEventPublisher eventPublisher) {
         this.crawlHistoryRepository = crawlHistoryRepository; // 将注入的仓库实例赋值给类成员变量。
+        this.newsHistoryRepository = newsHistoryRepository; // 将注入的关联仓库实例赋值给类成员变量。
+        this.termStatService = termStatService; // 将注入的词频服务实例赋值给类成员变量。
+        this.transactionTemplate = new TransactionTemplate(transactionManager); // 基于事务管理器创建事务模板。
+        this.eventPublisher = eventPublisher; // 将注入的事件发布器赋值给类成员变量。
         this.objectMapper = new ObjectMapper(); // 创建并初始化一个ObjectMapper实例。
     } // 构造函数结束。
 
@@ -52,50 +84,120 @@ public class CrawlHistoryService { // 定义一个名为 CrawlHistoryService 的
         return crawlHistoryRepository.save(history); // 调用仓库的save方法保存传入的对象，并返回保存后的实体。
     } // saveHistory 方法结束。
 
-    public List<CrawlHistory> getUserHistory(Long userId) { // 定义一个获取指定用户所有爬取历史的方法。
-        return crawlHistoryRepository.findByUserIdOrderByCrawlTimeDesc(userId); // 调用仓库方法查询并返回按时间降序排列的历史记录列表。
+    public List<CrawlHistory> getUserHistory(Long userId) { // 定义一个获取指定用户最近一页爬取历史的方法，数量与分页接口的默认每页数量相同，更早的历史通过分页接口获取。
+        return crawlHistoryRepository.findByUserIdOrderByCrawlTimeDescIdDesc(userId, Limit.of(DEFAULT_HISTORY_PAGE_SIZE)); // 调用仓库方法查询并返回按时间降序排列的历史记录列表。
     } // getUserHistory 方法结束。
+
+    @ReadReplica // 历史列表只读，配置了只读副本时从副本读取。
+    public HistoryPage getUserHistoryPage(Long userId, String cursor, int size, boolean includeUrl, boolean includeParams) { // 定义一个按(爬取时间, ID)游标分页获取用户历史的方法。
+        if (size < 1 || size > MAX_HISTORY_PAGE_SIZE) { // 检查每页数量是否在允许范围内。
+            throw CrawlerException.badRequest("size必须在1到" + MAX_HISTORY_PAGE_SIZE + "之间"); // 超出范围时抛出请求参数错误异常。
+        } // if 条件块结束。
+        KeysetCursor position = KeysetCursor.decode(cursor); // 解码游标，为null表示第一页。
+        if (position != null && position.time() == null) { // 爬取时间不可为空，本接口生成的游标总带有时间，缺少时间的游标是伪造或截断的。
+            throw CrawlerException.badRequest("无效的分页游标"); // 拒绝该游标，而不是静默地回到第一页。
+        } // if 条件块结束。
+        Limit limit = Limit.of(size + 1); // 多查一行，用于判断是否还有下一页。
+        List<CrawlHistorySummary> rows = position == null // 根据是否有游标选择查询。
+                ? crawlHistoryRepository.findSummaries(userId, limit) // 第一页。
+                : crawlHistoryRepository.findSummariesBefore(userId, position.time(), position.id(), limit); // 游标之后的一页。
+        boolean hasMore = rows.size() > size; // 判断是否还有下一页。
+        List<CrawlHistorySummary> items = hasMore ? new ArrayList<>(rows.subList(0, size)) : rows; // 截取本页的记录。
+        String nextCursor = null; // 初始化下一页游标。
+        if (hasMore) { // 如果还有下一页。
+            CrawlHistorySummary last = items.get(items.size() - 1); // 取出本页最后一条记录。
+            nextCursor = new KeysetCursor(last.getCrawlTime(), last.getId()).encode(); // 用它的(爬取时间, ID)生成游标。
+        } // if 条件块结束。
+        if ((includeUrl || includeParams) && !items.isEmpty()) { // 只有请求包含TEXT列时才查询它们。
+            Map<Long, CrawlHistoryTextView> texts = crawlHistoryRepository.findTextColumnsByIdIn( // 按本页的ID批量查询TEXT列。
+                    items.stream().map(CrawlHistorySummary::getId).collect(Collectors.toList())).stream() // 收集本页的ID。
+                    .collect(Collectors.toMap(CrawlHistoryTextView::getId, view -> view)); // 以ID为键建立映射。
+            for (CrawlHistorySummary item : items) { // 遍历本页的记录。
+                CrawlHistoryTextView text = texts.get(item.getId()); // 取出该记录的TEXT列。
+                if (text != null) { // 如果查到了。
+                    item.setUrl(includeUrl ? text.getUrl() : null); // 按请求填充url。
+                    item.setParams(includeParams ? text.getParams() : null); // 按请求填充params。
+                } // if 条件块结束。
+            } // for 循环结束。
+        } // if 条件块结束。
+        return new HistoryPage(items, nextCursor, hasMore); // 返回分页结果。
+    } // getUserHistoryPage 方法结束。
     
-    @Transactional // 声明此方法应在数据库事务中执行。
     public boolean deleteHistoryIfBelongsToUser(Long historyId, Long userId) { // 定义一个有条件地删除单条历史记录的方法。
-        Optional<CrawlHistory> historyOpt = crawlHistoryRepository.findById(historyId); // 根据ID从数据库中查找历史记录。
-        
-        if (historyOpt.isPresent() && historyOpt.get().getUserId().equals(userId)) { // 检查记录是否存在且其用户ID与当前用户ID匹配。
-            crawlHistoryRepository.deleteById(historyId); // 如果条件满足，则根据ID删除该记录。
-            return true; // 返回true表示删除成功。
-        } // if 条件块结束。
-        
-        return false; // 如果记录不存在或不属于该用户，则返回false。
+        return batchDeleteHistoryIfBelongsToUser(List.of(historyId), userId) > 0; // 按批量删除处理，记录不存在或不属于该用户时删除数量为0。
     } // deleteHistoryIfBelongsToUser 方法结束。
     
-    @Transactional // 声明此方法应在数据库事务中执行。
     public int batchDeleteHistoryIfBelongsToUser(List<Long> historyIds, Long userId) { // 定义一个有条件地批量删除历史记录的方法。
-        List<CrawlHistory> userHistories = crawlHistoryRepository.findByUserIdAndIdIn(userId, historyIds); // 查询属于指定用户且ID在给定列表中的所有记录。
-        
-        if (userHistories.isEmpty()) { // 检查查询结果是否为空。
-            return 0; // 如果没有找到匹配的记录，则返回删除数量0。
-        } // if 条件块结束。
-        
-        List<Long> userHistoryIds = userHistories.stream() // 将找到的实体列表转换为一个流。
-                .map(CrawlHistory::getId) // 使用方法引用从每个CrawlHistory对象中提取ID。
-                .collect(Collectors.toList()); // 将提取出的ID收集到一个新的列表中。
-        
-        crawlHistoryRepository.deleteAllById(userHistoryIds); // 调用仓库方法批量删除所有ID在列表中的记录。
-        return userHistoryIds.size(); // 返回成功删除的记录数量。
+        int deleted = 0; // 初始化删除计数器。
+        for (int from = 0; from < historyIds.size(); from += DELETE_CHUNK) { // 按块处理，避免IN子句过长。
+            List<Long> chunk = historyIds.subList(from, Math.min(from + DELETE_CHUNK, historyIds.size())); // 取出当前块的ID。
+            List<Long> owned = crawlHistoryRepository.findIdsByUserIdAndIdIn(userId, chunk); // 只查询主键列，筛选出属于该用户的记录。
+            deleted += deleteOwnedChunk(userId, owned); // 解除新闻关联并删除这一块记录。
+        } // for 循环结束。
+        return deleted; // 返回成功删除的记录数量。
     } // batchDeleteHistoryIfBelongsToUser 方法结束。
     
-    @Transactional // 声明此方法应在数据库事务中执行。
     public int deleteAllHistoryByUserId(Long userId) { // 定义一个删除指定用户所有历史记录的方法。
-        List<CrawlHistory> userHistories = crawlHistoryRepository.findByUserId(userId); // 根据用户ID查询其所有的历史记录。
-        int count = userHistories.size(); // 获取查询到的记录总数。
-        
-        if (count > 0) { // 检查是否有记录需要删除。
-            crawlHistoryRepository.deleteByUserId(userId); // 如果有，则调用仓库方法删除该用户的所有记录。
-        } // if 条件块结束。
-        
-        return count; // 返回被删除的记录总数。
+        int deleted = 0; // 初始化删除计数器。
+        while (true) { // 循环处理，每次取出一块ID，删除后再取下一块。
+            List<Long> ids = crawlHistoryRepository.findIdsByUserId(userId, Limit.of(DELETE_CHUNK)); // 只查询主键列，不加载实体。
+            if (ids.isEmpty()) { // 如果没有剩余记录。
+                break; // 退出循环。
+            } // if 条件块结束。
+            int removed = deleteOwnedChunk(userId, ids); // 解除新闻关联并删除这一块记录。
+            deleted += removed; // 累加删除数量。
+            if (removed == 0) { // 如果这一块没有删除任何记录（例如被并发删除），则结束，避免死循环。
+                break; // 退出循环。
+            } // if 条件块结束。
+        } // while 循环结束。
+        return deleted; // 返回被删除的记录总数。
     } // deleteAllHistoryByUserId 方法结束。
 
+    private int deleteOwnedChunk(Long userId, List<Long> ids) { // 定义一个私有方法，移除一块历史记录的新闻关联后删除这些记录，返回删除数量。
+        if (ids.isEmpty()) { // 如果没有需要删除的记录。
+            return 0; // 直接返回0。
+        } // if 条件块结束。
+        int unlinked = 0; // 初始化移除关联的计数器。
+        int removed; // 声明每条DELETE语句影响的行数。
+        do { // 每条DELETE最多移除UNLINK_CHUNK条关联，各自在独立的短事务中提交，大历史记录也不会长时间锁住大量行。
+            removed = newsHistoryRepository.deleteByHistoryIdIn(ids, UNLINK_CHUNK); // 用一条DELETE语句移除关联。
+            unlinked += removed; // 累加移除关联的数量。
+        } while (removed == UNLINK_CHUNK); // 本次删除满额时可能还有剩余，继续执行。
+        Integer deleted = transactionTemplate.execute(status -> { // 在一个事务中删除这一块记录。
+            newsHistoryRepository.deleteByHistoryIdIn(ids, Integer.MAX_VALUE); // 再次移除关联，处理删除前刚被并发写入的关联。
+            return crawlHistoryRepository.deleteByUserIdAndIdIn(userId, ids); // 用一条DELETE语句删除记录。
+        }); // 事务结束。
+        termStatService.deleteHistories(ids); // 分块删除这些历史记录的词频统计。
+        ids.forEach(id -> eventPublisher.publishEvent(NewsChangedEvent.history(id))); // 发布这些历史记录的变化事件，释放它们的缓存结果。
+        log.info("用户 {} 删除 {} 条历史记录，移除 {} 条新闻关联", userId, deleted, unlinked); // 记录删除日志。
+        return deleted == null ? 0 : deleted; // 返回删除数量。
+    } // deleteOwnedChunk 方法结束。
+
+    public int linkNews(Long historyId, Collection<Long> newsIds) { // 定义一个把一批新闻关联到历史记录的方法，同时把新关联新闻的词频累加到该历史记录的统计中，返回新建立的关联数量。
+        if (historyId == null || newsIds.isEmpty()) { // 如果没有历史记录或新闻。
+            return 0; // 直接返回0。
+        } // if 条件块结束。
+        Integer linked = transactionTemplate.execute(status -> { // 在一个事务中写入关联和统计，已在外层事务中时加入外层事务。
+            Set<Long> fresh = new LinkedHashSet<>(newsIds); // 复制并去重新闻ID。
+            newsHistoryRepository.findLinkedNewsIds(historyId, fresh).forEach(fresh::remove); // 排除已关联的新闻，避免重复计入词频。
+            if (fresh.isEmpty()) { // 如果全部已关联。
+                return 0; // 返回0。
+            } // if 条件块结束。
+            int inserted = newsHistoryRepository.linkAll(historyId, fresh); // 用一条INSERT语句写入关联，执行前会先刷新待插入的新闻。
+            termStatService.addToHistory(historyId, fresh); // 用一条INSERT ... SELECT语句累加这些新闻的词频。
+            eventPublisher.publishEvent(NewsChangedEvent.history(historyId)); // 发布该历史记录的新闻变化事件，事务提交后其分析结果失效。
+            return inserted; // 返回新建立的关联数量。
+        }); // 事务结束。
+        return linked == null ? 0 : linked; // 返回新建立的关联数量。
+    } // linkNews 方法结束。
+
+    public Set<Long> findUndeliveredNewsIds(Long subscriptionId, Collection<Long> newsIds) { // 定义一个从给定新闻中找出尚未分发给指定订阅的新闻的方法，已关联到该订阅任何一条历史记录的新闻不再分发。
+        if (newsIds.isEmpty()) { // 如果没有新闻。
+            return new HashSet<>(); // 返回可修改的空集合，调用方会从中移除已分发的新闻。
+        } // if 条件块结束。
+        return new HashSet<>(newsHistoryRepository.findUndeliveredNewsIds(subscriptionId, newsIds)); // 查询并返回尚未分发的新闻ID。
+    } // findUndeliveredNewsIds 方法结束。
+
     public Optional<CrawlHistory> findById(Long id) { // 定义一个根据ID查找单个爬取历史记录的方法。
         return crawlHistoryRepository.findById(id); // 调用仓库的findById方法，并返回一个可能包含结果的Optional对象。
     } // findById 方法结束。
@@ -1,165 +1,93 @@
 package com.hhu.javawebcrawler.demo.service;
 
+import com.hhu.javawebcrawler.demo.aspect.ReadReplica;
+import com.hhu.javawebcrawler.demo.entity.TermStat;
+import com.hhu.javawebcrawler.demo.utils.CompressedText;
+import com.hhu.javawebcrawler.demo.utils.TermExtractor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
-import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 // @Service注解，将这个类标记为Spring容器中的一个服务组件
 @Service
+// 所有分析查询都是全表扫描级别的只读查询，配置了只读副本时从副本读取，避免拖慢爬虫写入；
+// 经AnalysisResultCache缓存的结果在未命中时固定到主库计算，保证缓存的结果不早于触发失效的提交
+@ReadReplica
 // 定义一个名为DataAnalysisService的公共类
 public class DataAnalysisService {
 
     // 获取一个私有的、静态的、最终的Logger实例，用于记录日志
     private static final Logger logger = LoggerFactory.getLogger(DataAnalysisService.class);
     
-    // 定义一个私有的、静态的、最终的Set集合，用于存储停用词
-    private static final Set<String> STOP_WORDS = new HashSet<>(Arrays.asList(
-        // 中文常用虚词、代词、连词等
-        "的", "了", "和", "是", "在", "我", "有", "你", "他", "她", "它", "这", "那", "都", "也",
-        // 中文常用副词、介词等
-        "就", "要", "会", "到", "可以", "被", "等", "与", "以", "及", "但", "但是", "而", "或", "则",
-        // 中文因果、条件连词等
-        "因为", "所以", "如果", "只要", "只有", "不", "没有", "一个", "一种", "一样", "一点", "一些",
-        // 数字字符
-        "1", "2", "3", "4", "5", "6", "7", "8", "9", "0", 
-        // 中文数字和时间单位等
-        "一", "二", "三", "四", "五", "六", "七", "八", "九", "十", "日", "月", "年", "最", "多",
-        // 常见无意义实体词
-        "人", "从", "对", "能", "为", "地", "得", "着", "说", "上", "下", "中", "前", "后", "里",
-        // 新闻领域常见无意义词
-        "中国", "记者", "报道", "新闻", "来源", "时间", "今天", "记者", "编辑", "频道", "评论"
-    // 列表结束
-    ));
-    
-    // 定义一个私有的、静态的、最终的Pattern对象，用于匹配长度至少为2的中文词或英文词
-    private static final Pattern WORD_PATTERN = Pattern.compile("[\\u4e00-\\u9fa5]{2,}|[a-zA-Z]{2,}");
+    // 定义新闻元数据左连接正文表的FROM子句，只在需要按正文查询时使用
+    private static final String NEWS_WITH_CONTENT = " FROM t_news_data n LEFT JOIN t_news_content c ON c.news_id = n.id";
+
+    // 定义趋势统计使用的新闻时间，发布时间缺失时使用抓取时间，与词语小时桶的计算一致
+    private static final String NEWS_TIME = "COALESCE(n.publish_time, n.fetch_time)";
+
+    // 定义按爬取历史过滤新闻的条件，新闻与历史的多对多关联保存在t_news_history表中，热表和归档表共用
+    private static final String HISTORY_FILTER = " AND id IN (SELECT news_id FROM t_news_history WHERE history_id = ?)";
     
     // 声明一个私有的、最终的JdbcTemplate成员变量，用于数据库操作
     private final JdbcTemplate jdbcTemplate;
+    // 声明一个私有的、最终的词频聚合服务，用于读取词云和热词
+    private final TermStatService termStatService;
+    // 声明一个私有的、最终的关键词条件构建器，按关键词长度选择全文索引或子串匹配
+    private final KeywordQueryBuilder keywordQueryBuilder;
 
-    // 定义DataAnalysisService的公共构造函数，通过依赖注入接收JdbcTemplate实例
-    public DataAnalysisService(JdbcTemplate jdbcTemplate) {
+    // 定义DataAnalysisService的公共构造函数，通过依赖注入接收JdbcTemplate、词频聚合服务和关键词条件构建器实例
+    public DataAnalysisService(JdbcTemplate jdbcTemplate, TermStatService termStatService, KeywordQueryBuilder keywordQueryBuilder) {
         // 将注入的JdbcTemplate实例赋值给本类的成员变量
         this.jdbcTemplate = jdbcTemplate;
+        // 将注入的词频聚合服务赋值给本类的成员变量
+        this.termStatService = termStatService;
+        // 将注入的关键词条件构建器赋值给本类的成员变量
+        this.keywordQueryBuilder = keywordQueryBuilder;
     // 构造函数结束
     }
 
-    // 定义一个公共方法，用于生成词云数据
+    // 定义一个公共方法，用于生成词云数据；词频在入库时已累加到聚合表，这里只按索引读取前limit个词
     public List<Map<String, Object>> generateWordCloudData(String source, Integer limit, Long historyId) {
         // 记录生成词云数据的日志信息，包含参数
         logger.info("生成词云数据，数据源: {}, 限制: {}, 历史ID: {}", source, limit, historyId);
         
-        // 使用StringBuilder构建SQL查询的WHERE子句
-        StringBuilder whereClause = new StringBuilder(" WHERE 1=1");
-        // 创建一个ArrayList用于存放SQL查询的参数
-        List<Object> params = new ArrayList<>();
-        
-        // 检查是否提供了爬取历史ID
-        if (historyId != null) {
-            // 如果提供了，向WHERE子句中追加ID过滤条件
-            whereClause.append(" AND crawl_history_id = ?");
-            // 将历史ID添加到参数列表中
-            params.add(historyId);
-        // if语句结束
-        }
-        
-        // 声明一个字符串变量，用于存储要查询的数据列名，默认为"title"
-        String dataColumn = "title";
+        // 声明一个字符串变量，用于存储要统计的词语来源，默认为标题
+        String termSource = TermStatService.SOURCE_TITLE;
         // 如果请求的数据源是"content"
         if ("content".equals(source)) {
-            // 将查询列名设置为"content"
-            dataColumn = "content";
+            // 统计正文词语
+            termSource = TermStatService.SOURCE_CONTENT;
         // 如果请求的数据源是"keywords"
         } else if ("keywords".equals(source)) {
-            // 将查询列名设置为"keywords"
-            dataColumn = "keywords";
+            // 统计关键词
+            termSource = TermStatService.SOURCE_KEYWORDS;
         // if-else if语句结束
         }
         
-        // 构建完整的SQL查询语句
-        String sql = "SELECT " + dataColumn + " FROM t_news_data " + whereClause + " AND " + dataColumn + " IS NOT NULL";
-        // 记录将要执行的SQL语句
-        logger.debug("执行SQL: {}", sql);
-        // 执行查询，将结果映射为字符串列表
-        List<String> rawTexts = jdbcTemplate.query(sql, params.toArray(), (rs, rowNum) -> rs.getString(1));
-        // 记录查询到的原始数据条数
-        logger.debug("查询到 {} 条原始数据", rawTexts.size());
-        
-        // 创建一个HashMap用于存储词语及其出现的频率
-        Map<String, Integer> wordFrequency = new HashMap<>();
-        
-        // 遍历从数据库获取的每一段文本
-        for (String text : rawTexts) {
-            // 如果文本为空或只包含空白字符，则跳过
-            if (text == null || text.trim().isEmpty()) {
-                // 继续下一次循环
-                continue;
-            // if语句结束
-            }
-            
-            // 如果数据源是"keywords"
-            if ("keywords".equals(source)) {
-                // 按逗号分割关键词字符串
-                String[] keywords = text.split(",");
-                // 遍历分割后的每个关键词
-                for (String keyword : keywords) {
-                    // 去除关键词两端的空白
-                    String trimmed = keyword.trim();
-                    // 如果关键词非空且不是停用词
-                    if (!trimmed.isEmpty() && !STOP_WORDS.contains(trimmed)) {
-                        // 更新该关键词的词频统计，如果不存在则设为1，存在则加1
-                        wordFrequency.put(trimmed, wordFrequency.getOrDefault(trimmed, 0) + 1);
-                    // if语句结束
-                    }
-                // 内层for循环结束
-                }
-            // 如果数据源是标题或内容
-            } else {
-                // 对文本进行分词
-                List<String> words = segmentText(text);
-                // 遍历分词后的每个词语
-                for (String word : words) {
-                    // 如果词语不是停用词
-                    if (!STOP_WORDS.contains(word)) {
-                        // 更新该词语的词频统计
-                        wordFrequency.put(word, wordFrequency.getOrDefault(word, 0) + 1);
-                    // if语句结束
-                    }
-                // 内层for循环结束
-                }
-            // if-else语句结束
-            }
-        // 外层for循环结束
+        // 从聚合表读取词频最高的词语
+        Map<String, Long> topTerms = termStatService.topTerms(historyId, Map.of(termSource, 1), limit);
+        
+        // 创建一个列表用于存放词云数据
+        List<Map<String, Object>> result = new ArrayList<>(topTerms.size());
+        // 遍历按词频降序排列的词语
+        for (Map.Entry<String, Long> entry : topTerms.entrySet()) {
+            // 创建一个新的HashMap用于存放单个词云数据
+            Map<String, Object> wordData = new HashMap<>();
+            // 将词语存入"text"键
+            wordData.put("text", entry.getKey());
+            // 将词频存入"weight"键
+            wordData.put("weight", entry.getValue());
+            // 加入结果列表
+            result.add(wordData);
+        // for循环结束
         }
         
-        // 记录分词后独立词语的数量
-        logger.debug("分词后得到 {} 个不同的词", wordFrequency.size());
-        
-        // 对词频Map进行处理，以生成最终结果
-        List<Map<String, Object>> result = wordFrequency.entrySet().stream()
-                // 按词频（Map的值）降序排序
-                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
-                // 限制结果列表的大小
-                .limit(limit)
-                // 将每个Map条目转换为包含"text"和"weight"键的Map
-                .map(entry -> {
-                    // 创建一个新的HashMap用于存放单个词云数据
-                    Map<String, Object> wordData = new HashMap<>();
-                    // 将词语存入"text"键
-                    wordData.put("text", entry.getKey());
-                    // 将词频存入"weight"键
-                    wordData.put("weight", entry.getValue());
-                    // 返回构建好的Map
-                    return wordData;
-                // map操作结束
-                })
-                // 将处理后的流元素收集到一个列表中
-                .collect(Collectors.toList());
-        
         // 记录返回的词云数据条数
         logger.debug("返回词云数据 {} 条", result.size());
         // 返回最终的词云数据列表
@@ -167,116 +95,30 @@ public class DataAnalysisService {
     // generateWordCloudData方法结束
     }
     
-    // 定义一个公共方法，用于获取热词排行榜
+    // 定义一个公共方法，用于获取热词排行榜；关键词权重为2，标题词权重为1，由聚合表一次加权汇总
     public List<Map<String, Object>> getHotWords(Integer limit, Long historyId) {
         // 记录获取热词的日志信息
         logger.info("获取热词排行榜，限制: {}, 历史ID: {}", limit, historyId);
         
-        // 使用StringBuilder构建SQL查询的WHERE子句
-        StringBuilder whereClause = new StringBuilder(" WHERE 1=1");
-        // 创建一个ArrayList用于存放SQL查询的参数
-        List<Object> params = new ArrayList<>();
-        
-        // 检查是否提供了爬取历史ID
-        if (historyId != null) {
-            // 如果提供了，向WHERE子句中追加ID过滤条件
-            whereClause.append(" AND crawl_history_id = ?");
-            // 将历史ID添加到参数列表中
-            params.add(historyId);
-        // if语句结束
-        }
-        
-        // 构建查询关键词的SQL语句
-        String keywordSql = "SELECT keywords FROM t_news_data " + whereClause + " AND keywords IS NOT NULL";
-        // 构建查询标题的SQL语句
-        String titleSql = "SELECT title FROM t_news_data " + whereClause + " AND title IS NOT NULL";
-        
-        // 记录将要执行的关键词SQL
-        logger.debug("执行关键词SQL: {}", keywordSql);
-        // 执行查询获取所有关键词字符串
-        List<String> allKeywords = jdbcTemplate.query(keywordSql, params.toArray(), (rs, rowNum) -> rs.getString(1));
-        // 记录将要执行的标题SQL
-        logger.debug("执行标题SQL: {}", titleSql);
-        // 执行查询获取所有标题
-        List<String> allTitles = jdbcTemplate.query(titleSql, params.toArray(), (rs, rowNum) -> rs.getString(1));
-        
-        // 创建一个HashMap用于统计词频
-        Map<String, Integer> wordCount = new HashMap<>();
-        
-        // 遍历所有关键词字符串
-        for (String keywordsStr : allKeywords) {
-            // 如果关键词字符串为空或只包含空白，则跳过
-            if (keywordsStr == null || keywordsStr.trim().isEmpty()) {
-                // 继续下一次循环
-                continue;
-            // if语句结束
-            }
-            
-            // 按逗号分割关键词
-            String[] keywords = keywordsStr.split(",");
-            // 遍历每个关键词
-            for (String keyword : keywords) {
-                // 去除关键词两端的空白
-                String trimmed = keyword.trim();
-                // 如果关键词非空且不是停用词
-                if (!trimmed.isEmpty() && !STOP_WORDS.contains(trimmed)) {
-                    // 更新词频，关键词权重加2
-                    wordCount.put(trimmed, wordCount.getOrDefault(trimmed, 0) + 2);
-                // if语句结束
-                }
-            // 内层for循环结束
-            }
-        // 外层for循环结束
-        }
-        
-        // 遍历所有标题
-        for (String title : allTitles) {
-            // 如果标题为空或只包含空白，则跳过
-            if (title == null || title.trim().isEmpty()) {
-                // 继续下一次循环
-                continue;
-            // if语句结束
-            }
-            
-            // 对标题进行分词
-            List<String> words = segmentText(title);
-            // 遍历分词后的每个词语
-            for (String word : words) {
-                // 如果词语不是停用词
-                if (!STOP_WORDS.contains(word)) {
-                    // 更新词频，标题词权重加1
-                    wordCount.put(word, wordCount.getOrDefault(word, 0) + 1);
-                // if语句结束
-                }
-            // 内层for循环结束
-            }
-        // 外层for循环结束
+        // 从聚合表按加权词频读取前limit个词语
+        Map<String, Long> topTerms = termStatService.topTerms(historyId,
+                Map.of(TermStatService.SOURCE_KEYWORDS, 2, TermStatService.SOURCE_TITLE, 1), limit);
+        
+        // 创建一个列表用于存放热词数据
+        List<Map<String, Object>> result = new ArrayList<>(topTerms.size());
+        // 遍历按加权词频降序排列的词语
+        for (Map.Entry<String, Long> entry : topTerms.entrySet()) {
+            // 创建一个新的HashMap用于存放单个热词数据
+            Map<String, Object> wordData = new HashMap<>();
+            // 将词语存入"word"键
+            wordData.put("word", entry.getKey());
+            // 将词频存入"count"键
+            wordData.put("count", entry.getValue());
+            // 加入结果列表
+            result.add(wordData);
+        // for循环结束
         }
         
-        // 记录处理后的独立词语数量
-        logger.debug("关键词处理后得到 {} 个不同的词", wordCount.size());
-        
-        // 对词频Map进行处理，以生成最终结果
-        List<Map<String, Object>> result = wordCount.entrySet().stream()
-                // 按词频（Map的值）降序排序
-                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
-                // 限制结果列表的大小
-                .limit(limit)
-                // 将每个Map条目转换为包含"word"和"count"键的Map
-                .map(entry -> {
-                    // 创建一个新的HashMap用于存放单个热词数据
-                    Map<String, Object> wordData = new HashMap<>();
-                    // 将词语存入"word"键
-                    wordData.put("word", entry.getKey());
-                    // 将词频存入"count"键
-                    wordData.put("count", entry.getValue());
-                    // 返回构建好的Map
-                    return wordData;
-                // map操作结束
-                })
-                // 将处理后的流元素收集到一个列表中
-                .collect(Collectors.toList());
-        
         // 记录返回的热词数据条数
         logger.debug("返回热词数据 {} 条", result.size());
         // 返回最终的热词列表
@@ -284,125 +126,231 @@ public class DataAnalysisService {
     // getHotWords方法结束
     }
     
-    // 定义一个公共方法，用于获取关键词的时间趋势
-    public List<Map<String, Object>> getKeywordTimeTrend(String keyword, String timeUnit, Long historyId) {
+    // 定义一个公共方法，用于获取一个或多个关键词的时间趋势，start和end为可选的时间范围（左闭右开）
+    public List<Map<String, Object>> getKeywordTimeTrend(List<String> keywords, String timeUnit, Long historyId,
+                                                         LocalDateTime start, LocalDateTime end) {
         // 记录获取时间趋势的日志信息
-        logger.info("获取关键词时间趋势，关键词: {}, 时间单位: {}, 历史ID: {}", keyword, timeUnit, historyId);
+        logger.info("获取关键词时间趋势，关键词: {}, 时间单位: {}, 历史ID: {}, 时间范围: {} ~ {}", keywords, timeUnit, historyId, start, end);
+        
+        // 规范化时间单位，未知的单位按天处理
+        String unit = timeUnit == null ? "day" : timeUnit.toLowerCase();
+        // 创建按时间点排序的结果，键为时间点的起始时间
+        Map<LocalDateTime, Map<String, Object>> points = new TreeMap<>();
+        // 创建可从小时桶查询的关键词列表
+        List<String> indexed = new ArrayList<>();
+        // 小时桶按整点对齐，两条路径都使用对齐后的时间范围：开始时间向下、结束时间向上取整点
+        LocalDateTime from = start == null ? null : start.truncatedTo(ChronoUnit.HOURS);
+        // 结束时间不在整点时，包含其所在的整点
+        LocalDateTime to = end == null || end.equals(end.truncatedTo(ChronoUnit.HOURS)) ? end : end.truncatedTo(ChronoUnit.HOURS).plusHours(1);
+        // 遍历所有关键词
+        for (String keyword : keywords) {
+            // 词典中的词语总是被整体切出，小时桶与子串匹配的结果一致，直接对小时桶求和
+            if (TermExtractor.isDictionaryTerm(keyword)) {
+                // 加入小时桶查询列表
+                indexed.add(keyword);
+            // 其他关键词（短语、停用词、未登录词或词语的一部分）的切分取决于上下文，仍按子串匹配扫描新闻
+            } else {
+                // 扫描新闻并合并结果
+                scanKeywordTrend(points, keywords, keyword, unit, historyId, from, to);
+            // if-else结束
+            }
+        // for循环结束
+        }
+        // 如果有可从小时桶查询的关键词
+        if (!indexed.isEmpty()) {
+            // 查询小时桶并合并结果
+            sumHourBuckets(points, keywords, indexed, unit, historyId, from, to);
+        // if语句结束
+        }
         
-        // 构建SQL的WHERE子句，查询关键词、标题或内容中包含指定关键词的记录
-        StringBuilder whereClause = new StringBuilder(" WHERE (keywords LIKE ? OR title LIKE ? OR content LIKE ?)");
-        // 创建参数列表
+        // 按时间顺序返回结果
+        List<Map<String, Object>> result = new ArrayList<>(points.values());
+        // 记录返回的时间趋势数据条数
+        logger.debug("返回时间趋势数据 {} 条", result.size());
+        // 返回最终的时间趋势数据列表
+        return result;
+    // getKeywordTimeTrend方法结束
+    }
+
+    // 定义一个私有方法，对 t_term_hour 中这些词语的小时桶按时间单位求和，读取的是(history_id, term, bucket_hour, docs)覆盖索引；start和end已按整点对齐
+    private void sumHourBuckets(Map<LocalDateTime, Map<String, Object>> points, List<String> keywords, List<String> terms,
+                                String unit, Long historyId, LocalDateTime start, LocalDateTime end) {
+        // 创建参数列表，第一个参数为历史记录ID，全局统计为0
         List<Object> params = new ArrayList<>();
-        // 添加关键词参数，用于三个LIKE匹配
-        params.add("%" + keyword + "%");
-        // 添加关键词参数
-        params.add("%" + keyword + "%");
-        // 添加关键词参数
-        params.add("%" + keyword + "%");
-        
+        // 添加历史记录ID参数
+        params.add(historyId == null ? TermStat.ALL_HISTORIES : historyId);
+        // 添加词语参数
+        params.addAll(terms);
+        // 构建SQL，按时间点和词语分组求和
+        StringBuilder sql = new StringBuilder("SELECT ").append(timePointExpr(unit, "bucket_hour"))
+                .append(" AS time_point, term, SUM(docs) AS count FROM t_term_hour WHERE history_id = ? AND term IN (")
+                .append(String.join(",", Collections.nCopies(terms.size(), "?"))).append(")");
+        // 如果指定了开始时间
+        if (start != null) {
+            // 包含开始时间所在的整点
+            sql.append(" AND bucket_hour >= ?");
+            // 添加开始时间参数
+            params.add(start);
+        // if语句结束
+        }
+        // 如果指定了结束时间
+        if (end != null) {
+            // 结束时间不包含在内
+            sql.append(" AND bucket_hour < ?");
+            // 添加结束时间参数
+            params.add(end);
+        // if语句结束
+        }
+        // 按时间点和词语分组
+        sql.append(" GROUP BY time_point, term");
+        // 记录将要执行的SQL语句
+        logger.debug("执行SQL: {}", sql);
+        // 创建不区分大小写的词语到关键词的映射，数据库排序规则同样不区分大小写
+        Map<String, String> keywordOf = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        // 遍历词语
+        for (String term : terms) {
+            // 记录映射
+            keywordOf.put(term, term);
+        // for循环结束
+        }
+        // 执行查询并逐行合并结果
+        jdbcTemplate.query(sql.toString(), rs -> {
+            // 合并到对应的时间点
+            addPoint(points, keywords, rs.getString("time_point"), keywordOf.get(rs.getString("term")), rs.getLong("count"));
+        }, params.toArray());
+    // sumHourBuckets方法结束
+    }
+
+    // 定义一个私有方法，统计关键词、标题或正文中包含关键词的新闻，用于无法从小时桶查询的关键词；足够长的关键词走全文索引，较短的按子串匹配扫描
+    // 小时桶保留了已归档新闻的计数，这里同样统计归档表，两条路径的范围一致；start和end已按整点对齐
+    private void scanKeywordTrend(Map<LocalDateTime, Map<String, Object>> points, List<String> keywords, String keyword,
+                                  String unit, Long historyId, LocalDateTime start, LocalDateTime end) {
+        // 创建热表的参数列表
+        List<Object> params = new ArrayList<>();
+        // 构建热表的WHERE子句，条件和参数由构建器按关键词长度生成
+        String hotWhere = " WHERE " + keywordQueryBuilder.condition(keyword, params)
+                // 按历史记录过滤，新闻与历史的多对多关联保存在t_news_history表中
+                + (historyId == null ? "" : HISTORY_FILTER) + timeRange(historyId, start, end, params);
+        // 统计热表中的新闻
+        countByTimePoint(points, keywords, keyword, unit, NEWS_WITH_CONTENT + hotWhere, params);
+        // 创建归档表的参数列表
+        List<Object> archiveParams = new ArrayList<>();
+        // 构建归档表的WHERE子句；归档新闻沿用原ID，与历史的关联同样保存在t_news_history表中，与小时桶按同一关联过滤
+        String archiveWhere = " WHERE " + keywordQueryBuilder.archiveCondition(keyword, archiveParams)
+                + (historyId == null ? "" : HISTORY_FILTER) + timeRange(historyId, start, end, archiveParams);
+        // 统计归档表中的新闻
+        countByTimePoint(points, keywords, keyword, unit, " FROM t_news_archive n" + archiveWhere, archiveParams);
+    // scanKeywordTrend方法结束
+    }
+
+    // 定义一个私有的静态方法，返回历史记录和时间范围的附加条件：先追加历史ID参数，再追加时间参数
+    private static String timeRange(Long historyId, LocalDateTime start, LocalDateTime end, List<Object> params) {
+        // 创建条件
+        StringBuilder clause = new StringBuilder();
         // 检查是否提供了爬取历史ID
         if (historyId != null) {
-            // 如果提供了，向WHERE子句中追加ID过滤条件
-            whereClause.append(" AND crawl_history_id = ?");
             // 将历史ID添加到参数列表中
             params.add(historyId);
         // if语句结束
         }
-        
-        // 声明时间格式化字符串变量
-        String timeFormat;
-        // 声明SQL查询字符串变量
-        String sql;
-        
-        // 使用switch语句根据时间单位选择不同的SQL查询逻辑
-        switch (timeUnit.toLowerCase()) {
+        // 如果指定了开始时间
+        if (start != null) {
+            // 追加开始时间条件
+            clause.append(" AND ").append(NEWS_TIME).append(" >= ?");
+            // 添加开始时间参数
+            params.add(start);
+        // if语句结束
+        }
+        // 如果指定了结束时间
+        if (end != null) {
+            // 追加结束时间条件
+            clause.append(" AND ").append(NEWS_TIME).append(" < ?");
+            // 添加结束时间参数
+            params.add(end);
+        // if语句结束
+        }
+        // 返回条件
+        return clause.toString();
+    // timeRange方法结束
+    }
+
+    // 定义一个私有方法，按时间点分组统计满足条件的新闻数量并合并到结果中，fromWhere为以n为新闻表别名的FROM和WHERE子句
+    private void countByTimePoint(Map<LocalDateTime, Map<String, Object>> points, List<String> keywords, String keyword,
+                                  String unit, String fromWhere, List<Object> params) {
+        // 构建按时间点分组统计新闻数量的SQL
+        String sql = "SELECT " + timePointExpr(unit, NEWS_TIME) + " AS time_point, COUNT(*) AS count" + fromWhere + " GROUP BY time_point";
+        // 记录将要执行的SQL语句
+        logger.debug("执行SQL: {}", sql);
+        // 执行查询并逐行合并结果
+        jdbcTemplate.query(sql, rs -> {
+            // 合并到对应的时间点
+            addPoint(points, keywords, rs.getString("time_point"), keyword, rs.getLong("count"));
+        }, params.toArray());
+    // countByTimePoint方法结束
+    }
+
+    // 定义一个私有的静态方法，返回把时间列格式化为时间点的SQL表达式，格式与原有接口一致
+    private static String timePointExpr(String unit, String column) {
+        // 根据时间单位选择表达式
+        switch (unit) {
             // 如果时间单位是"hour6"
             case "hour6":
-                // 设置时间格式（未使用，但为说明）
-                timeFormat = "%Y-%m-%d %H";
-                // 构建按6小时分组的SQL
-                sql = "SELECT CONCAT(DATE_FORMAT(publish_time, '%Y-%m-%d '), FLOOR(HOUR(publish_time)/6)*6) as time_point, COUNT(*) as count " +
-                      "FROM t_news_data" + whereClause + 
-                      " GROUP BY time_point ORDER BY MIN(publish_time)";
-                // 结束case
-                break;
+                // 按6小时分组
+                return "CONCAT(DATE_FORMAT(" + column + ", '%Y-%m-%d '), FLOOR(HOUR(" + column + ")/6)*6)";
             // 如果时间单位是"hour12"
             case "hour12":
-                // 设置时间格式（未使用，但为说明）
-                timeFormat = "%Y-%m-%d %H";
-                // 构建按12小时分组的SQL
-                sql = "SELECT CONCAT(DATE_FORMAT(publish_time, '%Y-%m-%d '), FLOOR(HOUR(publish_time)/12)*12) as time_point, COUNT(*) as count " +
-                      "FROM t_news_data" + whereClause + 
-                      " GROUP BY time_point ORDER BY MIN(publish_time)";
-                // 结束case
-                break;
-            // 如果时间单位是"day"或默认情况
-            case "day":
-            // 默认情况
+                // 按12小时分组
+                return "CONCAT(DATE_FORMAT(" + column + ", '%Y-%m-%d '), FLOOR(HOUR(" + column + ")/12)*12)";
+            // 默认按天分组
             default:
-                // 设置按天分组的时间格式
-                timeFormat = "%Y-%m-%d";
-                // 构建按天分组的SQL
-                sql = "SELECT DATE_FORMAT(publish_time, ?) as time_point, COUNT(*) as count " +
-                      "FROM t_news_data" + whereClause + 
-                      " GROUP BY time_point ORDER BY MIN(publish_time)";
-                // 将时间格式作为第一个参数添加到参数列表
-                params.add(0, timeFormat);
-                // 结束case
-                break;
+                // 按天分组
+                return "DATE_FORMAT(" + column + ", '%Y-%m-%d')";
         // switch语句结束
         }
-        
-        // 记录将要执行的SQL语句
-        logger.debug("执行SQL: {}", sql);
-        
-        // 声明一个列表用于存储结果
-        List<Map<String, Object>> result;
-        
-        // 如果时间单位是小时级别
-        if (timeUnit.equals("hour6") || timeUnit.equals("hour12")) {
-            // 执行查询并处理结果流
-            result = jdbcTemplate.queryForList(sql, params.toArray()).stream()
-                    // 对每一行结果进行映射
-                    .map(row -> {
-                        // 创建一个新的HashMap存放单个时间点的数据
-                        Map<String, Object> point = new HashMap<>();
-                        // 存入时间点
-                        point.put("timePoint", row.get("time_point"));
-                        // 存入数量
-                        point.put("count", row.get("count"));
-                        // 返回构建好的Map
-                        return point;
-                    // map操作结束
-                    })
-                    // 将流收集为列表
-                    .collect(Collectors.toList());
-        // 如果是天级别
-        } else {
-            // 执行查询并处理结果流
-            result = jdbcTemplate.queryForList(sql, params.toArray()).stream()
-                // 对每一行结果进行映射
-                .map(row -> {
-                    // 创建一个新的HashMap存放单个时间点的数据
-                    Map<String, Object> point = new HashMap<>();
-                    // 存入时间点
-                    point.put("timePoint", row.get("time_point"));
-                    // 存入数量
-                    point.put("count", row.get("count"));
-                    // 返回构建好的Map
-                    return point;
-                // map操作结束
-                })
-                // 将流收集为列表
-                .collect(Collectors.toList());
-        // if-else结束
+    // timePointExpr方法结束
+    }
+
+    // 定义一个私有的静态方法，把一个关键词在某个时间点的数量合并到结果中；count为各关键词数量之和，counts为每个关键词的数量
+    @SuppressWarnings("unchecked")
+    private static void addPoint(Map<LocalDateTime, Map<String, Object>> points, List<String> keywords,
+                                 String timePoint, String keyword, long count) {
+        // 没有时间的新闻无法落到时间轴上，跳过
+        if (timePoint == null || keyword == null) {
+            // 直接返回
+            return;
+        // if语句结束
         }
-        
-        // 记录返回的时间趋势数据条数
-        logger.debug("返回时间趋势数据 {} 条", result.size());
-        // 返回最终的时间趋势数据列表
-        return result;
-    // getKeywordTimeTrend方法结束
+        // 解析时间点的起始时间，"yyyy-MM-dd" 或 "yyyy-MM-dd H"
+        String[] parts = timePoint.split(" ");
+        // 计算排序用的起始时间
+        LocalDateTime key = LocalDate.parse(parts[0]).atStartOfDay().plusHours(parts.length > 1 ? Long.parseLong(parts[1]) : 0);
+        // 取出或创建该时间点
+        Map<String, Object> point = points.computeIfAbsent(key, k -> {
+            // 创建一个新的HashMap存放单个时间点的数据
+            Map<String, Object> created = new HashMap<>();
+            // 存入时间点
+            created.put("timePoint", timePoint);
+            // 初始化总数
+            created.put("count", 0L);
+            // 初始化每个关键词的数量，保持请求中的顺序
+            Map<String, Long> counts = new LinkedHashMap<>();
+            // 遍历关键词
+            for (String each : keywords) {
+                // 初始化为0
+                counts.put(each, 0L);
+            // for循环结束
+            }
+            // 存入每个关键词的数量
+            created.put("counts", counts);
+            // 返回新建的时间点
+            return created;
+        // computeIfAbsent结束
+        });
+        // 累加总数
+        point.put("count", (Long) point.get("count") + count);
+        // 累加该关键词的数量
+        ((Map<String, Long>) point.get("counts")).merge(keyword, count, Long::sum);
+    // addPoint方法结束
     }
     
     // 定义一个公共方法，用于获取新闻来源分布
@@ -418,15 +366,17 @@ public class DataAnalysisService {
         // 检查是否提供了爬取历史ID
         if (historyId != null) {
             // 如果提供了，向WHERE子句中追加ID过滤条件
-            whereClause.append(" AND crawl_history_id = ?");
+            whereClause.append(HISTORY_FILTER);
             // 将历史ID添加到参数列表中
             params.add(historyId);
         // if语句结束
         }
         
-        // 构建SQL语句，按来源分组统计数量，并按数量降序排序
-        String sql = "SELECT source, COUNT(*) as count FROM t_news_data" + 
-                     whereClause + " GROUP BY source ORDER BY count DESC";
+        // 构建SQL语句，合并热表和归档表中的新闻，按来源分组统计数量，并按数量降序排序
+        String sql = "SELECT source, COUNT(*) as count FROM (SELECT source FROM t_news_data" + whereClause
+                     + " UNION ALL SELECT source FROM t_news_archive" + whereClause + ") n GROUP BY source ORDER BY count DESC";
+        // 归档表使用同一组条件，参数再追加一份
+        params.addAll(List.copyOf(params));
         
         // 记录将要执行的SQL语句
         logger.debug("执行SQL: {}", sql);
@@ -454,29 +404,33 @@ public class DataAnalysisService {
     // getSourceDistribution方法结束
     }
     
-    // 定义一个私有的辅助方法，用于对文本进行简单分词
-    private List<String> segmentText(String text) {
-        // 创建一个ArrayList用于存放分词结果
-        List<String> words = new ArrayList<>();
-        
-        // 使用预定义的正则表达式模式在文本中查找匹配项
-        java.util.regex.Matcher matcher = WORD_PATTERN.matcher(text);
-        // 循环查找匹配项
-        while (matcher.find()) {
-            // 获取匹配到的词语
-            String word = matcher.group();
-            // 检查词语长度是否大于等于2
-            if (word.length() >= 2) {
-                // 如果是，则添加到结果列表中
-                words.add(word);
-            // if语句结束
-            }
-        // while循环结束
-        }
-        
-        // 返回分词结果列表
-        return words;
-    // segmentText方法结束
+    // 定义一个公共方法，用于统计正文压缩存储的效果
+    public Map<String, Object> getContentStorageStats() {
+        // 查询正文条数、压缩前总字节数和压缩后总字节数；UNCOMPRESSED_LENGTH只读取压缩数据的长度头部
+        Map<String, Object> row = jdbcTemplate.queryForMap(
+                "SELECT COUNT(*) AS articles, COALESCE(SUM(UNCOMPRESSED_LENGTH(content_z)), 0) AS raw_bytes, "
+                        + "COALESCE(SUM(LENGTH(content_z)), 0) AS stored_bytes FROM t_news_content WHERE content_z IS NOT NULL");
+        // 取出压缩前总字节数
+        long rawBytes = ((Number) row.get("raw_bytes")).longValue();
+        // 取出压缩后总字节数
+        long storedBytes = ((Number) row.get("stored_bytes")).longValue();
+        // 创建一个有序Map存放统计结果
+        Map<String, Object> stats = new LinkedHashMap<>();
+        // 存入正文条数
+        stats.put("articles", ((Number) row.get("articles")).longValue());
+        // 存入压缩前总字节数
+        stats.put("rawBytes", rawBytes);
+        // 存入压缩后总字节数
+        stats.put("storedBytes", storedBytes);
+        // 存入压缩率（压缩后/压缩前）
+        stats.put("ratio", rawBytes == 0 ? null : (double) storedBytes / rawBytes);
+        // 存入本进程启动以来的压缩和解压统计
+        stats.put("process", CompressedText.stats());
+        // 记录统计结果
+        logger.info("正文存储统计: {}", stats);
+        // 返回统计结果
+        return stats;
+    // getContentStorageStats方法结束
     }
 // DataAnalysisService类结束
 } 
\ No newline at end of file
@@ -52,10 +52,6 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 // 导入Java IO类，用于表示IO操作可能抛出的异常
 import java.io.IOException;
-// 导入Java IO类，用于处理输入流
-import java.io.InputStream;
-// 导入Java URI类，用于表示统一资源标识符
-import java.net.URI;
 // 导入Java时间格式化类
 import java.time.format.DateTimeFormatter;
 // 导入Java Map集合接口
@@ -95,17 +91,23 @@ public class FileExportService {
     private final Map<String, String> fontMappings;
     // 声明一个Map用于存储文档样式的配置
     private final Map<String, Object> documentConfig;
+    // 声明一个带缓存的HTTP客户端，用于下载正文中的图片
+    private final CachedHttpClient httpClient;
     
     // 定义构造函数，用于依赖注入
     public FileExportService(
             // 使用@Qualifier注解，指定注入名为"fontPathMappings"的Bean
             @org.springframework.beans.factory.annotation.Qualifier("fontPathMappings") Map<String, String> fontMappings,
             // 使用@Qualifier注解，指定注入名为"documentStyleConfig"的Bean
-            @org.springframework.beans.factory.annotation.Qualifier("documentStyleConfig") Map<String, Object> documentExportConfig) {
+            @org.springframework.beans.factory.annotation.Qualifier("documentStyleConfig") Map<String, Object> documentExportConfig,
+            // 注入带缓存的HTTP客户端
+            CachedHttpClient httpClient) {
         // 将注入的字体映射赋值给类的成员变量
         this.fontMappings = fontMappings;
         // 将注入的文档配置赋值给类的成员变量
         this.documentConfig = documentExportConfig;
+        // 将注入的HTTP客户端赋值给类的成员变量
+        this.httpClient = httpClient;
         // 记录初始化日志，显示加载的字体数量
         logger.info("文件导出服务已初始化，加载了{}种字体", fontMappings.size());
     }
@@ -462,10 +464,10 @@ public class FileExportService {
                 // 在段落中创建一个文本运行
                 XWPFRun imgRun = imgParagraph.createRun();
 
-                // 使用try-with-resources语句自动关闭图片输入流
-                try (InputStream imageStream = URI.create(imgSrc).toURL().openStream()) {
-                    // 读取图片URL的全部字节
-                    byte[] imageBytes = imageStream.readAllBytes();
+                // 使用try-catch块处理图片下载时可能发生的异常
+                try {
+                    // 通过带缓存的HTTP客户端读取图片的全部字节，未变化的图片只需一次条件请求
+                    byte[] imageBytes = httpClient.get(imgSrc, 15000).getBody();
                     // 声明图片类型变量
                     int pictureType;
                     // 如果图片URL以.png结尾
@@ -923,8 +925,8 @@ public class FileExportService {
 
             // 使用try-catch块处理可能发生的异常
             try {
-                // 从URL创建图片数据，并构建一个Image对象
-                Image pdfImg = new Image(ImageDataFactory.create(URI.create(imgSrc).toURL()));
+                // 通过带缓存的HTTP客户端获取图片字节，并构建一个Image对象
+                Image pdfImg = new Image(ImageDataFactory.create(httpClient.get(imgSrc, 15000).getBody()));
                 // 设置图片宽度
                 pdfImg.setWidth(400);
                 // 设置图片水平居中对齐
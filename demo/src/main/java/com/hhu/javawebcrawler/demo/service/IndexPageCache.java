@@ -0,0 +1,294 @@
+package com.hhu.javawebcrawler.demo.service;
+
+import com.hhu.javawebcrawler.demo.DTO.IndexLink;
+import com.hhu.javawebcrawler.demo.utils.StringUtils;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.select.Elements;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+// 声明这是一个Spring的服务层组件。
+@Service
+// 使用Lombok为该类自动生成一个SLF4J的logger实例，变量名为log。
+@Slf4j
+// 定义一个名为 IndexPageCache 的公开类，用于缓存入口页解析后的链接快照。
+public class IndexPageCache {
+
+    // 声明用于下载入口页的、带缓存的HTTP客户端。
+    private final CachedHttpClient httpClient;
+    // 声明快照的有效期（毫秒），过期后下一次请求会重新下载入口页。
+    private final long ttlMillis;
+    // 声明缓存最多保留的入口页数量。
+    private final int maxEntries;
+    // 声明用于并发下载多个入口页的线程池。
+    private final ExecutorService fetchExecutor;
+
+    // 声明一个线程安全的Map，以入口URL为键存储已解析的链接快照。
+    private final Map<String, Snapshot> snapshots = new ConcurrentHashMap<>();
+    // 声明一个线程安全的Map，记录正在下载中的入口页，使并发的未命中请求合并为一次下载。
+    private final Map<String, CompletableFuture<List<IndexLink>>> inFlight = new ConcurrentHashMap<>();
+
+    // 声明命中计数器。
+    private final AtomicLong hitCount = new AtomicLong();
+    // 声明未命中（实际下载）计数器。
+    private final AtomicLong missCount = new AtomicLong();
+    // 声明合并等待计数器，记录搭上其他线程下载结果的请求数。
+    private final AtomicLong coalescedCount = new AtomicLong();
+
+    // 定义类的构造函数，从配置中读取快照有效期和容量。
+    public IndexPageCache(CachedHttpClient httpClient,
+                          @Value("${crawler.index-cache.ttl-seconds:120}") long ttlSeconds,
+                          @Value("${crawler.index-cache.max-entries:64}") int maxEntries,
+                          @Value("${crawler.index-cache.fetch-parallelism:4}") int fetchParallelism) {
+        // 保存注入的HTTP客户端。
+        this.httpClient = httpClient;
+        // 将秒换算为毫秒后保存。
+        this.ttlMillis = ttlSeconds * 1000L;
+        // 保存容量上限，至少为1。
+        this.maxEntries = Math.max(1, maxEntries);
+        // 创建固定大小的守护线程池，用于并发下载入口页。
+        this.fetchExecutor = Executors.newFixedThreadPool(Math.max(1, fetchParallelism), runnable -> {
+            // 创建新线程。
+            Thread thread = new Thread(runnable, "index-fetch");
+            // 设置为守护线程，不阻止应用退出。
+            thread.setDaemon(true);
+            // 返回线程。
+            return thread;
+        });
+    } // 构造函数结束。
+
+    // 在容器销毁时关闭线程池。
+    @PreDestroy
+    // 定义关闭方法。
+    public void shutdown() {
+        // 停止线程池，不再接收新任务。
+        fetchExecutor.shutdownNow();
+    } // shutdown方法结束。
+
+    // 定义异步获取入口页链接快照的方法，多个入口页可以同时下载；缓存命中与合并逻辑与getLinks相同。
+    public CompletableFuture<List<IndexLink>> getLinksAsync(String indexUrl) {
+        // 在线程池中执行getLinks，并将受检异常包装为CompletionException。
+        return CompletableFuture.supplyAsync(() -> {
+            // 开始一个try块，捕获下载异常。
+            try {
+                // 获取入口页链接快照。
+                return getLinks(indexUrl);
+            } catch (IOException e) { // 捕获IO异常。
+                // 包装后抛出，由调用方解包。
+                throw new CompletionException(e);
+            } // try-catch结束。
+        }, fetchExecutor);
+    } // getLinksAsync方法结束。
+
+    // 定义获取入口页链接快照的方法，命中且未过期时直接返回，否则下载并解析入口页。
+    public List<IndexLink> getLinks(String indexUrl) throws IOException {
+        // 去除入口URL首尾空格，作为缓存键。
+        String key = indexUrl.trim();
+        // 尝试从缓存中读取快照。
+        Snapshot snapshot = snapshots.get(key);
+        // 如果快照存在且未过期。
+        if (snapshot != null && !snapshot.isExpired(System.currentTimeMillis())) {
+            // 命中计数器加一。
+            hitCount.incrementAndGet();
+            // 记录命中日志。
+            log.debug("入口页快照缓存命中: {}", key);
+            // 直接返回快照中的链接列表。
+            return snapshot.links;
+        } // if条件结束。
+
+        // 创建一个新的Future，准备由当前线程负责下载。
+        CompletableFuture<List<IndexLink>> ownFuture = new CompletableFuture<>();
+        // 尝试登记为该入口页的下载者，如果已有线程在下载则拿到它的Future。
+        CompletableFuture<List<IndexLink>> existing = inFlight.putIfAbsent(key, ownFuture);
+        // 如果已有其他线程正在下载同一个入口页。
+        if (existing != null) {
+            // 合并计数器加一。
+            coalescedCount.incrementAndGet();
+            // 记录合并等待日志。
+            log.debug("入口页正在被其他请求下载，等待其结果: {}", key);
+            // 等待并返回其他线程的下载结果。
+            return await(existing, key);
+        } // if条件结束。
+
+        // 开始一个try块，确保无论成功失败都会移除下载登记。
+        try {
+            // 再次检查快照，防止在登记前另一个线程刚刚完成下载。
+            snapshot = snapshots.get(key);
+            // 如果此时已经有新鲜的快照。
+            if (snapshot != null && !snapshot.isExpired(System.currentTimeMillis())) {
+                // 命中计数器加一。
+                hitCount.incrementAndGet();
+                // 将结果交给可能正在等待的线程。
+                ownFuture.complete(snapshot.links);
+                // 返回快照中的链接列表。
+                return snapshot.links;
+            } // if条件结束。
+
+            // 未命中计数器加一。
+            missCount.incrementAndGet();
+            // 下载并解析入口页。
+            List<IndexLink> links = fetchLinks(key);
+            // 将新快照放入缓存。
+            snapshots.put(key, new Snapshot(links, System.currentTimeMillis() + ttlMillis));
+            // 检查容量并淘汰多余的快照。
+            evictIfNecessary();
+            // 将结果交给正在等待的线程。
+            ownFuture.complete(links);
+            // 返回新解析的链接列表。
+            return links;
+        } catch (IOException | RuntimeException e) { // 捕获下载或解析中的异常。
+            // 将异常传递给正在等待的线程。
+            ownFuture.completeExceptionally(e);
+            // 重新抛出异常，交由调用方处理。
+            throw e;
+        } finally { // 无论成功失败都执行。
+            // 移除下载登记，使后续请求可以重新尝试。
+            inFlight.remove(key, ownFuture);
+        } // try-catch-finally结束。
+    } // getLinks方法结束。
+
+    // 定义使某个入口页快照失效的方法。
+    public void invalidate(String indexUrl) {
+        // 从缓存中移除该入口页的快照。
+        snapshots.remove(indexUrl.trim());
+    } // invalidate方法结束。
+
+    // 定义返回缓存统计信息的方法。
+    public Map<String, Long> getStats() {
+        // 返回命中、未命中、合并等待次数以及当前快照数量。
+        return Map.of(
+                // 命中次数。
+                "hits", hitCount.get(),
+                // 未命中次数。
+                "misses", missCount.get(),
+                // 合并等待次数。
+                "coalesced", coalescedCount.get(),
+                // 当前缓存的快照数量。
+                "size", (long) snapshots.size());
+    } // getStats方法结束。
+
+    // 定义一个私有方法，等待其他线程的下载结果，并还原原始异常类型。
+    private List<IndexLink> await(CompletableFuture<List<IndexLink>> future, String key) throws IOException {
+        // 开始一个try块，捕获等待过程中的异常。
+        try {
+            // 阻塞等待下载结果。
+            return future.get();
+        } catch (InterruptedException e) { // 如果等待被中断。
+            // 恢复线程的中断标志。
+            Thread.currentThread().interrupt();
+            // 抛出IO异常，说明等待被中断。
+            throw new IOException("等待入口页下载时被中断: " + key, e);
+        } catch (ExecutionException e) { // 如果下载线程抛出了异常。
+            // 获取原始异常。
+            Throwable cause = e.getCause();
+            // 如果原始异常是IO异常，则原样抛出。
+            if (cause instanceof IOException) {
+                // 抛出原始IO异常。
+                throw (IOException) cause;
+            } // if条件结束。
+            // 如果原始异常是运行时异常，则原样抛出。
+            if (cause instanceof RuntimeException) {
+                // 抛出原始运行时异常。
+                throw (RuntimeException) cause;
+            } // if条件结束。
+            // 其他情况包装为IO异常抛出。
+            throw new IOException("下载入口页失败: " + key, cause);
+        } // try-catch结束。
+    } // await方法结束。
+
+    // 定义一个私有方法，下载入口页并解析出所有链接。
+    private List<IndexLink> fetchLinks(String indexUrl) throws IOException {
+        // 记录下载入口页的日志。
+        log.info("入口页快照未命中，开始下载入口页: {}", indexUrl);
+        // 通过带缓存的HTTP客户端获取入口页文档，入口页未变化时只需一次条件请求。
+        Document indexDoc = httpClient.getDocument(indexUrl, 20000);
+        // 从文档中选择所有带有href属性的<a>标签。
+        Elements anchors = indexDoc.select("a[href]");
+        // 初始化一个与链接数量相当的列表。
+        List<IndexLink> links = new ArrayList<>(anchors.size());
+        // 遍历所有找到的链接元素。
+        for (Element anchor : anchors) {
+            // 获取链接的绝对URL，去除首尾空格并移除查询参数和哈希片段。
+            String absUrl = StringUtils.cleanUrl(anchor.absUrl("href").trim());
+            // 跳过无法解析为绝对URL的链接。
+            if (absUrl == null || absUrl.isEmpty()) {
+                // 继续处理下一个链接。
+                continue;
+            } // if条件结束。
+            // 将URL与去除首尾空格的锚文本加入列表。
+            links.add(new IndexLink(absUrl, anchor.text().trim()));
+        } // for循环结束。
+        // 记录解析出的链接数量。
+        log.info("入口页 {} 解析完成，共 {} 个链接，已缓存 {} 秒", indexUrl, links.size(), ttlMillis / 1000);
+        // 返回不可修改的链接列表，保证多个请求共享时不会被修改。
+        return Collections.unmodifiableList(links);
+    } // fetchLinks方法结束。
+
+    // 定义一个私有方法，在快照数量超过上限时淘汰过期或最早过期的快照。
+    private void evictIfNecessary() {
+        // 如果当前数量未超过上限则直接返回。
+        if (snapshots.size() <= maxEntries) {
+            // 无需淘汰。
+            return;
+        } // if条件结束。
+        // 获取当前时间。
+        long now = System.currentTimeMillis();
+        // 先移除所有已过期的快照。
+        snapshots.entrySet().removeIf(entry -> entry.getValue().isExpired(now));
+        // 如果仍然超过上限，则反复移除最早过期的快照。
+        while (snapshots.size() > maxEntries) {
+            // 找出过期时间最早的快照键。
+            String oldest = snapshots.entrySet().stream()
+                    // 按过期时间比较。
+                    .min((a, b) -> Long.compare(a.getValue().expiresAt, b.getValue().expiresAt))
+                    // 取出键。
+                    .map(Map.Entry::getKey)
+                    // 如果为空则返回null。
+                    .orElse(null);
+            // 如果没有可移除的键则退出循环。
+            if (oldest == null) {
+                // 退出循环。
+                break;
+            } // if条件结束。
+            // 移除该快照。
+            snapshots.remove(oldest);
+        } // while循环结束。
+    } // evictIfNecessary方法结束。
+
+    // 定义一个私有静态内部类，表示一个带过期时间的入口页快照。
+    private static final class Snapshot {
+        // 快照中的链接列表。
+        private final List<IndexLink> links;
+        // 快照的过期时间戳（毫秒）。
+        private final long expiresAt;
+
+        // 定义快照的构造函数。
+        private Snapshot(List<IndexLink> links, long expiresAt) {
+            // 保存链接列表。
+            this.links = links;
+            // 保存过期时间戳。
+            this.expiresAt = expiresAt;
+        } // 构造函数结束。
+
+        // 判断快照在给定时间是否已经过期。
+        private boolean isExpired(long now) {
+            // 当前时间达到或超过过期时间即视为过期。
+            return now >= expiresAt;
+        } // isExpired方法结束。
+    } // Snapshot类结束。
+} // IndexPageCache类定义结束。
@@ -0,0 +1,104 @@
+package com.hhu.javawebcrawler.demo.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import java.util.List;
+
+// 声明这是一个Spring的服务层组件。
+@Service
+// 使用Lombok为该类自动生成一个SLF4J的logger实例，变量名为log。
+@Slf4j
+// 定义一个名为 KeywordQueryBuilder 的公开类，为按关键词过滤新闻的SQL生成条件：全文索引可用且关键词不短于ngram长度时使用MATCH ... AGAINST，否则回退到LIKE子串匹配。
+public class KeywordQueryBuilder {
+
+    // 定义全文索引的名称，由迁移步骤在t_news_content.search_text上创建。
+    public static final String INDEX_NAME = "ft_news_search_text";
+
+    // 定义在SQL中读取正文纯文本的表达式，纯文本以MySQL COMPRESS()格式压缩存储，只用于LIKE回退路径。
+    private static final String CONTENT_TEXT = "CONVERT(UNCOMPRESS(c.text_z) USING utf8mb4)";
+
+    // 声明一个用于执行SQL的JdbcTemplate字段。
+    private final JdbcTemplate jdbcTemplate;
+    // 声明全文索引是否可用。
+    private volatile boolean fullTextReady;
+    // 声明服务器的ngram长度，短于此长度的关键词无法通过ngram索引查到。
+    private volatile int ngramSize = Integer.MAX_VALUE;
+
+    // 定义类的构造函数，通过它注入依赖。
+    public KeywordQueryBuilder(JdbcTemplate jdbcTemplate) {
+        // 将注入的JdbcTemplate实例赋值给类成员变量。
+        this.jdbcTemplate = jdbcTemplate;
+    } // 构造函数结束。
+
+    // 定义刷新全文索引状态的方法，由迁移步骤在创建索引之后调用；索引不存在时保持LIKE路径。
+    public void refresh() {
+        // 查询全文索引是否存在。
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.statistics WHERE table_schema = DATABASE() "
+                        + "AND table_name = 't_news_content' AND index_name = ?", Integer.class, INDEX_NAME);
+        // 如果索引不存在。
+        if (count == null || count == 0) {
+            // 标记不可用。
+            fullTextReady = false;
+            // 记录日志。
+            log.info("全文索引 {} 不存在，关键词过滤使用LIKE子串匹配", INDEX_NAME);
+            // 直接返回。
+            return;
+        } // if条件结束。
+        // 读取服务器的ngram长度，只能在服务器启动时配置。
+        Integer size = jdbcTemplate.queryForObject("SELECT @@ngram_token_size", Integer.class);
+        // 保存ngram长度。
+        ngramSize = size == null ? 2 : size;
+        // 标记可用。
+        fullTextReady = true;
+        // 记录日志。
+        log.info("关键词过滤使用全文索引 {}，ngram长度: {}", INDEX_NAME, ngramSize);
+    } // refresh方法结束。
+
+    // 定义生成关键词过滤条件的方法，条件引用新闻表别名n和正文表别名c，调用方须以新闻表左连接正文表；参数按顺序追加到params。
+    public String condition(String keyword, List<Object> params) {
+        // 如果可以使用全文索引。
+        if (useFullText(keyword)) {
+            // ngram解析器在布尔模式下把带引号的关键词拆成相邻的ngram短语，与子串匹配等价。
+            params.add("\"" + keyword + "\"");
+            // 返回全文检索条件，search_text包含标题、关键词和纯文本正文。
+            return "MATCH(c.search_text) AGAINST(? IN BOOLEAN MODE)";
+        } // if条件结束。
+        // 构造子串匹配参数。
+        String pattern = "%" + keyword + "%";
+        // 添加关键词参数。
+        params.add(pattern);
+        // 添加标题参数。
+        params.add(pattern);
+        // 添加正文参数。
+        params.add(pattern);
+        // 返回子串匹配条件，需要解压并扫描每篇新闻的正文。
+        return "(n.keywords LIKE ? OR n.title LIKE ? OR " + CONTENT_TEXT + " LIKE ?)";
+    } // condition方法结束。
+
+    // 定义生成归档新闻关键词过滤条件的方法，条件引用归档表别名n；归档表没有检索文本和纯文本，按子串匹配标题、关键词和解压后的正文HTML。
+    public String archiveCondition(String keyword, List<Object> params) {
+        // 构造子串匹配参数。
+        String pattern = "%" + keyword + "%";
+        // 添加关键词参数。
+        params.add(pattern);
+        // 添加标题参数。
+        params.add(pattern);
+        // 添加正文参数。
+        params.add(pattern);
+        // 返回子串匹配条件。
+        return "(n.keywords LIKE ? OR n.title LIKE ? OR CONVERT(UNCOMPRESS(n.content_z) USING utf8mb4) LIKE ?)";
+    } // archiveCondition方法结束。
+
+    // 定义一个私有方法，判断关键词能否走全文索引：索引可用、关键词只包含字母和数字，且不短于ngram长度。
+    private boolean useFullText(String keyword) {
+        // 索引不可用或关键词短于ngram长度时，ngram索引中没有对应的词元。
+        if (!fullTextReady || keyword == null || keyword.codePointCount(0, keyword.length()) < ngramSize) {
+            // 回退到LIKE。
+            return false;
+        } // if条件结束。
+        // 空白、标点和布尔模式的运算符会被解析器拆分或解释，与子串匹配的语义不同，也回退到LIKE。
+        return keyword.codePoints().allMatch(Character::isLetterOrDigit);
+    } // useFullText方法结束。
+} // KeywordQueryBuilder类定义结束。
@@ -0,0 +1,294 @@
+package com.hhu.javawebcrawler.demo.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hhu.javawebcrawler.demo.DTO.CrawlSummary;
+import com.hhu.javawebcrawler.demo.entity.CrawlHistory;
+import com.hhu.javawebcrawler.demo.entity.KeywordSubscription;
+import com.hhu.javawebcrawler.demo.exception.CrawlerException;
+import com.hhu.javawebcrawler.demo.repository.KeywordSubscriptionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+// 声明这是一个Spring的服务层组件。
+@Service
+// 使用Lombok为该类自动生成一个SLF4J的logger实例，变量名为log。
+@Slf4j
+// 定义一个名为 KeywordSubscriptionService 的公开类，负责关键词订阅的管理与定时分发。
+public class KeywordSubscriptionService {
+
+    // 定义订阅分发产生的爬取历史类型。
+    public static final String CRAWL_TYPE = "SUBSCRIPTION";
+    // 定义未指定入口页时使用的默认入口页。
+    public static final String DEFAULT_INDEX_URL = "https://news.sina.com.cn/";
+
+    // 声明一个不可变的订阅仓库字段。
+    private final KeywordSubscriptionRepository subscriptionRepository;
+    // 声明一个不可变的新闻爬虫服务字段。
+    private final NewsCrawlerService newsCrawlerService;
+    // 声明一个不可变的爬取历史服务字段。
+    private final CrawlHistoryService crawlHistoryService;
+    // 声明一个用于处理JSON转换的ObjectMapper字段。
+    private final ObjectMapper objectMapper;
+    // 声明是否启用定时分发的开关。
+    private final boolean enabled;
+    // 声明一个标志，防止定时任务与手动触发的分发重叠执行。
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    // 定义类的构造函数，通过它注入依赖和配置。
+    public KeywordSubscriptionService(KeywordSubscriptionRepository subscriptionRepository,
+                                      NewsCrawlerService newsCrawlerService,
+                                      CrawlHistoryService crawlHistoryService,
+                                      @Value("${crawler.subscription.enabled:true}") boolean enabled) {
+        // 将注入的订阅仓库实例赋值给类成员变量。
+        this.subscriptionRepository = subscriptionRepository;
+        // 将注入的新闻爬虫服务实例赋值给类成员变量。
+        this.newsCrawlerService = newsCrawlerService;
+        // 将注入的爬取历史服务实例赋值给类成员变量。
+        this.crawlHistoryService = crawlHistoryService;
+        // 保存定时分发开关。
+        this.enabled = enabled;
+        // 创建并初始化一个ObjectMapper实例。
+        this.objectMapper = new ObjectMapper();
+    } // 构造函数结束。
+
+    // 定义创建订阅的方法，重复订阅时直接返回已有的订阅。
+    public KeywordSubscription subscribe(Long userId, String keyword, String indexUrl) {
+        // 将关键词规范化为去除首尾空格的小写形式，使相同关键词的订阅可以合并。
+        String normalizedKeyword = keyword.trim().toLowerCase();
+        // 如果关键词过长则拒绝。
+        if (normalizedKeyword.length() > 100) {
+            // 抛出一个“错误请求”异常。
+            throw CrawlerException.badRequest("关键词长度不能超过100个字符");
+        } // if条件结束。
+        // 如果未指定入口页则使用默认入口页。
+        String normalizedIndexUrl = (indexUrl == null || indexUrl.isBlank()) ? DEFAULT_INDEX_URL : indexUrl.trim();
+        // 查询是否已有相同的订阅，存在则直接返回，否则创建新订阅。
+        return subscriptionRepository.findByUserIdAndKeywordAndIndexUrl(userId, normalizedKeyword, normalizedIndexUrl)
+                .orElseGet(() -> {
+                    // 创建一个新的订阅实体。
+                    KeywordSubscription subscription = new KeywordSubscription();
+                    // 设置订阅者ID。
+                    subscription.setUserId(userId);
+                    // 设置规范化后的关键词。
+                    subscription.setKeyword(normalizedKeyword);
+                    // 设置入口页URL。
+                    subscription.setIndexUrl(normalizedIndexUrl);
+                    // 记录创建订阅的日志。
+                    log.info("用户 {} 订阅关键词 '{}'，入口页面: {}", userId, normalizedKeyword, normalizedIndexUrl);
+                    // 保存并返回新订阅。
+                    return subscriptionRepository.save(subscription);
+                });
+    } // subscribe方法结束。
+
+    // 定义获取用户所有订阅的方法。
+    public List<KeywordSubscription> getUserSubscriptions(Long userId) {
+        // 调用仓库方法查询并返回按创建时间降序排列的订阅列表。
+        return subscriptionRepository.findByUserIdOrderByCreatedTimeDesc(userId);
+    } // getUserSubscriptions方法结束。
+
+    // 声明此方法应在数据库事务中执行。
+    @Transactional
+    // 定义取消订阅的方法，只能取消属于自己的订阅。
+    public boolean unsubscribe(Long subscriptionId, Long userId) {
+        // 查询属于该用户的订阅。
+        return subscriptionRepository.findByIdAndUserId(subscriptionId, userId)
+                .map(subscription -> {
+                    // 删除该订阅。
+                    subscriptionRepository.delete(subscription);
+                    // 返回true表示删除成功。
+                    return true;
+                })
+                // 如果订阅不存在或不属于该用户，则返回false。
+                .orElse(false);
+    } // unsubscribe方法结束。
+
+    // 声明按配置的间隔定时执行订阅分发。
+    @Scheduled(initialDelayString = "${crawler.subscription.initial-delay-ms:60000}",
+               fixedDelayString = "${crawler.subscription.interval-ms:900000}")
+    // 定义定时任务入口方法。
+    public void scheduledRun() {
+        // 如果定时分发被关闭则直接返回。
+        if (!enabled) {
+            // 不执行任何操作。
+            return;
+        } // if条件结束。
+        // 执行一次订阅分发。
+        runSubscriptions();
+    } // scheduledRun方法结束。
+
+    // 定义执行一次订阅分发的方法，返回本次创建的历史记录数量。
+    public int runSubscriptions() {
+        // 如果已有分发正在执行，则跳过本次。
+        if (!running.compareAndSet(false, true)) {
+            // 记录跳过日志。
+            log.info("订阅分发仍在执行中，跳过本次触发");
+            // 返回0表示未创建任何历史记录。
+            return 0;
+        } // if条件结束。
+        // 开始一个try块，确保执行完毕后释放标志。
+        try {
+            // 查询所有订阅。
+            List<KeywordSubscription> subscriptions = subscriptionRepository.findAll();
+            // 如果没有订阅则直接返回。
+            if (subscriptions.isEmpty()) {
+                // 返回0。
+                return 0;
+            } // if条件结束。
+
+            // 将订阅按入口页分组，每个入口页只扫描一次。
+            Map<String, List<KeywordSubscription>> byIndexUrl = subscriptions.stream()
+                    // 按入口页URL分组，保持插入顺序。
+                    .collect(Collectors.groupingBy(KeywordSubscription::getIndexUrl, LinkedHashMap::new, Collectors.toList()));
+            // 记录分发开始日志。
+            log.info("开始订阅分发，共 {} 个订阅，{} 个入口页", subscriptions.size(), byIndexUrl.size());
+
+            // 初始化创建的历史记录计数器。
+            int historyCount = 0;
+            // 遍历每个入口页分组。
+            for (Map.Entry<String, List<KeywordSubscription>> entry : byIndexUrl.entrySet()) {
+                // 开始一个try块，单个入口页失败不影响其他入口页。
+                try {
+                    // 处理该入口页下的所有订阅并累加创建的历史记录数量。
+                    historyCount += runIndexGroup(entry.getKey(), entry.getValue());
+                } catch (Exception e) { // 捕获处理过程中的任何异常。
+                    // 记录错误日志。
+                    log.error("订阅分发过程中，入口页 {} 处理失败: {}", entry.getKey(), e.getMessage());
+                } // try-catch结束。
+            } // for循环结束。
+
+            // 记录分发完成日志。
+            log.info("订阅分发完成，共为订阅者创建 {} 条历史记录", historyCount);
+            // 返回创建的历史记录数量。
+            return historyCount;
+        } finally { // 无论成功失败都执行。
+            // 释放执行标志。
+            running.set(false);
+        } // try-finally结束。
+    } // runSubscriptions方法结束。
+
+    // 定义一个私有方法，处理同一入口页下的所有订阅：按不重复的关键词爬取一次，再分发给各订阅者。
+    private int runIndexGroup(String indexUrl, List<KeywordSubscription> subscriptions) throws Exception {
+        // 按关键词对订阅者分组。
+        Map<String, List<KeywordSubscription>> byKeyword = subscriptions.stream()
+                // 按关键词分组，保持插入顺序。
+                .collect(Collectors.groupingBy(KeywordSubscription::getKeyword, LinkedHashMap::new, Collectors.toList()));
+        // 记录本组的爬取规模，爬取成本只与不重复的关键词数量有关。
+        log.info("入口页 {}：{} 个订阅合并为 {} 个不重复关键词", indexUrl, subscriptions.size(), byKeyword.size());
+
+        // 一次扫描入口页，按所有关键词爬取，每个命中的URL只爬取一次。
+        Map<String, List<CrawlSummary>> newsByKeyword = newsCrawlerService.crawlNewsByKeywords(byKeyword.keySet(), indexUrl);
+        // 记录本次分发的时间。
+        LocalDateTime runTime = LocalDateTime.now();
+
+        // 初始化创建的历史记录计数器。
+        int historyCount = 0;
+        // 遍历每个关键词及其订阅者。
+        for (Map.Entry<String, List<KeywordSubscription>> entry : byKeyword.entrySet()) {
+            // 取出该关键词命中的新闻列表。
+            List<CrawlSummary> matched = newsByKeyword.getOrDefault(entry.getKey(), List.of());
+            // 遍历该关键词的每个订阅者。
+            for (KeywordSubscription subscription : entry.getValue()) {
+                // 筛选出尚未分发给该订阅的新闻。
+                List<CrawlSummary> fresh = filterUndelivered(matched, subscription);
+                // 如果有新文章，则为该订阅者创建一条历史记录。
+                if (!fresh.isEmpty()) {
+                    // 创建历史记录。
+                    createHistory(subscription, fresh);
+                    // 计数器加一。
+                    historyCount++;
+                } // if条件结束。
+                // 更新订阅的上次分发时间。
+                subscription.setLastRunTime(runTime);
+            } // for循环结束。
+        } // for循环结束。
+        // 批量保存更新后的订阅。
+        subscriptionRepository.saveAll(subscriptions);
+        // 返回创建的历史记录数量。
+        return historyCount;
+    } // runIndexGroup方法结束。
+
+    // 定义一个私有方法，筛选出尚未分发给该订阅的新闻：按t_news_history中该订阅各条历史记录已关联的新闻去重，
+    // 不依赖抓取时间，因此被其他用户或其他关键词先抓取入库的新闻、抓取时间与分发时间交错的新闻都不会漏发或重发。
+    private List<CrawlSummary> filterUndelivered(List<CrawlSummary> newsList, KeywordSubscription subscription) {
+        // 如果没有命中的新闻。
+        if (newsList.isEmpty()) {
+            // 直接返回原列表。
+            return newsList;
+        } // if条件结束。
+        // 查询尚未分发给该订阅的新闻ID。
+        Set<Long> undelivered = crawlHistoryService.findUndeliveredNewsIds(subscription.getId(),
+                newsList.stream().map(CrawlSummary::getId).filter(Objects::nonNull).collect(Collectors.toSet()));
+        // 初始化结果列表。
+        List<CrawlSummary> result = new ArrayList<>();
+        // 遍历所有命中的新闻。
+        for (CrawlSummary newsData : newsList) {
+            // 同一新闻只分发一次。
+            if (undelivered.remove(newsData.getId())) {
+                // 加入结果列表。
+                result.add(newsData);
+            } // if条件结束。
+        } // for循环结束。
+        // 返回新文章列表。
+        return result;
+    } // filterUndelivered方法结束。
+
+    // 定义一个私有方法，为订阅者创建一条包含新文章的爬取历史记录。
+    private void createHistory(KeywordSubscription subscription, List<CrawlSummary> fresh) {
+        // 创建一个新的CrawlHistory实体对象。
+        CrawlHistory crawlHistory = new CrawlHistory();
+        // 为历史记录设置订阅者的用户ID。
+        crawlHistory.setUserId(subscription.getUserId());
+        // 为历史记录设置爬取类型为订阅分发。
+        crawlHistory.setCrawlType(CRAWL_TYPE);
+        // 记录产生该历史记录的订阅，下次分发时据此排除已分发的新闻。
+        crawlHistory.setSubscriptionId(subscription.getId());
+        // 为历史记录设置入口URL。
+        crawlHistory.setUrl(subscription.getIndexUrl());
+        // 为历史记录设置标题。
+        crawlHistory.setTitle("订阅关键词: " + subscription.getKeyword() + "，新增 " + fresh.size() + " 条新闻");
+
+        // 创建一个Map来存储详细的分发参数。
+        Map<String, Object> params = new HashMap<>();
+        // 将订阅ID存入参数Map。
+        params.put("subscriptionId", subscription.getId());
+        // 将关键词存入参数Map。
+        params.put("keyword", subscription.getKeyword());
+        // 将入口URL存入参数Map。
+        params.put("entryUrl", subscription.getIndexUrl());
+        // 将新文章总数存入参数Map。
+        params.put("totalCount", fresh.size());
+        // 将最多5个样本URL存入参数Map。
+        params.put("sampleUrls", fresh.stream().limit(5).map(CrawlSummary::getUrl).collect(Collectors.toList()));
+
+        // 开始一个try块，处理JSON转换时可能发生的异常。
+        try {
+            // 将参数Map转换为JSON字符串并设置到历史记录中。
+            crawlHistory.setParams(objectMapper.writeValueAsString(params));
+        } catch (Exception e) { // 捕获在try块中发生的任何异常。
+            // 记录参数转换失败的警告日志。
+            log.warn("转换参数时出错: {}", e.getMessage());
+            // 设置一个表示错误的JSON字符串。
+            crawlHistory.setParams("{\"error\":\"转换参数时出错\"}");
+        } // try-catch结束。
+
+        // 保存历史记录，生成主键后才能写入关联。
+        CrawlHistory saved = crawlHistoryService.saveHistory(crawlHistory);
+        // 与其他爬取类型一样把分发的新闻写入关联表，同时累加该历史记录的词频统计并使其分析缓存失效。
+        crawlHistoryService.linkNews(saved.getId(), fresh.stream().map(CrawlSummary::getId).toList());
+        // 记录分发日志。
+        log.info("已为用户 {} 分发关键词 '{}' 的 {} 条新文章", subscription.getUserId(), subscription.getKeyword(), fresh.size());
+    } // createHistory方法结束。
+} // KeywordSubscriptionService类定义结束。
@@ -0,0 +1,190 @@
+package com.hhu.javawebcrawler.demo.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+// 声明这是一个Spring的服务层组件。
+@Service
+// 使用Lombok为该类自动生成一个SLF4J的logger实例，变量名为log。
+@Slf4j
+// 定义一个名为 NewsArchiveService 的公开类，定时把超过保留期的新闻从热表移到 t_news_archive 归档表。
+public class NewsArchiveService {
+
+    // 声明一个用于执行SQL的JdbcTemplate字段。
+    private final JdbcTemplate jdbcTemplate;
+    // 声明一个用于以编程方式控制事务的模板，每个分块在一个事务中移动。
+    private final TransactionTemplate transactionTemplate;
+    // 声明带正文新闻的进程内读缓存，归档后需要使对应条目失效。
+    private final NewsDataCache newsDataCache;
+    // 声明一个用于发布新闻变化事件的发布器，归档后使分析结果缓存失效。
+    private final ApplicationEventPublisher eventPublisher;
+    // 声明是否启用定时归档的开关。
+    private final boolean enabled;
+    // 声明热表保留的天数，抓取时间早于此天数的新闻会被归档。
+    private final int maxAgeDays;
+    // 声明每个事务移动的新闻数量。
+    private final int chunkSize;
+    // 声明一个标志，防止定时任务与手动触发的归档重叠执行。
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    // 定义类的构造函数，通过它注入依赖和配置。
+    public NewsArchiveService(JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              NewsDataCache newsDataCache,
+                              ApplicationEventPublisher eventPublisher,
+                              @Value("${crawler.archive.enabled:true}") boolean enabled,
+                              @Value("${crawler.archive.max-age-days:365}") int maxAgeDays,
+                              @Value("${crawler.archive.chunk-size:500}") int chunkSize) {
+        // 将注入的JdbcTemplate实例赋值给类成员变量。
+        this.jdbcTemplate = jdbcTemplate;
+        // 基于事务管理器创建事务模板。
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // 将注入的新闻缓存实例赋值给类成员变量。
+        this.newsDataCache = newsDataCache;
+        // 将注入的事件发布器赋值给类成员变量。
+        this.eventPublisher = eventPublisher;
+        // 保存定时归档开关。
+        this.enabled = enabled;
+        // 保存保留天数，至少为1天。
+        this.maxAgeDays = Math.max(1, maxAgeDays);
+        // 保存分块大小，至少为1。
+        this.chunkSize = Math.max(1, chunkSize);
+    } // 构造函数结束。
+
+    // 声明按配置的间隔定时执行归档。
+    @Scheduled(initialDelayString = "${crawler.archive.initial-delay-ms:300000}",
+               fixedDelayString = "${crawler.archive.interval-ms:86400000}")
+    // 定义定时任务入口方法。
+    public void scheduledRun() {
+        // 如果定时归档被关闭则直接返回。
+        if (!enabled) {
+            // 不执行任何操作。
+            return;
+        } // if条件结束。
+        // 执行一次归档。
+        archiveColdNews();
+    } // scheduledRun方法结束。
+
+    // 定义执行一次归档的方法，按主键分块移动所有过期新闻，返回本次归档的新闻数量。
+    public int archiveColdNews() {
+        // 如果已有归档正在执行，则跳过本次。
+        if (!running.compareAndSet(false, true)) {
+            // 记录跳过日志。
+            log.info("新闻归档仍在执行中，跳过本次触发");
+            // 返回0表示未归档任何新闻。
+            return 0;
+        } // if条件结束。
+        // 开始一个try块，确保执行完毕后释放标志。
+        try {
+            // 计算归档截止时间，抓取时间早于此时间的新闻会被移出热表。
+            LocalDateTime cutoff = LocalDateTime.now().minusDays(maxAgeDays);
+            // 初始化归档计数器。
+            int total = 0;
+            // 初始化未能归档的新闻ID集合，这些新闻留在热表中，本次不再重复选取。
+            Set<Long> skipped = new HashSet<>();
+            // 循环处理，直到没有过期新闻。
+            while (true) {
+                // 通过抓取时间索引取出一块过期新闻的ID。
+                List<Long> ids = jdbcTemplate.queryForList(
+                        "SELECT id FROM t_news_data WHERE fetch_time < ?" + excluding(skipped) + " ORDER BY fetch_time LIMIT ?",
+                        Long.class, cutoff, chunkSize);
+                // 如果没有过期新闻则结束。
+                if (ids.isEmpty()) {
+                    // 退出循环。
+                    break;
+                } // if条件结束。
+                // 记录移动前跳过的新闻数量。
+                int skippedBefore = skipped.size();
+                // 在一个事务中移动这一块新闻。
+                Integer moved = transactionTemplate.execute(status -> moveChunk(ids, skipped));
+                // 使这些新闻的缓存失效，之后按URL读取时会从归档表加载。
+                newsDataCache.invalidateIds(ids);
+                // 累加归档数量。
+                total += moved == null ? 0 : moved;
+                // 如果这一块既没有删除任何新闻（例如被并发删除），也没有新的跳过，则结束，避免死循环。
+                if ((moved == null || moved == 0) && skipped.size() == skippedBefore) {
+                    // 退出循环。
+                    break;
+                } // if条件结束。
+            } // while循环结束。
+            // 如果有新闻被归档，则记录日志。
+            if (total > 0) {
+                // 记录归档完成日志。
+                log.info("新闻归档完成，共将 {} 条抓取时间早于 {} 的新闻移入归档表", total, cutoff);
+                // 归档的新闻可能属于任意历史记录，使所有范围的分析结果失效。
+                eventPublisher.publishEvent(NewsChangedEvent.everything());
+            } // if条件结束。
+            // 返回归档数量。
+            return total;
+        } finally { // 无论成功失败都执行。
+            // 释放执行标志。
+            running.set(false);
+        } // try-finally结束。
+    } // archiveColdNews方法结束。
+
+    // 定义一个私有方法，返回排除未能归档的新闻的SQL条件；ID只来自数据库查询结果，直接拼接到SQL中。
+    private static String excluding(Set<Long> skipped) {
+        // 没有需要排除的新闻时不追加条件。
+        return skipped.isEmpty() ? "" : " AND id NOT IN (" + skipped.stream().map(String::valueOf).collect(Collectors.joining(",")) + ")";
+    } // excluding方法结束。
+
+    // 定义一个私有方法，在当前事务中复制一块新闻及其压缩正文到归档表，再从热表删除确认已写入归档表的新闻，返回删除的新闻数量；未能归档的新闻ID加入skipped，与历史记录的关联原样保留。
+    private int moveChunk(List<Long> ids, Set<Long> skipped) {
+        // 拼接IN子句的占位符。
+        String placeholders = String.join(",", Collections.nCopies(ids.size(), "?"));
+        // 转换为参数数组。
+        Object[] args = ids.toArray();
+        // 复制元数据和压缩正文，正文字节原样复制，不解压；归档表中已有相同URL的新闻会被唯一索引忽略。
+        jdbcTemplate.update("INSERT IGNORE INTO t_news_archive "
+                + "(id, url, url_hash, title, source, publish_time, keywords, fetch_time, archived_time, content_z) "
+                + "SELECT n.id, n.url, n.url_hash, n.title, n.source, n.publish_time, n.keywords, n.fetch_time, NOW(), c.content_z "
+                + "FROM t_news_data n LEFT JOIN t_news_content c ON c.news_id = n.id WHERE n.id IN (" + placeholders + ")", args);
+        // 查询确实写入了归档表的新闻，只删除这些新闻，被忽略的新闻留在热表中，不会丢失。
+        List<Long> archived = jdbcTemplate.queryForList("SELECT id FROM t_news_archive WHERE id IN (" + placeholders + ")", Long.class, args);
+        // 如果有新闻未能归档。
+        if (archived.size() < ids.size()) {
+            // 找出未能归档的新闻。
+            List<Long> missing = new ArrayList<>(ids);
+            // 移除已归档的新闻。
+            missing.removeAll(new HashSet<>(archived));
+            // 记录到跳过集合。
+            skipped.addAll(missing);
+            // 记录警告日志。
+            log.warn("{} 条新闻未能写入归档表（归档表中已有相同URL），保留在热表中: {}", missing.size(), missing);
+        } // if条件结束。
+        // 如果没有新闻被归档，则直接返回。
+        if (archived.isEmpty()) {
+            // 返回0。
+            return 0;
+        } // if条件结束。
+        // 拼接已归档新闻的占位符。
+        String archivedPlaceholders = String.join(",", Collections.nCopies(archived.size(), "?"));
+        // 转换为参数数组。
+        Object[] archivedArgs = archived.toArray();
+        // 先删除正文，再删除新闻元数据，满足外键约束。
+        jdbcTemplate.update("DELETE FROM t_news_content WHERE news_id IN (" + archivedPlaceholders + ")", archivedArgs);
+        // 删除这些新闻的词频明细；已累加的聚合统计保留，历史记录的词云仍反映当时爬取到的新闻，之后关联到新历史记录时从归档正文重新分词。
+        jdbcTemplate.update("DELETE FROM t_news_term WHERE news_id IN (" + archivedPlaceholders + ")", archivedArgs);
+        // 历史关联不删除：归档表沿用原ID，t_news_history中的关联继续指向归档新闻，各历史记录的新闻列表、分页和检索过滤仍包含它们。
+        // 删除新闻元数据并返回删除数量。
+        int deleted = jdbcTemplate.update("DELETE FROM t_news_data WHERE id IN (" + archivedPlaceholders + ")", archivedArgs);
+        // 记录调试日志。
+        log.debug("本块从热表移出 {} 条新闻", deleted);
+        // 返回删除数量。
+        return deleted;
+    } // moveChunk方法结束。
+} // NewsArchiveService类定义结束。
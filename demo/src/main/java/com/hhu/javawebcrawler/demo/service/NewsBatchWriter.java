@@ -0,0 +1,188 @@
+package com.hhu.javawebcrawler.demo.service;
+
+import com.hhu.javawebcrawler.demo.entity.NewsContent;
+import com.hhu.javawebcrawler.demo.entity.NewsData;
+import com.hhu.javawebcrawler.demo.repository.NewsContentRepository;
+import com.hhu.javawebcrawler.demo.repository.NewsDataRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+// 声明这是一个Spring的服务层组件。
+@Service
+// 使用Lombok为该类自动生成一个SLF4J的logger实例，变量名为log。
+@Slf4j
+// 定义一个名为 NewsBatchWriter 的公开类，负责将爬取到的新闻按批次写入数据库。
+public class NewsBatchWriter {
+
+    // 声明一个用于新闻数据持久化的、不可变的仓库字段。
+    private final NewsDataRepository newsDataRepository;
+    // 声明一个用于新闻正文持久化的、不可变的仓库字段。
+    private final NewsContentRepository newsContentRepository;
+    // 声明一个用于写入新闻与历史关联的、不可变的服务字段。
+    private final CrawlHistoryService crawlHistoryService;
+    // 声明一个用于记录新闻词频的、不可变的服务字段。
+    private final TermStatService termStatService;
+    // 声明一个用于以编程方式控制事务的模板，每个批次在一个事务中写入。
+    private final TransactionTemplate transactionTemplate;
+    // 声明每个批次的新闻数量。
+    private final int batchSize;
+
+    // 定义类的构造函数，通过它注入依赖和配置。
+    public NewsBatchWriter(NewsDataRepository newsDataRepository,
+                           NewsContentRepository newsContentRepository,
+                           CrawlHistoryService crawlHistoryService,
+                           TermStatService termStatService,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${crawler.persist.batch-size:50}") int batchSize) {
+        // 将注入的仓库实例赋值给类成员变量。
+        this.newsDataRepository = newsDataRepository;
+        // 将注入的正文仓库实例赋值给类成员变量。
+        this.newsContentRepository = newsContentRepository;
+        // 将注入的历史服务实例赋值给类成员变量。
+        this.crawlHistoryService = crawlHistoryService;
+        // 将注入的词频服务实例赋值给类成员变量。
+        this.termStatService = termStatService;
+        // 基于事务管理器创建事务模板。
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // 保存批次大小，至少为1。
+        this.batchSize = Math.max(1, batchSize);
+    } // 构造函数结束。
+
+    // 定义开启一个写入批次的方法，保存的新闻关联到historyId（可为null），每保存一条新闻就回调一次onSaved。
+    public Batch open(Long historyId, Consumer<NewsData> onSaved) {
+        // 创建并返回一个新的批次。
+        return new Batch(historyId, onSaved);
+    } // open方法结束。
+
+    // 定义一个私有方法，在当前事务中先保存新闻元数据，再把正文写入 t_news_content 表，并关联到历史记录。
+    private List<NewsData> persist(List<NewsData> chunk, Long historyId) {
+        // 保存新闻元数据，序列预分配的主键在此时即已确定。
+        List<NewsData> saved = newsDataRepository.saveAll(chunk);
+        // 初始化正文列表。
+        List<NewsContent> contents = new ArrayList<>(saved.size());
+        // 遍历已保存的新闻。
+        for (NewsData newsData : saved) {
+            // 如果该新闻有正文。
+            if (newsData.getContent() != null) {
+                // 创建正文记录，主键由新闻主键派生。
+                contents.add(new NewsContent(newsData, newsData.getContent(), newsData.getPlainText()));
+            } // if条件结束。
+        } // for循环结束。
+        // 批量保存正文。
+        newsContentRepository.saveAll(contents);
+        // 对整批新闻分词一次，写入词频并累加全局统计。
+        termStatService.recordNews(saved);
+        // 如果指定了历史记录。
+        if (historyId != null) {
+            // 写入整批关联并累加该历史记录的词频统计。
+            crawlHistoryService.linkNews(historyId, saved.stream().map(NewsData::getId).toList());
+        } // if条件结束。
+        // 返回已保存的新闻。
+        return saved;
+    } // persist方法结束。
+
+    // 定义一个公开的内部类，表示一次批量爬取期间的写入缓冲区，非线程安全，只在单个爬取任务内使用。
+    public final class Batch {
+        // 声明待写入的新闻列表。
+        private final List<NewsData> pending = new ArrayList<>(batchSize);
+        // 声明保存的新闻要关联的历史记录ID，可为null。
+        private final Long historyId;
+        // 声明保存成功后的回调。
+        private final Consumer<NewsData> onSaved;
+
+        // 定义批次的构造函数。
+        private Batch(Long historyId, Consumer<NewsData> onSaved) {
+            // 保存历史记录ID。
+            this.historyId = historyId;
+            // 保存回调。
+            this.onSaved = onSaved;
+        } // 构造函数结束。
+
+        // 定义添加一条待写入新闻的方法，累计达到批次大小时自动写入。
+        public void add(NewsData newsData) {
+            // 加入待写入列表。
+            pending.add(newsData);
+            // 如果达到批次大小。
+            if (pending.size() >= batchSize) {
+                // 立即写入。
+                flush();
+            } // if条件结束。
+        } // add方法结束。
+
+        // 定义将缓冲区中的新闻写入数据库的方法。
+        public void flush() {
+            // 如果没有待写入的新闻则直接返回。
+            if (pending.isEmpty()) {
+                // 无需写入。
+                return;
+            } // if条件结束。
+            // 复制一份当前批次，缓冲区在整批处理完成后才清空。
+            List<NewsData> chunk = new ArrayList<>(pending);
+            // 开始一个try块，批量写入失败时改为逐条写入。
+            try {
+                // 在一个事务中保存整个批次及其正文，Hibernate会将插入合并为JDBC批处理。
+                List<NewsData> saved = transactionTemplate.execute(status -> persist(chunk, historyId));
+                // 记录批量写入日志。
+                log.info("批量写入 {} 条新闻", chunk.size());
+                // 逐条回调保存结果。
+                saved.forEach(onSaved);
+            } catch (DataIntegrityViolationException e) { // 如果批次中有URL已被其他任务写入。
+                // 记录警告日志。
+                log.warn("批量写入 {} 条新闻时发生唯一约束冲突，改为逐条写入: {}", chunk.size(), e.getMessage());
+                // 逐条重试写入。
+                saveIndividually(chunk);
+            } catch (RuntimeException e) { // 捕获其他写入异常，例如连接中断或单条数据超长。
+                // 记录错误日志。
+                log.error("批量写入 {} 条新闻失败，改为逐条写入: {}", chunk.size(), e.getMessage());
+                // 逐条重试写入，只有写入失败的新闻会被丢弃。
+                saveIndividually(chunk);
+            } finally { // 无论成功失败都执行。
+                // 整批处理完成后清空缓冲区，使新闻正文在回调后即可被回收。
+                pending.clear();
+            } // try-catch-finally结束。
+        } // flush方法结束。
+
+        // 定义一个私有方法，在批量写入失败后逐条写入，跳过已存在的URL，其他写入失败的新闻逐条记录URL。
+        private void saveIndividually(List<NewsData> chunk) {
+            // 初始化写入失败的URL列表。
+            List<String> lost = new ArrayList<>();
+            // 遍历批次中的每条新闻。
+            for (NewsData newsData : chunk) {
+                // 清除失败事务中分配的主键，使其作为新实体重新插入。
+                newsData.setId(null);
+                // 开始一个try块，捕获单条写入的异常。
+                try {
+                    // 如果该URL已被其他任务写入，则跳过。
+                    if (newsDataRepository.existsByUrl(newsData.getUrl())) {
+                        // 记录跳过日志。
+                        log.info("新闻已被其他任务写入，跳过: {}", newsData.getUrl());
+                        // 继续处理下一条。
+                        continue;
+                    } // if条件结束。
+                    // 在一个事务中保存单条新闻及其正文并回调。
+                    onSaved.accept(transactionTemplate.execute(status -> persist(List.of(newsData), historyId)).get(0));
+                } catch (DataIntegrityViolationException e) { // 捕获唯一约束冲突。
+                    // 记录跳过日志。
+                    log.info("新闻写入冲突，跳过: {}", newsData.getUrl());
+                } catch (RuntimeException e) { // 捕获其他写入异常。
+                    // 记录写入失败的新闻。
+                    log.error("新闻写入失败，已丢弃: {} - {}", newsData.getUrl(), e.getMessage());
+                    // 加入失败列表。
+                    lost.add(newsData.getUrl());
+                } // try-catch结束。
+            } // for循环结束。
+            // 如果有新闻写入失败。
+            if (!lost.isEmpty()) {
+                // 汇总记录所有丢失的URL。
+                log.error("批次中 {} 条新闻写入失败: {}", lost.size(), lost);
+            } // if条件结束。
+        } // saveIndividually方法结束。
+    } // Batch类结束。
+} // NewsBatchWriter类定义结束。
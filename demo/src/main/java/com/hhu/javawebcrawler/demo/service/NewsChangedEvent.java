@@ -0,0 +1,24 @@
+package com.hhu.javawebcrawler.demo.service;
+
+// 定义一个名为 NewsChangedEvent 的记录类型，表示分析结果依赖的新闻数据发生了变化，在事务提交后用于使分析结果缓存失效。
+// historyId为null表示全局语料变化（新新闻入库），否则表示该历史记录关联的新闻变化；allScopes为true时所有范围都受影响（例如归档移走新闻）。
+public record NewsChangedEvent(Long historyId, boolean allScopes) {
+
+    // 定义创建"全局语料变化"事件的静态方法。
+    public static NewsChangedEvent corpus() {
+        // 返回不带历史记录ID的事件。
+        return new NewsChangedEvent(null, false);
+    } // corpus方法结束。
+
+    // 定义创建"某个历史记录的新闻变化"事件的静态方法。
+    public static NewsChangedEvent history(Long historyId) {
+        // 返回带历史记录ID的事件。
+        return new NewsChangedEvent(historyId, false);
+    } // history方法结束。
+
+    // 定义创建"所有范围都变化"事件的静态方法。
+    public static NewsChangedEvent everything() {
+        // 返回影响所有范围的事件。
+        return new NewsChangedEvent(null, true);
+    } // everything方法结束。
+} // NewsChangedEvent记录定义结束。
@@ -1,24 +1,40 @@
 package com.hhu.javawebcrawler.demo.service;
 
+import com.hhu.javawebcrawler.demo.DTO.CrawlSummary;
+import com.hhu.javawebcrawler.demo.DTO.IndexLink;
+import com.hhu.javawebcrawler.demo.DTO.MultiEntryCrawlResult;
+import com.hhu.javawebcrawler.demo.DTO.NewsSummaryView;
+import com.hhu.javawebcrawler.demo.aspect.ReadReplica;
 import com.hhu.javawebcrawler.demo.entity.CrawlHistory;
+import com.hhu.javawebcrawler.demo.entity.NewsArchive;
+import com.hhu.javawebcrawler.demo.entity.NewsContent;
 import com.hhu.javawebcrawler.demo.entity.NewsData;
+import com.hhu.javawebcrawler.demo.repository.NewsArchiveRepository;
+import com.hhu.javawebcrawler.demo.repository.NewsContentRepository;
 import com.hhu.javawebcrawler.demo.repository.NewsDataRepository;
+import com.hhu.javawebcrawler.demo.utils.CompressedText;
+import com.hhu.javawebcrawler.demo.utils.PlainTextExtractor;
+import com.hhu.javawebcrawler.demo.utils.UrlHashUtils;
 import lombok.extern.slf4j.Slf4j;
-import org.jsoup.Connection;
-import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
-import org.jsoup.select.Elements;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.io.IOException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.regex.Pattern;
 
 // 声明这是一个Spring的服务层组件。
@@ -30,6 +46,25 @@ public class NewsCrawlerService {
 
     // 声明一个用于新闻数据持久化的、不可变的仓库字段。
     private final NewsDataRepository newsDataRepository;
+    // 声明一个用于新闻正文持久化的、不可变的仓库字段。
+    private final NewsContentRepository newsContentRepository;
+    // 声明一个用于获取入口页链接快照的、不可变的缓存字段。
+    private final IndexPageCache indexPageCache;
+    // 声明一个用于抓取新闻页面的、带缓存的HTTP客户端字段。
+    private final CachedHttpClient httpClient;
+    // 声明一个用于按批次写入新闻的、不可变的写入器字段。
+    private final NewsBatchWriter newsBatchWriter;
+    // 声明带正文新闻的进程内读缓存。
+    private final NewsDataCache newsDataCache;
+    // 声明一个用于查询冷数据归档的、不可变的仓库字段。
+    private final NewsArchiveRepository newsArchiveRepository;
+    // 声明一个用于写入新闻与历史关联的、不可变的服务字段。
+    private final CrawlHistoryService crawlHistoryService;
+    // 声明一个用于记录新闻词频的、不可变的服务字段。
+    private final TermStatService termStatService;
+
+    // 定义批量查询已存在新闻时每次IN子句包含的URL数量。
+    private static final int EXISTING_LOOKUP_CHUNK = 500;
 
     // 定义一个静态不可变的字符串数组，存储用于提取新闻标题的CSS选择器。
     private static final String[] TITLE_SELECTORS = {"h1.main-title"};
@@ -61,393 +96,347 @@ public class NewsCrawlerService {
     // 定义一个静态不可变的正则表达式模式，用于匹配第二种新浪新闻URL格式。
     private static final Pattern SINA_NEWS_PATTERN_2 = Pattern.compile("^https://k\\.sina\\.com\\.cn/article_\\w+\\.html$");
 
-    // 定义类的构造函数，通过它注入NewsDataRepository依赖。
-    public NewsCrawlerService(NewsDataRepository newsDataRepository) {
+    // 定义类的构造函数，通过它注入仓库、入口页缓存、HTTP客户端、批量写入器、新闻缓存、归档仓库、历史服务和词频服务依赖。
+    public NewsCrawlerService(NewsDataRepository newsDataRepository, NewsContentRepository newsContentRepository,
+                              IndexPageCache indexPageCache, CachedHttpClient httpClient, NewsBatchWriter newsBatchWriter,
+                              NewsDataCache newsDataCache, NewsArchiveRepository newsArchiveRepository,
+                              CrawlHistoryService crawlHistoryService, TermStatService termStatService) {
         // 将注入的仓库实例赋值给类成员变量。
         this.newsDataRepository = newsDataRepository;
+        // 将注入的正文仓库实例赋值给类成员变量。
+        this.newsContentRepository = newsContentRepository;
+        // 将注入的入口页缓存实例赋值给类成员变量。
+        this.indexPageCache = indexPageCache;
+        // 将注入的HTTP客户端实例赋值给类成员变量。
+        this.httpClient = httpClient;
+        // 将注入的批量写入器实例赋值给类成员变量。
+        this.newsBatchWriter = newsBatchWriter;
+        // 将注入的新闻缓存实例赋值给类成员变量。
+        this.newsDataCache = newsDataCache;
+        // 将注入的归档仓库实例赋值给类成员变量。
+        this.newsArchiveRepository = newsArchiveRepository;
+        // 将注入的历史服务实例赋值给类成员变量。
+        this.crawlHistoryService = crawlHistoryService;
+        // 将注入的词频服务实例赋值给类成员变量。
+        this.termStatService = termStatService;
     } // 构造函数结束。
 
     // 定义从入口页爬取新闻的方法，可能抛出IOException。
-    public List<NewsData> crawlNewsFromIndexPage(String indexUrl) throws IOException {
+    public List<CrawlSummary> crawlNewsFromIndexPage(String indexUrl) throws IOException {
         // 使用log记录二级爬取任务的开始信息。
         log.info("开始二级爬取任务，入口页面: {}", indexUrl);
-        // 初始化一个列表，用于存储爬取到的新闻数据。
-        List<NewsData> crawledNewsList = new ArrayList<>();
-
-        // 使用Jsoup连接到指定的入口URL。
-        Connection.Response response = Jsoup.connect(indexUrl)
-                // 设置User-Agent模拟浏览器访问。
-                .userAgent("Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/91.0.4472.124 Safari/537.36")
-                // 设置连接超时时间为20秒。
-                .timeout(20000)
-                // 执行连接请求并获取响应。
-                .execute();
-        // 解析响应体为Jsoup的Document对象。
-        Document indexDoc = response.parse();
-        // 从文档中选择所有带有href属性的<a>标签。
-        Elements links = indexDoc.select("a[href]");
+        // 初始化一个列表，只存储每篇新闻的轻量摘要，正文在保存后即可被回收。
+        List<CrawlSummary> crawledNewsList = new ArrayList<>();
+
+        // 从入口页快照缓存中获取解析好的链接列表，短时间内的重复请求不会再次下载入口页。
+        List<IndexLink> links = indexPageCache.getLinks(indexUrl);
         // 记录在入口页面找到的链接总数。
         log.info("在入口页面找到 {} 个链接，开始筛选...", links.size());
 
         // 创建一个Set来存储有效的、待爬取的URL，以自动去重。
         Set<String> validUrlsToCrawl = new HashSet<>();
-        // 遍历所有找到的链接元素。
-        for (Element link : links) {
-            // 获取链接的绝对URL并去除首尾空格。
-            String absUrl = link.absUrl("href").trim();
-            // 查找URL中'?'字符的位置。
-            int queryPos = absUrl.indexOf('?');
-            // 如果找到'?'，则截取其之前的部分，以移除查询参数。
-            if (queryPos != -1) {
-                // 更新absUrl为不含查询参数的URL。
-                absUrl = absUrl.substring(0, queryPos);
-            } // if条件结束。
-            // 查找URL中'#'字符的位置。
-            int hashPos = absUrl.indexOf('#');
-            // 如果找到'#'，则截取其之前的部分，以移除哈希片段。
-            if(hashPos != -1) {
-                // 更新absUrl为不含哈希片段的URL。
-                absUrl = absUrl.substring(0, hashPos);
-            } // if条件结束。
-
-            // 检查清理后的URL是否为有效的新浪新闻URL。
-            if (isSinaNewsUrl(absUrl)) {
+        // 遍历快照中的所有链接。
+        for (IndexLink link : links) {
+            // 检查已清理的URL是否为有效的新浪新闻URL。
+            if (isSinaNewsUrl(link.getUrl())) {
                 // 如果是，则将其添加到待爬取URL的集合中。
-                validUrlsToCrawl.add(absUrl);
+                validUrlsToCrawl.add(link.getUrl());
             } // if条件结束。
         } // for循环结束。
         
         // 记录筛选出的有效新闻URL数量。
         log.info("筛选出 {} 个有效的新闻详情页URL准备爬取。", validUrlsToCrawl.size());
 
-        // 初始化一个计数器，用于跟踪处理进度。
-        int count = 0;
-        // 初始化一个计数器，用于记录因内容提取失败而跳过的URL数量。
-        int skippedCount = 0;
-        // 遍历所有有效的待爬取URL。
-        for (String urlToCrawl : validUrlsToCrawl) {
-            // 进度计数器加一。
-            count++;
-            // 记录当前爬取进度和正在处理的URL。
-            log.info("二级爬取进度: {}/{}, 正在处理URL: {}", count, validUrlsToCrawl.size(), urlToCrawl);
-            // 开始一个try块，以捕获单个URL处理中可能发生的异常。
-            try {
-                // 调用单页爬取方法，并获取返回的Optional对象。
-                Optional<NewsData> newsDataOpt = crawlAndSaveSinaNews(urlToCrawl);
-                // 检查Optional对象是否包含新闻数据。
-                if (newsDataOpt.isPresent()) {
-                    // 如果包含，则将新闻数据添加到结果列表中。
-                    crawledNewsList.add(newsDataOpt.get());
-                } else { // 如果Optional为空。
-                    // 跳过计数器加一。
-                    skippedCount++;
-                    // 记录该URL因内容提取失败而被跳过。
-                    log.info("二级爬取过程中，URL {} 的内容提取失败，已跳过", urlToCrawl);
-                } // if-else结束。
-                // 让当前线程暂停500毫秒，以避免请求过于频繁。
-                Thread.sleep(500);
-            } catch (Exception e) { // 捕获在try块中发生的任何异常。
-                // 记录处理特定URL时发生的错误信息。
-                log.error("二级爬取过程中，处理URL {} 失败: {}", urlToCrawl, e.getMessage());
-                // 注释：单个页面失败不影响整体任务，程序将继续处理下一个URL。
-            } // try-catch结束。
-        } // for循环结束。
+        // 批量爬取所有有效URL：已存在的新闻一次查询取回，新抓取的新闻按批次写入数据库。
+        crawledNewsList.addAll(crawlBatch(validUrlsToCrawl, null, "二级爬取").values());
 
         // 记录二级爬取任务完成后的总结信息。
-        log.info("二级爬取任务完成，共成功爬取并保存了 {} 条新闻，跳过了 {} 条内容提取失败的新闻。", crawledNewsList.size(), skippedCount);
-        // 返回包含所有成功爬取并保存的新闻数据的列表。
+        log.info("二级爬取任务完成，共获得 {} 条新闻。", crawledNewsList.size());
+        // 返回包含所有成功爬取并保存的新闻摘要的列表。
         return crawledNewsList;
     } // crawlNewsFromIndexPage方法结束。
     
     // 定义从入口页爬取新闻并关联历史记录的方法。
-    public List<NewsData> crawlNewsFromIndexPage(String indexUrl, CrawlHistory crawlHistory) throws IOException {
+    public List<CrawlSummary> crawlNewsFromIndexPage(String indexUrl, CrawlHistory crawlHistory) throws IOException {
         // 记录关联历史的二级爬取任务开始信息。
         log.info("开始二级爬取任务，入口页面: {}", indexUrl);
-        // 初始化一个列表，用于存储爬取到的新闻数据。
-        List<NewsData> crawledNewsList = new ArrayList<>();
-
-        // 使用Jsoup连接到指定的入口URL。
-        Connection.Response response = Jsoup.connect(indexUrl)
-                // 设置User-Agent模拟浏览器访问。
-                .userAgent("Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/91.0.4472.124 Safari/537.36")
-                // 设置连接超时时间为20秒。
-                .timeout(20000)
-                // 执行连接请求并获取响应。
-                .execute();
-        // 解析响应体为Jsoup的Document对象。
-        Document indexDoc = response.parse();
-
-        // 从文档中选择所有带有href属性的<a>标签。
-        Elements links = indexDoc.select("a[href]");
+        // 初始化一个列表，只存储每篇新闻的轻量摘要，正文在保存后即可被回收。
+        List<CrawlSummary> crawledNewsList = new ArrayList<>();
+
+        // 从入口页快照缓存中获取解析好的链接列表，短时间内的重复请求不会再次下载入口页。
+        List<IndexLink> links = indexPageCache.getLinks(indexUrl);
         // 记录在入口页面找到的链接总数。
         log.info("在入口页面找到 {} 个链接，开始筛选...", links.size());
 
         // 创建一个Set来存储有效的、待爬取的URL，以自动去重。
         Set<String> validUrlsToCrawl = new HashSet<>();
-        // 遍历所有找到的链接元素。
-        for (Element link : links) {
-            // 获取链接的绝对URL并去除首尾空格。
-            String absUrl = link.absUrl("href").trim();
-            // 查找URL中'?'字符的位置。
-            int queryPos = absUrl.indexOf('?');
-            // 如果找到'?'，则截取其之前的部分，以移除查询参数。
-            if (queryPos != -1) {
-                // 更新absUrl为不含查询参数的URL。
-                absUrl = absUrl.substring(0, queryPos);
-            } // if条件结束。
-            // 查找URL中'#'字符的位置。
-            int hashPos = absUrl.indexOf('#');
-            // 如果找到'#'，则截取其之前的部分，以移除哈希片段。
-            if(hashPos != -1) {
-                // 更新absUrl为不含哈希片段的URL。
-                absUrl = absUrl.substring(0, hashPos);
-            } // if条件结束。
-
-            // 检查清理后的URL是否为有效的新浪新闻URL。
-            if (isSinaNewsUrl(absUrl)) {
+        // 遍历快照中的所有链接。
+        for (IndexLink link : links) {
+            // 检查已清理的URL是否为有效的新浪新闻URL。
+            if (isSinaNewsUrl(link.getUrl())) {
                 // 如果是，则将其添加到待爬取URL的集合中。
-                validUrlsToCrawl.add(absUrl);
+                validUrlsToCrawl.add(link.getUrl());
             } // if条件结束。
         } // for循环结束。
         
         // 记录筛选出的有效新闻URL数量。
         log.info("筛选出 {} 个有效的新闻详情页URL准备爬取。", validUrlsToCrawl.size());
 
-        // 初始化一个计数器，用于跟踪处理进度。
-        int count = 0;
-        // 初始化一个计数器，用于记录因内容提取失败而跳过的URL数量。
-        int skippedCount = 0;
-        // 遍历所有有效的待爬取URL。
-        for (String urlToCrawl : validUrlsToCrawl) {
-            // 进度计数器加一。
-            count++;
-            // 记录当前爬取进度和正在处理的URL。
-            log.info("二级爬取进度: {}/{}, 正在处理URL: {}", count, validUrlsToCrawl.size(), urlToCrawl);
-            // 开始一个try块，以捕获单个URL处理中可能发生的异常。
-            try {
-                // 调用带有crawlHistory参数的单页爬取方法。
-                Optional<NewsData> newsDataOpt = crawlAndSaveSinaNews(urlToCrawl, crawlHistory);
-                // 检查Optional对象是否包含新闻数据。
-                if (newsDataOpt.isPresent()) {
-                    // 如果包含，则将新闻数据添加到结果列表中。
-                    crawledNewsList.add(newsDataOpt.get());
-                } else { // 如果Optional为空。
-                    // 跳过计数器加一。
-                    skippedCount++;
-                    // 记录该URL因内容提取失败而被跳过。
-                    log.info("二级爬取过程中，URL {} 的内容提取失败，已跳过", urlToCrawl);
-                } // if-else结束。
-                // 让当前线程暂停500毫秒，以避免请求过于频繁。
-                Thread.sleep(500);
-            } catch (Exception e) { // 捕获在try块中发生的任何异常。
-                // 记录处理特定URL时发生的错误信息。
-                log.error("二级爬取过程中，处理URL {} 失败: {}", urlToCrawl, e.getMessage());
-                // 注释：单个页面失败不影响整体任务，程序将继续处理下一个URL。
-            } // try-catch结束。
-        } // for循环结束。
+        // 批量爬取所有有效URL：已存在的新闻一次查询取回，新抓取的新闻按批次写入数据库。
+        crawledNewsList.addAll(crawlBatch(validUrlsToCrawl, crawlHistory, "二级爬取").values());
 
         // 记录二级爬取任务完成后的总结信息。
-        log.info("二级爬取任务完成，共成功爬取并保存了 {} 条新闻，跳过了 {} 条内容提取失败的新闻。", crawledNewsList.size(), skippedCount);
-        // 返回包含所有成功爬取并保存的新闻数据的列表。
+        log.info("二级爬取任务完成，共获得 {} 条新闻。", crawledNewsList.size());
+        // 返回包含所有成功爬取并保存的新闻摘要的列表。
         return crawledNewsList;
     } // 带历史记录的crawlNewsFromIndexPage方法结束。
 
     // 定义一个便捷方法，使用默认入口页按关键词爬取新闻。
-    public List<NewsData> crawlNewsByKeyword(String keyword) throws IOException {
+    public List<CrawlSummary> crawlNewsByKeyword(String keyword) throws IOException {
         // 调用完整的关键词爬取方法，并传入默认的新浪新闻首页URL。
         return crawlNewsByKeyword(keyword, "https://news.sina.com.cn/");
     } // crawlNewsByKeyword便捷方法结束。
 
     // 定义按关键词和指定入口页爬取新闻的方法。
-    public List<NewsData> crawlNewsByKeyword(String keyword, String indexUrl) throws IOException {
+    public List<CrawlSummary> crawlNewsByKeyword(String keyword, String indexUrl) throws IOException {
         // 记录按关键词爬取任务的开始信息。
         log.info("开始按关键词 '{}' 爬取任务，入口页面: {}", keyword, indexUrl);
-        // 初始化一个列表，用于存储爬取到的新闻数据。
-        List<NewsData> crawledNewsList = new ArrayList<>();
-
-        // 使用Jsoup连接到指定的入口URL。
-        Document indexDoc = Jsoup.connect(indexUrl)
-                // 设置User-Agent模拟浏览器访问。
-                .userAgent("Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/91.0.4472.124 Safari/537.36")
-                // 设置连接超时时间为20秒。
-                .timeout(20000)
-                // 使用GET方法获取页面文档。
-                .get();
-
-        // 从文档中选择所有带有href属性的<a>标签。
-        Elements links = indexDoc.select("a[href]");
+        // 初始化一个列表，只存储每篇新闻的轻量摘要，正文在保存后即可被回收。
+        List<CrawlSummary> crawledNewsList = new ArrayList<>();
+
+        // 从入口页快照缓存中获取解析好的链接列表，短时间内的重复请求不会再次下载入口页。
+        List<IndexLink> links = indexPageCache.getLinks(indexUrl);
         // 记录找到的链接总数和用于筛选的关键词。
         log.info("在入口页面找到 {} 个链接，开始根据关键词 '{}' 进行筛选...", links.size(), keyword);
 
+        // 预先将关键词转换为小写，避免在循环中重复转换。
+        String lowerKeyword = keyword.toLowerCase();
         // 创建一个Set来存储有效的、待爬取的URL，以自动去重。
         Set<String> validUrlsToCrawl = new HashSet<>();
-        // 遍历所有找到的链接元素。
-        for (Element link : links) {
-            // 获取链接的文本内容并去除首尾空格。
-            String linkTitle = link.text().trim();
-            // 检查链接文本（忽略大小写）是否包含指定的关键词。
-            if (linkTitle.toLowerCase().contains(keyword.toLowerCase())) {
-                // 如果包含，则获取该链接的绝对URL并去除首尾空格。
-                String absUrl = link.absUrl("href").trim();
-                // 查找URL中'?'字符的位置。
-                int queryPos = absUrl.indexOf('?');
-                // 如果找到'?'，则截取其之前的部分，以移除查询参数。
-                if (queryPos != -1) {
-                    // 更新absUrl为不含查询参数的URL。
-                    absUrl = absUrl.substring(0, queryPos);
-                } // if条件结束。
-                // 查找URL中'#'字符的位置。
-                int hashPos = absUrl.indexOf('#');
-                // 如果找到'#'，则截取其之前的部分，以移除哈希片段。
-                if(hashPos != -1) {
-                    // 更新absUrl为不含哈希片段的URL。
-                    absUrl = absUrl.substring(0, hashPos);
-                } // if条件结束。
-
-                // 检查清理后的URL是否为有效的新浪新闻URL。
-                if (isSinaNewsUrl(absUrl)) {
-                    // 如果是，则将其添加到待爬取URL的集合中。
-                    validUrlsToCrawl.add(absUrl);
-                } // if条件结束。
+        // 遍历快照中的所有链接。
+        for (IndexLink link : links) {
+            // 检查链接文本（忽略大小写）是否包含指定的关键词，且URL为有效的新浪新闻URL。
+            if (link.getText().toLowerCase().contains(lowerKeyword) && isSinaNewsUrl(link.getUrl())) {
+                // 如果是，则将其添加到待爬取URL的集合中。
+                validUrlsToCrawl.add(link.getUrl());
             } // if条件结束。
         } // for循环结束。
 
         // 记录筛选出的标题含关键词的有效新闻URL数量。
         log.info("筛选出 {} 个标题含关键词的有效新闻详情页URL准备爬取。", validUrlsToCrawl.size());
 
-        // 初始化一个计数器，用于跟踪处理进度。
-        int count = 0;
-        // 初始化一个计数器，用于记录因内容提取失败而跳过的URL数量。
-        int skippedCount = 0;
-        // 遍历所有有效的待爬取URL。
-        for (String urlToCrawl : validUrlsToCrawl) {
-            // 进度计数器加一。
-            count++;
-            // 记录当前关键词爬取进度和正在处理的URL。
-            log.info("关键词爬取进度: {}/{}, 正在处理URL: {}", count, validUrlsToCrawl.size(), urlToCrawl);
-            // 开始一个try块，以捕获单个URL处理中可能发生的异常。
-            try {
-                // 调用单页爬取方法，并获取返回的Optional对象。
-                Optional<NewsData> newsDataOpt = crawlAndSaveSinaNews(urlToCrawl);
-                // 检查Optional对象是否包含新闻数据。
-                if (newsDataOpt.isPresent()) {
-                    // 如果包含，则将新闻数据添加到结果列表中。
-                    crawledNewsList.add(newsDataOpt.get());
-                } else { // 如果Optional为空。
-                    // 跳过计数器加一。
-                    skippedCount++;
-                    // 记录该URL因内容提取失败而被跳过。
-                    log.info("关键词爬取过程中，URL {} 的内容提取失败，已跳过", urlToCrawl);
-                } // if-else结束。
-                // 让当前线程暂停500毫秒，以避免请求过于频繁。
-                Thread.sleep(500);
-            } catch (Exception e) { // 捕获在try块中发生的任何异常。
-                // 记录处理特定URL时发生的错误信息。
-                log.error("关键词爬取过程中，处理URL {} 失败: {}", urlToCrawl, e.getMessage());
-            } // try-catch结束。
-        } // for循环结束。
+        // 批量爬取所有有效URL：已存在的新闻一次查询取回，新抓取的新闻按批次写入数据库。
+        crawledNewsList.addAll(crawlBatch(validUrlsToCrawl, null, "关键词爬取").values());
 
         // 记录关键词爬取任务完成后的总结信息。
-        log.info("关键词 '{}' 爬取任务完成，共成功爬取并保存了 {} 条新闻，跳过了 {} 条内容提取失败的新闻。", keyword, crawledNewsList.size(), skippedCount);
-        // 返回包含所有成功爬取并保存的新闻数据的列表。
+        log.info("关键词 '{}' 爬取任务完成，共获得 {} 条新闻。", keyword, crawledNewsList.size());
+        // 返回包含所有成功爬取并保存的新闻摘要的列表。
         return crawledNewsList;
     } // crawlNewsByKeyword方法结束。
 
     // 定义按关键词爬取并关联历史记录的方法。
-    public List<NewsData> crawlNewsByKeyword(String keyword, String indexUrl, CrawlHistory crawlHistory) throws IOException {
+    public List<CrawlSummary> crawlNewsByKeyword(String keyword, String indexUrl, CrawlHistory crawlHistory) throws IOException {
         // 记录关联历史的关键词爬取任务开始信息。
         log.info("开始按关键词 '{}' 爬取任务，入口页面: {}", keyword, indexUrl);
-        // 初始化一个列表，用于存储爬取到的新闻数据。
-        List<NewsData> crawledNewsList = new ArrayList<>();
-
-        // 使用Jsoup连接到指定的入口URL。
-        Document indexDoc = Jsoup.connect(indexUrl)
-                // 设置User-Agent模拟浏览器访问。
-                .userAgent("Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/91.0.4472.124 Safari/537.36")
-                // 设置连接超时时间为20秒。
-                .timeout(20000)
-                // 使用GET方法获取页面文档。
-                .get();
-
-        // 从文档中选择所有带有href属性的<a>标签。
-        Elements links = indexDoc.select("a[href]");
+        // 初始化一个列表，只存储每篇新闻的轻量摘要，正文在保存后即可被回收。
+        List<CrawlSummary> crawledNewsList = new ArrayList<>();
+
+        // 从入口页快照缓存中获取解析好的链接列表，短时间内的重复请求不会再次下载入口页。
+        List<IndexLink> links = indexPageCache.getLinks(indexUrl);
         // 记录找到的链接总数和用于筛选的关键词。
         log.info("在入口页面找到 {} 个链接，开始根据关键词 '{}' 进行筛选...", links.size(), keyword);
 
+        // 预先将关键词转换为小写，避免在循环中重复转换。
+        String lowerKeyword = keyword.toLowerCase();
         // 创建一个Set来存储有效的、待爬取的URL，以自动去重。
         Set<String> validUrlsToCrawl = new HashSet<>();
-        // 遍历所有找到的链接元素。
-        for (Element link : links) {
-            // 获取链接的文本内容并去除首尾空格。
-            String linkTitle = link.text().trim();
-            // 检查链接文本（忽略大小写）是否包含指定的关键词。
-            if (linkTitle.toLowerCase().contains(keyword.toLowerCase())) {
-                // 如果包含，则获取该链接的绝对URL并去除首尾空格。
-                String absUrl = link.absUrl("href").trim();
-                // 查找URL中'?'字符的位置。
-                int queryPos = absUrl.indexOf('?');
-                // 如果找到'?'，则截取其之前的部分，以移除查询参数。
-                if (queryPos != -1) {
-                    // 更新absUrl为不含查询参数的URL。
-                    absUrl = absUrl.substring(0, queryPos);
-                } // if条件结束。
-                // 查找URL中'#'字符的位置。
-                int hashPos = absUrl.indexOf('#');
-                // 如果找到'#'，则截取其之前的部分，以移除哈希片段。
-                if(hashPos != -1) {
-                    // 更新absUrl为不含哈希片段的URL。
-                    absUrl = absUrl.substring(0, hashPos);
-                } // if条件结束。
-
-                // 检查清理后的URL是否为有效的新浪新闻URL。
-                if (isSinaNewsUrl(absUrl)) {
-                    // 如果是，则将其添加到待爬取URL的集合中。
-                    validUrlsToCrawl.add(absUrl);
-                } // if条件结束。
+        // 遍历快照中的所有链接。
+        for (IndexLink link : links) {
+            // 检查链接文本（忽略大小写）是否包含指定的关键词，且URL为有效的新浪新闻URL。
+            if (link.getText().toLowerCase().contains(lowerKeyword) && isSinaNewsUrl(link.getUrl())) {
+                // 如果是，则将其添加到待爬取URL的集合中。
+                validUrlsToCrawl.add(link.getUrl());
             } // if条件结束。
         } // for循环结束。
 
         // 记录筛选出的标题含关键词的有效新闻URL数量。
         log.info("筛选出 {} 个标题含关键词的有效新闻详情页URL准备爬取。", validUrlsToCrawl.size());
 
-        // 初始化一个计数器，用于跟踪处理进度。
-        int count = 0;
-        // 初始化一个计数器，用于记录因内容提取失败而跳过的URL数量。
-        int skippedCount = 0;
-        // 遍历所有有效的待爬取URL。
-        for (String urlToCrawl : validUrlsToCrawl) {
-            // 进度计数器加一。
-            count++;
-            // 记录当前关键词爬取进度和正在处理的URL。
-            log.info("关键词爬取进度: {}/{}, 正在处理URL: {}", count, validUrlsToCrawl.size(), urlToCrawl);
-            // 开始一个try块，以捕获单个URL处理中可能发生的异常。
-            try {
-                // 调用带有crawlHistory参数的单页爬取方法。
-                Optional<NewsData> newsDataOpt = crawlAndSaveSinaNews(urlToCrawl, crawlHistory);
-                // 检查Optional对象是否包含新闻数据。
-                if (newsDataOpt.isPresent()) {
-                    // 如果包含，则将新闻数据添加到结果列表中。
-                    crawledNewsList.add(newsDataOpt.get());
-                } else { // 如果Optional为空。
-                    // 跳过计数器加一。
-                    skippedCount++;
-                    // 记录该URL因内容提取失败而被跳过。
-                    log.info("关键词爬取过程中，URL {} 的内容提取失败，已跳过", urlToCrawl);
-                } // if-else结束。
-                // 让当前线程暂停500毫秒，以避免请求过于频繁。
-                Thread.sleep(500);
-            } catch (Exception e) { // 捕获在try块中发生的任何异常。
-                // 记录处理特定URL时发生的错误信息。
-                log.error("关键词爬取过程中，处理URL {} 失败: {}", urlToCrawl, e.getMessage());
-            } // try-catch结束。
-        } // for循环结束。
+        // 批量爬取所有有效URL：已存在的新闻一次查询取回，新抓取的新闻按批次写入数据库。
+        crawledNewsList.addAll(crawlBatch(validUrlsToCrawl, crawlHistory, "关键词爬取").values());
 
         // 记录关键词爬取任务完成后的总结信息。
-        log.info("关键词 '{}' 爬取任务完成，共成功爬取并保存了 {} 条新闻，跳过了 {} 条内容提取失败的新闻。", keyword, crawledNewsList.size(), skippedCount);
-        // 返回包含所有成功爬取并保存的新闻数据的列表。
+        log.info("关键词 '{}' 爬取任务完成，共获得 {} 条新闻。", keyword, crawledNewsList.size());
+        // 返回包含所有成功爬取并保存的新闻摘要的列表。
         return crawledNewsList;
     } // 带历史记录的crawlNewsByKeyword方法结束。
 
+    // 定义跨多个入口页爬取新闻的方法：并发下载各入口页，合并去重候选链接后统一爬取详情页；keyword为null时不按关键词筛选。
+    public MultiEntryCrawlResult crawlNewsFromIndexPages(List<String> indexUrls, String keyword, CrawlHistory crawlHistory) throws IOException {
+        // 记录多入口爬取任务开始信息。
+        log.info("开始多入口爬取任务，入口页数量: {}, 关键词: {}", indexUrls.size(), keyword);
+        // 初始化返回结果。
+        MultiEntryCrawlResult result = new MultiEntryCrawlResult();
+
+        // 为每个入口页发起异步下载，所有入口页同时进行。
+        List<CompletableFuture<List<IndexLink>>> futures = new ArrayList<>(indexUrls.size());
+        // 遍历所有入口页。
+        for (String indexUrl : indexUrls) {
+            // 提交异步下载任务。
+            futures.add(indexPageCache.getLinksAsync(indexUrl));
+        } // for循环结束。
+
+        // 预先将关键词转换为小写，未指定关键词时为null。
+        String lowerKeyword = keyword == null ? null : keyword.toLowerCase();
+        // 创建一个保持插入顺序的Map，记录每个候选URL由哪个入口页首次贡献，实现跨入口页去重。
+        Map<String, MultiEntryCrawlResult.EntryStats> ownerByUrl = new LinkedHashMap<>();
+        // 初始化下载失败的入口页计数器。
+        int failedCount = 0;
+        // 按请求顺序依次等待每个入口页的下载结果。
+        for (int i = 0; i < indexUrls.size(); i++) {
+            // 为该入口页创建统计信息。
+            MultiEntryCrawlResult.EntryStats stats = new MultiEntryCrawlResult.EntryStats();
+            // 设置入口页URL。
+            stats.setUrl(indexUrls.get(i));
+            // 加入结果列表。
+            result.getEntries().add(stats);
+            // 声明该入口页的链接列表。
+            List<IndexLink> links;
+            // 开始一个try块，单个入口页失败不影响其他入口页。
+            try {
+                // 等待下载结果。
+                links = futures.get(i).join();
+            } catch (CompletionException e) { // 捕获下载过程中的异常。
+                // 取出原始异常。
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                // 记录错误日志。
+                log.error("多入口爬取过程中，入口页 {} 下载失败: {}", stats.getUrl(), cause.getMessage());
+                // 记录错误信息。
+                stats.setError(cause.getMessage());
+                // 失败计数器加一。
+                failedCount++;
+                // 继续处理下一个入口页。
+                continue;
+            } // try-catch结束。
+            // 记录链接总数。
+            stats.setLinkCount(links.size());
+            // 遍历该入口页的所有链接。
+            for (IndexLink link : links) {
+                // 跳过不是新浪新闻详情页的链接。
+                if (!isSinaNewsUrl(link.getUrl())) {
+                    // 继续处理下一个链接。
+                    continue;
+                } // if条件结束。
+                // 如果指定了关键词，则跳过文本不包含关键词的链接。
+                if (lowerKeyword != null && !link.getText().toLowerCase().contains(lowerKeyword)) {
+                    // 继续处理下一个链接。
+                    continue;
+                } // if条件结束。
+                // 候选链接计数器加一。
+                stats.setCandidateCount(stats.getCandidateCount() + 1);
+                // 如果该URL尚未被其他入口页收录，则归属于当前入口页。
+                if (ownerByUrl.putIfAbsent(link.getUrl(), stats) == null) {
+                    // 首次贡献计数器加一。
+                    stats.setUniqueCandidateCount(stats.getUniqueCandidateCount() + 1);
+                } // if条件结束。
+            } // for循环结束。
+        } // for循环结束。
+
+        // 如果所有入口页都下载失败，则视为整个任务失败。
+        if (failedCount == indexUrls.size()) {
+            // 抛出IO异常。
+            throw new IOException("所有入口页均下载失败");
+        } // if条件结束。
+        // 记录合并去重后的候选链接数量。
+        log.info("{} 个入口页合并去重后共 {} 个新闻详情页URL准备爬取。", indexUrls.size(), ownerByUrl.size());
+
+        // 批量爬取所有合并后的候选URL。
+        Map<String, CrawlSummary> crawled = crawlBatch(ownerByUrl.keySet(), crawlHistory, "多入口爬取");
+        // 遍历爬取结果，按URL归属累计每个入口页的成功数量。
+        for (Map.Entry<String, CrawlSummary> entry : crawled.entrySet()) {
+            // 将摘要加入结果列表。
+            result.getNews().add(entry.getValue());
+            // 取出该URL所属的入口页统计信息。
+            MultiEntryCrawlResult.EntryStats owner = ownerByUrl.get(entry.getKey());
+            // 所属入口页的成功计数器加一。
+            owner.setCrawledCount(owner.getCrawledCount() + 1);
+        } // for循环结束。
+
+        // 记录多入口爬取任务完成信息。
+        log.info("多入口爬取任务完成，共成功获取 {} 条新闻。", result.getNews().size());
+        // 返回爬取结果。
+        return result;
+    } // crawlNewsFromIndexPages方法结束。
+
+    // 定义一次扫描入口页、同时按多个关键词爬取的方法，返回每个关键词命中的新闻列表。
+    public Map<String, List<CrawlSummary>> crawlNewsByKeywords(Collection<String> keywords, String indexUrl) throws IOException {
+        // 记录多关键词爬取任务开始信息。
+        log.info("开始多关键词爬取任务，关键词数量: {}, 入口页面: {}", keywords.size(), indexUrl);
+        // 初始化一个保持插入顺序的Map，记录每个关键词（小写）命中的URL集合。
+        Map<String, Set<String>> urlsByKeyword = new LinkedHashMap<>();
+        // 遍历所有关键词。
+        for (String keyword : keywords) {
+            // 将关键词转为小写后作为键，重复的关键词只保留一份。
+            urlsByKeyword.putIfAbsent(keyword.toLowerCase(), new LinkedHashSet<>());
+        } // for循环结束。
+
+        // 从入口页快照缓存中获取解析好的链接列表，所有关键词共用这一次扫描。
+        List<IndexLink> links = indexPageCache.getLinks(indexUrl);
+        // 创建一个Set存储所有关键词命中的URL并集，每个URL只爬取一次。
+        Set<String> unionUrls = new LinkedHashSet<>();
+        // 遍历快照中的所有链接。
+        for (IndexLink link : links) {
+            // 跳过不是新浪新闻详情页的链接。
+            if (!isSinaNewsUrl(link.getUrl())) {
+                // 继续处理下一个链接。
+                continue;
+            } // if条件结束。
+            // 将链接文本转为小写，供所有关键词共用。
+            String lowerText = link.getText().toLowerCase();
+            // 遍历每个关键词及其URL集合。
+            for (Map.Entry<String, Set<String>> entry : urlsByKeyword.entrySet()) {
+                // 如果链接文本包含该关键词。
+                if (lowerText.contains(entry.getKey())) {
+                    // 记录该关键词命中此URL。
+                    entry.getValue().add(link.getUrl());
+                    // 同时加入待爬取的并集。
+                    unionUrls.add(link.getUrl());
+                } // if条件结束。
+            } // for循环结束。
+        } // for循环结束。
+
+        // 记录筛选结果。
+        log.info("入口页面共 {} 个链接，{} 个关键词共命中 {} 个不重复的新闻URL。", links.size(), urlsByKeyword.size(), unionUrls.size());
+
+        // 批量爬取并集中的所有URL，每个URL只爬取一次。
+        Map<String, CrawlSummary> newsByUrl = crawlBatch(unionUrls, null, "多关键词爬取");
+
+        // 初始化结果Map，键为小写关键词，值为命中的新闻列表。
+        Map<String, List<CrawlSummary>> result = new LinkedHashMap<>();
+        // 遍历每个关键词命中的URL集合。
+        for (Map.Entry<String, Set<String>> entry : urlsByKeyword.entrySet()) {
+            // 初始化该关键词的新闻列表。
+            List<CrawlSummary> newsList = new ArrayList<>();
+            // 遍历该关键词命中的URL。
+            for (String url : entry.getValue()) {
+                // 取出该URL的爬取结果。
+                CrawlSummary newsData = newsByUrl.get(url);
+                // 只保留爬取成功的新闻。
+                if (newsData != null) {
+                    // 加入列表。
+                    newsList.add(newsData);
+                } // if条件结束。
+            } // for循环结束。
+            // 将该关键词的结果放入Map。
+            result.put(entry.getKey(), newsList);
+        } // for循环结束。
+
+        // 记录多关键词爬取任务完成信息。
+        log.info("多关键词爬取任务完成，共获得 {} 条不重复的新闻。", newsByUrl.size());
+        // 返回每个关键词的新闻列表。
+        return result;
+    } // crawlNewsByKeywords方法结束。
+
     // 定义一个私有方法，用于检查URL是否为新浪新闻URL。
     private boolean isSinaNewsUrl(String url) {
         // 检查URL是否为null或空字符串。
@@ -463,120 +452,254 @@ public class NewsCrawlerService {
     @Transactional
     // 定义爬取并保存单个新浪新闻的方法。
     public Optional<NewsData> crawlAndSaveSinaNews(String url) throws IOException {
-        // 根据URL在数据库中查找是否已存在该新闻。
-        Optional<NewsData> existingNews = newsDataRepository.findByUrl(url);
+        // 调用带历史记录的版本，不关联任何历史记录。
+        return crawlAndSaveSinaNews(url, null);
+    } // crawlAndSaveSinaNews方法结束。
+
+    // 声明此方法需要在一个事务中执行。
+    @Transactional
+    // 定义爬取并保存单个新闻并关联历史记录的方法。
+    public Optional<NewsData> crawlAndSaveSinaNews(String url, CrawlHistory crawlHistory) throws IOException {
+        // 根据URL查找是否已存在该新闻，先查缓存，未命中时从数据库加载带正文的新闻。
+        Optional<NewsData> existingNews = newsDataCache.getByUrl(url, this::loadWithContent);
         // 检查查询结果是否存在。
         if (existingNews.isPresent()) {
             // 如果存在，则记录日志并跳过爬取。
             log.info("新闻已存在于数据库，跳过爬取: {}", url);
-            // 返回已存在的新闻数据。
-            return existingNews;
-        } // if条件结束。
-
-        // 记录开始爬取新新闻的日志。
-        log.info("开始爬取新闻: {}", url);
-        // 使用Jsoup连接到指定的URL。
-        Document doc = Jsoup.connect(url)
-                // 设置User-Agent模拟浏览器访问。
-                .userAgent("Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/91.0.4472.124 Safari/537.36")
-                // 设置连接超时时间为15秒。
-                .timeout(15000)
-                // 使用GET方法获取页面文档。
-                .get();
-
-        // 使用选择器数组尝试提取标题。
-        String title = getTextBySelectors(doc, TITLE_SELECTORS);
-        // 如果使用主要选择器未能提取到标题。
-        if (title.isEmpty()) {
-            // 则尝试从页面的<title>标签获取，并进行清理。
-            title = doc.title().replace("_新浪新闻", "").replace("_新浪网", "").trim();
-        } // if条件结束。
-        
-        // 使用选择器数组尝试提取来源，如果失败则使用默认值"未知来源"。
-        String source = getTextBySelectors(doc, SOURCE_SELECTORS, "未知来源");
-        // 使用选择器数组尝试提取发布时间字符串。
-        String publishTimeStr = getTextBySelectors(doc, TIME_SELECTORS);
-
-        // 使用选择器数组尝试获取包含正文内容的元素。
-        Element articleContentElement = getElementBySelectors(doc, CONTENT_SELECTORS);
-        // 初始化内容字符串为“内容提取失败”。
-        String content = "内容提取失败";
-        // 检查是否成功获取到正文元素。
-        if (articleContentElement != null) {
-            // 从正文元素中移除不必要的子元素（如作者信息、广告等）。
-            articleContentElement.select("p.show_author, .wap_special, .article-notice, div[id^=ad_], ins.sinaads").remove();
-            // 移除被列入黑名单的图片及其父元素。
-            articleContentElement.select("img[black-list=y]").parents().remove();
-            // 获取清理后元素的HTML内容作为新闻正文。
-            content = articleContentElement.html();
+            // 尝试将已存在的新闻关联到历史记录，并返回该新闻。
+            return Optional.of(linkExisting(existingNews.get(), crawlHistory));
         } // if条件结束。
+        // 下载并解析新闻页面，内容提取失败时返回空。
+        Optional<NewsData> parsed = fetchAndParse(url);
+        // 如果解析成功，则关联历史记录并保存。
+        return parsed.map(newsData -> saveNew(newsData, crawlHistory));
+    } // 带历史记录的crawlAndSaveSinaNews方法结束。
 
-        // 如果内容仍然是初始的失败状态。
-        if ("内容提取失败".equals(content)) {
-            // 记录警告日志，说明内容提取失败。
-            log.warn("新闻内容提取失败，跳过保存: {}", url);
-            // 返回一个空的Optional对象，表示不保存此新闻。
-            return Optional.empty();
+    // 定义批量爬取的核心方法：先一次查询取回所有已存在的新闻摘要，再逐个下载新页面并交给批量写入器按批次保存，返回以URL为键、保持输入顺序的摘要。
+    private Map<String, CrawlSummary> crawlBatch(Collection<String> urls, CrawlHistory crawlHistory, String label) {
+        // 初始化一个保持插入顺序的Map，存储每个URL的爬取摘要。
+        Map<String, CrawlSummary> summaries = new LinkedHashMap<>();
+        // 如果没有需要爬取的URL则直接返回。
+        if (urls.isEmpty()) {
+            // 返回空结果。
+            return summaries;
         } // if条件结束。
 
-        // 从页面的meta标签中提取关键词。
-        String keywords = doc.select("meta[name=keywords]").attr("content");
+        // 初始化一个Map，存储数据库中已存在的新闻摘要。
+        Map<String, NewsSummaryView> existing = new HashMap<>();
+        // 计算所有URL的64位哈希，按哈希索引查询而不是比较768字符的url列。
+        List<Long> hashes = new ArrayList<>(urls.size());
+        // 初始化规范化URL到输入URL的映射，唯一约束按规范化URL计算，比对时也使用规范化URL。
+        Map<String, String> inputUrls = new HashMap<>();
+        // 遍历所有URL。
+        for (String url : urls) {
+            // 计算并加入哈希列表。
+            hashes.add(UrlHashUtils.hash(url));
+            // 记录规范化URL对应的输入URL。
+            inputUrls.putIfAbsent(UrlHashUtils.normalize(url), url);
+        } // for循环结束。
+        // 按块查询已存在的新闻，避免IN子句过长。
+        for (int from = 0; from < hashes.size(); from += EXISTING_LOOKUP_CHUNK) {
+            // 查询当前块中哈希命中的新闻摘要。
+            for (NewsSummaryView view : newsDataRepository.findSummariesByUrlHashIn(hashes.subList(from, Math.min(from + EXISTING_LOOKUP_CHUNK, hashes.size())))) {
+                // 比对规范化URL确认不是哈希碰撞，找出对应的输入URL。
+                String url = inputUrls.get(UrlHashUtils.normalize(view.getUrl()));
+                // 如果确实命中。
+                if (url != null) {
+                    // 以输入URL为键保存已存在的新闻摘要。
+                    existing.put(url, view);
+                } // if条件结束。
+            } // for循环结束。
+        } // for循环结束。
+        // 初始化一个集合，记录只存在于归档表中的URL，这些新闻不再下载，与热表中的新闻一样关联到本次历史记录。
+        Set<String> archivedUrls = new HashSet<>();
+        // 收集热表中未命中的URL的哈希。
+        List<Long> missingHashes = new ArrayList<>();
+        // 遍历所有URL。
+        for (String url : urls) {
+            // 如果热表中没有该URL。
+            if (!existing.containsKey(url)) {
+                // 加入待查归档的哈希列表。
+                missingHashes.add(UrlHashUtils.hash(url));
+            } // if条件结束。
+        } // for循环结束。
+        // 按块查询归档表。
+        for (int from = 0; from < missingHashes.size(); from += EXISTING_LOOKUP_CHUNK) {
+            // 查询当前块中哈希命中的归档新闻摘要。
+            for (NewsSummaryView view : newsArchiveRepository.findSummariesByUrlHashIn(missingHashes.subList(from, Math.min(from + EXISTING_LOOKUP_CHUNK, missingHashes.size())))) {
+                // 比对规范化URL确认不是哈希碰撞，找出对应的输入URL。
+                String url = inputUrls.get(UrlHashUtils.normalize(view.getUrl()));
+                // 如果确实命中。
+                if (url != null) {
+                    // 以输入URL为键保存归档新闻摘要。
+                    existing.put(url, view);
+                    // 标记为归档新闻。
+                    archivedUrls.add(url);
+                } // if条件结束。
+            } // for循环结束。
+        } // for循环结束。
 
-        // 创建一个新的NewsData实体对象。
-        NewsData newsData = new NewsData();
-        // 设置新闻的URL。
-        newsData.setUrl(url);
-        // 设置新闻的标题，如果标题为空则设置为"无标题"。
-        newsData.setTitle(title.isEmpty() ? "无标题" : title);
-        // 设置新闻的来源。
-        newsData.setSource(source);
-        // 设置新闻的正文内容。
-        newsData.setContent(content);
-        // 设置新闻的关键词。
-        newsData.setKeywords(keywords);
+        // 初始化一个列表，收集需要关联到本次历史记录的已存在新闻ID。
+        List<Long> toLink = new ArrayList<>();
+        // 遍历所有已存在的新闻。
+        for (Map.Entry<String, NewsSummaryView> entry : existing.entrySet()) {
+            // 如果传入了历史记录；已属于其他历史记录的新闻和已归档的新闻同样关联到本次历史记录。
+            if (crawlHistory != null) {
+                // 加入待关联列表。
+                toLink.add(entry.getValue().getId());
+            } // if条件结束。
+        } // for循环结束。
+        // 如果有需要关联的新闻，则按块批量写入关联表并累加词频统计，已存在的关联被忽略。
+        for (int from = 0; from < toLink.size(); from += EXISTING_LOOKUP_CHUNK) {
+            // 执行批量关联。
+            crawlHistoryService.linkNews(crawlHistory.getId(), toLink.subList(from, Math.min(from + EXISTING_LOOKUP_CHUNK, toLink.size())));
+        } // for循环结束。
+        // 记录已存在新闻的数量。
+        log.info("{}：{} 个URL中有 {} 个已存在于数据库（{} 个已归档），其中 {} 个关联到本次历史记录", label, urls.size(), existing.size(), archivedUrls.size(), toLink.size());
 
-        // 调用私有方法来解析并设置发布时间。
-        parseAndSetPublishTime(newsData, doc, publishTimeStr);
+        // 开启一个写入批次，每保存一条新闻就生成摘要。
+        NewsBatchWriter.Batch batch = newsBatchWriter.open(crawlHistory == null ? null : crawlHistory.getId(), saved -> summaries.put(saved.getUrl(), CrawlSummary.of(saved, CrawlSummary.Status.NEW)));
+        // 初始化一个计数器，用于跟踪处理进度。
+        int count = 0;
+        // 初始化一个计数器，用于记录因内容提取失败而跳过的URL数量。
+        int skippedCount = 0;
+        // 按输入顺序遍历所有URL。
+        for (String url : urls) {
+            // 进度计数器加一。
+            count++;
+            // 取出已存在的新闻摘要。
+            NewsSummaryView view = existing.get(url);
+            // 如果该新闻已存在。
+            if (view != null) {
+                // 判断本次是否刚关联到历史记录。
+                boolean linked = crawlHistory != null;
+                // 直接生成摘要，不再下载页面。
+                summaries.put(url, new CrawlSummary(view.getId(), view.getUrl(), view.getTitle(), view.getPublishTime(),
+                        view.getFetchTime(), linked ? CrawlSummary.Status.LINKED : CrawlSummary.Status.EXISTING));
+                // 继续处理下一个URL。
+                continue;
+            } // if条件结束。
+            // 记录当前爬取进度和正在处理的URL。
+            log.info("{}进度: {}/{}, 正在处理URL: {}", label, count, urls.size(), url);
+            // 开始一个try块，以捕获单个URL处理中可能发生的异常。
+            try {
+                // 下载并解析新闻页面。
+                Optional<NewsData> parsed = fetchAndParse(url);
+                // 检查是否解析成功。
+                if (parsed.isPresent()) {
+                    // 取出解析结果。
+                    NewsData newsData = parsed.get();
+                    // 加入写入批次，保存时在同一事务中关联到本次历史记录，达到批次大小时会自动写入。
+                    batch.add(newsData);
+                } else { // 如果内容提取失败。
+                    // 跳过计数器加一。
+                    skippedCount++;
+                } // if-else结束。
+                // 让当前线程暂停500毫秒，以避免请求过于频繁。
+                Thread.sleep(500);
+            } catch (InterruptedException e) { // 如果线程在等待时被中断。
+                // 恢复中断标志。
+                Thread.currentThread().interrupt();
+                // 记录中断日志并停止后续爬取。
+                log.warn("{}被中断，已处理 {} 个URL", label, count);
+                // 退出循环。
+                break;
+            } catch (Exception e) { // 捕获在try块中发生的任何其他异常。
+                // 记录处理特定URL时发生的错误信息。
+                log.error("{}过程中，处理URL {} 失败: {}", label, url, e.getMessage());
+                // 注释：单个页面失败不影响整体任务，程序将继续处理下一个URL。
+            } // try-catch结束。
+        } // for循环结束。
+        // 写入剩余不足一个批次的新闻。
+        batch.flush();
+
+        // 按输入顺序整理结果，批量写入的回调顺序可能与输入顺序不同。
+        Map<String, CrawlSummary> ordered = new LinkedHashMap<>();
+        // 遍历所有URL。
+        for (String url : urls) {
+            // 取出该URL的摘要。
+            CrawlSummary summary = summaries.get(url);
+            // 只保留成功获取的新闻。
+            if (summary != null) {
+                // 加入结果。
+                ordered.put(url, summary);
+            } // if条件结束。
+        } // for循环结束。
+        // 记录批量爬取的总结信息。
+        log.info("{}完成，共获得 {} 条新闻，跳过了 {} 条内容提取失败的新闻。", label, ordered.size(), skippedCount);
+        // 返回结果。
+        return ordered;
+    } // crawlBatch方法结束。
+
+    // 定义一个私有方法，将已存在的新闻关联到传入的历史记录，已属于其他历史记录的新闻和已归档的新闻同样关联。
+    private NewsData linkExisting(NewsData newsData, CrawlHistory crawlHistory) {
+        // 如果传入了有效的爬取历史记录。
+        if (crawlHistory != null) {
+            // 写入关联表并累加词频统计，已存在的关联被忽略。
+            crawlHistoryService.linkNews(crawlHistory.getId(), List.of(newsData.getId()));
+            // 传入的实例可能由持久化上下文管理，返回设置了本次历史记录ID的副本，供JSON返回。
+            return newsData.withHistoryId(crawlHistory.getId());
+        } // if条件结束。
+        // 返回未修改的新闻数据。
+        return newsData;
+    } // linkExisting方法结束。
 
+    // 定义一个私有方法，保存新抓取的新闻并关联到传入的历史记录（可能为null）。
+    private NewsData saveNew(NewsData newsData, CrawlHistory crawlHistory) {
         // 记录新闻爬取成功并准备保存到数据库。
         log.info("新闻爬取成功，正在保存到数据库: {}", newsData.getTitle());
-        // 保存新闻实体到数据库，并将其包装在Optional中返回。
-        return Optional.of(newsDataRepository.save(newsData));
-    } // crawlAndSaveSinaNews方法结束。
-
-    // 声明此方法需要在一个事务中执行。
-    @Transactional
-    // 定义爬取并保存单个新闻并关联历史记录的方法。
-    public Optional<NewsData> crawlAndSaveSinaNews(String url, CrawlHistory crawlHistory) throws IOException {
-        // 根据URL在数据库中查找是否已存在该新闻。
-        Optional<NewsData> existingNews = newsDataRepository.findByUrl(url);
-        // 检查查询结果是否存在。
-        if (existingNews.isPresent()) {
-            // 如果存在，则记录日志并跳过爬取。
-            log.info("新闻已存在于数据库，跳过爬取: {}", url);
-            // 获取已存在的新闻数据实体。
-            NewsData newsData = existingNews.get();
-            // 如果传入了有效的爬取历史记录，且该新闻当前未关联任何历史记录。
-            if (crawlHistory != null && newsData.getCrawlHistory() == null) {
-                // 将新闻与该爬取历史记录关联。
-                newsData.setCrawlHistory(crawlHistory);
-                // 保存更新后的新闻实体，并将其包装在Optional中返回。
-                return Optional.of(newsDataRepository.save(newsData));
-            } // if条件结束。
-            // 返回已存在的新闻数据。
-            return existingNews;
+        // 保存新闻元数据。
+        NewsData saved = newsDataRepository.save(newsData);
+        // 如果有正文，则写入正文表。
+        if (saved.getContent() != null) {
+            // 保存正文记录，主键由新闻主键派生。
+            newsContentRepository.save(new NewsContent(saved, saved.getContent(), saved.getPlainText()));
         } // if条件结束。
+        // 分词一次，写入词频并累加全局统计。
+        termStatService.recordNews(List.of(saved));
+        // 如果传入了历史记录。
+        if (crawlHistory != null) {
+            // 写入关联表并累加词频统计，执行前会先刷新上面的插入。
+            crawlHistoryService.linkNews(crawlHistory.getId(), List.of(saved.getId()));
+            // 设置临时的历史记录ID字段，供JSON返回。
+            saved.setCrawlHistoryId(crawlHistory.getId());
+        } // if条件结束。
+        // 使该URL的缓存失效。
+        newsDataCache.invalidateUrl(saved.getUrl());
+        // 返回保存后的新闻实体。
+        return saved;
+    } // saveNew方法结束。
+
+    // 定义一个私有方法，从数据库按URL加载新闻并带上正文，作为缓存未命中时的加载器；热表中没有时再查归档表。
+    private Optional<NewsData> loadWithContent(String url) {
+        // 查询新闻元数据并加载正文。
+        Optional<NewsData> hot = newsDataRepository.findByUrl(url).map(this::attachContent);
+        // 如果热表中存在则直接返回。
+        if (hot.isPresent()) {
+            // 返回热表中的新闻。
+            return hot;
+        } // if条件结束。
+        // 查询归档表，转换为只读的新闻实体。
+        return newsArchiveRepository.findByUrl(url).map(NewsArchive::toNewsData);
+    } // loadWithContent方法结束。
+
+    // 定义一个私有方法，为单条新闻从正文表加载正文，列表查询不调用此方法。
+    private NewsData attachContent(NewsData newsData) {
+        // 如果正文尚未加载且新闻已保存。
+        if (newsData.getContent() == null && newsData.getId() != null) {
+            // 只查询正文列，解压后填充到临时字段中。
+            newsContentRepository.findContentByNewsId(newsData.getId()).map(CompressedText::getText).ifPresent(newsData::setContent);
+        } // if条件结束。
+        // 返回新闻数据。
+        return newsData;
+    } // attachContent方法结束。
 
+    // 定义一个私有方法，下载新闻页面并解析为尚未保存的新闻实体。
+    private Optional<NewsData> fetchAndParse(String url) throws IOException {
         // 记录开始爬取新新闻的日志。
         log.info("开始爬取新闻: {}", url);
-        // 使用Jsoup连接到指定的URL。
-        Document doc = Jsoup.connect(url)
-                // 设置User-Agent模拟浏览器访问。
-                .userAgent("Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/91.0.4472.124 Safari/537.36")
-                // 设置连接超时时间为15秒。
-                .timeout(15000)
-                // 使用GET方法获取页面文档。
-                .get();
+        // 通过带缓存的HTTP客户端获取页面文档，页面未变化时只需一次条件请求。
+        Document doc = httpClient.getDocument(url, 15000);
 
         // 使用选择器数组尝试提取标题。
         String title = getTextBySelectors(doc, TITLE_SELECTORS);
@@ -626,19 +749,17 @@ public class NewsCrawlerService {
         newsData.setSource(source);
         // 设置新闻的正文内容。
         newsData.setContent(content);
+        // 从正文HTML提取一次纯文本，入库后正文分析只读取纯文本，不再解析HTML。
+        newsData.setPlainText(PlainTextExtractor.extract(content));
         // 设置新闻的关键词。
         newsData.setKeywords(keywords);
-        // 将新闻与传入的爬取历史记录关联。
-        newsData.setCrawlHistory(crawlHistory);
 
         // 调用私有方法来解析并设置发布时间。
         parseAndSetPublishTime(newsData, doc, publishTimeStr);
 
-        // 记录新闻爬取成功并准备保存到数据库。
-        log.info("新闻爬取成功，正在保存到数据库: {}", newsData.getTitle());
-        // 保存新闻实体到数据库，并将其包装在Optional中返回。
-        return Optional.of(newsDataRepository.save(newsData));
-    } // 带历史记录的crawlAndSaveSinaNews方法结束。
+        // 返回解析完成的新闻实体。
+        return Optional.of(newsData);
+    } // fetchAndParse方法结束。
 
     // 定义一个私有方法，用于解析并设置新闻的发布时间。
     private void parseAndSetPublishTime(NewsData newsData, Document doc, String timeStr) {
@@ -721,15 +842,22 @@ public class NewsCrawlerService {
     public Optional<NewsData> findNewsByUrl(String url) {
         // 记录从数据库查询新闻的日志。
         log.info("从数据库查询URL对应的新闻数据: {}", url);
-        // 调用仓库的findByUrl方法并返回结果。
-        return newsDataRepository.findByUrl(url);
+        // 先查缓存，未命中时从数据库加载带正文的新闻。
+        return newsDataCache.getByUrl(url, this::loadWithContent);
     } // findNewsByUrl方法结束。
 
-    // 定义根据爬取历史ID查找关联新闻数据的方法。
+    // 定义根据爬取历史ID查找关联新闻数据的方法，包括已归档的新闻；配置了只读副本时从副本读取。
+    @ReadReplica
     public List<NewsData> findNewsByCrawlHistoryId(Long historyId) {
         // 记录查询关联新闻的日志。
         log.info("查询爬取历史ID {} 关联的新闻数据", historyId);
-        // 调用仓库的findByCrawlHistoryId方法并返回结果。
-        return newsDataRepository.findByCrawlHistoryId(historyId);
+        // 调用仓库的findByCrawlHistoryId方法，只读取元数据，不加载正文。
+        List<NewsData> newsList = new ArrayList<>(newsDataRepository.findByCrawlHistoryId(historyId));
+        // 设置临时的历史记录ID字段，供JSON返回。
+        newsList.forEach(newsData -> newsData.setCrawlHistoryId(historyId));
+        // 追加关联到该历史记录的归档新闻，同样只读取元数据。
+        newsArchiveRepository.findViewsByHistoryId(historyId).forEach(view -> newsList.add(view.toNewsData(historyId)));
+        // 返回结果。
+        return newsList;
     } // findNewsByCrawlHistoryId方法结束。
 } // NewsCrawlerService类定义结束。
\ No newline at end of file
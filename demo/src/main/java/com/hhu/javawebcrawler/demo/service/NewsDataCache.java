@@ -0,0 +1,212 @@
+package com.hhu.javawebcrawler.demo.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.hhu.javawebcrawler.demo.DTO.CachedNews;
+import com.hhu.javawebcrawler.demo.entity.NewsData;
+import com.hhu.javawebcrawler.demo.utils.UrlHashUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+
+// 声明这是一个Spring的服务层组件。
+@Service
+// 使用Lombok为该类自动生成一个SLF4J的logger实例，变量名为log。
+@Slf4j
+// 定义一个名为 NewsDataCache 的公开类，在进程内缓存带正文的新闻，供详情查询、单条爬取和导出反复读取热门文章；
+// 缓存保存与持久化上下文无关的不可变副本，每次命中返回一个新的实体，调用方的修改不会影响缓存或其他请求。
+public class NewsDataCache {
+
+    // 定义每条缓存除正文外的估算开销（字节）。
+    private static final int ENTRY_OVERHEAD_BYTES = 1024;
+    // 定义失效代数的分段数量，URL和新闻ID按散列值映射到分段。
+    private static final int GENERATION_STRIPES = 1024;
+
+    // 声明以新闻ID为键的缓存，按正文大小计算权重。
+    private final Cache<Long, CachedNews> byId;
+    // 声明以规范化URL为键、新闻ID为值的索引缓存。
+    private final Cache<String, Long> idByUrl;
+
+    // 声明命中计数器。
+    private final AtomicLong hitCount = new AtomicLong();
+    // 声明未命中（查询数据库）计数器。
+    private final AtomicLong missCount = new AtomicLong();
+    // 声明失效计数器。
+    private final AtomicLong invalidationCount = new AtomicLong();
+
+    // 声明按键分段的失效代数：失效时先递增代数再移除条目，加载前后代数不同说明加载期间发生了失效，加载结果不再放入缓存。
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+    // 声明按ID批量失效（归档）的代数，按URL加载时事先不知道新闻ID，用它判断加载期间是否有新闻被归档。
+    private final AtomicLong bulkGeneration = new AtomicLong();
+
+    // 定义类的构造函数，从配置中读取有效期和容量。
+    public NewsDataCache(@Value("${crawler.news-cache.ttl-seconds:600}") long ttlSeconds,
+                         @Value("${crawler.news-cache.max-weight-mb:64}") long maxWeightMb) {
+        // 计算有效期。
+        Duration ttl = Duration.ofSeconds(Math.max(1, ttlSeconds));
+        // 创建按正文大小加权、写入后过期的新闻缓存。
+        this.byId = Caffeine.newBuilder()
+                // 总权重上限，按字节计。
+                .maximumWeight(Math.max(1, maxWeightMb) * 1024 * 1024)
+                // 每条新闻的权重为正文的近似字节数加固定开销。
+                .weigher((Long id, CachedNews news) -> ENTRY_OVERHEAD_BYTES + (news.content() == null ? 0 : news.content().length() * 2))
+                // 写入后超过有效期即过期。
+                .expireAfterWrite(ttl)
+                // 记录淘汰统计。
+                .recordStats()
+                // 构建缓存。
+                .build();
+        // 创建URL到ID的索引缓存，条目很小，只按数量限制。
+        this.idByUrl = Caffeine.newBuilder()
+                // 最多保留的URL数量。
+                .maximumSize(100_000)
+                // 与新闻缓存使用相同的有效期。
+                .expireAfterWrite(ttl)
+                // 构建缓存。
+                .build();
+    } // 构造函数结束。
+
+    // 定义按URL获取新闻的方法，未命中时调用loader从数据库加载并放入缓存。
+    public Optional<NewsData> getByUrl(String url, Function<String, Optional<NewsData>> loader) {
+        // 规范化URL作为键。
+        String key = UrlHashUtils.normalize(url);
+        // 按规范化URL查找新闻ID。
+        Long id = idByUrl.getIfPresent(key);
+        // 如果找到了ID。
+        if (id != null) {
+            // 按ID查找新闻。
+            CachedNews cached = byId.getIfPresent(id);
+            // 如果新闻仍在缓存中。
+            if (cached != null) {
+                // 累加命中次数。
+                hitCount.incrementAndGet();
+                // 返回缓存新闻的独立副本。
+                return Optional.of(cached.toNewsData());
+            } // if条件结束。
+        } // if条件结束。
+        // 累加未命中次数。
+        missCount.incrementAndGet();
+        // 取出该URL所在的分段。
+        int stripe = stripe(key);
+        // 在加载前读取该URL的失效代数。
+        long generation = generations.get(stripe);
+        // 在加载前读取批量失效的代数。
+        long bulk = bulkGeneration.get();
+        // 从数据库加载，不缓存"不存在"的结果，新抓取的新闻可以立即被查到。
+        Optional<NewsData> loaded = loader.apply(url);
+        // 如果加载到了新闻，则在加载期间没有发生失效时放入缓存。
+        loaded.ifPresent(newsData -> put(newsData, () -> generations.get(stripe) == generation && bulkGeneration.get() == bulk));
+        // 返回加载结果。
+        return loaded;
+    } // getByUrl方法结束。
+
+    // 定义按ID获取新闻的方法，未命中时调用loader从数据库加载并放入缓存。
+    public Optional<NewsData> getById(Long id, Function<Long, Optional<NewsData>> loader) {
+        // 按ID查找新闻。
+        CachedNews cached = byId.getIfPresent(id);
+        // 如果新闻在缓存中。
+        if (cached != null) {
+            // 累加命中次数。
+            hitCount.incrementAndGet();
+            // 返回缓存新闻的独立副本。
+            return Optional.of(cached.toNewsData());
+        } // if条件结束。
+        // 累加未命中次数。
+        missCount.incrementAndGet();
+        // 取出该ID所在的分段。
+        int stripe = stripe(id);
+        // 在加载前读取该ID的失效代数。
+        long generation = generations.get(stripe);
+        // 从数据库加载。
+        Optional<NewsData> loaded = loader.apply(id);
+        // 如果加载到了新闻，则在加载期间没有发生失效时放入缓存。
+        loaded.ifPresent(newsData -> put(newsData, () -> generations.get(stripe) == generation));
+        // 返回加载结果。
+        return loaded;
+    } // getById方法结束。
+
+    // 定义一个私有方法，将已保存的新闻的不可变副本放入缓存；放入后再次检查代数，加载期间发生过失效时移除刚放入的条目。
+    // 失效方先递增代数再移除条目，因此失效要么被这里的检查发现，要么发生在放入之后并移除该条目，过期的加载结果不会留在缓存中。
+    private void put(NewsData newsData, BooleanSupplier unchanged) {
+        // 未保存的新闻没有ID，不缓存。
+        if (newsData.getId() == null) {
+            // 直接返回。
+            return;
+        } // if条件结束。
+        // 按ID缓存新闻的副本，之后对该实体的修改不会影响缓存。
+        byId.put(newsData.getId(), CachedNews.of(newsData));
+        // 记录规范化URL到ID的映射。
+        idByUrl.put(UrlHashUtils.normalize(newsData.getUrl()), newsData.getId());
+        // 如果加载期间发生了失效。
+        if (!unchanged.getAsBoolean()) {
+            // 移除刚放入的新闻，URL映射在ID未命中时会被重新加载覆盖。
+            byId.invalidate(newsData.getId());
+        } // if条件结束。
+    } // put方法结束。
+
+    // 定义使指定URL的新闻失效的方法，在保存新闻后调用。
+    public void invalidateUrl(String url) {
+        // 规范化URL作为键。
+        String key = UrlHashUtils.normalize(url);
+        // 先递增该URL的失效代数，正在进行的加载不会再放入缓存。
+        generations.incrementAndGet(stripe(key));
+        // 移除URL映射并取得对应的ID。
+        Long id = idByUrl.asMap().remove(key);
+        // 如果存在对应的ID。
+        if (id != null) {
+            // 递增该ID的失效代数。
+            generations.incrementAndGet(stripe(id));
+            // 移除该新闻。
+            byId.invalidate(id);
+            // 累加失效次数。
+            invalidationCount.incrementAndGet();
+        } // if条件结束。
+    } // invalidateUrl方法结束。
+
+    // 定义使一批新闻失效的方法，在新闻移入归档表后调用；URL映射保留，下次按URL查询时会因ID未命中而重新加载。
+    public void invalidateIds(Collection<Long> ids) {
+        // 先递增批量失效的代数，正在进行的按URL加载不会再放入缓存。
+        bulkGeneration.incrementAndGet();
+        // 遍历这些新闻。
+        for (Long id : ids) {
+            // 递增该ID的失效代数，正在进行的按ID加载不会再放入缓存。
+            generations.incrementAndGet(stripe(id));
+        } // for循环结束。
+        // 批量移除这些新闻。
+        byId.invalidateAll(ids);
+        // 累加失效次数。
+        invalidationCount.addAndGet(ids.size());
+    } // invalidateIds方法结束。
+
+    // 定义一个私有的静态方法，返回键所在的失效代数分段。
+    private static int stripe(Object key) {
+        // 打散散列值的高位后取模。
+        int hash = key.hashCode();
+        // 返回分段下标。
+        return ((hash ^ (hash >>> 16)) & Integer.MAX_VALUE) % GENERATION_STRIPES;
+    } // stripe方法结束。
+
+    // 定义返回缓存统计信息的方法。
+    public Map<String, Long> getStats() {
+        // 返回命中、未命中、失效、淘汰次数以及当前缓存的新闻数量。
+        return Map.of(
+                // 命中次数。
+                "hits", hitCount.get(),
+                // 未命中次数。
+                "misses", missCount.get(),
+                // 失效次数。
+                "invalidations", invalidationCount.get(),
+                // 因容量或过期被淘汰的次数。
+                "evictions", byId.stats().evictionCount(),
+                // 当前缓存的新闻数量。
+                "size", byId.estimatedSize());
+    } // getStats方法结束。
+} // NewsDataCache类定义结束。
@@ -0,0 +1,213 @@
+package com.hhu.javawebcrawler.demo.service;
+
+import com.hhu.javawebcrawler.demo.DTO.NewsPage;
+import com.hhu.javawebcrawler.demo.aspect.ReadReplica;
+import com.hhu.javawebcrawler.demo.exception.CrawlerException;
+import com.hhu.javawebcrawler.demo.utils.KeysetCursor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// 声明这是一个Spring的服务层组件。
+@Service
+// 使用Lombok为该类自动生成一个SLF4J的logger实例，变量名为log。
+@Slf4j
+// 列表查询只读，配置了只读副本时从副本读取。
+@ReadReplica
+// 定义一个名为 NewsListingService 的公开类，按(publish_time, id)游标分页查询新闻列表，只读取请求的元数据列。
+// 新闻归档时保留原ID和历史关联，列表同时查询热表和归档表。
+public class NewsListingService {
+
+    // 定义每页的默认新闻数量。
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    // 定义每页允许的最大新闻数量。
+    public static final int MAX_PAGE_SIZE = 200;
+    // 定义未指定fields参数时返回的字段。
+    private static final List<String> DEFAULT_FIELDS = List.of("url", "title", "source", "publishTime");
+    // 定义列表查询的新闻表，归档表与热表的元数据列同名。
+    private static final List<String> NEWS_TABLES = List.of("t_news_data", "t_news_archive");
+    // 定义允许请求的字段与数据库列的对应关系（白名单），正文不在其中。
+    private static final Map<String, String> FIELD_COLUMNS = new LinkedHashMap<>();
+
+    // 静态初始化字段白名单。
+    static {
+        // 新闻主键。
+        FIELD_COLUMNS.put("id", "id");
+        // 新闻链接。
+        FIELD_COLUMNS.put("url", "url");
+        // 新闻标题。
+        FIELD_COLUMNS.put("title", "title");
+        // 新闻来源。
+        FIELD_COLUMNS.put("source", "source");
+        // 发布时间。
+        FIELD_COLUMNS.put("publishTime", "publish_time");
+        // 关键词。
+        FIELD_COLUMNS.put("keywords", "keywords");
+        // 抓取时间。
+        FIELD_COLUMNS.put("fetchTime", "fetch_time");
+    } // 静态初始化块结束。
+
+    // 声明一个用于执行命名参数SQL的模板字段。
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    // 定义类的构造函数，通过它注入依赖。
+    public NewsListingService(NamedParameterJdbcTemplate jdbcTemplate) {
+        // 将注入的模板实例赋值给类成员变量。
+        this.jdbcTemplate = jdbcTemplate;
+    } // 构造函数结束。
+
+    // 定义分页查询某个爬取历史关联新闻的方法。
+    public NewsPage pageByHistoryId(Long historyId, String cursor, Integer size, String fields) {
+        // 以历史记录ID作为查询范围。
+        MapSqlParameterSource params = new MapSqlParameterSource("historyId", historyId);
+        // 执行分页查询并返回结果。
+        return page("id IN (SELECT news_id FROM t_news_history WHERE history_id = :historyId)", params, cursor, size, fields);
+    } // pageByHistoryId方法结束。
+
+    // 定义一个私有方法，在给定范围内按(publish_time DESC, id DESC)执行游标分页查询。
+    private NewsPage page(String scope, MapSqlParameterSource params, String cursor, Integer size, String fields) {
+        // 校验并规范化每页数量。
+        int limit = size == null ? DEFAULT_PAGE_SIZE : size;
+        // 如果数量超出允许范围。
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            // 抛出请求参数错误异常。
+            throw CrawlerException.badRequest("size必须在1到" + MAX_PAGE_SIZE + "之间");
+        } // if条件结束。
+        // 解析请求的字段列表。
+        Set<String> selected = resolveFields(fields);
+        // 初始化查询列，主键和发布时间总是需要，用于生成下一页的游标。
+        Set<String> columns = new LinkedHashSet<>(List.of("id", "publish_time"));
+        // 加入请求字段对应的列。
+        selected.forEach(field -> columns.add(FIELD_COLUMNS.get(field)));
+        // 初始化WHERE子句。
+        StringBuilder where = new StringBuilder(" WHERE ").append(scope);
+        // 解码游标，格式错误时抛出请求参数错误。
+        KeysetCursor position = KeysetCursor.decode(cursor);
+        // 如果传入了游标，则追加游标条件。
+        if (position != null) {
+            // 追加游标条件。
+            appendCursorCondition(where, params, position);
+        } // if条件结束。
+        // 多查一行，用于判断是否还有下一页。
+        params.addValue("limit", limit + 1);
+        // 每张表各取排序后的前limit+1行，再合并排序截取；MySQL降序排序时NULL排在最后，与游标条件一致。
+        List<String> parts = new ArrayList<>(NEWS_TABLES.size());
+        // 遍历热表和归档表。
+        for (String table : NEWS_TABLES) {
+            // 构建单表的分页子查询。
+            parts.add("(SELECT " + String.join(", ", columns) + " FROM " + table + where
+                    + " ORDER BY publish_time DESC, id DESC LIMIT :limit)");
+        } // for循环结束。
+        // 合并两张表的结果并按同一顺序截取。
+        String sql = String.join(" UNION ALL ", parts) + " ORDER BY publish_time DESC, id DESC LIMIT :limit";
+        // 执行查询，将每行映射为只包含请求字段的有序Map，并暂存游标所需的列。
+        List<Row> rows = jdbcTemplate.query(sql, params, (rs, rowNum) -> new Row(
+                toItem(rs, selected), rs.getLong("id"), rs.getObject("publish_time", LocalDateTime.class)));
+        // 判断是否还有下一页。
+        boolean hasMore = rows.size() > limit;
+        // 初始化本页的条目列表。
+        List<Map<String, Object>> items = new ArrayList<>(Math.min(rows.size(), limit));
+        // 初始化下一页游标。
+        String nextCursor = null;
+        // 遍历本页的行。
+        for (int i = 0; i < Math.min(rows.size(), limit); i++) {
+            // 取出条目并加入列表。
+            items.add(rows.get(i).item());
+            // 如果这是本页最后一行且还有下一页，则用它生成游标。
+            if (hasMore && i == limit - 1) {
+                // 编码下一页游标。
+                nextCursor = new KeysetCursor(rows.get(i).publishTime(), rows.get(i).id()).encode();
+            } // if条件结束。
+        } // for循环结束。
+        // 只在请求第一页时统计总数，翻页时不重复计算。
+        Long total = null;
+        // 如果是第一页。
+        if (position == null) {
+            // 在同一范围内分别统计热表和归档表的新闻数并求和。
+            total = jdbcTemplate.queryForObject("SELECT (SELECT COUNT(*) FROM t_news_data WHERE " + scope
+                    + ") + (SELECT COUNT(*) FROM t_news_archive WHERE " + scope + ")", params, Long.class);
+        } // if条件结束。
+        // 返回分页结果。
+        return new NewsPage(items, nextCursor, hasMore, total);
+    } // page方法结束。
+
+    // 定义一个私有方法，解析逗号分隔的fields参数，未知字段视为请求错误。
+    private Set<String> resolveFields(String fields) {
+        // 初始化结果集合，主键总是返回。
+        Set<String> selected = new LinkedHashSet<>(List.of("id"));
+        // 如果未指定字段，则使用默认字段。
+        if (fields == null || fields.isBlank()) {
+            // 加入默认字段。
+            selected.addAll(DEFAULT_FIELDS);
+            // 返回结果。
+            return selected;
+        } // if条件结束。
+        // 遍历逗号分隔的每个字段。
+        for (String field : fields.split(",")) {
+            // 去除首尾空格。
+            String name = field.trim();
+            // 跳过空字段。
+            if (name.isEmpty()) {
+                // 继续下一个。
+                continue;
+            } // if条件结束。
+            // 如果字段不在白名单中。
+            if (!FIELD_COLUMNS.containsKey(name)) {
+                // 抛出请求参数错误异常。
+                throw CrawlerException.badRequest("不支持的字段: " + name + "，可选字段: " + String.join(",", FIELD_COLUMNS.keySet()));
+            } // if条件结束。
+            // 加入结果集合。
+            selected.add(name);
+        } // for循环结束。
+        // 返回结果。
+        return selected;
+    } // resolveFields方法结束。
+
+    // 定义一个私有方法，将当前行映射为只包含请求字段的有序Map。
+    private Map<String, Object> toItem(ResultSet rs, Set<String> selected) throws SQLException {
+        // 初始化有序Map，保持字段顺序。
+        Map<String, Object> item = new LinkedHashMap<>();
+        // 遍历请求的字段。
+        for (String field : selected) {
+            // 取出对应的列名。
+            String column = FIELD_COLUMNS.get(field);
+            // 时间列转换为LocalDateTime，与实体的JSON格式保持一致。
+            Object value = column.endsWith("_time") ? rs.getObject(column, LocalDateTime.class) : rs.getObject(column);
+            // 加入Map。
+            item.put(field, value);
+        } // for循环结束。
+        // 返回条目。
+        return item;
+    } // toItem方法结束。
+
+    // 定义一个私有方法，将游标转换为WHERE条件：取排在(publishTime, id)之后的行，发布时间为空的行排在最后。
+    private void appendCursorCondition(StringBuilder where, MapSqlParameterSource params, KeysetCursor cursor) {
+        // 绑定游标主键。
+        params.addValue("cursorId", cursor.id());
+        // 如果游标行的发布时间为空，则只剩下发布时间为空且主键更小的行。
+        if (cursor.time() == null) {
+            // 追加条件。
+            where.append(" AND publish_time IS NULL AND id < :cursorId");
+            // 返回。
+            return;
+        } // if条件结束。
+        // 绑定游标发布时间。
+        params.addValue("cursorTime", cursor.time());
+        // 追加条件：发布时间更早、发布时间相同但主键更小，或发布时间为空的行。
+        where.append(" AND (publish_time < :cursorTime OR (publish_time = :cursorTime AND id < :cursorId) OR publish_time IS NULL)");
+    } // appendCursorCondition方法结束。
+
+    // 定义一个私有记录，保存查询到的一行：返回给前端的条目，以及生成游标所需的主键和发布时间。
+    private record Row(Map<String, Object> item, long id, LocalDateTime publishTime) {
+    } // Row记录结束。
+} // NewsListingService类定义结束。
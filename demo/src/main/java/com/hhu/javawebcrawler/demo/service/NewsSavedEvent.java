@@ -0,0 +1,8 @@
+package com.hhu.javawebcrawler.demo.service;
+
+import com.hhu.javawebcrawler.demo.entity.NewsData;
+import java.util.List;
+
+// 定义一个名为 NewsSavedEvent 的记录类型，表示一批新抓取的新闻已保存，携带标题、关键词和纯文本正文，在事务提交后用于增量更新全文检索索引。
+public record NewsSavedEvent(List<NewsData> news) {
+} // NewsSavedEvent记录定义结束。
@@ -0,0 +1,1016 @@
+package com.hhu.javawebcrawler.demo.service;
+
+import com.hhu.javawebcrawler.demo.entity.NewsData;
+import com.hhu.javawebcrawler.demo.utils.CompressedText;
+import com.hhu.javawebcrawler.demo.utils.IntLongHashMap;
+import com.hhu.javawebcrawler.demo.utils.SearchSegment;
+import com.hhu.javawebcrawler.demo.utils.TermExtractor;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+// 声明这是一个Spring的服务层组件。
+@Service
+// 使用Lombok为该类自动生成一个SLF4J的logger实例，变量名为log。
+@Slf4j
+// 定义一个名为 NewsSearchService 的公开类，维护标题、关键词和纯文本正文的进程内倒排索引，按BM25排序检索新闻。
+// 新入库的新闻先进入内存缓冲，缓冲满或定时任务触发时写成不可变的段文件；段文件以内存映射读取，小段定时合并，合并时丢弃已删除或已归档的新闻。
+public class NewsSearchService {
+
+    // 定义BM25的词频饱和参数。
+    private static final double K1 = 1.2;
+    // 定义BM25的文档长度归一化参数。
+    private static final double B = 0.75;
+    // 定义标题词语的权重，标题中的词语按出现次数乘以此权重计入词频和文档长度。
+    private static final int TITLE_WEIGHT = 3;
+    // 定义关键词的权重。
+    private static final int KEYWORDS_WEIGHT = 2;
+    // 定义分页时允许访问的最大结果数，超出的部分不参与排序；控制器据此限制页码。
+    public static final int MAX_WINDOW = 1000;
+    // 定义追赶已有新闻时每块读取的新闻数量，每块写成一个段。
+    private static final int CATCH_UP_CHUNK = 2000;
+    // 定义每次定时任务追赶已有新闻的最长时间，避免长时间占用共享的定时任务线程。
+    private static final long CATCH_UP_RUN_MILLIS = 10_000;
+    // 定义每次合并的段数量。
+    private static final int MERGE_FACTOR = 4;
+    // 定义段清单的文件名。
+    private static final String MANIFEST = "segments.properties";
+    // 定义段文件的扩展名。
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    // 声明一个用于执行SQL的JdbcTemplate字段。
+    private final JdbcTemplate jdbcTemplate;
+    // 声明是否启用全文检索的开关。
+    private final boolean enabled;
+    // 声明索引目录。
+    private final Path indexDir;
+    // 声明内存缓冲达到多少篇新闻时写成段文件。
+    private final int flushDocs;
+    // 声明段数量超过多少时触发合并。
+    private final int maxSegments;
+
+    // 声明修改索引状态时使用的锁，查询只读取不可变的快照，不需要加锁。
+    private final Object writeLock = new Object();
+    // 声明当前的索引快照：已打开的段和内存缓冲中的文档。
+    private volatile Snapshot snapshot = new Snapshot(List.of(), List.of());
+    // 声明下一个段文件的编号。
+    private long nextGeneration = 1;
+    // 声明已持久化的连续水位：新闻表中不大于此ID的新闻都已写入段文件，重启后从此ID之后追赶。
+    private long indexedTo;
+    // 声明已写入段文件或没有词语、但ID大于水位的新闻ID；水位按新闻表的ID顺序越过这些ID向前推进，追赶时跳过它们。
+    private final TreeSet<Long> settled = new TreeSet<>();
+    // 声明启动时新闻表的最大ID，之后入库的新闻由保存事件加入索引，追赶只处理此ID及之前的新闻。
+    private long catchUpLimit;
+    // 声明是否已追赶完启动前的新闻。
+    private volatile boolean caughtUp;
+    // 声明一个标志，防止定时维护任务重叠执行。
+    private final AtomicBoolean maintaining = new AtomicBoolean(false);
+
+    // 定义类的构造函数，通过它注入依赖和配置；注入EntityManagerFactory是为了保证Hibernate完成建表后再读取新闻表。
+    public NewsSearchService(JdbcTemplate jdbcTemplate,
+                             EntityManagerFactory entityManagerFactory,
+                             @Value("${crawler.search.enabled:true}") boolean enabled,
+                             @Value("${crawler.search.dir:data/search-index}") String indexDir,
+                             @Value("${crawler.search.flush-docs:1000}") int flushDocs,
+                             @Value("${crawler.search.max-segments:8}") int maxSegments) {
+        // 将注入的JdbcTemplate实例赋值给类成员变量。
+        this.jdbcTemplate = jdbcTemplate;
+        // 保存开关。
+        this.enabled = enabled;
+        // 保存索引目录。
+        this.indexDir = Paths.get(indexDir);
+        // 保存缓冲阈值，至少为1。
+        this.flushDocs = Math.max(1, flushDocs);
+        // 保存段数量上限，至少为合并因子。
+        this.maxSegments = Math.max(MERGE_FACTOR, maxSegments);
+    } // 构造函数结束。
+
+    // 在Bean初始化完成后打开清单中的段文件，并记录需要追赶的新闻范围。
+    @PostConstruct
+    // 定义初始化方法。
+    public void load() {
+        // 如果未启用则直接返回。
+        if (!enabled) {
+            // 不加载索引。
+            return;
+        } // if条件结束。
+        // 初始化已打开的段。
+        List<SearchSegment> segments = new ArrayList<>();
+        // 开始一个try块，索引损坏时从头重建，不阻止应用启动。
+        try {
+            // 确保索引目录存在。
+            Files.createDirectories(indexDir);
+            // 读取清单。
+            Properties manifest = new Properties();
+            // 清单路径。
+            Path manifestPath = indexDir.resolve(MANIFEST);
+            // 如果清单存在。
+            if (Files.exists(manifestPath)) {
+                // 打开清单文件。
+                try (InputStream in = Files.newInputStream(manifestPath)) {
+                    // 读取属性。
+                    manifest.load(in);
+                } // try-with-resources结束。
+            } // if条件结束。
+            // 读取段文件列表；段由旧版本的分词规则生成时，其中的词语与当前规则切分的查询词对不上，丢弃后从头重建。
+            String names = Integer.parseInt(manifest.getProperty("tokenizerVersion", "1")) == TermExtractor.VERSION
+                    ? manifest.getProperty("segments", "") : "";
+            // 依次打开每个段。
+            for (String name : names.isEmpty() ? new String[0] : names.split(",")) {
+                // 以内存映射方式打开。
+                segments.add(SearchSegment.open(indexDir.resolve(name)));
+            } // for循环结束。
+            // 读取已持久化的最大新闻ID，丢弃旧段时从头追赶。
+            indexedTo = names.isEmpty() ? 0 : Long.parseLong(manifest.getProperty("indexedTo", "0"));
+            // 读取下一个段编号。
+            nextGeneration = Long.parseLong(manifest.getProperty("nextGeneration", "1"));
+            // 删除不在清单中的段文件和临时文件，它们来自中断的写入或合并。
+            deleteStrayFiles(segments);
+        } catch (Exception e) { // 捕获任何异常。
+            // 记录错误日志。
+            log.error("全文检索索引加载失败，将从头重建: {}", e.getMessage());
+            // 丢弃已打开的段。
+            segments.clear();
+            // 从头追赶。
+            indexedTo = 0;
+        } // try-catch结束。
+        // 设置初始快照。
+        snapshot = new Snapshot(List.copyOf(segments), List.of());
+        // 记录水位之后已写入段文件的新闻，它们来自追赶完成前写出的缓冲，追赶时不再重复写入。
+        for (SearchSegment segment : segments) {
+            // 遍历段中的文档。
+            for (int doc = 0; doc < segment.docCount(); doc++) {
+                // 只记录水位之后的ID。
+                if (segment.newsId(doc) > indexedTo) {
+                    // 加入集合。
+                    settled.add(segment.newsId(doc));
+                } // if条件结束。
+            } // for循环结束。
+        } // for循环结束。
+        // 记录启动时新闻表的最大ID。
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM t_news_data", Long.class);
+        // 保存追赶上限。
+        catchUpLimit = maxId == null ? 0 : maxId;
+        // 已持久化的ID覆盖上限时无需追赶。
+        caughtUp = indexedTo >= catchUpLimit;
+        // 记录加载日志。
+        log.info("全文检索索引已加载，目录: {}, 段: {}, 文档: {}, 待追赶新闻ID范围: ({}, {}]", indexDir.toAbsolutePath(),
+                segments.size(), segments.stream().mapToLong(SearchSegment::docCount).sum(), indexedTo, catchUpLimit);
+    } // load方法结束。
+
+    // 定义处理新闻保存事件的方法，在保存新闻的事务提交后把新闻加入内存缓冲，缓冲满时写成段文件。
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onNewsSaved(NewsSavedEvent event) {
+        // 如果未启用则直接返回。
+        if (!enabled) {
+            // 不更新索引。
+            return;
+        } // if条件结束。
+        // 初始化待加入的文档。
+        List<SearchSegment.Doc> docs = new ArrayList<>(event.news().size());
+        // 初始化没有任何词语的新闻ID，它们无需写入段文件，水位可以直接越过。
+        List<Long> empty = new ArrayList<>();
+        // 遍历新闻。
+        for (NewsData newsData : event.news()) {
+            // 转换为检索文档，未保存或没有任何词语的新闻跳过。
+            SearchSegment.Doc doc = newsData.getId() == null ? null
+                    : toDoc(newsData.getId(), newsData.getTitle(), newsData.getKeywords(), newsData.getPlainText(), newsData.getSource(),
+                    newsData.getPublishTime() != null ? newsData.getPublishTime() : newsData.getFetchTime());
+            // 如果有词语。
+            if (doc != null) {
+                // 加入列表。
+                docs.add(doc);
+            } else if (newsData.getId() != null) { // 已保存但没有词语。
+                // 记录ID。
+                empty.add(newsData.getId());
+            } // if-else结束。
+        } // for循环结束。
+        // 在锁内更新快照。
+        synchronized (writeLock) {
+            // 没有词语的新闻视为已持久化。
+            settled.addAll(empty);
+            // 如果没有文档则直接返回。
+            if (docs.isEmpty()) {
+                // 无需更新。
+                return;
+            } // if条件结束。
+            // 复制缓冲并追加新文档。
+            List<SearchSegment.Doc> buffer = new ArrayList<>(snapshot.buffer());
+            // 追加新文档。
+            buffer.addAll(docs);
+            // 发布新快照。
+            snapshot = new Snapshot(snapshot.segments(), List.copyOf(buffer));
+            // 水位已越过的新闻晚于其后的新闻提交，重启后不会再被追赶，立即写成段文件；缓冲已满时同样写出。
+            if (buffer.size() >= flushDocs || docs.stream().anyMatch(doc -> doc.newsId() <= indexedTo)) {
+                // 写成段文件。
+                flushLocked();
+            } // if条件结束。
+        } // synchronized块结束。
+    } // onNewsSaved方法结束。
+
+    // 声明按配置的间隔定时执行索引维护。
+    @Scheduled(initialDelayString = "${crawler.search.initial-delay-ms:30000}",
+               fixedDelayString = "${crawler.search.interval-ms:30000}")
+    // 定义定时维护方法：追赶启动前的新闻、把缓冲写成段文件，并在段过多时合并。
+    public void maintain() {
+        // 如果未启用或已有维护正在执行，则直接返回。
+        if (!enabled || !maintaining.compareAndSet(false, true)) {
+            // 跳过本次。
+            return;
+        } // if条件结束。
+        // 开始一个try块，确保执行完毕后释放标志。
+        try {
+            // 在限定时间内追赶启动前的新闻。
+            catchUp(System.currentTimeMillis() + CATCH_UP_RUN_MILLIS);
+            // 在锁内把缓冲写成段文件，并推进水位。
+            synchronized (writeLock) {
+                // 写成段文件。
+                flushLocked();
+                // 推进水位。
+                advanceLocked();
+            } // synchronized块结束。
+            // 段过多时合并最小的几个段。
+            mergeSmallest();
+        } catch (Exception e) { // 捕获任何异常。
+            // 记录错误日志，下次定时任务重试。
+            log.error("全文检索索引维护失败: {}", e.getMessage(), e);
+        } finally { // 无论成功失败都执行。
+            // 释放执行标志。
+            maintaining.set(false);
+        } // try-catch-finally结束。
+    } // maintain方法结束。
+
+    // 在应用关闭前把缓冲写成段文件，避免丢失上次维护之后入库的新闻。
+    @PreDestroy
+    // 定义关闭时的写出方法。
+    public void close() {
+        // 如果未启用则直接返回。
+        if (!enabled) {
+            // 无需写出。
+            return;
+        } // if条件结束。
+        // 在锁内写出缓冲并推进水位。
+        synchronized (writeLock) {
+            // 写成段文件。
+            flushLocked();
+            // 开始一个try块，数据库已不可用时只记录日志，下次启动按旧水位追赶并跳过已写入的新闻。
+            try {
+                // 推进水位。
+                advanceLocked();
+            } catch (Exception e) { // 捕获任何异常。
+                // 记录警告日志。
+                log.warn("关闭时推进全文检索水位失败: {}", e.getMessage());
+            } // try-catch结束。
+        } // synchronized块结束。
+    } // close方法结束。
+
+    // 定义检索新闻的方法：query按入库时的同一规则分词，source、start、end和newsIds为可选的过滤条件，page从0开始；返回一页按BM25得分降序的新闻。
+    public Map<String, Object> search(String query, String source, LocalDateTime start, LocalDateTime end,
+                                      Collection<Long> newsIds, int page, int size) {
+        // 记录开始时间。
+        long started = System.nanoTime();
+        // 对查询分词，词语统一为小写，与索引一致。
+        List<String> terms = new ArrayList<>(normalize(TermExtractor.countWords(query), 1).keySet());
+        // 计算当前页的起始位置，使用long避免页码过大时溢出。
+        long offset = (long) page * size;
+        // 计算需要排序的结果数量。
+        int window = (int) Math.min(MAX_WINDOW, offset + size);
+        // 读取当前快照，整个查询使用同一个快照。
+        Snapshot current = snapshot;
+        // 创建过滤条件。
+        Filter filter = new Filter(source, start == null ? Long.MIN_VALUE : epochSecond(start),
+                end == null ? Long.MAX_VALUE : epochSecond(end), newsIds == null ? null : new HashSet<>(newsIds));
+        // 创建前window个结果的收集器。
+        TopHits hits = new TopHits(window);
+        // 如果查询有词语且结果窗口非空。
+        if (!terms.isEmpty() && window > offset) {
+            // 执行检索。
+            score(current, terms, filter, hits);
+        } // if条件结束。
+        // 取出按得分降序排列的结果。
+        List<Hit> ranked = hits.sorted();
+        // 取出当前页。
+        List<Hit> pageHits = offset >= ranked.size() ? List.of() : ranked.subList((int) offset, (int) Math.min(ranked.size(), offset + size));
+        // 创建结果。
+        Map<String, Object> result = new LinkedHashMap<>();
+        // 放入查询词。
+        result.put("query", query);
+        // 放入分词结果。
+        result.put("terms", terms);
+        // 放入匹配的文档数量，已删除但尚未被合并清除的新闻也计算在内。
+        result.put("total", hits.total);
+        // 放入页码。
+        result.put("page", page);
+        // 放入每页数量。
+        result.put("size", size);
+        // 放入当前页的新闻。
+        result.put("items", hydrate(pageHits));
+        // 放入耗时（毫秒）。
+        result.put("tookMs", (System.nanoTime() - started) / 1_000_000.0);
+        // 返回结果。
+        return result;
+    } // search方法结束。
+
+    // 定义读取某个历史记录关联的新闻ID的方法，用于按历史记录过滤检索结果。
+    public List<Long> historyNewsIds(Long historyId) {
+        // 查询关联表。
+        return jdbcTemplate.queryForList("SELECT news_id FROM t_news_history WHERE history_id = ?", Long.class, historyId);
+    } // historyNewsIds方法结束。
+
+    // 定义返回索引统计信息的方法。
+    public Map<String, Object> getStats() {
+        // 读取当前快照。
+        Snapshot current = snapshot;
+        // 创建结果。
+        Map<String, Object> stats = new LinkedHashMap<>();
+        // 是否启用。
+        stats.put("enabled", enabled);
+        // 段数量。
+        stats.put("segments", current.segments().size());
+        // 段中的文档数量。
+        stats.put("segmentDocs", current.segments().stream().mapToLong(SearchSegment::docCount).sum());
+        // 缓冲中的文档数量。
+        stats.put("bufferedDocs", current.buffer().size());
+        // 段文件占用的字节数。
+        stats.put("segmentBytes", current.segments().stream().mapToLong(segment -> segment.file().toFile().length()).sum());
+        // 是否已追赶完启动前的新闻。
+        stats.put("caughtUp", caughtUp);
+        // 已持久化的最大新闻ID。
+        stats.put("indexedTo", indexedTo);
+        // 返回结果。
+        return stats;
+    } // getStats方法结束。
+
+    // 定义一个私有方法，对快照中的所有段和缓冲计算BM25得分，把通过过滤的文档交给收集器。
+    private void score(Snapshot current, List<String> terms, Filter filter, TopHits hits) {
+        // 统计文档总数。
+        long docCount = current.buffer().size();
+        // 统计文档长度之和。
+        long totalLength = 0;
+        // 累加缓冲中的文档长度。
+        for (SearchSegment.Doc doc : current.buffer()) {
+            // 累加长度。
+            totalLength += doc.length();
+        } // for循环结束。
+        // 累加各段的文档数和长度。
+        for (SearchSegment segment : current.segments()) {
+            // 累加文档数。
+            docCount += segment.docCount();
+            // 累加长度。
+            totalLength += segment.totalLength();
+        } // for循环结束。
+        // 计算平均文档长度。
+        double avgLength = docCount == 0 ? 1 : Math.max(1.0, (double) totalLength / docCount);
+        // 编码查询词。
+        byte[][] termBytes = new byte[terms.size()][];
+        // 计算每个词语的IDF。
+        double[] idf = new double[terms.size()];
+        // 遍历查询词。
+        for (int t = 0; t < terms.size(); t++) {
+            // 编码为UTF-8。
+            termBytes[t] = terms.get(t).getBytes(StandardCharsets.UTF_8);
+            // 初始化文档频率。
+            long df = 0;
+            // 累加各段的文档频率。
+            for (SearchSegment segment : current.segments()) {
+                // 累加。
+                df += segment.docFreq(termBytes[t]);
+            } // for循环结束。
+            // 累加缓冲中的文档频率。
+            for (SearchSegment.Doc doc : current.buffer()) {
+                // 包含该词语时计数。
+                if (doc.terms().containsKey(terms.get(t))) {
+                    // 累加。
+                    df++;
+                } // if条件结束。
+            } // for循环结束。
+            // 使用BM25的IDF公式，加1保证得分为正。
+            idf[t] = Math.log(1 + (docCount - df + 0.5) / (df + 0.5));
+        } // for循环结束。
+        // 遍历每个段。
+        for (SearchSegment segment : current.segments()) {
+            // 计算来源在该段中的序号。
+            int sourceOrdinal = filter.source() == null ? -1 : segment.sourceOrdinal(filter.source());
+            // 如果指定了来源但该段中没有，跳过整个段。
+            if (filter.source() != null && sourceOrdinal < 0) {
+                // 继续下一个段。
+                continue;
+            } // if条件结束。
+            // 估算该段中命中的文档数量，不超过段的文档数。
+            long expected = 0;
+            // 累加各查询词的文档频率。
+            for (byte[] term : termBytes) {
+                // 累加。
+                expected += segment.docFreq(term);
+            } // for循环结束。
+            // 创建只容纳命中文档的稀疏累加器，内存与命中数成正比，而不是与段的文档数成正比。
+            Accumulator accumulator = new Accumulator((int) Math.min(expected, segment.docCount()));
+            // 逐个词语累加得分。
+            for (int t = 0; t < terms.size(); t++) {
+                // 复制为lambda可用的局部变量。
+                double weight = idf[t];
+                // 遍历倒排表并累加BM25得分。
+                segment.postings(termBytes[t], (doc, tf) -> accumulator.add(doc, (float) bm25(weight, tf, segment.length(doc), avgLength)));
+            } // for循环结束。
+            // 遍历命中的文档。
+            for (int i = 0; i < accumulator.count; i++) {
+                // 取出文档序号。
+                int doc = accumulator.docs[i];
+                // 检查过滤条件。
+                if ((sourceOrdinal < 0 || segment.sourceOrdinal(doc) == sourceOrdinal) && filter.accept(segment.newsId(doc), segment.time(doc))) {
+                    // 交给收集器。
+                    hits.offer(segment.newsId(doc), accumulator.scores[i]);
+                } // if条件结束。
+            } // for循环结束。
+        } // for循环结束。
+        // 遍历缓冲中的文档。
+        for (SearchSegment.Doc doc : current.buffer()) {
+            // 检查过滤条件。
+            if ((filter.source() != null && !filter.source().equals(doc.source())) || !filter.accept(doc.newsId(), doc.time())) {
+                // 继续下一篇。
+                continue;
+            } // if条件结束。
+            // 初始化得分。
+            double value = 0;
+            // 遍历查询词。
+            for (int t = 0; t < terms.size(); t++) {
+                // 读取词频。
+                Integer tf = doc.terms().get(terms.get(t));
+                // 如果包含该词语。
+                if (tf != null) {
+                    // 累加BM25得分。
+                    value += bm25(idf[t], tf, doc.length(), avgLength);
+                } // if条件结束。
+            } // for循环结束。
+            // 如果命中。
+            if (value > 0) {
+                // 交给收集器。
+                hits.offer(doc.newsId(), (float) value);
+            } // if条件结束。
+        } // for循环结束。
+    } // score方法结束。
+
+    // 定义一个私有的静态方法，计算一个词语在一篇文档中的BM25得分。
+    private static double bm25(double idf, int tf, int length, double avgLength) {
+        // 按文档长度归一化的词频饱和公式。
+        return idf * tf * (K1 + 1) / (tf + K1 * (1 - B + B * length / avgLength));
+    } // bm25方法结束。
+
+    // 定义一个私有方法，按得分顺序从新闻表读取当前页的新闻元数据；已删除或已归档的新闻不再返回。
+    private List<Map<String, Object>> hydrate(List<Hit> pageHits) {
+        // 如果没有结果则直接返回。
+        if (pageHits.isEmpty()) {
+            // 返回空列表。
+            return List.of();
+        } // if条件结束。
+        // 初始化新闻ID到得分的映射，保持得分顺序。
+        Map<Long, Float> scores = new LinkedHashMap<>();
+        // 遍历结果。
+        for (Hit hit : pageHits) {
+            // 记录得分。
+            scores.put(hit.newsId(), hit.score());
+        } // for循环结束。
+        // 初始化新闻ID到元数据的映射。
+        Map<Long, Map<String, Object>> rows = new HashMap<>();
+        // 查询这些新闻的元数据。
+        jdbcTemplate.query("SELECT id, url, title, source, publish_time, keywords FROM t_news_data WHERE id IN ("
+                + String.join(",", Collections.nCopies(scores.size(), "?")) + ")", rs -> {
+            // 创建结果项。
+            Map<String, Object> item = new LinkedHashMap<>();
+            // 新闻ID。
+            item.put("id", rs.getLong("id"));
+            // 新闻链接。
+            item.put("url", rs.getString("url"));
+            // 标题。
+            item.put("title", rs.getString("title"));
+            // 来源。
+            item.put("source", rs.getString("source"));
+            // 读取发布时间。
+            Timestamp publishTime = rs.getTimestamp("publish_time");
+            // 发布时间。
+            item.put("publishTime", publishTime == null ? null : publishTime.toLocalDateTime());
+            // 关键词。
+            item.put("keywords", rs.getString("keywords"));
+            // 记录结果项。
+            rows.put(rs.getLong("id"), item);
+        }, scores.keySet().toArray());
+        // 初始化结果列表。
+        List<Map<String, Object>> items = new ArrayList<>(rows.size());
+        // 按得分顺序组装。
+        for (Map.Entry<Long, Float> entry : scores.entrySet()) {
+            // 取出元数据。
+            Map<String, Object> item = rows.get(entry.getKey());
+            // 如果新闻仍在热表中。
+            if (item != null) {
+                // 放入得分。
+                item.put("score", entry.getValue());
+                // 加入结果。
+                items.add(item);
+            } // if条件结束。
+        } // for循环结束。
+        // 返回结果。
+        return items;
+    } // hydrate方法结束。
+
+    // 定义一个私有方法，在限定时间内把启动前已入库的新闻按主键分块写成段文件，每块完成后更新清单，中断后可以继续。
+    private void catchUp(long deadline) throws IOException {
+        // 循环直到追赶完成或超时。
+        while (!caughtUp && System.currentTimeMillis() < deadline) {
+            // 读取下一块新闻的标题、关键词和纯文本正文。
+            List<Object[]> rows = new ArrayList<>();
+            // 按主键顺序读取。
+            jdbcTemplate.query("SELECT n.id, n.title, n.keywords, n.source, COALESCE(n.publish_time, n.fetch_time) AS time, c.text_z "
+                    + "FROM t_news_data n LEFT JOIN t_news_content c ON c.news_id = n.id WHERE n.id > ? AND n.id <= ? ORDER BY n.id LIMIT ?", rs -> {
+                // 读取时间。
+                Timestamp time = rs.getTimestamp("time");
+                // 读取纯文本。
+                byte[] textZ = rs.getBytes("text_z");
+                // 转换为检索文档，没有词语时为null。
+                SearchSegment.Doc doc = toDoc(rs.getLong("id"), rs.getString("title"), rs.getString("keywords"),
+                        textZ == null ? null : CompressedText.fromBytes(textZ).getText(), rs.getString("source"),
+                        time == null ? null : time.toLocalDateTime());
+                // 记录新闻ID和文档。
+                rows.add(new Object[]{rs.getLong("id"), doc});
+            }, indexedTo, catchUpLimit, CATCH_UP_CHUNK);
+            // 如果没有剩余的新闻。
+            if (rows.isEmpty()) {
+                // 在锁内标记追赶完成。
+                synchronized (writeLock) {
+                    // 启动前的新闻都已处理。
+                    indexedTo = Math.max(indexedTo, catchUpLimit);
+                    // 水位之前的ID不再需要记录。
+                    settled.headSet(indexedTo, true).clear();
+                    // 标记完成。
+                    caughtUp = true;
+                    // 保存清单。
+                    writeManifest(snapshot.segments());
+                } // synchronized块结束。
+                // 记录完成日志。
+                log.info("全文检索索引已追赶完启动前入库的新闻");
+                // 结束追赶。
+                return;
+            } // if条件结束。
+            // 收集有词语的文档。
+            List<SearchSegment.Doc> docs = new ArrayList<>(rows.size());
+            // 在锁内读取已写入段文件的ID。
+            synchronized (writeLock) {
+                // 遍历读取结果。
+                for (Object[] row : rows) {
+                    // 跳过没有词语的新闻和追赶完成前已由保存事件写入段文件的新闻。
+                    if (row[1] != null && !settled.contains((Long) row[0])) {
+                        // 加入列表。
+                        docs.add((SearchSegment.Doc) row[1]);
+                    } // if条件结束。
+                } // for循环结束。
+            } // synchronized块结束。
+            // 取出本块的最大新闻ID。
+            long lastId = (Long) rows.get(rows.size() - 1)[0];
+            // 在锁外写段文件。
+            SearchSegment segment = docs.isEmpty() ? null : SearchSegment.write(indexDir.resolve(nextSegmentName()), docs);
+            // 在锁内发布新段并推进进度。
+            synchronized (writeLock) {
+                // 如果写出了新段。
+                if (segment != null) {
+                    // 追加到段列表。
+                    snapshot = new Snapshot(append(snapshot.segments(), segment), snapshot.buffer());
+                } // if条件结束。
+                // 推进水位。
+                indexedTo = lastId;
+                // 水位之前的ID不再需要记录。
+                settled.headSet(indexedTo, true).clear();
+                // 保存清单。
+                writeManifest(snapshot.segments());
+            } // synchronized块结束。
+        } // while循环结束。
+    } // catchUp方法结束。
+
+    // 定义一个私有方法，在持有写锁时把缓冲写成段文件；失败时保留缓冲，下次重试。
+    private void flushLocked() {
+        // 读取当前缓冲。
+        List<SearchSegment.Doc> buffer = snapshot.buffer();
+        // 如果缓冲为空则直接返回。
+        if (buffer.isEmpty()) {
+            // 无需写入。
+            return;
+        } // if条件结束。
+        // 开始一个try块，写入失败不影响入库。
+        try {
+            // 写成段文件。
+            SearchSegment segment = SearchSegment.write(indexDir.resolve(nextSegmentName()), buffer);
+            // 发布新快照，缓冲清空。
+            snapshot = new Snapshot(append(snapshot.segments(), segment), List.of());
+            // 记录已写入段文件的新闻，水位在定时维护时按新闻表的ID顺序越过它们。
+            buffer.forEach(doc -> settled.add(doc.newsId()));
+            // 保存清单。
+            writeManifest(snapshot.segments());
+            // 记录调试日志。
+            log.debug("全文检索缓冲已写成段文件 {}，文档数: {}", segment.file().getFileName(), segment.docCount());
+        } catch (IOException e) { // 捕获写入异常。
+            // 记录错误日志。
+            log.error("全文检索缓冲写入失败，将在下次维护时重试: {}", e.getMessage());
+        } // try-catch结束。
+    } // flushLocked方法结束。
+
+    // 定义一个私有方法，在持有写锁时推进水位：按ID顺序读取水位之后已提交的新闻，越过已写入段文件的ID，遇到尚未写入的ID即停止。
+    // 缓冲中的最大ID不能直接作为水位，较小ID的事务可能晚提交，重启后从水位之后追赶时会漏掉它们。
+    private void advanceLocked() {
+        // 追赶完成前水位由追赶推进。
+        if (!caughtUp || settled.isEmpty()) {
+            // 无需推进。
+            return;
+        } // if条件结束。
+        // 记录原水位。
+        long before = indexedTo;
+        // 循环读取水位之后的新闻ID。
+        while (!settled.isEmpty()) {
+            // 读取下一块ID。
+            List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM t_news_data WHERE id > ? ORDER BY id LIMIT ?",
+                    Long.class, indexedTo, CATCH_UP_CHUNK);
+            // 依次越过已写入的ID。
+            int advanced = 0;
+            // 遍历本块。
+            for (Long id : ids) {
+                // 遇到尚未写入段文件的新闻时停止。
+                if (!settled.contains(id)) {
+                    // 退出循环。
+                    break;
+                } // if条件结束。
+                // 推进水位。
+                indexedTo = id;
+                // 计数。
+                advanced++;
+            } // for循环结束。
+            // 水位之前的ID不再需要记录，其中也包括已被删除或归档的新闻。
+            settled.headSet(indexedTo, true).clear();
+            // 本块没有全部越过时结束。
+            if (advanced < CATCH_UP_CHUNK) {
+                // 退出循环。
+                break;
+            } // if条件结束。
+        } // while循环结束。
+        // 如果水位有变化。
+        if (indexedTo != before) {
+            // 保存清单。
+            writeManifest(snapshot.segments());
+        } // if条件结束。
+    } // advanceLocked方法结束。
+
+    // 定义一个私有方法，在段数量超过上限时合并文档最少的几个段；合并在锁外进行，期间新写入的段不受影响。
+    private void mergeSmallest() throws IOException {
+        // 读取当前段列表。
+        List<SearchSegment> segments = snapshot.segments();
+        // 段数量未超过上限时无需合并。
+        if (segments.size() <= maxSegments) {
+            // 直接返回。
+            return;
+        } // if条件结束。
+        // 按文档数量选出最小的几个段，保持它们在列表中的先后顺序，合并时靠后的段优先。
+        List<SearchSegment> smallest = segments.stream().sorted(Comparator.comparingInt(SearchSegment::docCount))
+                .limit(MERGE_FACTOR).toList();
+        // 按原顺序排列。
+        List<SearchSegment> victims = segments.stream().filter(smallest::contains).toList();
+        // 查询这些段中已不在热表的新闻，合并时丢弃。
+        Set<Long> missing = missingNewsIds(victims);
+        // 合并为一个新段。
+        SearchSegment merged = SearchSegment.merge(indexDir.resolve(nextSegmentName()), victims, id -> !missing.contains(id));
+        // 在锁内替换段列表。
+        synchronized (writeLock) {
+            // 移除被合并的段。
+            List<SearchSegment> remaining = new ArrayList<>(snapshot.segments());
+            // 移除。
+            remaining.removeAll(victims);
+            // 合并结果为空时不保留。
+            if (merged.docCount() > 0) {
+                // 加入合并后的段。
+                remaining.add(merged);
+            } // if条件结束。
+            // 发布新快照。
+            snapshot = new Snapshot(List.copyOf(remaining), snapshot.buffer());
+            // 保存清单。
+            writeManifest(snapshot.segments());
+        } // synchronized块结束。
+        // 合并结果为空时删除其文件。
+        if (merged.docCount() == 0) {
+            // 删除文件。
+            deleteQuietly(merged.file());
+        } // if条件结束。
+        // 删除被合并的段文件；正在执行的查询仍持有映射，删除不影响它们读取。
+        victims.forEach(segment -> deleteQuietly(segment.file()));
+        // 记录合并日志。
+        log.info("全文检索合并了 {} 个段，保留文档 {} 篇，丢弃已删除或已归档的新闻 {} 篇", victims.size(), merged.docCount(), missing.size());
+    } // mergeSmallest方法结束。
+
+    // 定义一个私有方法，查询一组段中已不在新闻表中的新闻ID，按块查询以限制每条SQL的参数数量。
+    private Set<Long> missingNewsIds(List<SearchSegment> segments) {
+        // 初始化结果。
+        Set<Long> missing = new HashSet<>();
+        // 初始化当前块。
+        List<Long> chunk = new ArrayList<>(CATCH_UP_CHUNK);
+        // 遍历所有段。
+        for (SearchSegment segment : segments) {
+            // 遍历段中的文档。
+            for (int doc = 0; doc < segment.docCount(); doc++) {
+                // 加入当前块。
+                chunk.add(segment.newsId(doc));
+                // 凑满一块时查询。
+                if (chunk.size() == CATCH_UP_CHUNK) {
+                    // 查询并清空。
+                    collectMissing(chunk, missing);
+                } // if条件结束。
+            } // for循环结束。
+        } // for循环结束。
+        // 查询最后不足一块的ID。
+        collectMissing(chunk, missing);
+        // 返回结果。
+        return missing;
+    } // missingNewsIds方法结束。
+
+    // 定义一个私有方法，把一块ID中不在新闻表中的ID加入missing，然后清空该块。
+    private void collectMissing(List<Long> chunk, Set<Long> missing) {
+        // 如果块为空则直接返回。
+        if (chunk.isEmpty()) {
+            // 无需查询。
+            return;
+        } // if条件结束。
+        // 查询仍存在的ID。
+        Set<Long> existing = new HashSet<>(jdbcTemplate.queryForList("SELECT id FROM t_news_data WHERE id IN ("
+                + String.join(",", Collections.nCopies(chunk.size(), "?")) + ")", Long.class, chunk.toArray()));
+        // 遍历本块。
+        for (Long id : chunk) {
+            // 不存在的加入结果。
+            if (!existing.contains(id)) {
+                // 记录缺失的ID。
+                missing.add(id);
+            } // if条件结束。
+        } // for循环结束。
+        // 清空本块。
+        chunk.clear();
+    } // collectMissing方法结束。
+
+    // 定义一个私有方法，把一篇新闻转换为检索文档：标题、关键词和纯文本正文按权重合并为一个词频表，没有任何词语时返回null。
+    private static SearchSegment.Doc toDoc(long newsId, String title, String keywords, String plainText, String source, LocalDateTime time) {
+        // 合并三个来源的加权词频。
+        Map<String, Integer> terms = normalize(TermExtractor.countWords(title), TITLE_WEIGHT);
+        // 合并关键词。
+        normalize(TermExtractor.countKeywords(keywords), KEYWORDS_WEIGHT).forEach((term, tf) -> terms.merge(term, tf, Integer::sum));
+        // 合并正文词语。
+        normalize(TermExtractor.countWords(plainText), 1).forEach((term, tf) -> terms.merge(term, tf, Integer::sum));
+        // 没有任何词语的新闻无法被检索到。
+        if (terms.isEmpty()) {
+            // 返回null。
+            return null;
+        } // if条件结束。
+        // 计算加权后的文档长度。
+        int length = terms.values().stream().mapToInt(Integer::intValue).sum();
+        // 创建检索文档，时间缺失时视为当前时间。
+        return new SearchSegment.Doc(newsId, epochSecond(time == null ? LocalDateTime.now() : time), source, terms, length);
+    } // toDoc方法结束。
+
+    // 定义一个私有的静态方法，把词语统一为小写并乘以权重，大小写不同的词语合并计数；段文件中的词频为int，超出时取上限。
+    private static Map<String, Integer> normalize(Map<String, Long> counts, int weight) {
+        // 初始化结果。
+        Map<String, Integer> result = new HashMap<>(counts.size() * 2);
+        // 遍历词语。
+        counts.forEach((term, count) -> result.merge(term.toLowerCase(Locale.ROOT), (int) Math.min(Integer.MAX_VALUE, count * weight),
+                (a, b) -> (int) Math.min(Integer.MAX_VALUE, (long) a + b)));
+        // 返回结果。
+        return result;
+    } // normalize方法结束。
+
+    // 定义一个私有的静态方法，把本地时间转换为秒数，只用于比较，不涉及时区换算。
+    private static long epochSecond(LocalDateTime time) {
+        // 按UTC换算，与入库时一致。
+        return time.toEpochSecond(ZoneOffset.UTC);
+    } // epochSecond方法结束。
+
+    // 定义一个私有方法，返回下一个段文件的名称；调用方不必持有写锁，编号在锁内分配。
+    private String nextSegmentName() {
+        // 在锁内分配编号。
+        synchronized (writeLock) {
+            // 返回带编号的文件名。
+            return "segment-" + (nextGeneration++) + SEGMENT_SUFFIX;
+        } // synchronized块结束。
+    } // nextSegmentName方法结束。
+
+    // 定义一个私有方法，在持有写锁时保存清单：先写临时文件，再原子地替换，段文件在被清单引用前已刷新到磁盘。
+    private void writeManifest(List<SearchSegment> segments) {
+        // 创建属性。
+        Properties manifest = new Properties();
+        // 段文件列表。
+        manifest.setProperty("segments", String.join(",", segments.stream().map(segment -> segment.file().getFileName().toString()).toList()));
+        // 已持久化的最大新闻ID。
+        manifest.setProperty("indexedTo", Long.toString(indexedTo));
+        // 下一个段编号。
+        manifest.setProperty("nextGeneration", Long.toString(nextGeneration));
+        // 生成索引所用的分词规则版本。
+        manifest.setProperty("tokenizerVersion", Integer.toString(TermExtractor.VERSION));
+        // 开始一个try块，保存失败只记录日志，下次保存时覆盖。
+        try {
+            // 创建临时文件。
+            Path tmp = Files.createTempFile(indexDir, MANIFEST, ".tmp");
+            // 写入属性。
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                // 保存。
+                manifest.store(out, "search index manifest");
+            } // try-with-resources结束。
+            // 原子地替换清单。
+            Files.move(tmp, indexDir.resolve(MANIFEST), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) { // 捕获写入异常。
+            // 记录错误日志。
+            log.error("全文检索清单保存失败: {}", e.getMessage());
+        } // try-catch结束。
+    } // writeManifest方法结束。
+
+    // 定义一个私有方法，删除索引目录中不属于当前段列表的段文件和临时文件。
+    private void deleteStrayFiles(List<SearchSegment> segments) throws IOException {
+        // 收集当前段的文件名。
+        Set<String> live = new HashSet<>();
+        // 遍历段。
+        for (SearchSegment segment : segments) {
+            // 记录文件名。
+            live.add(segment.file().getFileName().toString());
+        } // for循环结束。
+        // 列出目录中的文件。
+        try (Stream<Path> files = Files.list(indexDir)) {
+            // 遍历文件。
+            files.filter(file -> {
+                // 取出文件名。
+                String name = file.getFileName().toString();
+                // 不在清单中的段文件和所有临时文件。
+                return (name.endsWith(SEGMENT_SUFFIX) && !live.contains(name)) || name.endsWith(".tmp");
+            }).forEach(this::deleteQuietly);
+        } // try-with-resources结束。
+    } // deleteStrayFiles方法结束。
+
+    // 定义一个私有方法，删除文件，失败时只记录日志；在不允许删除已映射文件的系统上，文件会在下次启动时被清理。
+    private void deleteQuietly(Path file) {
+        // 开始一个try块。
+        try {
+            // 删除文件。
+            Files.deleteIfExists(file);
+        } catch (IOException e) { // 捕获删除异常。
+            // 记录警告日志。
+            log.warn("删除全文检索文件失败，将在下次启动时清理: {}", file);
+        } // try-catch结束。
+    } // deleteQuietly方法结束。
+
+    // 定义一个私有的静态方法，返回追加一个段后的新列表。
+    private static List<SearchSegment> append(List<SearchSegment> segments, SearchSegment segment) {
+        // 复制列表。
+        List<SearchSegment> result = new ArrayList<>(segments);
+        // 追加段。
+        result.add(segment);
+        // 返回不可变列表。
+        return List.copyOf(result);
+    } // append方法结束。
+
+    // 定义一个私有的记录类型，表示不可变的索引快照。
+    private record Snapshot(List<SearchSegment> segments, List<SearchSegment.Doc> buffer) {
+    } // Snapshot记录结束。
+
+    // 定义一个私有的记录类型，表示检索的过滤条件：时间范围为[start, end)的秒数，newsIds为null时不按新闻ID过滤。
+    private record Filter(String source, long start, long end, Set<Long> newsIds) {
+        // 定义判断文档是否满足时间和新闻ID条件的方法，来源条件由调用方按序号比较。
+        private boolean accept(long newsId, long time) {
+            // 同时满足时间范围和新闻ID集合。
+            return time >= start && time < end && (newsIds == null || newsIds.contains(newsId));
+        } // accept方法结束。
+    } // Filter记录结束。
+
+    // 定义一个私有的记录类型，表示一条检索结果。
+    private record Hit(long newsId, float score) {
+    } // Hit记录结束。
+
+    // 定义一个私有的静态内部类，用有界小顶堆保留得分最高的前k个结果，并统计匹配总数。
+    private static final class TopHits {
+        // 声明堆的容量。
+        private final int capacity;
+        // 声明小顶堆，堆顶为当前保留的结果中最差的一个；得分相同时新闻ID较大（较新）的排在前面。
+        private final PriorityQueue<Hit> heap = new PriorityQueue<>(Comparator.comparingDouble(Hit::score).thenComparing(Hit::newsId));
+        // 声明堆中已有的新闻ID；同一新闻在多个段中出现时只保留一条。
+        private final Set<Long> members = new HashSet<>();
+        // 声明匹配总数。
+        private long total;
+
+        // 定义构造函数。
+        private TopHits(int capacity) {
+            // 保存容量。
+            this.capacity = capacity;
+        } // 构造函数结束。
+
+        // 定义提交一个结果的方法。
+        private void offer(long newsId, float score) {
+            // 已在堆中的新闻不再重复计入。
+            if (members.contains(newsId)) {
+                // 忽略重复。
+                return;
+            } // if条件结束。
+            // 累加匹配总数。
+            total++;
+            // 堆未满时直接加入。
+            if (heap.size() < capacity) {
+                // 加入堆。
+                heap.add(new Hit(newsId, score));
+                // 记录ID。
+                members.add(newsId);
+            } else if (capacity > 0 && (score > heap.peek().score() || (score == heap.peek().score() && newsId > heap.peek().newsId()))) { // 优于堆顶时替换。
+                // 移除堆顶。
+                members.remove(heap.poll().newsId());
+                // 加入新结果。
+                heap.add(new Hit(newsId, score));
+                // 记录ID。
+                members.add(newsId);
+            } // if-else结束。
+        } // offer方法结束。
+
+        // 定义返回按得分降序排列的结果的方法。
+        private List<Hit> sorted() {
+            // 复制堆中的结果。
+            Hit[] result = heap.toArray(new Hit[0]);
+            // 按得分降序、新闻ID降序排列。
+            Arrays.sort(result, Comparator.comparingDouble(Hit::score).thenComparing(Hit::newsId).reversed());
+            // 返回列表。
+            return Arrays.asList(result);
+        } // sorted方法结束。
+    } // TopHits类结束。
+
+    // 定义一个私有的静态内部类，作为单个段内的稀疏得分累加器：文档序号映射到命中顺序，得分按命中顺序连续存放，只为命中的文档分配空间。
+    private static final class Accumulator {
+        // 声明文档序号到命中顺序加1的映射，0表示尚未命中。
+        private final IntLongHashMap slots;
+        // 声明按命中顺序排列的文档序号。
+        private int[] docs;
+        // 声明按命中顺序排列的得分。
+        private float[] scores;
+        // 声明命中的文档数量。
+        private int count;
+
+        // 定义构造函数，按预期的命中数量分配初始容量。
+        private Accumulator(int expected) {
+            // 创建映射。
+            slots = new IntLongHashMap(expected);
+            // 分配文档序号数组。
+            docs = new int[Math.max(16, expected)];
+            // 分配得分数组。
+            scores = new float[docs.length];
+        } // 构造函数结束。
+
+        // 定义累加一篇文档得分的方法。
+        private void add(int doc, float value) {
+            // 查找命中顺序。
+            int slot = (int) slots.get(doc) - 1;
+            // 第一次命中时分配位置。
+            if (slot < 0) {
+                // 按需扩容。
+                if (count == docs.length) {
+                    // 扩容为两倍。
+                    docs = Arrays.copyOf(docs, count * 2);
+                    // 同步扩容得分数组。
+                    scores = Arrays.copyOf(scores, count * 2);
+                } // if条件结束。
+                // 分配位置。
+                slot = count++;
+                // 记录映射。
+                slots.addTo(doc, slot + 1);
+                // 记录文档序号。
+                docs[slot] = doc;
+            } // if条件结束。
+            // 累加得分。
+            scores[slot] += value;
+        } // add方法结束。
+    } // Accumulator类结束。
+} // NewsSearchService类定义结束。
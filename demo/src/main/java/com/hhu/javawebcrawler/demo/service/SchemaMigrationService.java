@@ -0,0 +1,602 @@
+package com.hhu.javawebcrawler.demo.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.hhu.javawebcrawler.demo.entity.NewsData;
+import com.hhu.javawebcrawler.demo.utils.UrlHashUtils;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// 声明这是一个Spring的服务层组件。
+@Service
+// 使用Lombok为该类自动生成一个SLF4J的logger实例，变量名为log。
+@Slf4j
+// 定义一个名为 SchemaMigrationService 的公开类，执行ddl-auto=update无法完成的、可重复执行的数据库迁移步骤：结构迁移在启动时同步执行，数据回填在应用就绪后于后台线程执行。
+public class SchemaMigrationService {
+
+    // 定义回填数据时每块处理的行数。
+    private static final int BACKFILL_CHUNK = 1000;
+
+    // 声明一个用于执行SQL的JdbcTemplate字段。
+    private final JdbcTemplate jdbcTemplate;
+    // 声明一个用于回填词频统计的服务字段。
+    private final TermStatService termStatService;
+    // 声明关键词条件构建器字段，创建全文索引后刷新其状态。
+    private final KeywordQueryBuilder keywordQueryBuilder;
+    // 声明爬取历史服务字段，迁移订阅分发记录时通过它写入关联并累加词频。
+    private final CrawlHistoryService crawlHistoryService;
+    // 声明一个用于解析历史记录参数的ObjectMapper字段。
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    // 声明执行回填步骤的单线程守护线程池。
+    private final ExecutorService backfillExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        // 创建新线程。
+        Thread thread = new Thread(runnable, "schema-backfill");
+        // 设置为守护线程，不阻止应用退出。
+        thread.setDaemon(true);
+        // 返回线程。
+        return thread;
+    });
+
+    // 定义类的构造函数；注入EntityManagerFactory是为了保证Hibernate完成建表后再执行迁移。
+    public SchemaMigrationService(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory, TermStatService termStatService,
+                                  KeywordQueryBuilder keywordQueryBuilder, CrawlHistoryService crawlHistoryService) {
+        // 将注入的JdbcTemplate实例赋值给类成员变量。
+        this.jdbcTemplate = jdbcTemplate;
+        // 将注入的词频服务实例赋值给类成员变量。
+        this.termStatService = termStatService;
+        // 将注入的关键词条件构建器赋值给类成员变量。
+        this.keywordQueryBuilder = keywordQueryBuilder;
+        // 将注入的爬取历史服务实例赋值给类成员变量。
+        this.crawlHistoryService = crawlHistoryService;
+    } // 构造函数结束。
+
+    // 在Bean初始化完成后按顺序执行结构迁移步骤，这些步骤只修改表结构或一次性搬移数据，应用读写依赖它们，须在对外服务前完成。
+    @PostConstruct
+    // 定义迁移入口方法。
+    public void migrate() {
+        // 将新闻主键序列推进到现有最大ID之后。
+        runStep("seedNewsDataSequence", this::seedNewsDataSequence);
+        // 为已有新闻回填64位URL哈希。
+        runStep("backfillNewsUrlHash", this::backfillNewsUrlHash);
+        // 回填完成后删除url列上的旧唯一索引。
+        runStep("dropNewsUrlUniqueIndex", this::dropNewsUrlUniqueIndex);
+        // 将旧的正文列迁移到独立的正文表。
+        runStep("moveNewsContent", this::moveNewsContent);
+        // 将正文表中未压缩的旧正文列压缩到content_z列。
+        runStep("compressNewsContent", this::compressNewsContent);
+        // 将新闻表中的单一历史外键迁移到多对多关联表。
+        runStep("moveNewsHistoryLinks", this::moveNewsHistoryLinks);
+        // 删除关联表指向热表的外键，关联表中的新闻ID也可能指向归档表，须在归档任务运行之前完成。
+        runStep("dropNewsHistoryForeignKey", this::dropNewsHistoryForeignKey);
+        // 将归档表中旧的最近历史ID恢复为关联表中的关联，须在删除外键之后执行。
+        runStep("moveArchivedHistoryLinks", this::moveArchivedHistoryLinks);
+        // 将订阅分发历史记录参数中的新闻ID列表迁移到多对多关联表。
+        runStep("moveSubscriptionDeliveries", this::moveSubscriptionDeliveries);
+        // 从参数中回填旧的订阅历史记录的订阅ID，订阅分发按它排除已分发的新闻。
+        runStep("backfillHistorySubscriptionId", this::backfillHistorySubscriptionId);
+    } // migrate方法结束。
+
+    // 在应用就绪后启动回填线程，全量分词、纯文本提取和全文索引创建耗时与数据量成正比，不阻塞启动；
+    // 回填完成前词频统计和关键词过滤只覆盖已处理的新闻，关键词过滤在全文索引建好前使用LIKE路径。
+    @EventListener(ApplicationReadyEvent.class)
+    // 定义启动回填的方法。
+    public void startBackfill() {
+        // 在后台线程中按顺序执行回填步骤。
+        backfillExecutor.execute(this::backfill);
+    } // startBackfill方法结束。
+
+    // 定义一个公共方法，按顺序执行所有回填步骤，各步骤均可重复执行。
+    public void backfill() {
+        // 为小时桶上线前已分词的新闻生成关键词趋势的小时桶，须在词频回填之前执行。
+        runStep("backfillTermHours", termStatService::backfillHours);
+        // 为纯文本列上线前保存的正文提取纯文本，并按纯文本修正已统计的正文词频，须在小时桶回填之后、词频回填之前执行。
+        runStep("backfillNewsPlainText", termStatService::backfillPlainText);
+        // 分词规则升级后按新规则重新统计已分词的新闻，须在纯文本回填之后、词频回填之前执行。
+        runStep("retokenizeTermStats", termStatService::retokenizeAll);
+        // 为尚未分词的已有新闻回填词频统计。
+        runStep("backfillTermStats", termStatService::backfill);
+        // 为全文检索列上线前保存的正文拼接检索文本，须在纯文本回填之后执行。
+        runStep("backfillNewsSearchText", this::backfillNewsSearchText);
+        // 检索文本齐全后创建ngram全文索引。
+        runStep("createNewsSearchTextIndex", this::createNewsSearchTextIndex);
+        // 按全文索引是否存在选择关键词过滤的路径。
+        runStep("refreshKeywordQueryBuilder", keywordQueryBuilder::refresh);
+        // 记录完成日志。
+        log.info("数据回填步骤已全部执行");
+    } // backfill方法结束。
+
+    // 在容器销毁时关闭回填线程池。
+    @PreDestroy
+    // 定义关闭方法。
+    public void shutdown() {
+        // 停止线程池，不再接收新任务。
+        backfillExecutor.shutdownNow();
+    } // shutdown方法结束。
+
+    // 定义一个私有方法，执行单个迁移步骤，失败时只记录日志，不阻止应用启动，也不影响后续步骤。
+    private void runStep(String name, Runnable step) {
+        // 开始一个try块，捕获迁移中的异常。
+        try {
+            // 执行迁移步骤。
+            step.run();
+        } catch (Exception e) { // 捕获任何异常。
+            // 记录错误日志，附带完整的异常堆栈。
+            log.error("数据库迁移步骤 {} 执行失败", name, e);
+        } // try-catch结束。
+    } // runStep方法结束。
+
+    // 定义一个私有方法，判断当前数据库中是否存在指定的表。
+    private boolean tableExists(String table) {
+        // 查询information_schema中该表的数量。
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.tables WHERE table_schema = DATABASE() AND table_name = ?",
+                Integer.class, table);
+        // 数量大于0即表示存在。
+        return count != null && count > 0;
+    } // tableExists方法结束。
+
+    // 定义一个私有方法，判断指定表中是否存在指定的列。
+    private boolean columnExists(String table, String column) {
+        // 查询information_schema中该列的数量。
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.columns WHERE table_schema = DATABASE() AND table_name = ? AND column_name = ?",
+                Integer.class, table, column);
+        // 数量大于0即表示存在。
+        return count != null && count > 0;
+    } // columnExists方法结束。
+
+    // 迁移步骤：新闻主键由IDENTITY改为pooled序列后，序列表的初始值可能小于已有的最大ID，需要推进以避免主键冲突。
+    private void seedNewsDataSequence() {
+        // 如果序列表或新闻表尚不存在，则无需处理。
+        if (!tableExists("t_news_data_seq") || !tableExists("t_news_data")) {
+            // 直接返回。
+            return;
+        } // if条件结束。
+        // 查询现有新闻的最大ID。
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM t_news_data", Long.class);
+        // pooled优化器把序列值视为一个ID块的上界，因此需要再加上一个块大小，保证新分配的整块ID都大于现有最大ID。
+        long target = (maxId == null ? 0 : maxId) + NewsData.ID_ALLOCATION_SIZE + 1;
+        // 查询序列表中的行数。
+        Integer rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM t_news_data_seq", Integer.class);
+        // 如果序列表为空，则插入初始值。
+        if (rows == null || rows == 0) {
+            // 插入初始序列值。
+            jdbcTemplate.update("INSERT INTO t_news_data_seq (next_val) VALUES (?)", target);
+            // 记录迁移日志。
+            log.info("新闻主键序列已初始化为 {}", target);
+            // 返回。
+            return;
+        } // if条件结束。
+        // 只在序列值落后于目标值时才推进，使该步骤可以重复执行。
+        int updated = jdbcTemplate.update("UPDATE t_news_data_seq SET next_val = ? WHERE next_val < ?", target, target);
+        // 如果确实推进了序列值。
+        if (updated > 0) {
+            // 记录迁移日志。
+            log.info("新闻主键序列已推进到 {}（现有最大ID: {}）", target, maxId);
+        } // if条件结束。
+    } // seedNewsDataSequence方法结束。
+
+    // 迁移步骤：为url_hash为空的新闻按主键分块计算并回填URL哈希，可重复执行。
+    private void backfillNewsUrlHash() {
+        // 如果新闻表或哈希列尚不存在，则无需处理。
+        if (!tableExists("t_news_data") || !columnExists("t_news_data", "url_hash")) {
+            // 直接返回。
+            return;
+        } // if条件结束。
+        // 初始化回填总数。
+        int total = 0;
+        // 初始化上一块的最大主键，按主键递增分块。
+        long lastId = 0;
+        // 循环处理每一块。
+        while (true) {
+            // 查询下一块尚未回填的新闻主键和URL。
+            List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                    "SELECT id, url FROM t_news_data WHERE url_hash IS NULL AND id > ? ORDER BY id LIMIT ?", lastId, BACKFILL_CHUNK);
+            // 如果没有更多数据则结束。
+            if (rows.isEmpty()) {
+                // 退出循环。
+                break;
+            } // if条件结束。
+            // 初始化批量更新参数。
+            List<Object[]> args = new ArrayList<>(rows.size());
+            // 遍历本块的每一行。
+            for (Map<String, Object> row : rows) {
+                // 取出主键。
+                long id = ((Number) row.get("id")).longValue();
+                // 计算URL哈希并加入参数列表。
+                args.add(new Object[]{UrlHashUtils.hash((String) row.get("url")), id});
+                // 记录本块的最大主键。
+                lastId = id;
+            } // for循环结束。
+            // 开始一个try块，捕获哈希唯一约束冲突。
+            try {
+                // 批量更新本块。
+                jdbcTemplate.batchUpdate("UPDATE t_news_data SET url_hash = ? WHERE id = ?", args);
+            } catch (DataIntegrityViolationException e) { // 如果本块中存在重复URL或哈希碰撞。
+                // 逐行更新，跳过冲突的行。
+                for (Object[] arg : args) {
+                    // 开始一个try块，捕获单行冲突。
+                    try {
+                        // 更新单行。
+                        jdbcTemplate.update("UPDATE t_news_data SET url_hash = ? WHERE id = ?", arg);
+                    } catch (DataIntegrityViolationException ex) { // 捕获单行冲突。
+                        // 记录警告日志，该行保持为空，需要人工处理。
+                        log.warn("新闻ID {} 的URL哈希与已有记录冲突，未回填", arg[1]);
+                    } // try-catch结束。
+                } // for循环结束。
+            } // try-catch结束。
+            // 累加回填数量。
+            total += rows.size();
+        } // while循环结束。
+        // 如果确实回填了数据。
+        if (total > 0) {
+            // 记录迁移日志。
+            log.info("已为 {} 条新闻回填URL哈希", total);
+        } // if条件结束。
+    } // backfillNewsUrlHash方法结束。
+
+    // 迁移步骤：所有新闻都有URL哈希后，删除url列上的旧唯一索引，唯一性改由url_hash的唯一约束保证。
+    private void dropNewsUrlUniqueIndex() {
+        // 如果新闻表或哈希列尚不存在，则无需处理。
+        if (!tableExists("t_news_data") || !columnExists("t_news_data", "url_hash")) {
+            // 直接返回。
+            return;
+        } // if条件结束。
+        // 查询尚未回填哈希的新闻数量。
+        Integer missing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM t_news_data WHERE url_hash IS NULL", Integer.class);
+        // 如果仍有新闻没有哈希，则保留旧索引以继续保证唯一性。
+        if (missing != null && missing > 0) {
+            // 记录警告日志。
+            log.warn("仍有 {} 条新闻没有URL哈希，暂不删除url列上的唯一索引", missing);
+            // 返回。
+            return;
+        } // if条件结束。
+        // 查询url列上的所有唯一索引名称（由Hibernate生成，名称不固定）。
+        List<String> indexes = jdbcTemplate.queryForList(
+                "SELECT DISTINCT index_name FROM information_schema.statistics WHERE table_schema = DATABASE() "
+                        + "AND table_name = 't_news_data' AND column_name = 'url' AND non_unique = 0", String.class);
+        // 遍历每个索引。
+        for (String index : indexes) {
+            // 删除该索引。
+            jdbcTemplate.execute("ALTER TABLE t_news_data DROP INDEX `" + index + "`");
+            // 记录迁移日志。
+            log.info("已删除t_news_data.url上的唯一索引 {}", index);
+        } // for循环结束。
+    } // dropNewsUrlUniqueIndex方法结束。
+
+    // 迁移步骤：正文从t_news_data.content拆分到t_news_content后，按主键分块复制并压缩旧正文，全部复制完成后删除旧列，可重复执行。
+    private void moveNewsContent() {
+        // 如果旧正文列已不存在或正文表尚未创建，则无需处理。
+        if (!columnExists("t_news_data", "content") || !tableExists("t_news_content")) {
+            // 直接返回。
+            return;
+        } // if条件结束。
+        // 查询现有新闻的最大ID，作为分块复制的上界。
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM t_news_data", Long.class);
+        // 初始化复制总数。
+        int total = 0;
+        // 按主键范围分块复制，每块只扫描一段主键，避免长时间锁表。
+        for (long from = 0; from < (maxId == null ? 0 : maxId); from += BACKFILL_CHUNK) {
+            // 复制本块中尚未迁移的正文，使用与CompressedText相同格式的COMPRESS()压缩，已存在的正文行被忽略。
+            total += jdbcTemplate.update(
+                    "INSERT IGNORE INTO t_news_content (news_id, content_z) SELECT id, COMPRESS(content) FROM t_news_data "
+                            + "WHERE id > ? AND id <= ? AND content IS NOT NULL", from, from + BACKFILL_CHUNK);
+        } // for循环结束。
+        // 如果确实复制了数据。
+        if (total > 0) {
+            // 记录迁移日志。
+            log.info("已将 {} 条新闻正文迁移到t_news_content", total);
+        } // if条件结束。
+        // 查询仍未迁移的正文数量。
+        Integer missing = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM t_news_data n WHERE n.content IS NOT NULL "
+                        + "AND NOT EXISTS (SELECT 1 FROM t_news_content c WHERE c.news_id = n.id)", Integer.class);
+        // 如果仍有正文未迁移，则保留旧列，下次启动时继续。
+        if (missing != null && missing > 0) {
+            // 记录警告日志。
+            log.warn("仍有 {} 条新闻正文未迁移，暂不删除t_news_data.content列", missing);
+            // 返回。
+            return;
+        } // if条件结束。
+        // 删除旧的正文列，使新闻表只保留窄的元数据行。
+        jdbcTemplate.execute("ALTER TABLE t_news_data DROP COLUMN content");
+        // 记录迁移日志。
+        log.info("已删除t_news_data.content列");
+    } // moveNewsContent方法结束。
+
+    // 迁移步骤：正文改为压缩存储后，将t_news_content中未压缩的content列分块压缩到content_z列，全部完成后删除旧列，可重复执行。
+    private void compressNewsContent() {
+        // 如果正文表或未压缩的旧列不存在，则无需处理。
+        if (!tableExists("t_news_content") || !columnExists("t_news_content", "content")) {
+            // 直接返回。
+            return;
+        } // if条件结束。
+        // 查询正文表的最大新闻ID，作为分块压缩的上界。
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(news_id), 0) FROM t_news_content", Long.class);
+        // 初始化压缩总数。
+        int total = 0;
+        // 按主键范围分块压缩，每块只锁定一段主键。
+        for (long from = 0; from < (maxId == null ? 0 : maxId); from += BACKFILL_CHUNK) {
+            // 压缩本块中尚未压缩的正文。
+            total += jdbcTemplate.update(
+                    "UPDATE t_news_content SET content_z = COMPRESS(content) "
+                            + "WHERE news_id > ? AND news_id <= ? AND content_z IS NULL AND content IS NOT NULL", from, from + BACKFILL_CHUNK);
+        } // for循环结束。
+        // 如果确实压缩了数据。
+        if (total > 0) {
+            // 查询压缩前后的总字节数。
+            Map<String, Object> sizes = jdbcTemplate.queryForMap(
+                    "SELECT COALESCE(SUM(UNCOMPRESSED_LENGTH(content_z)), 0) AS raw_bytes, COALESCE(SUM(LENGTH(content_z)), 0) AS stored_bytes "
+                            + "FROM t_news_content WHERE content_z IS NOT NULL");
+            // 记录迁移日志和压缩效果。
+            log.info("已压缩 {} 条新闻正文，正文总大小 {} 字节 -> {} 字节", total, sizes.get("raw_bytes"), sizes.get("stored_bytes"));
+        } // if条件结束。
+        // 查询仍未压缩的正文数量。
+        Integer missing = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM t_news_content WHERE content_z IS NULL AND content IS NOT NULL", Integer.class);
+        // 如果仍有正文未压缩，则保留旧列，下次启动时继续。
+        if (missing != null && missing > 0) {
+            // 记录警告日志。
+            log.warn("仍有 {} 条新闻正文未压缩，暂不删除t_news_content.content列", missing);
+            // 返回。
+            return;
+        } // if条件结束。
+        // 删除未压缩的旧正文列。
+        jdbcTemplate.execute("ALTER TABLE t_news_content DROP COLUMN content");
+        // 记录迁移日志。
+        log.info("已删除t_news_content.content列");
+    } // compressNewsContent方法结束。
+
+    // 迁移步骤：新闻与历史改为多对多关联后，按主键分块把t_news_data.crawl_history_id复制到t_news_history，全部复制完成后删除旧外键、索引和列，可重复执行。
+    private void moveNewsHistoryLinks() {
+        // 如果旧的历史外键列已不存在或关联表尚未创建，则无需处理。
+        if (!columnExists("t_news_data", "crawl_history_id") || !tableExists("t_news_history")) {
+            // 直接返回。
+            return;
+        } // if条件结束。
+        // 查询现有新闻的最大ID，作为分块复制的上界。
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM t_news_data", Long.class);
+        // 初始化复制总数。
+        int total = 0;
+        // 按主键范围分块复制，已存在的关联被忽略。
+        for (long from = 0; from < (maxId == null ? 0 : maxId); from += BACKFILL_CHUNK) {
+            // 复制本块中已关联历史记录的新闻。
+            total += jdbcTemplate.update(
+                    "INSERT IGNORE INTO t_news_history (history_id, news_id, linked_time) SELECT crawl_history_id, id, fetch_time FROM t_news_data "
+                            + "WHERE id > ? AND id <= ? AND crawl_history_id IS NOT NULL", from, from + BACKFILL_CHUNK);
+        } // for循环结束。
+        // 如果确实复制了数据。
+        if (total > 0) {
+            // 记录迁移日志。
+            log.info("已将 {} 条新闻的历史关联迁移到t_news_history", total);
+        } // if条件结束。
+        // 查询仍未迁移的关联数量。
+        Integer missing = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM t_news_data n WHERE n.crawl_history_id IS NOT NULL AND NOT EXISTS "
+                        + "(SELECT 1 FROM t_news_history l WHERE l.history_id = n.crawl_history_id AND l.news_id = n.id)", Integer.class);
+        // 如果仍有关联未迁移，则保留旧列，下次启动时继续。
+        if (missing != null && missing > 0) {
+            // 记录警告日志。
+            log.warn("仍有 {} 条新闻的历史关联未迁移，暂不删除t_news_data.crawl_history_id列", missing);
+            // 返回。
+            return;
+        } // if条件结束。
+        // 查询旧列上由Hibernate生成的外键约束名称。
+        List<String> foreignKeys = jdbcTemplate.queryForList(
+                "SELECT constraint_name FROM information_schema.key_column_usage WHERE table_schema = DATABASE() "
+                        + "AND table_name = 't_news_data' AND column_name = 'crawl_history_id' AND referenced_table_name IS NOT NULL", String.class);
+        // 遍历外键约束。
+        for (String foreignKey : foreignKeys) {
+            // 先删除外键，否则无法删除列。
+            jdbcTemplate.execute("ALTER TABLE t_news_data DROP FOREIGN KEY `" + foreignKey + "`");
+        } // for循环结束。
+        // 查询包含旧列的索引名称。
+        List<String> indexes = jdbcTemplate.queryForList(
+                "SELECT DISTINCT index_name FROM information_schema.statistics WHERE table_schema = DATABASE() "
+                        + "AND table_name = 't_news_data' AND column_name = 'crawl_history_id'", String.class);
+        // 遍历这些索引。
+        for (String index : indexes) {
+            // 删除索引，避免删除列后留下只剩部分列的索引。
+            jdbcTemplate.execute("ALTER TABLE t_news_data DROP INDEX `" + index + "`");
+        } // for循环结束。
+        // 删除旧的历史外键列。
+        jdbcTemplate.execute("ALTER TABLE t_news_data DROP COLUMN crawl_history_id");
+        // 记录迁移日志。
+        log.info("已删除t_news_data.crawl_history_id列及其外键和索引 {}", indexes);
+    } // moveNewsHistoryLinks方法结束。
+
+    // 迁移步骤：新闻归档后保留历史关联，t_news_history.news_id可能指向t_news_data或t_news_archive，删除Hibernate生成的指向热表的外键，可重复执行。
+    private void dropNewsHistoryForeignKey() {
+        // 如果关联表尚未创建，则无需处理。
+        if (!tableExists("t_news_history")) {
+            // 直接返回。
+            return;
+        } // if条件结束。
+        // 查询news_id列上指向热表的外键约束名称。
+        List<String> foreignKeys = jdbcTemplate.queryForList(
+                "SELECT constraint_name FROM information_schema.key_column_usage WHERE table_schema = DATABASE() "
+                        + "AND table_name = 't_news_history' AND column_name = 'news_id' AND referenced_table_name = 't_news_data'", String.class);
+        // 遍历外键约束。
+        for (String foreignKey : foreignKeys) {
+            // 删除外键，news_id上的索引保留，按新闻查询关联时仍可使用。
+            jdbcTemplate.execute("ALTER TABLE t_news_history DROP FOREIGN KEY `" + foreignKey + "`");
+            // 记录迁移日志。
+            log.info("已删除t_news_history.news_id上的外键 {}", foreignKey);
+        } // for循环结束。
+    } // dropNewsHistoryForeignKey方法结束。
+
+    // 迁移步骤：旧版归档只在t_news_archive.crawl_history_id保留最近一次的历史ID并删除了关联，把它恢复到t_news_history后删除该列，可重复执行。
+    private void moveArchivedHistoryLinks() {
+        // 如果旧列已不存在或关联表尚未创建，则无需处理。
+        if (!columnExists("t_news_archive", "crawl_history_id") || !tableExists("t_news_history")) {
+            // 直接返回。
+            return;
+        } // if条件结束。
+        // 恢复仍存在的历史记录的关联，已存在的关联被忽略；聚合词频在归档时未扣除，无需重新统计。
+        int total = jdbcTemplate.update(
+                "INSERT IGNORE INTO t_news_history (history_id, news_id, linked_time) SELECT a.crawl_history_id, a.id, a.archived_time "
+                        + "FROM t_news_archive a JOIN t_crawl_history h ON h.id = a.crawl_history_id");
+        // 如果确实恢复了关联。
+        if (total > 0) {
+            // 记录迁移日志。
+            log.info("已将 {} 条归档新闻的历史关联恢复到t_news_history", total);
+        } // if条件结束。
+        // 删除旧的历史ID列。
+        jdbcTemplate.execute("ALTER TABLE t_news_archive DROP COLUMN crawl_history_id");
+        // 记录迁移日志。
+        log.info("已删除t_news_archive.crawl_history_id列");
+    } // moveArchivedHistoryLinks方法结束。
+
+    // 迁移步骤：订阅分发改为写入t_news_history后，把旧的订阅历史记录参数中的newsIds写入关联表并从参数中移除，可重复执行。
+    private void moveSubscriptionDeliveries() {
+        // 如果历史表或关联表尚未创建，则无需处理。
+        if (!tableExists("t_crawl_history") || !tableExists("t_news_history")) {
+            // 直接返回。
+            return;
+        } // if条件结束。
+        // 查询参数中仍带有新闻ID列表的订阅历史记录。
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT id, params FROM t_crawl_history WHERE crawl_type = ? AND params LIKE '%\"newsIds\"%'", KeywordSubscriptionService.CRAWL_TYPE);
+        // 初始化关联总数。
+        int total = 0;
+        // 遍历每条历史记录。
+        for (Map<String, Object> row : rows) {
+            // 取出历史记录ID。
+            Long historyId = ((Number) row.get("id")).longValue();
+            // 开始一个try块，单条记录的参数无法解析时跳过，不影响其他记录。
+            try {
+                // 解析参数JSON。
+                ObjectNode params = (ObjectNode) objectMapper.readTree((String) row.get("params"));
+                // 初始化新闻ID列表。
+                List<Long> ids = new ArrayList<>();
+                // 取出分发的新闻ID。
+                params.path("newsIds").forEach(node -> ids.add(node.asLong()));
+                // 按块写入关联，已存在的关联被忽略，中断后重新执行不会重复计入词频。
+                for (int from = 0; from < ids.size(); from += BACKFILL_CHUNK) {
+                    // 写入关联并累加该历史记录的词频统计。
+                    total += crawlHistoryService.linkNews(historyId, ids.subList(from, Math.min(from + BACKFILL_CHUNK, ids.size())));
+                } // for循环结束。
+                // 从参数中移除已迁移的新闻ID列表。
+                params.remove("newsIds");
+                // 保存参数，标记该记录已迁移。
+                jdbcTemplate.update("UPDATE t_crawl_history SET params = ? WHERE id = ?", objectMapper.writeValueAsString(params), historyId);
+            } catch (Exception e) { // 捕获解析或写入异常。
+                // 记录警告日志，下次启动时重试。
+                log.warn("订阅历史记录 {} 的分发新闻迁移失败: {}", historyId, e.getMessage());
+            } // try-catch结束。
+        } // for循环结束。
+        // 如果确实迁移了记录。
+        if (!rows.isEmpty()) {
+            // 记录迁移日志。
+            log.info("已将 {} 条订阅历史记录的 {} 条分发新闻迁移到t_news_history", rows.size(), total);
+        } // if条件结束。
+    } // moveSubscriptionDeliveries方法结束。
+
+    // 迁移步骤：订阅分发改为按已分发的新闻去重后，把旧的订阅历史记录参数中的subscriptionId回填到subscription_id列，已回填的记录不再处理，可重复执行。
+    private void backfillHistorySubscriptionId() {
+        // 如果历史表或订阅ID列尚未创建，则无需处理。
+        if (!tableExists("t_crawl_history") || !columnExists("t_crawl_history", "subscription_id")) {
+            // 直接返回。
+            return;
+        } // if条件结束。
+        // 用一条UPDATE语句从参数JSON中取出订阅ID，参数不是合法JSON的记录被跳过。
+        int updated = jdbcTemplate.update("UPDATE t_crawl_history SET subscription_id = "
+                + "CAST(JSON_UNQUOTE(JSON_EXTRACT(params, '$.subscriptionId')) AS UNSIGNED) "
+                + "WHERE crawl_type = ? AND subscription_id IS NULL AND JSON_VALID(params) "
+                + "AND JSON_EXTRACT(params, '$.subscriptionId') IS NOT NULL", KeywordSubscriptionService.CRAWL_TYPE);
+        // 如果确实回填了记录。
+        if (updated > 0) {
+            // 记录迁移日志。
+            log.info("已为 {} 条订阅历史记录回填订阅ID", updated);
+        } // if条件结束。
+    } // backfillHistorySubscriptionId方法结束。
+
+    // 迁移步骤：检索文本列上线后，按主键分块把标题、关键词和解压后的纯文本拼接到search_text列；纯文本尚未回填的正文留到下次启动，可重复执行。
+    private void backfillNewsSearchText() {
+        // 如果正文表或检索文本列不存在，则无需处理。
+        if (!tableExists("t_news_content") || !columnExists("t_news_content", "search_text")) {
+            // 直接返回。
+            return;
+        } // if条件结束。
+        // 查询正文表的最大新闻ID，作为分块回填的上界。
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(news_id), 0) FROM t_news_content", Long.class);
+        // 初始化回填总数。
+        int total = 0;
+        // 按主键范围分块回填，每块只锁定一段主键。
+        for (long from = 0; from < (maxId == null ? 0 : maxId); from += BACKFILL_CHUNK) {
+            // 与NewsContent构造函数一致，以换行拼接并跳过空值。
+            total += jdbcTemplate.update(
+                    "UPDATE t_news_content c JOIN t_news_data n ON n.id = c.news_id "
+                            + "SET c.search_text = CONCAT_WS('\\n', n.title, n.keywords, CONVERT(UNCOMPRESS(c.text_z) USING utf8mb4)) "
+                            + "WHERE c.news_id > ? AND c.news_id <= ? AND c.search_text IS NULL AND (c.text_z IS NOT NULL OR c.content_z IS NULL)",
+                    from, from + BACKFILL_CHUNK);
+        } // for循环结束。
+        // 如果确实回填了数据。
+        if (total > 0) {
+            // 记录迁移日志。
+            log.info("已为 {} 条新闻生成全文检索文本", total);
+        } // if条件结束。
+    } // backfillNewsSearchText方法结束。
+
+    // 迁移步骤：所有正文都有检索文本后，在search_text列上创建ngram全文索引；创建前关闭本会话的停用词表，否则包含停用词字母的ngram词元不会被索引。
+    private void createNewsSearchTextIndex() {
+        // 如果正文表或检索文本列不存在，则无需处理。
+        if (!tableExists("t_news_content") || !columnExists("t_news_content", "search_text")) {
+            // 直接返回。
+            return;
+        } // if条件结束。
+        // 查询索引是否已存在。
+        Integer exists = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.statistics WHERE table_schema = DATABASE() "
+                        + "AND table_name = 't_news_content' AND index_name = ?", Integer.class, KeywordQueryBuilder.INDEX_NAME);
+        // 如果已存在，则无需处理。
+        if (exists != null && exists > 0) {
+            // 直接返回。
+            return;
+        } // if条件结束。
+        // 查询仍没有检索文本的正文数量。
+        Integer missing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM t_news_content WHERE search_text IS NULL", Integer.class);
+        // 如果仍有正文没有检索文本，索引会漏掉这些新闻，暂不创建，关键词过滤继续使用LIKE。
+        if (missing != null && missing > 0) {
+            // 记录警告日志。
+            log.warn("仍有 {} 条新闻没有全文检索文本，暂不创建全文索引", missing);
+            // 返回。
+            return;
+        } // if条件结束。
+        // 会话变量只对当前连接有效，在同一个连接上设置并创建索引。
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            // 创建语句。
+            try (Statement statement = connection.createStatement()) {
+                // 创建索引时读取会话的停用词开关，并把停用词表固定到索引上。
+                statement.execute("SET SESSION innodb_ft_enable_stopword = OFF");
+                // 开始一个try块，确保恢复会话变量后再把连接还给连接池。
+                try {
+                    // 创建ngram全文索引。
+                    statement.execute("ALTER TABLE t_news_content ADD FULLTEXT INDEX " + KeywordQueryBuilder.INDEX_NAME
+                            + " (search_text) WITH PARSER ngram");
+                } finally { // 无论成功失败都执行。
+                    // 恢复为全局设置。
+                    statement.execute("SET SESSION innodb_ft_enable_stopword = DEFAULT");
+                } // try-finally结束。
+            } // try-with-resources结束。
+            // 无返回值。
+            return null;
+        });
+        // 记录迁移日志。
+        log.info("已在t_news_content.search_text上创建ngram全文索引 {}", KeywordQueryBuilder.INDEX_NAME);
+    } // createNewsSearchTextIndex方法结束。
+} // SchemaMigrationService类定义结束。
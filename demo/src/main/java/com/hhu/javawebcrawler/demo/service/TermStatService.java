@@ -0,0 +1,783 @@
+package com.hhu.javawebcrawler.demo.service;
+
+import com.hhu.javawebcrawler.demo.entity.NewsData;
+import com.hhu.javawebcrawler.demo.entity.TermStat;
+import com.hhu.javawebcrawler.demo.utils.CompressedText;
+import com.hhu.javawebcrawler.demo.utils.PlainTextExtractor;
+import com.hhu.javawebcrawler.demo.utils.TermCounter;
+import com.hhu.javawebcrawler.demo.utils.TermExtractor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+// 声明这是一个Spring的服务层组件。
+@Service
+// 使用Lombok为该类自动生成一个SLF4J的logger实例，变量名为log。
+@Slf4j
+// 定义一个名为 TermStatService 的公开类，在新闻入库和关联历史记录时增量维护词频聚合表，词云和热词只读取聚合结果。
+public class TermStatService {
+
+    // 定义标题词语的来源标识。
+    public static final String SOURCE_TITLE = "title";
+    // 定义正文词语的来源标识。
+    public static final String SOURCE_CONTENT = "content";
+    // 定义关键词的来源标识。
+    public static final String SOURCE_KEYWORDS = "keywords";
+
+    // 定义删除历史记录的词频时每条DELETE语句最多删除的行数。
+    private static final int DELETE_CHUNK = 5000;
+    // 定义回填已有新闻词频时每个分词任务和每个写入事务处理的新闻数量。
+    private static final int BACKFILL_CHUNK = 200;
+    // 定义记录词频统计所用分词规则版本的迁移状态名称。
+    private static final String STATE_TOKENIZER_VERSION = "term.tokenizer-version";
+    // 定义记录按新分词规则重新分词进度的迁移状态名称，值为已处理的最大新闻ID。
+    private static final String STATE_RETOKENIZE_PROGRESS = "term.retokenize-progress";
+    // 定义记录词频回填水位的迁移状态名称，值为已检查过的最大新闻ID，与每块的写入在同一事务中提交。
+    private static final String STATE_BACKFILL_WATERMARK = "term.backfill-watermark";
+
+    // 定义写入单篇新闻词频的SQL；MySQL默认排序规则不区分大小写，大小写不同的词语合并计数。
+    private static final String INSERT_NEWS_TERM = "INSERT INTO t_news_term (news_id, source, term, stat_day, freq) VALUES (?, ?, ?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE freq = freq + VALUES(freq)";
+    // 定义累加聚合词频的SQL。
+    private static final String UPSERT_TERM_STAT = "INSERT INTO t_term_stat (history_id, source, term, stat_day, freq) VALUES (?, ?, ?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE freq = freq + VALUES(freq)";
+
+    // 定义累加小时桶新闻数的SQL。
+    private static final String UPSERT_TERM_HOUR = "INSERT INTO t_term_hour (history_id, term, bucket_hour, docs) VALUES (?, ?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE docs = docs + VALUES(docs)";
+    // 定义在SQL中计算新闻所属小时桶的表达式，发布时间缺失时使用抓取时间，与入库时的计算一致。
+    private static final String HOUR_BUCKET = "DATE_FORMAT(COALESCE(n.publish_time, n.fetch_time), '%Y-%m-%d %H:00:00')";
+
+    // 声明一个用于执行SQL的JdbcTemplate字段。
+    private final JdbcTemplate jdbcTemplate;
+    // 声明一个流式读取用的JdbcTemplate，MySQL驱动在fetchSize为Integer.MIN_VALUE时逐行返回结果，不把整个结果集读入内存。
+    private final JdbcTemplate streamingJdbcTemplate;
+    // 声明一个用于以编程方式控制事务的模板，回填时每块新闻在一个事务中处理。
+    private final TransactionTemplate transactionTemplate;
+    // 声明回填时并行解压和分词的线程数。
+    private final int backfillParallelism;
+    // 声明一个用于发布新闻变化事件的发布器，使分析结果缓存失效。
+    private final ApplicationEventPublisher eventPublisher;
+
+    // 定义类的构造函数，通过它注入依赖和配置。
+    public TermStatService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                           ApplicationEventPublisher eventPublisher,
+                           @Value("${crawler.terms.backfill-parallelism:0}") int backfillParallelism) {
+        // 将注入的JdbcTemplate实例赋值给类成员变量。
+        this.jdbcTemplate = jdbcTemplate;
+        // 基于同一数据源创建流式读取用的JdbcTemplate。
+        this.streamingJdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        // 设置MySQL流式读取的fetchSize。
+        this.streamingJdbcTemplate.setFetchSize(Integer.MIN_VALUE);
+        // 基于事务管理器创建事务模板。
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // 保存线程数，未配置时使用CPU核数。
+        this.backfillParallelism = backfillParallelism > 0 ? backfillParallelism : Runtime.getRuntime().availableProcessors();
+        // 将注入的事件发布器赋值给类成员变量。
+        this.eventPublisher = eventPublisher;
+    } // 构造函数结束。
+
+    // 定义记录新入库新闻词频的方法：对每篇新闻分词一次写入 t_news_term，并累加到全局统计；应在保存新闻的同一事务中调用。
+    public void recordNews(Collection<NewsData> newsList) {
+        // 分词后写入。
+        write(tokenize(newsList));
+        // 发布全局语料变化事件，事务提交后全局范围的分析结果失效。
+        eventPublisher.publishEvent(NewsChangedEvent.corpus());
+        // 发布新闻保存事件，事务提交后把这些新闻加入全文检索索引。
+        eventPublisher.publishEvent(new NewsSavedEvent(List.copyOf(newsList)));
+    } // recordNews方法结束。
+
+    // 定义一个私有方法，对一批新闻分词并生成待写入的参数；只做计算不访问数据库，可在任意线程中并行执行。
+    private TermRows tokenize(Collection<NewsData> newsList) {
+        // 初始化单篇新闻词频的批量参数。
+        List<Object[]> termRows = new ArrayList<>();
+        // 初始化全局统计的增量，键为(来源, 日期)，值为该来源当天的词语计数器。
+        Map<List<Object>, TermCounter> globalDelta = new HashMap<>();
+        // 初始化小时桶的增量，键为小时桶，值为该小时内包含各词语的新闻数。
+        Map<Timestamp, TermCounter> hourDelta = new HashMap<>();
+        // 遍历新闻。
+        for (NewsData newsData : newsList) {
+            // 未保存的新闻没有ID，跳过。
+            if (newsData.getId() == null) {
+                // 继续下一条。
+                continue;
+            } // if条件结束。
+            // 以抓取日期作为统计日期。
+            LocalDate day = newsData.getFetchTime() == null ? LocalDate.now() : newsData.getFetchTime().toLocalDate();
+            // 统计标题词语。
+            Map<String, Long> titleTerms = TermExtractor.countWords(newsData.getTitle());
+            // 统计正文词语，只对入库时提取的纯文本分词，标签、属性和图片地址不会混入词频。
+            Map<String, Long> contentTerms = TermExtractor.countWords(newsData.getPlainText());
+            // 统计关键词。
+            Map<String, Long> keywordTerms = TermExtractor.countKeywords(newsData.getKeywords());
+            // 加入标题词语。
+            collect(termRows, globalDelta, newsData.getId(), SOURCE_TITLE, day, titleTerms);
+            // 加入正文词语。
+            collect(termRows, globalDelta, newsData.getId(), SOURCE_CONTENT, day, contentTerms);
+            // 加入关键词。
+            collect(termRows, globalDelta, newsData.getId(), SOURCE_KEYWORDS, day, keywordTerms);
+            // 合并三个来源中出现的词语，与数据库排序规则一致，不区分大小写。
+            Set<String> present = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+            // 加入标题词语。
+            present.addAll(titleTerms.keySet());
+            // 加入正文词语。
+            present.addAll(contentTerms.keySet());
+            // 加入关键词。
+            present.addAll(keywordTerms.keySet());
+            // 如果这篇新闻没有任何词语。
+            if (present.isEmpty()) {
+                // 继续下一条。
+                continue;
+            } // if条件结束。
+            // 以发布时间所在的整点作为小时桶，发布时间缺失时使用抓取时间。
+            LocalDateTime time = newsData.getPublishTime() != null ? newsData.getPublishTime()
+                    : newsData.getFetchTime() != null ? newsData.getFetchTime() : LocalDateTime.now();
+            // 取出该小时桶的计数器，不存在时创建。
+            TermCounter hour = hourDelta.computeIfAbsent(Timestamp.valueOf(time.truncatedTo(ChronoUnit.HOURS)), key -> TermExtractor.newCounter());
+            // 每个词语在这篇新闻中只计一次。
+            present.forEach(term -> hour.add(term, 1));
+        } // for循环结束。
+        // 初始化全局统计的批量参数。
+        List<Object[]> statRows = new ArrayList<>();
+        // 遍历全局统计增量。
+        for (Map.Entry<List<Object>, TermCounter> entry : globalDelta.entrySet()) {
+            // 转换为(历史ID, 来源, 词语, 日期, 词频)参数。
+            entry.getValue().forEach((term, count) ->
+                    statRows.add(new Object[]{TermStat.ALL_HISTORIES, entry.getKey().get(0), term, entry.getKey().get(1), count}));
+        } // for循环结束。
+        // 初始化小时桶的批量参数。
+        List<Object[]> hourRows = new ArrayList<>();
+        // 遍历小时桶增量。
+        for (Map.Entry<Timestamp, TermCounter> entry : hourDelta.entrySet()) {
+            // 转换为(历史ID, 词语, 小时桶, 新闻数)参数。
+            entry.getValue().forEach((term, docs) -> hourRows.add(new Object[]{TermStat.ALL_HISTORIES, term, entry.getKey(), docs}));
+        } // for循环结束。
+        // 返回待写入的参数。
+        return new TermRows(termRows, statRows, hourRows);
+    } // tokenize方法结束。
+
+    // 定义一个私有方法，在当前事务中批量写入单篇新闻词频并累加全局统计。
+    private void write(TermRows rows) {
+        // 如果没有任何词语则直接返回。
+        if (rows.termRows().isEmpty()) {
+            // 无需写入。
+            return;
+        } // if条件结束。
+        // 批量写入单篇新闻词频。
+        jdbcTemplate.batchUpdate(INSERT_NEWS_TERM, rows.termRows());
+        // 批量累加全局统计。
+        jdbcTemplate.batchUpdate(UPSERT_TERM_STAT, rows.statRows());
+        // 批量累加全局小时桶。
+        jdbcTemplate.batchUpdate(UPSERT_TERM_HOUR, rows.hourRows());
+    } // write方法结束。
+
+    // 定义一个私有方法，将一篇新闻某个来源的词语计数加入批量参数和全局增量。
+    private void collect(List<Object[]> termRows, Map<List<Object>, TermCounter> globalDelta, Long newsId, String source,
+                         LocalDate day, Map<String, Long> counts) {
+        // 如果没有词语则直接返回。
+        if (counts.isEmpty()) {
+            // 无需处理。
+            return;
+        } // if条件结束。
+        // 转换为SQL日期。
+        Date sqlDay = Date.valueOf(day);
+        // 取出该来源当天的全局计数器，不存在时创建。
+        TermCounter delta = globalDelta.computeIfAbsent(List.of(source, sqlDay), key -> TermExtractor.newCounter());
+        // 遍历词语计数。
+        for (Map.Entry<String, Long> entry : counts.entrySet()) {
+            // 加入单篇新闻词频参数。
+            termRows.add(new Object[]{newsId, source, entry.getKey(), sqlDay, entry.getValue()});
+            // 累加全局增量，词语转换为ID后在原始类型散列表中计数。
+            delta.add(entry.getKey(), entry.getValue());
+        } // for循环结束。
+    } // collect方法结束。
+
+    // 定义把一批新闻的词频累加到指定历史记录统计中的方法，只能对新建立的关联调用一次；热表新闻的累加由一条INSERT ... SELECT完成，已归档的新闻另行分词后累加。
+    public int addToHistory(Long historyId, Collection<Long> newsIds) {
+        // 如果没有新闻则直接返回。
+        if (newsIds.isEmpty()) {
+            // 返回0。
+            return 0;
+        } // if条件结束。
+        // 拼接IN子句的占位符。
+        String placeholders = String.join(",", Collections.nCopies(newsIds.size(), "?"));
+        // 初始化参数列表，第一个参数为历史记录ID。
+        List<Object> args = new ArrayList<>(newsIds.size() + 1);
+        // 加入历史记录ID。
+        args.add(historyId);
+        // 加入新闻ID。
+        args.addAll(newsIds);
+        // 在数据库内按(词语, 小时桶)统计包含各词语的新闻数并累加到历史记录的小时桶。
+        jdbcTemplate.update("INSERT INTO t_term_hour (history_id, term, bucket_hour, docs) "
+                + "SELECT * FROM (SELECT ? AS history_id, t.term, " + HOUR_BUCKET + " AS bucket_hour, COUNT(DISTINCT t.news_id) AS total "
+                + "FROM t_news_term t JOIN t_news_data n ON n.id = t.news_id WHERE t.news_id IN (" + placeholders + ") "
+                + "GROUP BY t.term, bucket_hour) agg ON DUPLICATE KEY UPDATE docs = t_term_hour.docs + agg.total", args.toArray());
+        // 在数据库内按(来源, 词语, 日期)汇总这些新闻的词频并累加到历史统计。
+        int updated = jdbcTemplate.update("INSERT INTO t_term_stat (history_id, source, term, stat_day, freq) "
+                + "SELECT * FROM (SELECT ? AS history_id, source, term, stat_day, SUM(freq) AS total FROM t_news_term "
+                + "WHERE news_id IN (" + placeholders + ") GROUP BY source, term, stat_day) agg "
+                + "ON DUPLICATE KEY UPDATE freq = t_term_stat.freq + agg.total", args.toArray());
+        // 累加其中已归档的新闻，并返回更新的统计行数。
+        return updated + addArchivedToHistory(historyId, placeholders, newsIds);
+    } // addToHistory方法结束。
+
+    // 定义一个私有方法，把一批新闻中已归档的新闻的词频累加到指定历史记录的统计和小时桶，返回累加的统计行数；
+    // 归档时已删除这些新闻的单篇词频，这里从归档的压缩正文提取纯文本后按入库时的规则分词，只累加到该历史记录，全局统计保持不变。
+    private int addArchivedToHistory(Long historyId, String placeholders, Collection<Long> newsIds) {
+        // 读取其中已归档的新闻，解压正文HTML并提取纯文本。
+        List<NewsData> archived = jdbcTemplate.query("SELECT id, title, keywords, publish_time, fetch_time, content_z "
+                + "FROM t_news_archive WHERE id IN (" + placeholders + ")", (rs, rowNum) -> {
+            // 读取新闻元数据。
+            NewsData newsData = readNews(rs);
+            // 提取纯文本。
+            newsData.setPlainText(plainText(null, rs.getBytes("content_z")));
+            // 返回新闻。
+            return newsData;
+        }, newsIds.toArray());
+        // 如果没有已归档的新闻则直接返回。
+        if (archived.isEmpty()) {
+            // 返回0。
+            return 0;
+        } // if条件结束。
+        // 分词并生成统计增量，增量按全局统计生成。
+        TermRows rows = tokenize(archived);
+        // 把统计增量改为累加到该历史记录。
+        rows.statRows().forEach(row -> row[0] = historyId);
+        // 把小时桶增量改为累加到该历史记录。
+        rows.hourRows().forEach(row -> row[0] = historyId);
+        // 批量累加历史记录的小时桶。
+        jdbcTemplate.batchUpdate(UPSERT_TERM_HOUR, rows.hourRows());
+        // 批量累加历史统计并返回行数。
+        return jdbcTemplate.batchUpdate(UPSERT_TERM_STAT, rows.statRows()).length;
+    } // addArchivedToHistory方法结束。
+
+    // 定义删除指定历史记录的词频统计和小时桶的方法，每条DELETE语句最多删除DELETE_CHUNK行，返回删除的总行数。
+    public int deleteHistories(Collection<Long> historyIds) {
+        // 如果没有历史记录则直接返回。
+        if (historyIds.isEmpty()) {
+            // 返回0。
+            return 0;
+        } // if条件结束。
+        // 拼接IN子句的占位符。
+        String placeholders = String.join(",", Collections.nCopies(historyIds.size(), "?"));
+        // 先删除这些历史记录的小时桶，再删除词频统计。
+        return deleteInChunks("DELETE FROM t_term_hour WHERE history_id IN (" + placeholders + ") LIMIT " + DELETE_CHUNK, historyIds)
+                + deleteInChunks("DELETE FROM t_term_stat WHERE history_id IN (" + placeholders + ") LIMIT " + DELETE_CHUNK, historyIds);
+    } // deleteHistories方法结束。
+
+    // 定义一个私有方法，重复执行带LIMIT的DELETE语句直到不足一块，返回删除的总行数。
+    private int deleteInChunks(String sql, Collection<Long> historyIds) {
+        // 初始化删除总数。
+        int total = 0;
+        // 声明每条DELETE语句删除的行数。
+        int removed;
+        // 循环删除，直到不足一块。
+        do {
+            // 删除一块。
+            removed = jdbcTemplate.update(sql, historyIds.toArray());
+            // 累加删除数量。
+            total += removed;
+        } while (removed == DELETE_CHUNK); // 本次删除满额时可能还有剩余，继续执行。
+        // 返回删除总数。
+        return total;
+    } // deleteInChunks方法结束。
+
+    // 定义按加权词频读取前limit个词语的方法；weights为来源到权重的映射，historyId为null时读取全局统计。
+    // 加权求和、排序和截取都在数据库中完成，只有前limit行返回应用，词语数量很多的历史记录也不会把所有词语读入内存。
+    public Map<String, Long> topTerms(Long historyId, Map<String, Integer> weights, int limit) {
+        // 初始化结果，保持按权重降序的顺序。
+        Map<String, Long> result = new LinkedHashMap<>();
+        // 没有来源或不需要结果时直接返回。
+        if (weights.isEmpty() || limit <= 0) {
+            // 返回空结果。
+            return result;
+        } // if条件结束。
+        // 初始化参数列表，先放入CASE表达式的(来源, 权重)参数。
+        List<Object> args = new ArrayList<>();
+        // 遍历来源和权重。
+        weights.forEach((source, weight) -> {
+            // 加入来源参数。
+            args.add(source);
+            // 加入权重参数。
+            args.add(weight);
+        });
+        // 加入历史记录ID参数。
+        args.add(historyId == null ? TermStat.ALL_HISTORIES : historyId);
+        // 加入来源列表参数。
+        args.addAll(weights.keySet());
+        // 加入数量参数。
+        args.add(limit);
+        // 构建SQL：按来源的权重加权求和，权重相同时按词语升序，与计数器的排序规则一致。
+        String sql = "SELECT term, SUM(freq * CASE source" + " WHEN ? THEN ?".repeat(weights.size()) + " ELSE 0 END) AS weight "
+                + "FROM t_term_stat WHERE history_id = ? AND source IN (" + String.join(",", Collections.nCopies(weights.size(), "?"))
+                + ") GROUP BY term ORDER BY weight DESC, term LIMIT ?";
+        // 逐行读取结果。
+        jdbcTemplate.query(sql, rs -> {
+            // 按返回顺序加入结果。
+            result.put(rs.getString("term"), rs.getLong("weight"));
+        }, args.toArray());
+        // 返回结果。
+        return result;
+    } // topTerms方法结束。
+
+    // 定义为小时桶上线前已分词的新闻生成小时桶的方法，只在小时桶表为空且已有分词结果时执行；全局和历史记录的桶在一个事务中生成，失败时整体回滚，下次启动重试。
+    public int backfillHours() {
+        // 如果小时桶表已有数据，说明已经生成过或已由入库维护。
+        if (!jdbcTemplate.queryForList("SELECT 1 FROM t_term_hour LIMIT 1").isEmpty()) {
+            // 无需回填。
+            return 0;
+        } // if条件结束。
+        // 如果还没有任何分词结果，小时桶会由词频回填一并生成。
+        if (jdbcTemplate.queryForList("SELECT 1 FROM t_news_term LIMIT 1").isEmpty()) {
+            // 无需回填。
+            return 0;
+        } // if条件结束。
+        // 在一个事务中生成全局和历史记录的小时桶。
+        Integer rows = transactionTemplate.execute(status ->
+                // 按(词语, 小时桶)统计全部已分词新闻。
+                jdbcTemplate.update("INSERT INTO t_term_hour (history_id, term, bucket_hour, docs) "
+                        + "SELECT ?, t.term, " + HOUR_BUCKET + " AS bucket_hour, COUNT(DISTINCT t.news_id) "
+                        + "FROM t_news_term t JOIN t_news_data n ON n.id = t.news_id GROUP BY t.term, bucket_hour", TermStat.ALL_HISTORIES)
+                // 按(历史记录, 词语, 小时桶)统计已关联到历史记录的新闻。
+                + jdbcTemplate.update("INSERT INTO t_term_hour (history_id, term, bucket_hour, docs) "
+                        + "SELECT l.history_id, t.term, " + HOUR_BUCKET + " AS bucket_hour, COUNT(DISTINCT t.news_id) "
+                        + "FROM t_news_term t JOIN t_news_history l ON l.news_id = t.news_id JOIN t_news_data n ON n.id = t.news_id "
+                        + "GROUP BY l.history_id, t.term, bucket_hour"));
+        // 记录回填日志。
+        log.info("已根据已有分词结果生成 {} 个词语小时桶", rows);
+        // 返回生成的行数。
+        return rows == null ? 0 : rows;
+    } // backfillHours方法结束。
+
+    // 定义为已有新闻回填词频的方法，从持久化的回填水位之后开始，可重复执行；返回本次处理的新闻数量。
+    // 新闻通过MySQL流式结果集逐行读取，每凑满一块就交给ForkJoin线程池解压和分词，写入仍按ID顺序逐块提交，水位随每块一起提交，中断后从水位继续。
+    // 水位不取t_news_term的最大新闻ID：新入库的新闻在保存时即已分词，会把最大ID推到尚未回填的旧新闻之后，没有任何词语的新闻也不会留下行；
+    // 已有词频的新闻由NOT EXISTS条件跳过，因此首次执行时从头扫描也不会重复计数。
+    public int backfill() {
+        // 读取回填水位，之前的新闻都已检查过。
+        long watermark = readState(STATE_BACKFILL_WATERMARK, 0);
+        // 查询本次扫描的上界；之后提交的新闻在保存时即已分词，无需回填。
+        Long upperBound = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM t_news_data", Long.class);
+        // 转换为基本类型。
+        long maxId = upperBound == null ? 0 : upperBound;
+        // 创建分词用的ForkJoin线程池。
+        ForkJoinPool pool = new ForkJoinPool(backfillParallelism);
+        // 创建回填流水线。
+        BackfillPipeline pipeline = new BackfillPipeline(pool, watermark);
+        // 开始一个try块，确保线程池被关闭。
+        try {
+            // 以只进、只读的流式结果集读取水位之后尚未分词的新闻，每行到达时即交给流水线；只有尚未提取纯文本的新闻才读取正文HTML。
+            streamingJdbcTemplate.query("SELECT n.id, n.title, n.keywords, n.publish_time, n.fetch_time, c.text_z, "
+                    + "CASE WHEN c.text_z IS NULL THEN c.content_z END AS content_z FROM t_news_data n "
+                    + "LEFT JOIN t_news_content c ON c.news_id = n.id WHERE n.id > ? AND n.id <= ? "
+                    + "AND NOT EXISTS (SELECT 1 FROM t_news_term t WHERE t.news_id = n.id) ORDER BY n.id", pipeline, watermark, maxId);
+            // 提交最后不足一块的新闻并等待全部写入。
+            pipeline.finish();
+            // 完整扫描后把水位推进到上界，其后跳过的已分词新闻下次不再扫描。
+            if (maxId > watermark) {
+                // 写入回填水位。
+                writeState(STATE_BACKFILL_WATERMARK, maxId);
+            } // if条件结束。
+        } finally {
+            // 关闭线程池。
+            pool.shutdownNow();
+        } // try-finally结束。
+        // 如果确实处理了新闻，则记录日志。
+        if (pipeline.total > 0) {
+            // 记录回填日志。
+            log.info("已为 {} 条新闻回填词频统计", pipeline.total);
+            // 回填同时影响全局和历史记录的统计，使所有范围的分析结果失效。
+            eventPublisher.publishEvent(NewsChangedEvent.everything());
+        } // if条件结束。
+        // 返回处理数量。
+        return pipeline.total;
+    } // backfill方法结束。
+
+    // 定义为纯文本列上线前保存的正文提取纯文本的方法，按主键分块处理，可重复执行，返回处理的新闻数量。
+    // 已分词的新闻当初按正文HTML统计了正文词频，这里按纯文本重新分词：先从全局和历史记录的统计中减去旧词频和小时桶，再写入新结果。
+    public int backfillPlainText() {
+        // 查询已分词的最大新闻ID，之后的新闻由词频回填直接按纯文本分词。
+        Long tokenized = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(news_id), 0) FROM t_news_term", Long.class);
+        // 转换为基本类型供lambda使用。
+        long tokenizedMaxId = tokenized == null ? 0 : tokenized;
+        // 初始化已处理的最大新闻ID。
+        long lastId = 0;
+        // 初始化处理数量。
+        int total = 0;
+        // 循环处理每一块。
+        while (true) {
+            // 读取下一块缺少纯文本的新闻，解压正文HTML并提取纯文本。
+            List<NewsData> chunk = jdbcTemplate.query("SELECT n.id, n.title, n.keywords, n.publish_time, n.fetch_time, c.content_z "
+                    + "FROM t_news_content c JOIN t_news_data n ON n.id = c.news_id "
+                    + "WHERE c.news_id > ? AND c.text_z IS NULL AND c.content_z IS NOT NULL ORDER BY c.news_id LIMIT ?", (rs, rowNum) -> {
+                // 读取新闻元数据。
+                NewsData newsData = readNews(rs);
+                // 提取纯文本。
+                newsData.setPlainText(plainText(null, rs.getBytes("content_z")));
+                // 返回新闻。
+                return newsData;
+            }, lastId, BACKFILL_CHUNK);
+            // 如果没有剩余的新闻则结束。
+            if (chunk.isEmpty()) {
+                // 退出循环。
+                break;
+            } // if条件结束。
+            // 推进已处理的最大ID。
+            lastId = chunk.get(chunk.size() - 1).getId();
+            // 在一个事务中保存纯文本并修正词频。
+            transactionTemplate.executeWithoutResult(status -> retokenize(chunk, tokenizedMaxId));
+            // 累加处理数量。
+            total += chunk.size();
+        } // while循环结束。
+        // 如果确实处理了新闻。
+        if (total > 0) {
+            // 删除减到0的统计行，这些词语只出现在旧的HTML标记中。
+            int removed = jdbcTemplate.update("DELETE FROM t_term_stat WHERE freq <= 0")
+                    + jdbcTemplate.update("DELETE FROM t_term_hour WHERE docs <= 0");
+            // 记录回填日志。
+            log.info("已为 {} 条新闻提取纯文本正文并重新统计词频，删除了 {} 行失效的统计", total, removed);
+            // 重新分词同时影响全局和历史记录的统计，使所有范围的分析结果失效。
+            eventPublisher.publishEvent(NewsChangedEvent.everything());
+        } // if条件结束。
+        // 返回处理数量。
+        return total;
+    } // backfillPlainText方法结束。
+
+    // 定义按当前分词规则重新统计已分词新闻的方法，只在已保存的统计使用旧版本规则时执行，返回处理的新闻数量。
+    // 每块新闻在一个事务中减去旧词频、写入新词频并保存进度，中断后从保存的进度继续；全部完成后记录新版本号。
+    public int retokenizeAll() {
+        // 未记录版本号的统计由版本号引入之前的规则生成，视为第1版。
+        if (readState(STATE_TOKENIZER_VERSION, 1) >= TermExtractor.VERSION) {
+            // 无需重新分词。
+            return 0;
+        } // if条件结束。
+        // 查询已分词的最大新闻ID，之后入库的新闻已按当前规则分词。
+        Long tokenized = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(news_id), 0) FROM t_news_term", Long.class);
+        // 转换为基本类型。
+        long tokenizedMaxId = tokenized == null ? 0 : tokenized;
+        // 读取上次中断时的进度。
+        long lastId = readState(STATE_RETOKENIZE_PROGRESS, 0);
+        // 初始化处理数量。
+        int total = 0;
+        // 循环处理每一块。
+        while (lastId < tokenizedMaxId) {
+            // 读取下一块已分词的新闻，只有尚未提取纯文本的新闻才读取正文HTML。
+            List<NewsData> chunk = jdbcTemplate.query("SELECT n.id, n.title, n.keywords, n.publish_time, n.fetch_time, c.text_z, "
+                    + "CASE WHEN c.text_z IS NULL THEN c.content_z END AS content_z FROM t_news_data n "
+                    + "LEFT JOIN t_news_content c ON c.news_id = n.id WHERE n.id > ? AND n.id <= ? ORDER BY n.id LIMIT ?", (rs, rowNum) -> {
+                // 读取新闻元数据。
+                NewsData newsData = readNews(rs);
+                // 解压纯文本，纯文本缺失时从正文HTML提取。
+                newsData.setPlainText(plainText(rs.getBytes("text_z"), rs.getBytes("content_z")));
+                // 返回新闻。
+                return newsData;
+            }, lastId, tokenizedMaxId, BACKFILL_CHUNK);
+            // 如果没有剩余的新闻则结束。
+            if (chunk.isEmpty()) {
+                // 退出循环。
+                break;
+            } // if条件结束。
+            // 本块的主键范围，按范围过滤也覆盖了已删除的新闻遗留的词频。
+            long fromId = lastId;
+            // 取出本块的最大ID。
+            long toId = chunk.get(chunk.size() - 1).getId();
+            // 在一个事务中重新分词并保存进度。
+            transactionTemplate.executeWithoutResult(status -> {
+                // 减去旧词频和小时桶，并删除旧的单篇新闻词频。
+                subtractTerms("t.news_id > ? AND t.news_id <= ?", fromId, toId);
+                // 按当前规则分词，写入词频并累加全局统计。
+                write(tokenize(chunk));
+                // 按已有的新闻与历史关联累加历史统计和小时桶。
+                addLinkedHistories("t.news_id > ? AND t.news_id <= ?", fromId, toId);
+                // 保存进度。
+                writeState(STATE_RETOKENIZE_PROGRESS, toId);
+            });
+            // 推进已处理的最大ID。
+            lastId = toId;
+            // 累加处理数量。
+            total += chunk.size();
+        } // while循环结束。
+        // 记录当前版本号。
+        writeState(STATE_TOKENIZER_VERSION, TermExtractor.VERSION);
+        // 删除进度行，以后的版本升级从头开始。
+        jdbcTemplate.update("DELETE FROM t_migration_state WHERE name = ?", STATE_RETOKENIZE_PROGRESS);
+        // 如果确实处理了新闻。
+        if (total > 0) {
+            // 删除减到0的统计行，这些词语在新规则下不再出现。
+            int removed = jdbcTemplate.update("DELETE FROM t_term_stat WHERE freq <= 0")
+                    + jdbcTemplate.update("DELETE FROM t_term_hour WHERE docs <= 0");
+            // 记录日志。
+            log.info("已按第 {} 版分词规则重新统计 {} 条新闻的词频，删除了 {} 行失效的统计", TermExtractor.VERSION, total, removed);
+            // 重新分词同时影响全局和历史记录的统计，使所有范围的分析结果失效。
+            eventPublisher.publishEvent(NewsChangedEvent.everything());
+        } // if条件结束。
+        // 返回处理数量。
+        return total;
+    } // retokenizeAll方法结束。
+
+    // 定义一个私有方法，在当前事务中保存一块新闻的纯文本，并对其中已分词的新闻重新分词。
+    private void retokenize(List<NewsData> chunk, long tokenizedMaxId) {
+        // 初始化纯文本的批量参数。
+        List<Object[]> textRows = new ArrayList<>(chunk.size());
+        // 初始化需要重新分词的新闻ID。
+        List<Long> ids = new ArrayList<>(chunk.size());
+        // 遍历本块新闻。
+        for (NewsData newsData : chunk) {
+            // 加入(压缩纯文本, 新闻ID)参数。
+            textRows.add(new Object[]{CompressedText.of(newsData.getPlainText()).getBytes(), newsData.getId()});
+            // 已分词的新闻需要重新分词。
+            if (newsData.getId() <= tokenizedMaxId) {
+                // 加入ID。
+                ids.add(newsData.getId());
+            } // if条件结束。
+        } // for循环结束。
+        // 批量保存纯文本。
+        jdbcTemplate.batchUpdate("UPDATE t_news_content SET text_z = ? WHERE news_id = ?", textRows);
+        // 如果没有已分词的新闻则直接返回。
+        if (ids.isEmpty()) {
+            // 无需重新分词。
+            return;
+        } // if条件结束。
+        // 拼接新闻ID条件。
+        String filter = "t.news_id IN (" + String.join(",", Collections.nCopies(ids.size(), "?")) + ")";
+        // 转换为参数数组。
+        Object[] args = ids.toArray();
+        // 减去这些新闻的旧词频和小时桶，并删除旧的单篇新闻词频。
+        subtractTerms(filter, args);
+        // 按纯文本重新分词，写入词频并累加全局统计。
+        write(tokenize(chunk.stream().filter(newsData -> newsData.getId() <= tokenizedMaxId).toList()));
+        // 按已有的新闻与历史关联累加历史统计和小时桶。
+        addLinkedHistories(filter, args);
+    } // retokenize方法结束。
+
+    // 定义一个私有方法，从全局和历史记录的统计及小时桶中减去满足newsFilter（以t为t_news_term别名）的新闻的词频，再删除这些新闻的单篇词频，供重新分词前调用。
+    private void subtractTerms(String filter, Object... args) {
+        // 从全局统计中减去这些新闻的旧词频。
+        jdbcTemplate.update("UPDATE t_term_stat s JOIN (SELECT t.source, t.term, t.stat_day, SUM(t.freq) AS total FROM t_news_term t "
+                + "WHERE " + filter + " GROUP BY t.source, t.term, t.stat_day) agg ON s.history_id = " + TermStat.ALL_HISTORIES
+                + " AND s.source = agg.source AND s.term = agg.term AND s.stat_day = agg.stat_day SET s.freq = s.freq - agg.total", args);
+        // 从所属历史记录的统计中减去旧词频。
+        jdbcTemplate.update("UPDATE t_term_stat s JOIN (SELECT l.history_id, t.source, t.term, t.stat_day, SUM(t.freq) AS total FROM t_news_term t "
+                + "JOIN t_news_history l ON l.news_id = t.news_id WHERE " + filter + " GROUP BY l.history_id, t.source, t.term, t.stat_day) agg "
+                + "ON s.history_id = agg.history_id AND s.source = agg.source AND s.term = agg.term AND s.stat_day = agg.stat_day "
+                + "SET s.freq = s.freq - agg.total", args);
+        // 从全局小时桶中减去旧的新闻数。
+        jdbcTemplate.update("UPDATE t_term_hour h JOIN (SELECT t.term, " + HOUR_BUCKET + " AS bucket_hour, COUNT(DISTINCT t.news_id) AS total "
+                + "FROM t_news_term t JOIN t_news_data n ON n.id = t.news_id WHERE " + filter + " GROUP BY t.term, bucket_hour) agg "
+                + "ON h.history_id = " + TermStat.ALL_HISTORIES + " AND h.term = agg.term AND h.bucket_hour = agg.bucket_hour "
+                + "SET h.docs = h.docs - agg.total", args);
+        // 从所属历史记录的小时桶中减去旧的新闻数。
+        jdbcTemplate.update("UPDATE t_term_hour h JOIN (SELECT l.history_id, t.term, " + HOUR_BUCKET + " AS bucket_hour, "
+                + "COUNT(DISTINCT t.news_id) AS total FROM t_news_term t JOIN t_news_history l ON l.news_id = t.news_id "
+                + "JOIN t_news_data n ON n.id = t.news_id WHERE " + filter + " GROUP BY l.history_id, t.term, bucket_hour) agg "
+                + "ON h.history_id = agg.history_id AND h.term = agg.term AND h.bucket_hour = agg.bucket_hour "
+                + "SET h.docs = h.docs - agg.total", args);
+        // 删除旧的单篇新闻词频。
+        jdbcTemplate.update("DELETE t FROM t_news_term t WHERE " + filter, args);
+    } // subtractTerms方法结束。
+
+    // 定义一个私有方法，把满足newsFilter（以t为t_news_term别名）的新闻词频按已有的新闻与历史关联累加到历史统计和历史记录的小时桶。
+    private void addLinkedHistories(String newsFilter, Object... args) {
+        // 累加历史统计。
+        jdbcTemplate.update("INSERT INTO t_term_stat (history_id, source, term, stat_day, freq) "
+                + "SELECT * FROM (SELECT l.history_id, t.source, t.term, t.stat_day, SUM(t.freq) AS total FROM t_news_term t "
+                + "JOIN t_news_history l ON l.news_id = t.news_id WHERE " + newsFilter + " "
+                + "GROUP BY l.history_id, t.source, t.term, t.stat_day) agg "
+                + "ON DUPLICATE KEY UPDATE freq = t_term_stat.freq + agg.total", args);
+        // 累加历史记录的小时桶。
+        jdbcTemplate.update("INSERT INTO t_term_hour (history_id, term, bucket_hour, docs) "
+                + "SELECT * FROM (SELECT l.history_id, t.term, " + HOUR_BUCKET + " AS bucket_hour, COUNT(DISTINCT t.news_id) AS total "
+                + "FROM t_news_term t JOIN t_news_history l ON l.news_id = t.news_id JOIN t_news_data n ON n.id = t.news_id "
+                + "WHERE " + newsFilter + " GROUP BY l.history_id, t.term, bucket_hour) agg "
+                + "ON DUPLICATE KEY UPDATE docs = t_term_hour.docs + agg.total", args);
+    } // addLinkedHistories方法结束。
+
+    // 定义一个私有方法，读取指定名称的迁移状态，不存在时返回默认值。
+    private long readState(String name, long defaultValue) {
+        // 查询状态值。
+        List<Long> values = jdbcTemplate.queryForList("SELECT state_value FROM t_migration_state WHERE name = ?", Long.class, name);
+        // 不存在时返回默认值。
+        return values.isEmpty() ? defaultValue : values.get(0);
+    } // readState方法结束。
+
+    // 定义一个私有方法，写入指定名称的迁移状态，已存在时覆盖。
+    private void writeState(String name, long value) {
+        // 插入或更新状态行。
+        jdbcTemplate.update("INSERT INTO t_migration_state (name, state_value, updated_time) VALUES (?, ?, NOW()) "
+                + "ON DUPLICATE KEY UPDATE state_value = VALUES(state_value), updated_time = VALUES(updated_time)", name, value);
+    } // writeState方法结束。
+
+    // 定义一个私有方法，从结果集读取分词所需的新闻元数据：主键、标题、关键词、发布时间和抓取时间。
+    private static NewsData readNews(ResultSet rs) throws SQLException {
+        // 创建新闻实体。
+        NewsData newsData = new NewsData();
+        // 设置主键。
+        newsData.setId(rs.getLong("id"));
+        // 设置标题。
+        newsData.setTitle(rs.getString("title"));
+        // 设置关键词。
+        newsData.setKeywords(rs.getString("keywords"));
+        // 读取发布时间，可能为空。
+        Timestamp publishTime = rs.getTimestamp("publish_time");
+        // 设置发布时间，小时桶按发布时间计算。
+        newsData.setPublishTime(publishTime == null ? null : publishTime.toLocalDateTime());
+        // 设置抓取时间。
+        newsData.setFetchTime(rs.getTimestamp("fetch_time").toLocalDateTime());
+        // 返回新闻实体。
+        return newsData;
+    } // readNews方法结束。
+
+    // 定义一个私有方法，返回新闻的纯文本正文：优先解压已保存的纯文本，否则从压缩的正文HTML提取，都没有时返回null。
+    private static String plainText(byte[] textZ, byte[] contentZ) {
+        // 如果已保存纯文本。
+        if (textZ != null) {
+            // 解压并返回。
+            return CompressedText.fromBytes(textZ).getText();
+        } // if条件结束。
+        // 从正文HTML提取，没有正文时返回null。
+        return contentZ == null ? null : PlainTextExtractor.extract(CompressedText.fromBytes(contentZ).getText());
+    } // plainText方法结束。
+
+    // 定义一个私有的记录类型，保存一批新闻待写入的单篇词频参数、全局统计参数和全局小时桶参数。
+    private record TermRows(List<Object[]> termRows, List<Object[]> statRows, List<Object[]> hourRows) {
+    } // TermRows记录结束。
+
+    // 定义一个私有的记录类型，表示流式读取到的一条新闻及其尚未解压的纯文本；纯文本缺失时携带压缩的正文HTML。
+    private record RawNews(NewsData news, byte[] textZ, byte[] contentZ) {
+    } // RawNews记录结束。
+
+    // 定义一个私有的记录类型，表示一块已提交分词的新闻，ids为本块的新闻ID，toId为其最大ID。
+    private record PendingChunk(List<Long> ids, long toId, ForkJoinTask<TermRows> rows) {
+    } // PendingChunk记录结束。
+
+    // 定义一个私有的内部类，作为回填流水线：读取线程把新闻分块提交给线程池分词，按提交顺序逐块等待结果并写入。
+    private final class BackfillPipeline implements RowCallbackHandler {
+        // 声明分词用的线程池。
+        private final ForkJoinPool pool;
+        // 声明已提交、尚未写入的块，按主键顺序排列。
+        private final Deque<PendingChunk> inFlight = new ArrayDeque<>();
+        // 声明正在凑块的新闻。
+        private List<RawNews> chunk = new ArrayList<>(BACKFILL_CHUNK);
+        // 声明已提交的最大新闻ID。
+        private long lastId;
+        // 声明已写入的新闻数量。
+        private int total;
+
+        // 定义流水线的构造函数。
+        private BackfillPipeline(ForkJoinPool pool, long lastId) {
+            // 保存线程池。
+            this.pool = pool;
+            // 保存起始ID。
+            this.lastId = lastId;
+        } // 构造函数结束。
+
+        // 定义处理流式结果集中一行的方法，只读取原始字段，解压和分词留给线程池。
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            // 连同压缩的纯文本或正文加入当前块，解压由分词任务完成。
+            chunk.add(new RawNews(readNews(rs), rs.getBytes("text_z"), rs.getBytes("content_z")));
+            // 如果凑满一块则提交。
+            if (chunk.size() >= BACKFILL_CHUNK) {
+                // 提交当前块。
+                submit();
+            } // if条件结束。
+        } // processRow方法结束。
+
+        // 定义一个私有方法，把当前块提交给线程池，并在在途块过多时先写入最早的块，使内存占用保持有界。
+        private void submit() {
+            // 如果当前块为空则直接返回。
+            if (chunk.isEmpty()) {
+                // 无需提交。
+                return;
+            } // if条件结束。
+            // 取出当前块。
+            List<RawNews> raw = chunk;
+            // 开始新的块。
+            chunk = new ArrayList<>(BACKFILL_CHUNK);
+            // 收集本块的新闻ID。
+            List<Long> ids = raw.stream().map(item -> item.news().getId()).toList();
+            // 取出本块的最大ID。
+            long toId = ids.get(ids.size() - 1);
+            // 提交解压和分词任务。
+            ForkJoinTask<TermRows> task = pool.submit(() -> {
+                // 初始化解压后的新闻列表。
+                List<NewsData> news = new ArrayList<>(raw.size());
+                // 遍历本块的新闻。
+                for (RawNews item : raw) {
+                    // 解压纯文本，纯文本缺失时从正文HTML提取。
+                    item.news().setPlainText(plainText(item.textZ(), item.contentZ()));
+                    // 加入列表。
+                    news.add(item.news());
+                } // for循环结束。
+                // 分词并生成待写入的参数。
+                return tokenize(news);
+            });
+            // 记录在途块。
+            inFlight.addLast(new PendingChunk(ids, toId, task));
+            // 推进已提交的最大ID。
+            lastId = toId;
+            // 在途块超过线程数的两倍时，先写入最早的块。
+            while (inFlight.size() > pool.getParallelism() * 2) {
+                // 写入最早的块。
+                writeOldest();
+            } // while循环结束。
+        } // submit方法结束。
+
+        // 定义一个私有方法，等待最早的块分词完成，并在一个事务中写入其词频、所属历史记录的统计和新的回填水位。
+        private void writeOldest() {
+            // 取出最早的块。
+            PendingChunk pending = inFlight.removeFirst();
+            // 等待分词结果。
+            TermRows rows = pending.rows().join();
+            // 拼接本块新闻ID的占位符，主键范围内已在入库时分词的新闻不能再次累加到历史统计。
+            String placeholders = String.join(",", Collections.nCopies(pending.ids().size(), "?"));
+            // 在一个事务中写入本块新闻的词频，并累加到它们所属的历史记录统计。
+            transactionTemplate.executeWithoutResult(status -> {
+                // 写入词频并累加全局统计。
+                write(rows);
+                // 按已有的新闻与历史关联累加本块新闻的历史统计和小时桶。
+                addLinkedHistories("t.news_id IN (" + placeholders + ")", pending.ids().toArray());
+                // 推进回填水位，与本块的写入一起提交。
+                writeState(STATE_BACKFILL_WATERMARK, pending.toId());
+            });
+            // 累加处理数量。
+            total += pending.ids().size();
+        } // writeOldest方法结束。
+
+        // 定义一个私有方法，提交剩余的新闻并写入所有在途块。
+        private void finish() {
+            // 提交最后不足一块的新闻。
+            submit();
+            // 依次写入所有在途块。
+            while (!inFlight.isEmpty()) {
+                // 写入最早的块。
+                writeOldest();
+            } // while循环结束。
+        } // finish方法结束。
+    } // BackfillPipeline类结束。
+} // TermStatService类定义结束。
@@ -0,0 +1,245 @@
+// 定义了该Java文件所在的包名
+package com.hhu.javawebcrawler.demo.utils;
+
+// 导入 Hibernate 的注解，声明该类型不可变，使脏检查不需要复制快照
+import org.hibernate.annotations.Immutable;
+
+// 导入 Java 标准库中的类，用于构建解压输出
+import java.io.ByteArrayOutputStream;
+// 导入 Java 标准库中的类，用于字符集处理
+import java.nio.charset.StandardCharsets;
+// 导入 Java 标准库中的类，用于返回有序的统计结果
+import java.util.LinkedHashMap;
+// 导入 Java 标准库中的接口，表示统计结果
+import java.util.Map;
+// 导入 Java 标准库中的类，用于线程安全的计数
+import java.util.concurrent.atomic.AtomicLong;
+// 导入 Java 标准库中的异常类，表示压缩数据格式错误
+import java.util.zip.DataFormatException;
+// 导入 Java 标准库中的类，用于deflate压缩
+import java.util.zip.Deflater;
+// 导入 Java 标准库中的类，用于deflate解压
+import java.util.zip.Inflater;
+
+// 定义一个不可变的 CompressedText 类，表示以压缩形式存储的文本，只有在第一次读取文本时才解压。
+// 存储格式与 MySQL 的 COMPRESS() 相同：4字节小端序的原始字节长度，后跟zlib数据流；空字符串存为空字节数组。
+// 因此数据库中可以直接用 UNCOMPRESS() 查询正文，迁移也可以在SQL中完成。
+@Immutable
+public final class CompressedText {
+
+    // 定义长度头部的字节数
+    private static final int HEADER_LENGTH = 4;
+    // 定义MySQL长度头部中表示长度的有效位掩码（最高两位保留）
+    private static final int LENGTH_MASK = 0x3FFFFFFF;
+
+    // 定义进程内累计压缩前的字节数，用于统计压缩率
+    private static final AtomicLong RAW_BYTES = new AtomicLong();
+    // 定义进程内累计压缩后的字节数，用于统计压缩率
+    private static final AtomicLong STORED_BYTES = new AtomicLong();
+    // 定义进程内累计解压次数，用于观察懒解压是否生效
+    private static final AtomicLong INFLATIONS = new AtomicLong();
+
+    // 声明压缩后的字节，懒压缩时首次需要时才计算
+    private volatile byte[] bytes;
+    // 声明解压后的文本，懒解压时首次读取时才计算
+    private volatile String text;
+
+    // 定义一个私有构造函数，只能通过静态工厂方法创建
+    private CompressedText(byte[] bytes, String text) {
+        // 保存压缩后的字节
+        this.bytes = bytes;
+        // 保存文本
+        this.text = text;
+    }
+
+    // 定义一个公共的静态方法，由明文创建实例，写入数据库时才压缩
+    public static CompressedText of(String text) {
+        // 如果文本为null则返回null
+        return text == null ? null : new CompressedText(null, text);
+    }
+
+    // 定义一个公共的静态方法，由数据库中读出的压缩字节创建实例，不立即解压
+    public static CompressedText fromBytes(byte[] bytes) {
+        // 如果字节为null则返回null
+        return bytes == null ? null : new CompressedText(bytes, null);
+    }
+
+    // 定义一个公共方法，返回解压后的文本，首次调用时解压并缓存结果
+    public String getText() {
+        // 读取已缓存的文本
+        String result = text;
+        // 如果尚未解压
+        if (result == null) {
+            // 解压字节得到文本
+            result = inflate(bytes);
+            // 缓存文本
+            text = result;
+        }
+        // 返回文本
+        return result;
+    }
+
+    // 定义一个公共方法，返回压缩后的字节，首次调用时压缩并缓存结果
+    public byte[] getBytes() {
+        // 读取已缓存的字节
+        byte[] result = bytes;
+        // 如果尚未压缩
+        if (result == null) {
+            // 压缩文本得到字节
+            result = deflate(text);
+            // 缓存字节
+            bytes = result;
+        }
+        // 返回字节
+        return result;
+    }
+
+    // 定义一个私有的静态方法，按MySQL COMPRESS()格式压缩文本
+    private static byte[] deflate(String text) {
+        // 将文本编码为UTF-8字节
+        byte[] raw = text.getBytes(StandardCharsets.UTF_8);
+        // 空字符串存为空字节数组，与MySQL一致
+        if (raw.length == 0) {
+            // 返回空数组
+            return new byte[0];
+        }
+        // 创建zlib格式的压缩器
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+        // 使用try-finally确保释放本地资源
+        try {
+            // 设置输入数据
+            deflater.setInput(raw);
+            // 标记输入结束
+            deflater.finish();
+            // 创建输出流，并预留长度头部
+            ByteArrayOutputStream out = new ByteArrayOutputStream(HEADER_LENGTH + raw.length / 3 + 64);
+            // 按小端序写入原始长度
+            for (int i = 0; i < HEADER_LENGTH; i++) {
+                // 写入一个字节
+                out.write((raw.length >>> (8 * i)) & 0xFF);
+            }
+            // 创建缓冲区
+            byte[] buffer = new byte[8192];
+            // 循环直到压缩完成
+            while (!deflater.finished()) {
+                // 压缩一段数据
+                int n = deflater.deflate(buffer);
+                // 写入输出流
+                out.write(buffer, 0, n);
+            }
+            // 取得压缩结果
+            byte[] result = out.toByteArray();
+            // 累加压缩前的字节数
+            RAW_BYTES.addAndGet(raw.length);
+            // 累加压缩后的字节数
+            STORED_BYTES.addAndGet(result.length);
+            // 返回压缩结果
+            return result;
+        } finally {
+            // 释放压缩器
+            deflater.end();
+        }
+    }
+
+    // 定义一个私有的静态方法，解压MySQL COMPRESS()格式的字节
+    private static String inflate(byte[] data) {
+        // 空字节数组表示空字符串
+        if (data.length == 0) {
+            // 返回空字符串
+            return "";
+        }
+        // 读取小端序的原始长度
+        int length = 0;
+        // 依次读取头部的每个字节
+        for (int i = 0; i < HEADER_LENGTH; i++) {
+            // 合并当前字节
+            length |= (data[i] & 0xFF) << (8 * i);
+        }
+        // 去除保留位
+        length &= LENGTH_MASK;
+        // 创建解压器
+        Inflater inflater = new Inflater();
+        // 使用try-finally确保释放本地资源
+        try {
+            // 设置输入数据，跳过长度头部
+            inflater.setInput(data, HEADER_LENGTH, data.length - HEADER_LENGTH);
+            // 按原始长度分配输出数组
+            byte[] raw = new byte[length];
+            // 初始化已解压的字节数
+            int offset = 0;
+            // 循环直到填满输出数组或数据流结束
+            while (offset < length && !inflater.finished()) {
+                // 解压一段数据
+                int n = inflater.inflate(raw, offset, length - offset);
+                // 如果既没有输出也需要更多输入，说明数据被截断
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    // 抛出异常
+                    throw new IllegalStateException("压缩正文数据不完整");
+                }
+                // 累加已解压的字节数
+                offset += n;
+            }
+            // 累加解压次数
+            INFLATIONS.incrementAndGet();
+            // 将字节解码为UTF-8文本并返回
+            return new String(raw, 0, offset, StandardCharsets.UTF_8);
+        } catch (DataFormatException e) {
+            // 包装为非受检异常抛出
+            throw new IllegalStateException("压缩正文数据格式错误", e);
+        } finally {
+            // 释放解压器
+            inflater.end();
+        }
+    }
+
+    // 定义一个公共的静态方法，返回本进程启动以来的压缩统计：原始字节数、压缩后字节数、压缩率和解压次数
+    public static Map<String, Object> stats() {
+        // 读取原始字节数
+        long raw = RAW_BYTES.get();
+        // 读取压缩后字节数
+        long stored = STORED_BYTES.get();
+        // 创建有序Map保存统计结果
+        Map<String, Object> result = new LinkedHashMap<>();
+        // 存入原始字节数
+        result.put("rawBytes", raw);
+        // 存入压缩后字节数
+        result.put("storedBytes", stored);
+        // 存入压缩率（压缩后/原始），尚未压缩过任何数据时为null
+        result.put("ratio", raw == 0 ? null : (double) stored / raw);
+        // 存入解压次数
+        result.put("inflations", INFLATIONS.get());
+        // 返回统计结果
+        return result;
+    }
+
+    // 按文本内容比较两个实例是否相等
+    @Override
+    public boolean equals(Object o) {
+        // 同一对象直接返回true
+        if (this == o) {
+            // 相等
+            return true;
+        }
+        // 类型不同则不相等
+        if (!(o instanceof CompressedText other)) {
+            // 不相等
+            return false;
+        }
+        // 比较解压后的文本；同一文本由不同压缩实现得到的字节可能不同
+        return getText().equals(other.getText());
+    }
+
+    // 与equals保持一致的哈希值
+    @Override
+    public int hashCode() {
+        // 按文本计算哈希
+        return getText().hashCode();
+    }
+
+    // 返回解压后的文本
+    @Override
+    public String toString() {
+        // 返回文本
+        return getText();
+    }
+}
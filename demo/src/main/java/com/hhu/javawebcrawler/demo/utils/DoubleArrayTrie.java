@@ -0,0 +1,295 @@
+// 定义了该Java文件所在的包名
+package com.hhu.javawebcrawler.demo.utils;
+
+// 导入 Java 标准库中的集合类
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+// 定义一个公共的 DoubleArrayTrie 类，用 base/check 两个整型数组存放分词词典，查找时只做数组下标运算，不创建任何对象
+public final class DoubleArrayTrie {
+
+    // 定义表示“未使用”的check值，节点的check保存父节点下标加一，因此0表示空闲
+    private static final int FREE = 0;
+
+    // 声明字符到紧凑编码的映射表，0表示字符不在词典中；编码从1开始，0保留给词尾转移
+    private final char[] codeOf = new char[Character.MAX_VALUE + 1];
+    // 声明base数组：内部节点保存子节点的起始偏移，词尾节点保存 -(词语ID + 1)
+    private int[] base;
+    // 声明check数组：保存父节点下标加一，用于确认转移是否属于该父节点
+    private int[] check;
+    // 声明已被占用的起始偏移，避免两个节点共用同一个base
+    private boolean[] usedBase;
+    // 声明构建时下一次开始搜索空闲位置的下标
+    private int nextCheckPos;
+    // 声明数组中实际使用到的最大下标加一
+    private int size;
+
+    // 定义一个私有构造函数，只能通过build方法创建
+    private DoubleArrayTrie() {
+    }
+
+    // 定义一个公共的静态方法，根据去重并按字典序排好的词语列表构建双数组，词语在列表中的下标即为词语ID
+    public static DoubleArrayTrie build(List<String> sortedWords) {
+        // 创建一个新的实例
+        DoubleArrayTrie trie = new DoubleArrayTrie();
+        // 为词典中出现的每个字符分配紧凑编码
+        char nextCode = 1;
+        // 遍历所有词语
+        for (String word : sortedWords) {
+            // 遍历词语中的每个字符
+            for (int i = 0; i < word.length(); i++) {
+                // 如果该字符尚未分配编码
+                if (trie.codeOf[word.charAt(i)] == 0) {
+                    // 分配下一个编码
+                    trie.codeOf[word.charAt(i)] = nextCode++;
+                }
+            }
+        }
+        // 按词典规模预估数组容量
+        int capacity = Math.max(1024, sortedWords.size() * 4);
+        // 初始化base数组
+        trie.base = new int[capacity];
+        // 初始化check数组
+        trie.check = new int[capacity];
+        // 初始化已占用偏移标记
+        trie.usedBase = new boolean[capacity];
+        // 根节点位于下标0，子节点从下标1开始放置
+        trie.nextCheckPos = 1;
+        // 记录根节点已使用
+        trie.size = 1;
+        // 如果词典非空
+        if (!sortedWords.isEmpty()) {
+            // 从根节点开始递归放置所有节点
+            trie.insert(0, trie.siblings(sortedWords, 0, sortedWords.size(), 0), sortedWords, 0);
+        }
+        // 截断数组到实际使用的长度，减少常驻内存
+        trie.base = Arrays.copyOf(trie.base, trie.size);
+        // 截断check数组
+        trie.check = Arrays.copyOf(trie.check, trie.size);
+        // 构建完成后不再需要占用标记
+        trie.usedBase = null;
+        // 返回构建好的双数组
+        return trie;
+    }
+
+    // 定义一个私有方法，收集词语下标区间[left, right)在第depth个字符上的所有子节点，每个子节点用{编码, 左下标, 右下标}表示，按编码升序返回
+    private List<int[]> siblings(List<String> words, int left, int right, int depth) {
+        // 初始化子节点列表
+        List<int[]> result = new ArrayList<>();
+        // 声明上一个子节点
+        int[] previous = null;
+        // 遍历区间内的词语
+        for (int i = left; i < right; i++) {
+            // 取出词语
+            String word = words.get(i);
+            // 已到达词尾的词语使用编码0，否则使用当前字符的编码
+            int code = depth == word.length() ? 0 : codeOf[word.charAt(depth)];
+            // 如果与上一个子节点编码相同，则扩展其区间；词语已排序，相同前缀一定相邻
+            if (previous != null && previous[0] == code) {
+                // 扩展右边界
+                previous[2] = i + 1;
+            } else {
+                // 创建新的子节点
+                previous = new int[]{code, i, i + 1};
+                // 加入列表
+                result.add(previous);
+            }
+        }
+        // 编码按字符首次出现的顺序分配，与字典序不一定一致，按编码排序以满足insert对子节点升序的要求
+        result.sort(Comparator.comparingInt(child -> child[0]));
+        // 返回子节点列表
+        return result;
+    }
+
+    // 定义一个私有方法，为父节点parent找到一个能容纳所有子节点的base，并递归放置子节点，depth为子节点对应的字符位置；children必须按编码升序排列（由siblings保证）
+    private void insert(int parent, List<int[]> children, List<String> words, int depth) {
+        // 取出最小和最大编码，子节点按编码升序排列
+        int minCode = children.get(0)[0];
+        // 取出最大编码
+        int maxCode = children.get(children.size() - 1)[0];
+        // 从上次的位置开始搜索
+        int pos = Math.max(nextCheckPos, minCode + 1);
+        // 声明找到的base
+        int begin;
+        // 记录是否遇到过已占用的位置，用于推进nextCheckPos
+        boolean first = true;
+        // 循环直到找到合适的base
+        while (true) {
+            // 计算候选的base
+            begin = pos - minCode;
+            // 确保数组足够大
+            ensureCapacity(begin + maxCode + 1);
+            // 如果第一个子节点的位置已被占用，则继续向后搜索
+            if (check[pos] != FREE) {
+                // 向后移动一位
+                pos++;
+                // 继续搜索
+                continue;
+            } else if (first) {
+                // 记录第一个空闲位置，下次从这里开始搜索
+                nextCheckPos = pos;
+                // 之后不再更新
+                first = false;
+            }
+            // 如果该base已被其他节点使用，则继续搜索
+            if (usedBase[begin]) {
+                // 向后移动一位
+                pos++;
+                // 继续搜索
+                continue;
+            }
+            // 检查所有子节点的位置是否空闲
+            boolean fits = true;
+            // 遍历子节点
+            for (int[] child : children) {
+                // 如果位置已被占用
+                if (check[begin + child[0]] != FREE) {
+                    // 标记不合适
+                    fits = false;
+                    // 结束检查
+                    break;
+                }
+            }
+            // 如果全部空闲，则使用该base
+            if (fits) {
+                // 退出循环
+                break;
+            }
+            // 向后移动一位
+            pos++;
+        }
+        // 标记该base已被使用
+        usedBase[begin] = true;
+        // 设置父节点的base
+        base[parent] = begin;
+        // 先占用所有子节点的位置，防止递归时被其他节点抢占
+        for (int[] child : children) {
+            // 子节点的check保存父节点下标加一
+            check[begin + child[0]] = parent + 1;
+            // 更新实际使用的长度
+            size = Math.max(size, begin + child[0] + 1);
+        }
+        // 依次处理每个子节点
+        for (int[] child : children) {
+            // 计算子节点的下标
+            int node = begin + child[0];
+            // 如果是词尾转移
+            if (child[0] == 0) {
+                // 保存词语ID，区间左端即为该词语在列表中的下标
+                base[node] = -(child[1] + 1);
+            } else {
+                // 递归放置下一层的子节点
+                insert(node, siblings(words, child[1], child[2], depth + 1), words, depth + 1);
+            }
+        }
+    }
+
+    // 定义一个私有方法，在需要时扩容三个数组
+    private void ensureCapacity(int required) {
+        // 如果容量足够则直接返回
+        if (required < base.length) {
+            // 无需扩容
+            return;
+        }
+        // 计算新容量，按1.5倍增长
+        int capacity = Math.max(required + 1, base.length + (base.length >> 1));
+        // 扩容base数组
+        base = Arrays.copyOf(base, capacity);
+        // 扩容check数组
+        check = Arrays.copyOf(check, capacity);
+        // 扩容占用标记
+        usedBase = Arrays.copyOf(usedBase, capacity);
+    }
+
+    // 定义一个公共方法，从text[from]开始查找词典中最长的词语；找到时返回 (词语ID << 32) | 长度，否则返回-1，全程不创建对象
+    public long longestMatch(char[] text, int from, int to) {
+        // 初始化最长匹配结果
+        long best = -1L;
+        // 从根节点开始
+        int node = 0;
+        // 逐个字符沿转移向下
+        for (int i = from; i < to; i++) {
+            // 取出字符的紧凑编码
+            int code = codeOf[text[i]];
+            // 字符不在词典中，无法继续匹配
+            if (code == 0) {
+                // 结束匹配
+                break;
+            }
+            // 计算转移目标
+            int next = base[node] + code;
+            // 如果目标越界或不属于当前节点，则无法继续匹配
+            if (next <= 0 || next >= check.length || check[next] != node + 1) {
+                // 结束匹配
+                break;
+            }
+            // 移动到子节点
+            node = next;
+            // 计算词尾转移的位置
+            int end = base[node];
+            // 如果存在词尾转移，则当前前缀是一个完整的词语
+            if (end > 0 && end < check.length && check[end] == node + 1 && base[end] < 0) {
+                // 记录词语ID和长度
+                best = ((long) (-base[end] - 1) << 32) | (i - from + 1);
+            }
+        }
+        // 返回最长匹配结果
+        return best;
+    }
+
+    // 定义一个公共方法，查找与word完全相同的词语，返回其ID，不在词典中时返回-1
+    public int exactMatch(CharSequence word) {
+        // 从根节点开始
+        int node = 0;
+        // 逐个字符沿转移向下
+        for (int i = 0; i < word.length(); i++) {
+            // 取出字符的紧凑编码
+            int code = codeOf[word.charAt(i)];
+            // 计算转移目标
+            int next = base[node] + code;
+            // 如果字符不在词典中，或目标越界、不属于当前节点，则不是词典词
+            if (code == 0 || next <= 0 || next >= check.length || check[next] != node + 1) {
+                // 返回-1
+                return -1;
+            }
+            // 移动到子节点
+            node = next;
+        }
+        // 计算词尾转移的位置
+        int end = base[node];
+        // 如果存在词尾转移则返回词语ID，否则只是某个词语的前缀
+        return node != 0 && end > 0 && end < check.length && check[end] == node + 1 && base[end] < 0 ? -base[end] - 1 : -1;
+    }
+
+    // 定义一个公共方法，查找与text[start, end)完全相同的词语，返回其ID，不在词典中时返回-1，不创建对象
+    public int exactMatch(char[] text, int start, int end) {
+        // 从根节点开始
+        int node = 0;
+        // 逐个字符沿转移向下
+        for (int i = start; i < end; i++) {
+            // 取出字符的紧凑编码
+            int code = codeOf[text[i]];
+            // 计算转移目标
+            int next = base[node] + code;
+            // 如果字符不在词典中，或目标越界、不属于当前节点，则不是词典词
+            if (code == 0 || next <= 0 || next >= check.length || check[next] != node + 1) {
+                // 返回-1
+                return -1;
+            }
+            // 移动到子节点
+            node = next;
+        }
+        // 计算词尾转移的位置
+        int last = base[node];
+        // 如果存在词尾转移则返回词语ID，否则只是某个词语的前缀
+        return node != 0 && last > 0 && last < check.length && check[last] == node + 1 && base[last] < 0 ? -base[last] - 1 : -1;
+    }
+
+    // 定义一个公共方法，返回双数组占用的元素数量，用于统计内存占用
+    public int arraySize() {
+        // 返回数组长度
+        return base.length;
+    }
+}
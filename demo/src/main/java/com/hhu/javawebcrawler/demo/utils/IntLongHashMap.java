@@ -0,0 +1,186 @@
+// 定义了该Java文件所在的包名
+package com.hhu.javawebcrawler.demo.utils;
+
+// 导入 Java 标准库中的类，用于填充数组
+import java.util.Arrays;
+
+// 定义一个公共的 IntLongHashMap 类，以开放寻址和线性探测实现非负int键到long值的映射，累加计数时不产生任何装箱对象
+public final class IntLongHashMap {
+
+    // 定义表示空槽位的键，合法的键都是非负数
+    private static final int EMPTY = -1;
+    // 定义最大装载因子的分子，装载因子为 3/4
+    private static final int LOAD_NUMERATOR = 3;
+    // 定义最大装载因子的分母
+    private static final int LOAD_DENOMINATOR = 4;
+
+    // 声明键数组，长度始终为2的幂
+    private int[] keys;
+    // 声明值数组，与键数组一一对应
+    private long[] values;
+    // 声明已使用的槽位数量
+    private int size;
+    // 声明触发扩容的槽位数量
+    private int threshold;
+
+    // 定义一个公共的回调接口，用于遍历映射中的键值对
+    public interface EntryConsumer {
+        // 定义接收一个键值对的方法
+        void accept(int key, long value);
+    }
+
+    // 定义一个公共构造函数，按预期的键数量分配初始容量
+    public IntLongHashMap(int expectedSize) {
+        // 计算能容纳预期键数量的最小2的幂容量
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize * LOAD_DENOMINATOR / LOAD_NUMERATOR) - 1) << 1;
+        // 分配数组
+        allocate(capacity);
+    }
+
+    // 定义一个私有方法，按指定容量分配数组并重置状态
+    private void allocate(int capacity) {
+        // 分配键数组
+        keys = new int[capacity];
+        // 将所有槽位标记为空
+        Arrays.fill(keys, EMPTY);
+        // 分配值数组
+        values = new long[capacity];
+        // 计算扩容阈值
+        threshold = capacity / LOAD_DENOMINATOR * LOAD_NUMERATOR;
+        // 重置数量
+        size = 0;
+    }
+
+    // 定义一个私有的静态方法，打散键的比特位，使连续的ID也能均匀分布到各槽位
+    private static int mix(int key) {
+        // 乘以黄金分割常数并混合高位
+        int h = key * 0x9E3779B9;
+        // 返回混合后的结果
+        return h ^ (h >>> 16);
+    }
+
+    // 定义一个公共方法，将delta累加到key对应的值上，键不存在时视为0
+    public void addTo(int key, long delta) {
+        // 计算掩码
+        int mask = keys.length - 1;
+        // 从散列位置开始线性探测
+        int slot = mix(key) & mask;
+        // 循环直到找到键或空槽位
+        while (true) {
+            // 取出当前槽位的键
+            int current = keys[slot];
+            // 如果找到了键
+            if (current == key) {
+                // 累加值
+                values[slot] += delta;
+                // 直接返回
+                return;
+            }
+            // 如果遇到空槽位，说明键不存在
+            if (current == EMPTY) {
+                // 写入新键
+                keys[slot] = key;
+                // 写入初始值
+                values[slot] = delta;
+                // 如果超过阈值则扩容
+                if (++size > threshold) {
+                    // 扩容为两倍
+                    rehash(keys.length << 1);
+                }
+                // 直接返回
+                return;
+            }
+            // 探测下一个槽位
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    // 定义一个公共方法，返回key对应的值，键不存在时返回0
+    public long get(int key) {
+        // 计算掩码
+        int mask = keys.length - 1;
+        // 从散列位置开始线性探测
+        int slot = mix(key) & mask;
+        // 循环直到找到键或空槽位
+        while (true) {
+            // 取出当前槽位的键
+            int current = keys[slot];
+            // 如果找到了键
+            if (current == key) {
+                // 返回对应的值
+                return values[slot];
+            }
+            // 如果遇到空槽位，说明键不存在
+            if (current == EMPTY) {
+                // 返回0
+                return 0L;
+            }
+            // 探测下一个槽位
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    // 定义一个私有方法，按新容量重建散列表
+    private void rehash(int capacity) {
+        // 保存旧的键数组
+        int[] oldKeys = keys;
+        // 保存旧的值数组
+        long[] oldValues = values;
+        // 分配新数组
+        allocate(capacity);
+        // 计算新掩码
+        int mask = capacity - 1;
+        // 遍历旧数组
+        for (int i = 0; i < oldKeys.length; i++) {
+            // 跳过空槽位
+            if (oldKeys[i] == EMPTY) {
+                // 继续下一个槽位
+                continue;
+            }
+            // 计算新位置
+            int slot = mix(oldKeys[i]) & mask;
+            // 线性探测空槽位，新表中不存在重复的键
+            while (keys[slot] != EMPTY) {
+                // 探测下一个槽位
+                slot = (slot + 1) & mask;
+            }
+            // 写入键
+            keys[slot] = oldKeys[i];
+            // 写入值
+            values[slot] = oldValues[i];
+            // 累加数量
+            size++;
+        }
+    }
+
+    // 定义一个公共方法，按槽位顺序遍历所有键值对
+    public void forEach(EntryConsumer consumer) {
+        // 遍历所有槽位
+        for (int i = 0; i < keys.length; i++) {
+            // 只处理已使用的槽位
+            if (keys[i] != EMPTY) {
+                // 回调键值对
+                consumer.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    // 定义一个公共方法，返回键的数量
+    public int size() {
+        // 返回数量
+        return size;
+    }
+
+    // 定义一个公共方法，清空映射但保留已分配的数组，供同一线程复用
+    public void clear() {
+        // 如果本来就是空的则无需清理
+        if (size == 0) {
+            // 直接返回
+            return;
+        }
+        // 将所有槽位标记为空
+        Arrays.fill(keys, EMPTY);
+        // 重置数量
+        size = 0;
+    }
+}
@@ -0,0 +1,48 @@
+// 定义了该Java文件所在的包名
+package com.hhu.javawebcrawler.demo.utils;
+
+// 导入自定义的异常类，游标格式错误时作为请求参数错误抛出
+import com.hhu.javawebcrawler.demo.exception.CrawlerException;
+
+// 导入 Java 标准库中的类，用于字符集处理
+import java.nio.charset.StandardCharsets;
+// 导入 Java 8 日期时间API中的类，表示排序列的时间值
+import java.time.LocalDateTime;
+// 导入 Java 标准库中的类，用于Base64编解码
+import java.util.Base64;
+
+// 定义一个记录类 KeysetCursor，表示按(时间, ID)降序分页时上一页最后一行的位置，编码为不透明的URL安全字符串
+public record KeysetCursor(LocalDateTime time, long id) {
+
+    // 定义一个公共方法，将游标编码为"时间|ID"的URL安全Base64字符串，时间为空时留空
+    public String encode() {
+        // 拼接原始字符串
+        String raw = (time == null ? "" : time.toString()) + "|" + id;
+        // 使用URL安全的Base64编码并返回
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // 定义一个公共的静态方法，解码游标；为空时返回null表示第一页，格式错误时抛出请求参数错误
+    public static KeysetCursor decode(String cursor) {
+        // 如果游标为空，则表示请求第一页
+        if (cursor == null || cursor.isBlank()) {
+            // 返回null
+            return null;
+        }
+        // 使用try-catch块处理解码和解析异常
+        try {
+            // 将Base64游标解码为原始字符串
+            String raw = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+            // 查找分隔符位置
+            int sep = raw.lastIndexOf('|');
+            // 解析时间，分隔符前为空表示时间为空
+            LocalDateTime time = sep <= 0 ? null : LocalDateTime.parse(raw.substring(0, sep));
+            // 解析ID并返回游标
+            return new KeysetCursor(time, Long.parseLong(raw.substring(sep + 1)));
+        // 捕获任何解码或解析异常
+        } catch (RuntimeException e) {
+            // 抛出请求参数错误异常
+            throw CrawlerException.badRequest("无效的分页游标");
+        }
+    }
+}
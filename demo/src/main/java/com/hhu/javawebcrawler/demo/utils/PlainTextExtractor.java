@@ -0,0 +1,124 @@
+// 定义了该Java文件所在的包名
+package com.hhu.javawebcrawler.demo.utils;
+
+// 导入 Jsoup 库中的类，用于解析正文HTML
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.nodes.TextNode;
+import org.jsoup.select.NodeTraversor;
+import org.jsoup.select.NodeVisitor;
+
+// 定义一个公共的 PlainTextExtractor 工具类，把新闻正文HTML转换为规范化的纯文本，入库时提取一次，正文分析只读取纯文本
+public final class PlainTextExtractor {
+
+    // 定义不包含可读文本、需要整体移除的元素
+    private static final String NON_TEXT_ELEMENTS = "script, style, noscript, iframe, object, embed";
+
+    // 定义一个私有构造函数，防止工具类被实例化
+    private PlainTextExtractor() {
+    }
+
+    // 定义一个公共的静态方法，提取HTML中的纯文本：标签、属性和图片地址都被丢弃，块级元素之间换行，行内空白合并为一个空格，空行被移除
+    public static String extract(String html) {
+        // 如果HTML为空
+        if (html == null || html.isBlank()) {
+            // 返回空字符串
+            return "";
+        }
+        // 按正文片段解析HTML
+        Element body = Jsoup.parseBodyFragment(html).body();
+        // 移除脚本、样式等不包含可读文本的元素
+        body.select(NON_TEXT_ELEMENTS).remove();
+        // 创建文本收集器
+        TextCollector collector = new TextCollector();
+        // 遍历所有节点
+        NodeTraversor.traverse(collector, body);
+        // 返回规范化后的文本
+        return collector.text();
+    }
+
+    // 定义一个私有的静态内部类，在遍历节点时按行收集文本
+    private static final class TextCollector implements NodeVisitor {
+        // 声明已完成的文本
+        private final StringBuilder out = new StringBuilder();
+        // 声明当前行的文本
+        private final StringBuilder line = new StringBuilder();
+
+        // 定义进入节点时的处理：文本节点追加规范化后的文本，块级元素和换行标签结束当前行
+        @Override
+        public void head(Node node, int depth) {
+            // 如果是文本节点
+            if (node instanceof TextNode textNode) {
+                // 追加合并空白后的文本
+                append(textNode.text());
+            } else if (node instanceof Element element && (element.isBlock() || "br".equals(element.normalName()))) {
+                // 块级元素开始前换行
+                newLine();
+            }
+        }
+
+        // 定义离开节点时的处理：块级元素结束后换行
+        @Override
+        public void tail(Node node, int depth) {
+            // 如果是块级元素
+            if (node instanceof Element element && element.isBlock()) {
+                // 块级元素结束后换行
+                newLine();
+            }
+        }
+
+        // 定义一个私有方法，向当前行追加文本，相邻片段之间只保留一个空格
+        private void append(String text) {
+            // 遍历文本中的每个字符
+            for (int i = 0; i < text.length(); i++) {
+                // 取出字符
+                char c = text.charAt(i);
+                // 不间断空格和全角空格也按空白处理
+                boolean blank = Character.isWhitespace(c) || c == '\u00a0' || c == '\u3000';
+                // 如果是空白字符
+                if (blank) {
+                    // 行首不追加空白，连续空白只保留一个
+                    if (line.length() > 0 && line.charAt(line.length() - 1) != ' ') {
+                        // 追加一个空格
+                        line.append(' ');
+                    }
+                } else {
+                    // 追加字符
+                    line.append(c);
+                }
+            }
+        }
+
+        // 定义一个私有方法，结束当前行；去除行尾空白，空行被丢弃
+        private void newLine() {
+            // 去除行尾空格
+            int end = line.length();
+            // 向前跳过空格
+            while (end > 0 && line.charAt(end - 1) == ' ') {
+                // 前移一位
+                end--;
+            }
+            // 如果当前行有内容
+            if (end > 0) {
+                // 与上一行之间换行
+                if (out.length() > 0) {
+                    // 追加换行符
+                    out.append('\n');
+                }
+                // 追加当前行
+                out.append(line, 0, end);
+            }
+            // 清空当前行
+            line.setLength(0);
+        }
+
+        // 定义一个私有方法，结束最后一行并返回全部文本
+        private String text() {
+            // 结束最后一行
+            newLine();
+            // 返回文本
+            return out.toString();
+        }
+    }
+}
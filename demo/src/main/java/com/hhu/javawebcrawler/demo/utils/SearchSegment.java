@@ -0,0 +1,713 @@
+// 定义了该Java文件所在的包名
+package com.hhu.javawebcrawler.demo.utils;
+
+// 导入 Java 标准库中的IO类，用于写入和映射段文件
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+// 导入 Java 标准库中的集合类
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.LongPredicate;
+
+// 定义一个公共的 SearchSegment 类，表示全文检索的一个不可变段文件：文档表、词典和倒排表写入一个文件，打开后以内存映射只读访问
+// 倒排表中的文档序号按升序做差值编码，差值和词频都使用变长整数，查询时只做下标运算和字节解码，不创建对象
+public final class SearchSegment {
+
+    // 定义段文件的魔数，用于识别文件格式
+    private static final int MAGIC = 0x4E535347;
+    // 定义段文件格式的版本号
+    private static final int VERSION = 1;
+    // 定义文件头的字节数：5个int和6个long
+    private static final int HEADER_BYTES = 5 * 4 + 6 * 8;
+    // 定义文档表每条记录的字节数：新闻ID、时间、长度、来源序号
+    private static final int DOC_BYTES = 8 + 8 + 4 + 4;
+    // 定义词典每条记录的字节数：词语字节偏移、文档频率、倒排表偏移
+    private static final int TERM_BYTES = 4 + 4 + 8;
+
+    // 声明段文件路径
+    private final Path file;
+    // 声明映射到内存的只读文件内容，只使用绝对下标读取，多个线程可以同时查询
+    private final ByteBuffer data;
+    // 声明文档数量
+    private final int docCount;
+    // 声明词语数量
+    private final int termCount;
+    // 声明所有文档长度之和，用于计算BM25的平均文档长度
+    private final long totalLength;
+    // 声明文档表的起始位置
+    private final int docsOffset;
+    // 声明词典的起始位置
+    private final int termsOffset;
+    // 声明词语字节区的起始位置
+    private final int termBytesOffset;
+    // 声明倒排表的起始位置，也是词语字节区的结束位置
+    private final int postingsOffset;
+    // 声明按序号排列的来源名称，来源数量很少，打开时读入内存
+    private final String[] sources;
+
+    // 定义一个公共的记录类型，表示待写入段的一篇文档：terms为加权后的词频，length为加权后的文档长度，time为用于时间过滤的秒数
+    public record Doc(long newsId, long time, String source, Map<String, Integer> terms, int length) {
+    }
+
+    // 定义一个公共的回调接口，接收倒排表中的一项
+    public interface PostingConsumer {
+        // 定义接收文档序号和词频的方法
+        void accept(int doc, int tf);
+    }
+
+    // 定义一个私有构造函数，只能通过open方法创建
+    private SearchSegment(Path file, ByteBuffer data) {
+        // 保存文件路径
+        this.file = file;
+        // 保存文件内容
+        this.data = data;
+        // 校验魔数和版本号
+        if (data.capacity() < HEADER_BYTES || data.getInt(0) != MAGIC || data.getInt(4) != VERSION) {
+            // 抛出异常，文件不是可识别的段文件
+            throw new IllegalStateException("无法识别的检索段文件: " + file);
+        }
+        // 读取文档数量
+        this.docCount = data.getInt(8);
+        // 读取词语数量
+        this.termCount = data.getInt(12);
+        // 读取来源数量
+        int sourceCount = data.getInt(16);
+        // 读取文档长度之和
+        this.totalLength = data.getLong(20);
+        // 读取文档表的起始位置
+        this.docsOffset = (int) data.getLong(28);
+        // 读取来源表的起始位置
+        int sourcesOffset = (int) data.getLong(36);
+        // 读取词典的起始位置
+        this.termsOffset = (int) data.getLong(44);
+        // 读取词语字节区的起始位置
+        this.termBytesOffset = (int) data.getLong(52);
+        // 读取倒排表的起始位置
+        this.postingsOffset = (int) data.getLong(60);
+        // 初始化来源名称
+        this.sources = new String[sourceCount];
+        // 声明当前读取位置
+        int pos = sourcesOffset;
+        // 依次读取每个来源
+        for (int i = 0; i < sourceCount; i++) {
+            // 读取字节长度
+            int length = data.getInt(pos);
+            // 分配字节数组
+            byte[] bytes = new byte[length];
+            // 复制字节
+            data.get(pos + 4, bytes);
+            // 解码来源名称
+            sources[i] = new String(bytes, StandardCharsets.UTF_8);
+            // 移动到下一个来源
+            pos += 4 + length;
+        }
+    }
+
+    // 定义一个公共的静态方法，以内存映射方式打开段文件
+    public static SearchSegment open(Path file) throws IOException {
+        // 打开文件通道，映射完成后即可关闭，映射在被回收前一直有效
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // 映射整个文件
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            // 创建段
+            return new SearchSegment(file, mapped);
+        }
+    }
+
+    // 定义一个公共的静态方法，把一批文档写成新的段文件并打开；同一新闻ID出现多次时保留最后一次
+    public static SearchSegment write(Path file, List<Doc> docs) throws IOException {
+        // 按新闻ID去重，后出现的覆盖先出现的
+        Map<Long, Doc> unique = new HashMap<>(docs.size() * 2);
+        // 遍历文档
+        for (Doc doc : docs) {
+            // 记录文档
+            unique.put(doc.newsId(), doc);
+        }
+        // 按新闻ID升序排列，文档序号即为排序后的下标
+        List<Doc> sorted = new ArrayList<>(unique.values());
+        // 排序
+        sorted.sort((a, b) -> Long.compare(a.newsId(), b.newsId()));
+        // 创建写入器
+        Writer writer = new Writer();
+        // 初始化按词语收集的倒排表
+        Map<String, IntPairs> postings = new HashMap<>();
+        // 依次写入文档
+        for (int ord = 0; ord < sorted.size(); ord++) {
+            // 取出文档
+            Doc doc = sorted.get(ord);
+            // 写入文档表
+            writer.addDoc(doc.newsId(), doc.time(), doc.length(), doc.source());
+            // 遍历文档中的词语
+            for (Map.Entry<String, Integer> entry : doc.terms().entrySet()) {
+                // 追加到该词语的倒排表，文档按序号升序到达
+                postings.computeIfAbsent(entry.getKey(), key -> new IntPairs()).add(ord, entry.getValue());
+            }
+        }
+        // 按UTF-8字节序排列词语，与查询时的二分查找一致
+        List<byte[]> terms = new ArrayList<>(postings.size());
+        // 转换每个词语
+        for (String term : postings.keySet()) {
+            // 编码为UTF-8
+            terms.add(term.getBytes(StandardCharsets.UTF_8));
+        }
+        // 排序
+        terms.sort(Arrays::compareUnsigned);
+        // 依次写入每个词语的倒排表
+        for (byte[] term : terms) {
+            // 取出倒排表
+            IntPairs list = postings.get(new String(term, StandardCharsets.UTF_8));
+            // 写入词语
+            writer.addTerm(term, list);
+        }
+        // 写入文件并打开
+        return writer.finish(file);
+    }
+
+    // 定义一个公共的静态方法，把多个段合并为一个新段：keep为false的新闻被丢弃，同一新闻在多个段中出现时保留列表中靠后的段
+    public static SearchSegment merge(Path file, List<SearchSegment> segments, LongPredicate keep) throws IOException {
+        // 初始化新闻ID到(段, 序号)的映射，靠后的段覆盖靠前的段
+        Map<Long, long[]> owners = new HashMap<>();
+        // 遍历所有段
+        for (int s = 0; s < segments.size(); s++) {
+            // 取出段
+            SearchSegment segment = segments.get(s);
+            // 遍历段中的文档
+            for (int ord = 0; ord < segment.docCount; ord++) {
+                // 记录文档所在的段和序号
+                owners.put(segment.newsId(ord), new long[]{s, ord});
+            }
+        }
+        // 取出需要保留的新闻ID
+        long[] ids = owners.keySet().stream().mapToLong(Long::longValue).filter(keep).sorted().toArray();
+        // 初始化每个段的序号映射，-1表示丢弃
+        int[][] remap = new int[segments.size()][];
+        // 遍历所有段
+        for (int s = 0; s < segments.size(); s++) {
+            // 分配映射数组
+            remap[s] = new int[segments.get(s).docCount];
+            // 默认全部丢弃
+            Arrays.fill(remap[s], -1);
+        }
+        // 创建写入器
+        Writer writer = new Writer();
+        // 按新闻ID升序写入保留的文档
+        for (int ord = 0; ord < ids.length; ord++) {
+            // 取出文档所在的段和序号
+            long[] owner = owners.get(ids[ord]);
+            // 取出段
+            SearchSegment segment = segments.get((int) owner[0]);
+            // 取出原序号
+            int old = (int) owner[1];
+            // 记录新序号
+            remap[(int) owner[0]][old] = ord;
+            // 写入文档表
+            writer.addDoc(ids[ord], segment.time(old), segment.length(old), segment.sources[segment.sourceOrdinal(old)]);
+        }
+        // 创建按词语字节序排列的多路归并队列，每项为{段下标, 词语下标}
+        PriorityQueue<int[]> queue = new PriorityQueue<>((a, b) -> segments.get(a[0]).compareTerms(a[1], segments.get(b[0]), b[1]));
+        // 每个段从第一个词语开始
+        for (int s = 0; s < segments.size(); s++) {
+            // 如果段中有词语
+            if (segments.get(s).termCount > 0) {
+                // 加入队列
+                queue.add(new int[]{s, 0});
+            }
+        }
+        // 复用的倒排表缓冲，高32位为新序号，低32位为词频，排序后即按序号升序
+        long[] merged = new long[64];
+        // 依次取出每个不同的词语
+        while (!queue.isEmpty()) {
+            // 取出字节序最小的词语
+            int[] head = queue.poll();
+            // 读取词语字节
+            byte[] term = segments.get(head[0]).termBytes(head[1]);
+            // 初始化合并后的数量
+            int[] count = {0};
+            // 把所有段中该词语的倒排表合并
+            int[] cursor = head;
+            // 循环处理队列中与该词语相同的项
+            while (cursor != null) {
+                // 取出段
+                SearchSegment segment = segments.get(cursor[0]);
+                // 取出该段的序号映射
+                int[] mapping = remap[cursor[0]];
+                // 确保缓冲足够大
+                int df = segment.data.getInt(segment.termsOffset + cursor[1] * TERM_BYTES + 4);
+                // 按需扩容
+                if (merged.length < count[0] + df) {
+                    // 扩容为足够大的两倍
+                    merged = Arrays.copyOf(merged, (count[0] + df) * 2);
+                }
+                // 复制到lambda可用的局部变量
+                long[] target = merged;
+                // 遍历该段的倒排表
+                segment.forEachPosting(cursor[1], (doc, tf) -> {
+                    // 映射到新序号
+                    int ord = mapping[doc];
+                    // 丢弃的文档不再出现
+                    if (ord >= 0) {
+                        // 打包为一个long
+                        target[count[0]++] = ((long) ord << 32) | tf;
+                    }
+                });
+                // 该段前进到下一个词语
+                if (cursor[1] + 1 < segment.termCount) {
+                    // 重新加入队列
+                    queue.add(new int[]{cursor[0], cursor[1] + 1});
+                }
+                // 如果队首是同一个词语则继续合并
+                cursor = !queue.isEmpty() && Arrays.equals(segments.get(queue.peek()[0]).termBytes(queue.peek()[1]), term) ? queue.poll() : null;
+            }
+            // 如果所有文档都被丢弃
+            if (count[0] == 0) {
+                // 跳过该词语
+                continue;
+            }
+            // 按新序号排序
+            Arrays.sort(merged, 0, count[0]);
+            // 转换为倒排表
+            IntPairs list = new IntPairs();
+            // 遍历合并结果
+            for (int i = 0; i < count[0]; i++) {
+                // 拆出序号和词频
+                list.add((int) (merged[i] >>> 32), (int) merged[i]);
+            }
+            // 写入词语
+            writer.addTerm(term, list);
+        }
+        // 写入文件并打开
+        return writer.finish(file);
+    }
+
+    // 定义一个公共方法，返回段文件路径
+    public Path file() {
+        // 返回路径
+        return file;
+    }
+
+    // 定义一个公共方法，返回文档数量
+    public int docCount() {
+        // 返回数量
+        return docCount;
+    }
+
+    // 定义一个公共方法，返回所有文档长度之和
+    public long totalLength() {
+        // 返回长度之和
+        return totalLength;
+    }
+
+    // 定义一个公共方法，返回文档的新闻ID
+    public long newsId(int doc) {
+        // 读取文档表
+        return data.getLong(docsOffset + doc * DOC_BYTES);
+    }
+
+    // 定义一个公共方法，返回文档的时间（秒）
+    public long time(int doc) {
+        // 读取文档表
+        return data.getLong(docsOffset + doc * DOC_BYTES + 8);
+    }
+
+    // 定义一个公共方法，返回文档的加权长度
+    public int length(int doc) {
+        // 读取文档表
+        return data.getInt(docsOffset + doc * DOC_BYTES + 16);
+    }
+
+    // 定义一个公共方法，返回文档的来源序号
+    public int sourceOrdinal(int doc) {
+        // 读取文档表
+        return data.getInt(docsOffset + doc * DOC_BYTES + 20);
+    }
+
+    // 定义一个公共方法，返回来源名称在本段中的序号，不存在时返回-1
+    public int sourceOrdinal(String source) {
+        // 遍历来源
+        for (int i = 0; i < sources.length; i++) {
+            // 如果名称相同
+            if (sources[i].equals(source)) {
+                // 返回序号
+                return i;
+            }
+        }
+        // 本段中没有该来源
+        return -1;
+    }
+
+    // 定义一个公共方法，返回词语的文档频率，term为UTF-8字节
+    public int docFreq(byte[] term) {
+        // 查找词语
+        int index = find(term);
+        // 不存在时返回0
+        return index < 0 ? 0 : data.getInt(termsOffset + index * TERM_BYTES + 4);
+    }
+
+    // 定义一个公共方法，遍历词语的倒排表，term为UTF-8字节
+    public void postings(byte[] term, PostingConsumer consumer) {
+        // 查找词语
+        int index = find(term);
+        // 如果存在
+        if (index >= 0) {
+            // 遍历倒排表
+            forEachPosting(index, consumer);
+        }
+    }
+
+    // 定义一个私有方法，解码第index个词语的倒排表：差值编码的序号和词频交替出现
+    private void forEachPosting(int index, PostingConsumer consumer) {
+        // 计算倒排表的起始位置
+        int pos = postingsOffset + (int) data.getLong(termsOffset + index * TERM_BYTES + 8);
+        // 计算倒排表的结束位置
+        int end = index + 1 < termCount ? postingsOffset + (int) data.getLong(termsOffset + (index + 1) * TERM_BYTES + 8) : data.capacity();
+        // 初始化文档序号
+        int doc = 0;
+        // 循环解码
+        while (pos < end) {
+            // 解码序号差值
+            long delta = readVarInt(pos);
+            // 累加得到序号
+            doc += (int) (delta >>> 32);
+            // 解码词频
+            long tf = readVarInt((int) delta);
+            // 移动到下一项
+            pos = (int) tf;
+            // 回调
+            consumer.accept(doc, (int) (tf >>> 32));
+        }
+    }
+
+    // 定义一个私有方法，从pos开始解码一个变长整数，返回 (值 << 32) | 下一个位置
+    private long readVarInt(int pos) {
+        // 初始化值
+        int value = 0;
+        // 初始化位移
+        int shift = 0;
+        // 声明当前字节
+        byte b;
+        // 循环读取，最高位为1表示后面还有字节
+        do {
+            // 读取一个字节
+            b = data.get(pos++);
+            // 累加低7位
+            value |= (b & 0x7F) << shift;
+            // 增加位移
+            shift += 7;
+        } while (b < 0);
+        // 打包返回
+        return ((long) value << 32) | pos;
+    }
+
+    // 定义一个私有方法，二分查找词语，返回下标，不存在时返回-1
+    private int find(byte[] term) {
+        // 初始化查找区间
+        int low = 0;
+        // 初始化上界
+        int high = termCount - 1;
+        // 循环直到区间为空
+        while (low <= high) {
+            // 取中间位置
+            int mid = (low + high) >>> 1;
+            // 比较中间的词语
+            int cmp = compareTerm(mid, term);
+            // 根据比较结果缩小区间
+            if (cmp < 0) {
+                // 向右查找
+                low = mid + 1;
+            } else if (cmp > 0) {
+                // 向左查找
+                high = mid - 1;
+            } else {
+                // 找到
+                return mid;
+            }
+        }
+        // 不存在
+        return -1;
+    }
+
+    // 定义一个私有方法，按无符号字节序比较第index个词语和term
+    private int compareTerm(int index, byte[] term) {
+        // 计算词语字节的起始位置
+        int start = termBytesOffset + data.getInt(termsOffset + index * TERM_BYTES);
+        // 计算词语字节的结束位置
+        int end = index + 1 < termCount ? termBytesOffset + data.getInt(termsOffset + (index + 1) * TERM_BYTES) : postingsOffset;
+        // 计算共同长度
+        int length = Math.min(end - start, term.length);
+        // 逐字节比较
+        for (int i = 0; i < length; i++) {
+            // 按无符号比较
+            int cmp = Integer.compare(data.get(start + i) & 0xFF, term[i] & 0xFF);
+            // 不同则返回
+            if (cmp != 0) {
+                // 返回比较结果
+                return cmp;
+            }
+        }
+        // 共同部分相同时较短的在前
+        return Integer.compare(end - start, term.length);
+    }
+
+    // 定义一个私有方法，按无符号字节序比较本段第index个词语和另一个段的第otherIndex个词语
+    private int compareTerms(int index, SearchSegment other, int otherIndex) {
+        // 读取对方的词语后比较
+        return compareTerm(index, other.termBytes(otherIndex));
+    }
+
+    // 定义一个私有方法，返回第index个词语的UTF-8字节
+    private byte[] termBytes(int index) {
+        // 计算起始位置
+        int start = termBytesOffset + data.getInt(termsOffset + index * TERM_BYTES);
+        // 计算结束位置
+        int end = index + 1 < termCount ? termBytesOffset + data.getInt(termsOffset + (index + 1) * TERM_BYTES) : postingsOffset;
+        // 分配字节数组
+        byte[] bytes = new byte[end - start];
+        // 复制字节
+        data.get(start, bytes);
+        // 返回字节
+        return bytes;
+    }
+
+    // 定义一个私有的静态内部类，按(序号, 词频)对收集一个词语的倒排表
+    private static final class IntPairs {
+        // 声明交替存放序号和词频的数组
+        private int[] values = new int[8];
+        // 声明已使用的长度
+        private int size;
+
+        // 定义追加一项的方法
+        private void add(int doc, int tf) {
+            // 按需扩容
+            if (size + 2 > values.length) {
+                // 扩容为两倍
+                values = Arrays.copyOf(values, values.length * 2);
+            }
+            // 写入序号
+            values[size++] = doc;
+            // 写入词频
+            values[size++] = tf;
+        }
+    }
+
+    // 定义一个私有的静态内部类，把文档表、来源表、词典和倒排表分别写入内存缓冲，最后拼接成段文件
+    private static final class Writer {
+        // 声明文档表缓冲
+        private final Bytes docs = new Bytes();
+        // 声明词典缓冲
+        private final Bytes terms = new Bytes();
+        // 声明词语字节缓冲
+        private final Bytes termBytes = new Bytes();
+        // 声明倒排表缓冲
+        private final Bytes postings = new Bytes();
+        // 声明来源名称到序号的映射
+        private final Map<String, Integer> sources = new LinkedHashMap<>();
+        // 声明文档数量
+        private int docCount;
+        // 声明词语数量
+        private int termCount;
+        // 声明文档长度之和
+        private long totalLength;
+
+        // 定义写入一篇文档的方法，文档必须按新闻ID升序写入
+        private void addDoc(long newsId, long time, int length, String source) {
+            // 写入新闻ID
+            docs.putLong(newsId);
+            // 写入时间
+            docs.putLong(time);
+            // 写入长度
+            docs.putInt(length);
+            // 写入来源序号，来源为空时按空字符串处理
+            docs.putInt(sources.computeIfAbsent(source == null ? "" : source, key -> sources.size()));
+            // 累加文档数量
+            docCount++;
+            // 累加长度
+            totalLength += length;
+        }
+
+        // 定义写入一个词语及其倒排表的方法，词语必须按字节序升序写入，倒排表按序号升序排列
+        private void addTerm(byte[] term, IntPairs list) {
+            // 写入词语字节偏移
+            terms.putInt(termBytes.size);
+            // 写入文档频率
+            terms.putInt(list.size / 2);
+            // 写入倒排表偏移
+            terms.putLong(postings.size);
+            // 写入词语字节
+            termBytes.put(term);
+            // 初始化上一个序号
+            int previous = 0;
+            // 遍历倒排表
+            for (int i = 0; i < list.size; i += 2) {
+                // 写入序号差值
+                postings.putVarInt(list.values[i] - previous);
+                // 写入词频
+                postings.putVarInt(list.values[i + 1]);
+                // 记录当前序号
+                previous = list.values[i];
+            }
+            // 累加词语数量
+            termCount++;
+        }
+
+        // 定义完成写入的方法：先写临时文件，再原子地重命名为目标文件，然后打开
+        private SearchSegment finish(Path file) throws IOException {
+            // 写入来源表
+            Bytes sourceBytes = new Bytes();
+            // 遍历来源
+            for (String source : sources.keySet()) {
+                // 编码为UTF-8
+                byte[] bytes = source.getBytes(StandardCharsets.UTF_8);
+                // 写入长度
+                sourceBytes.putInt(bytes.length);
+                // 写入字节
+                sourceBytes.put(bytes);
+            }
+            // 计算各部分的起始位置
+            long docsOffset = HEADER_BYTES;
+            // 来源表紧跟文档表
+            long sourcesOffset = docsOffset + docs.size;
+            // 词典紧跟来源表
+            long termsOffset = sourcesOffset + sourceBytes.size;
+            // 词语字节紧跟词典
+            long termBytesOffset = termsOffset + terms.size;
+            // 倒排表紧跟词语字节
+            long postingsOffset = termBytesOffset + termBytes.size;
+            // 计算文件总长度
+            long fileSize = postingsOffset + postings.size;
+            // 内存映射的单个缓冲区不能超过2GB
+            if (fileSize > Integer.MAX_VALUE) {
+                // 抛出异常，调用方应减小合并规模
+                throw new IOException("检索段文件超过2GB: " + file);
+            }
+            // 写入文件头
+            Bytes header = new Bytes();
+            // 魔数
+            header.putInt(MAGIC);
+            // 版本号
+            header.putInt(VERSION);
+            // 文档数量
+            header.putInt(docCount);
+            // 词语数量
+            header.putInt(termCount);
+            // 来源数量
+            header.putInt(sources.size());
+            // 文档长度之和
+            header.putLong(totalLength);
+            // 文档表位置
+            header.putLong(docsOffset);
+            // 来源表位置
+            header.putLong(sourcesOffset);
+            // 词典位置
+            header.putLong(termsOffset);
+            // 词语字节位置
+            header.putLong(termBytesOffset);
+            // 倒排表位置
+            header.putLong(postingsOffset);
+            // 在目标目录中创建临时文件
+            Path tmp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+            // 开始一个try块，失败时删除临时文件
+            try {
+                // 打开文件通道
+                try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                    // 依次写入各部分
+                    for (Bytes part : List.of(header, docs, sourceBytes, terms, termBytes, postings)) {
+                        // 包装为缓冲区
+                        ByteBuffer buffer = ByteBuffer.wrap(part.bytes, 0, part.size);
+                        // 循环写入直到写完
+                        while (buffer.hasRemaining()) {
+                            // 写入
+                            channel.write(buffer);
+                        }
+                    }
+                    // 刷新到磁盘，之后才能被清单引用
+                    channel.force(true);
+                }
+                // 原子地重命名为目标文件
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                // 删除临时文件
+                Files.deleteIfExists(tmp);
+                // 重新抛出
+                throw e;
+            }
+            // 打开写好的段
+            return open(file);
+        }
+    }
+
+    // 定义一个私有的静态内部类，作为大端序的可增长字节缓冲
+    private static final class Bytes {
+        // 声明字节数组
+        private byte[] bytes = new byte[1024];
+        // 声明已使用的长度
+        private int size;
+
+        // 定义确保容量的方法
+        private void ensure(int extra) {
+            // 如果容量不足
+            if (size + extra > bytes.length) {
+                // 扩容为足够大的两倍
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+            }
+        }
+
+        // 定义写入int的方法
+        private void putInt(int value) {
+            // 确保容量
+            ensure(4);
+            // 依次写入4个字节
+            for (int shift = 24; shift >= 0; shift -= 8) {
+                // 写入一个字节
+                bytes[size++] = (byte) (value >>> shift);
+            }
+        }
+
+        // 定义写入long的方法
+        private void putLong(long value) {
+            // 确保容量
+            ensure(8);
+            // 依次写入8个字节
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                // 写入一个字节
+                bytes[size++] = (byte) (value >>> shift);
+            }
+        }
+
+        // 定义写入变长整数的方法，每字节7位，最高位表示后面还有字节
+        private void putVarInt(int value) {
+            // 确保容量
+            ensure(5);
+            // 循环写入
+            while ((value & ~0x7F) != 0) {
+                // 写入低7位并设置继续标记
+                bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+                // 右移7位
+                value >>>= 7;
+            }
+            // 写入最后一个字节
+            bytes[size++] = (byte) value;
+        }
+
+        // 定义写入字节数组的方法
+        private void put(byte[] value) {
+            // 确保容量
+            ensure(value.length);
+            // 复制字节
+            System.arraycopy(value, 0, bytes, size, value.length);
+            // 增加长度
+            size += value.length;
+        }
+    }
+}
@@ -0,0 +1,281 @@
+// 定义了该Java文件所在的包名
+package com.hhu.javawebcrawler.demo.utils;
+
+// 导入 Java 标准库中的集合类
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// 定义一个公共的 TermCounter 类，作为词频统计的核心：词语先转换为int ID，再在原始类型散列表中计数，取前K个时使用有界小顶堆
+// 词典词直接使用分词词典的ID，未登录词在本计数器内分配词典之后的ID；实例非线程安全，可在同一线程内清空后复用
+public final class TermCounter implements WordSegmenter.TokenSink {
+
+    // 声明分词器，提供词典词的ID和文本
+    private final WordSegmenter segmenter;
+    // 声明参与统计的词语最大长度
+    private final int maxTermLength;
+    // 声明按词语ID计数的散列表
+    private final IntLongHashMap counts = new IntLongHashMap(256);
+    // 声明未登录词到ID的映射，每个不同的未登录词只装箱一次
+    private final Map<String, Integer> oovIds = new HashMap<>();
+    // 声明按ID排列的未登录词
+    private final List<String> oovTerms = new ArrayList<>();
+
+    // 定义一个公共的回调接口，用于遍历词语及其计数
+    public interface TermConsumer {
+        // 定义接收一个词语及其计数的方法
+        void accept(String term, long count);
+    }
+
+    // 定义一个公共构造函数
+    public TermCounter(WordSegmenter segmenter, int maxTermLength) {
+        // 保存分词器
+        this.segmenter = segmenter;
+        // 保存词语最大长度
+        this.maxTermLength = maxTermLength;
+    }
+
+    // 定义接收词典词的方法，只在散列表中计数
+    @Override
+    public void dictWord(int id) {
+        // 累加计数
+        counts.addTo(id, 1);
+    }
+
+    // 定义接收未登录词的方法，超长的词语被忽略
+    @Override
+    public void oovWord(char[] text, int start, int end) {
+        // 如果长度在允许范围内
+        if (end - start <= maxTermLength) {
+            // 转换为ID后累加计数
+            counts.addTo(intern(new String(text, start, end - start)), 1);
+        }
+    }
+
+    // 定义一个公共方法，为任意词语累加指定的计数，词典词优先使用词典ID
+    public void add(String term, long count) {
+        // 在词典中查找
+        int id = segmenter.idOf(term);
+        // 累加计数，不在词典中的词语分配本地ID
+        counts.addTo(id >= 0 ? id : intern(term), count);
+    }
+
+    // 定义一个私有方法，为未登录词分配词典之后的ID
+    private int intern(String term) {
+        // 查找已分配的ID
+        Integer id = oovIds.get(term);
+        // 如果已分配则直接返回
+        if (id != null) {
+            // 返回已有ID
+            return id;
+        }
+        // 分配下一个ID
+        int next = segmenter.size() + oovTerms.size();
+        // 记录词语
+        oovTerms.add(term);
+        // 记录映射
+        oovIds.put(term, next);
+        // 返回新ID
+        return next;
+    }
+
+    // 定义一个私有方法，返回ID对应的词语
+    private String term(int id) {
+        // 词典ID直接取词典中的词语，否则取本地的未登录词
+        return id < segmenter.size() ? segmenter.word(id) : oovTerms.get(id - segmenter.size());
+    }
+
+    // 定义一个公共方法，遍历所有词语及其计数
+    public void forEach(TermConsumer consumer) {
+        // 遍历散列表并转换ID为词语
+        counts.forEach((id, count) -> consumer.accept(term(id), count));
+    }
+
+    // 定义一个公共方法，返回不同词语的数量
+    public int size() {
+        // 返回散列表大小
+        return counts.size();
+    }
+
+    // 定义一个公共方法，以词语到计数的映射返回全部结果，计数保持long，与累加时一致
+    public Map<String, Long> toMap() {
+        // 按词语数量创建结果
+        Map<String, Long> result = new HashMap<>(counts.size() * 2);
+        // 遍历并加入结果
+        forEach(result::put);
+        // 返回结果
+        return result;
+    }
+
+    // 定义一个公共方法，按计数降序返回前k个词语，计数相同时按词语升序；只维护一个大小为k的小顶堆，不对全部词语排序
+    public Map<String, Long> top(int k) {
+        // 初始化保持顺序的结果
+        Map<String, Long> result = new LinkedHashMap<>();
+        // 计算堆的容量
+        int capacity = Math.min(k, counts.size());
+        // 如果不需要任何结果
+        if (capacity <= 0) {
+            // 返回空结果
+            return result;
+        }
+        // 创建有界小顶堆
+        TopHeap heap = new TopHeap(capacity);
+        // 将每个词语提交给堆
+        counts.forEach(heap::offer);
+        // 从堆顶依次弹出，得到由差到好的顺序
+        int[] ids = new int[heap.size];
+        // 声明对应的计数
+        long[] values = new long[heap.size];
+        // 从后向前填充
+        for (int i = ids.length - 1; i >= 0; i--) {
+            // 记录堆顶的ID
+            ids[i] = heap.ids[0];
+            // 记录堆顶的计数
+            values[i] = heap.values[0];
+            // 弹出堆顶
+            heap.poll();
+        }
+        // 按由好到差的顺序加入结果
+        for (int i = 0; i < ids.length; i++) {
+            // 加入词语和计数
+            result.put(term(ids[i]), values[i]);
+        }
+        // 返回结果
+        return result;
+    }
+
+    // 定义一个公共方法，清空计数和未登录词，保留已分配的数组
+    public void clear() {
+        // 清空散列表
+        counts.clear();
+        // 清空未登录词映射
+        oovIds.clear();
+        // 清空未登录词列表
+        oovTerms.clear();
+    }
+
+    // 定义一个私有方法，判断(idA, a)是否排在(idB, b)之后：计数更小，或计数相同但词语更大
+    private boolean worse(int idA, long a, int idB, long b) {
+        // 先比较计数
+        if (a != b) {
+            // 计数更小的排在后面
+            return a < b;
+        }
+        // 计数相同时比较词语
+        return term(idA).compareTo(term(idB)) > 0;
+    }
+
+    // 定义一个私有的内部类，以两个原始类型数组实现有界小顶堆，堆顶是当前保留的结果中最差的一个
+    private final class TopHeap {
+        // 声明堆中的词语ID
+        private final int[] ids;
+        // 声明堆中的计数
+        private final long[] values;
+        // 声明堆中的元素数量
+        private int size;
+
+        // 定义堆的构造函数
+        private TopHeap(int capacity) {
+            // 分配ID数组
+            this.ids = new int[capacity];
+            // 分配计数数组
+            this.values = new long[capacity];
+        }
+
+        // 定义提交一个候选词语的方法：堆未满时直接加入，否则只在它优于堆顶时替换堆顶
+        private void offer(int id, long value) {
+            // 如果堆未满
+            if (size < ids.length) {
+                // 放在末尾
+                ids[size] = id;
+                // 记录计数
+                values[size] = value;
+                // 上浮到合适位置
+                siftUp(size++);
+            } else if (worse(ids[0], values[0], id, value)) { // 如果候选优于堆顶
+                // 替换堆顶
+                ids[0] = id;
+                // 记录计数
+                values[0] = value;
+                // 下沉到合适位置
+                siftDown(0);
+            }
+        }
+
+        // 定义弹出堆顶的方法
+        private void poll() {
+            // 元素数量减一
+            size--;
+            // 将末尾元素移到堆顶
+            ids[0] = ids[size];
+            // 移动计数
+            values[0] = values[size];
+            // 下沉到合适位置
+            siftDown(0);
+        }
+
+        // 定义上浮的方法
+        private void siftUp(int index) {
+            // 循环直到到达堆顶
+            while (index > 0) {
+                // 计算父节点
+                int parent = (index - 1) >>> 1;
+                // 如果父节点不比当前节点更好，则停止
+                if (!worse(ids[index], values[index], ids[parent], values[parent])) {
+                    // 结束上浮
+                    break;
+                }
+                // 交换父子节点
+                swap(index, parent);
+                // 移动到父节点
+                index = parent;
+            }
+        }
+
+        // 定义下沉的方法
+        private void siftDown(int index) {
+            // 循环直到没有子节点
+            while (true) {
+                // 计算左子节点
+                int child = (index << 1) + 1;
+                // 如果没有子节点则停止
+                if (child >= size) {
+                    // 结束下沉
+                    break;
+                }
+                // 如果右子节点更差，则选择右子节点
+                if (child + 1 < size && worse(ids[child + 1], values[child + 1], ids[child], values[child])) {
+                    // 选择右子节点
+                    child++;
+                }
+                // 如果当前节点不比子节点更好，则停止
+                if (!worse(ids[child], values[child], ids[index], values[index])) {
+                    // 结束下沉
+                    break;
+                }
+                // 交换父子节点
+                swap(index, child);
+                // 移动到子节点
+                index = child;
+            }
+        }
+
+        // 定义交换两个位置的方法
+        private void swap(int i, int j) {
+            // 交换ID
+            int id = ids[i];
+            // 写入ID
+            ids[i] = ids[j];
+            // 写入ID
+            ids[j] = id;
+            // 交换计数
+            long value = values[i];
+            // 写入计数
+            values[i] = values[j];
+            // 写入计数
+            values[j] = value;
+        }
+    }
+}
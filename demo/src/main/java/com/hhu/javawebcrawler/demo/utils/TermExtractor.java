@@ -0,0 +1,139 @@
+// 定义了该Java文件所在的包名
+package com.hhu.javawebcrawler.demo.utils;
+
+// 导入 Java 标准库中的集合类
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+// 定义一个公共的 TermExtractor 工具类，负责从标题、正文和关键词中提取词语并计数，入库时统计词频和分析时共用同一套规则
+public class TermExtractor {
+
+    // 定义词语的最大长度，与词频表 term 列的长度一致，更长的词语不参与统计
+    public static final int MAX_TERM_LENGTH = 64;
+
+    // 定义分词规则的版本号，切分结果发生变化时递增，已保存的词频统计和检索索引据此重新分词
+    public static final int VERSION = 2;
+
+    // 定义一个私有的、静态的、最终的Set集合，用于存储停用词
+    private static final Set<String> STOP_WORDS = new HashSet<>(Arrays.asList(
+        // 中文常用虚词、代词、连词等
+        "的", "了", "和", "是", "在", "我", "有", "你", "他", "她", "它", "这", "那", "都", "也",
+        // 中文常用副词、介词等
+        "就", "要", "会", "到", "可以", "被", "等", "与", "以", "及", "但", "但是", "而", "或", "则",
+        // 中文因果、条件连词等
+        "因为", "所以", "如果", "只要", "只有", "不", "没有", "一个", "一种", "一样", "一点", "一些",
+        // 数字字符
+        "1", "2", "3", "4", "5", "6", "7", "8", "9", "0",
+        // 中文数字和时间单位等
+        "一", "二", "三", "四", "五", "六", "七", "八", "九", "十", "日", "月", "年", "最", "多",
+        // 常见无意义实体词
+        "人", "从", "对", "能", "为", "地", "得", "着", "说", "上", "下", "中", "前", "后", "里",
+        // 新闻领域常见无意义词
+        "中国", "记者", "报道", "新闻", "来源", "时间", "今天", "记者", "编辑", "频道", "评论"
+    // 列表结束
+    ));
+
+    // 定义一个私有的、静态的、最终的分词器，从类路径加载新闻词典；停用词不参与切分，只在输出时过滤
+    private static final WordSegmenter SEGMENTER = WordSegmenter.fromClasspath("dict/news-words.txt", STOP_WORDS);
+
+    // 定义一个线程本地的分词现场，字符缓冲区和计数器在同一线程的多次调用间复用
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    // 定义一个私有构造函数，防止工具类被实例化
+    private TermExtractor() {
+    }
+
+    // 定义一个公共的静态方法，对标题或正文分词并统计每个词语出现的次数，停用词被忽略
+    public static Map<String, Long> countWords(String text) {
+        // 如果文本为空或只包含空白字符
+        if (text == null || text.isBlank()) {
+            // 返回空结果
+            return new HashMap<>();
+        }
+        // 使用当前线程的分词现场分词并汇总
+        return SCRATCH.get().count(text);
+    }
+
+    // 定义一个公共的静态方法，创建一个使用同一分词词典的计数器，供汇总多篇新闻或多个来源的词频时使用
+    public static TermCounter newCounter() {
+        // 创建计数器
+        return new TermCounter(SEGMENTER, MAX_TERM_LENGTH);
+    }
+
+    // 定义一个公共的静态方法，判断查询词是否为词典中的词语且分词后恰好是它本身；词典词语总是按最大匹配整体切出，
+    // 按词语聚合的统计与子串匹配的结果基本一致，未登录词的切分取决于上下文，同一个词在不同句子中可能被切开
+    public static boolean isDictionaryTerm(String text) {
+        // 先按同一规则判断是否为单个词语，再查词典
+        return isSingleTerm(text) && SEGMENTER.idOf(text.trim()) >= 0;
+    }
+
+    // 定义一个公共的静态方法，判断查询词按同一规则分词后是否恰好是一个可统计的词语，只有这样的词才能从按词语聚合的统计中查询
+    public static boolean isSingleTerm(String text) {
+        // 如果文本为空
+        if (text == null || text.isBlank()) {
+            // 不是词语
+            return false;
+        }
+        // 去除首尾空白
+        String trimmed = text.trim();
+        // 分词并统计
+        Map<String, Long> counts = countWords(trimmed);
+        // 只有分词结果恰好是该文本本身时才是单个词语
+        return counts.size() == 1 && counts.containsKey(trimmed);
+    }
+
+    // 定义一个公共的静态方法，按逗号拆分关键词字符串并统计每个关键词出现的次数，停用词被忽略
+    public static Map<String, Long> countKeywords(String keywords) {
+        // 创建一个HashMap用于存储关键词及其出现的次数
+        Map<String, Long> counts = new HashMap<>();
+        // 如果关键词字符串为空或只包含空白字符
+        if (keywords == null || keywords.isBlank()) {
+            // 返回空结果
+            return counts;
+        }
+        // 按逗号分割关键词字符串
+        for (String keyword : keywords.split(",")) {
+            // 去除关键词两端的空白
+            String trimmed = keyword.trim();
+            // 如果关键词非空、不是停用词且长度在允许范围内
+            if (!trimmed.isEmpty() && !STOP_WORDS.contains(trimmed) && trimmed.length() <= MAX_TERM_LENGTH) {
+                // 更新该关键词的计数
+                counts.merge(trimmed, 1L, Long::sum);
+            }
+        }
+        // 返回统计结果
+        return counts;
+    }
+
+    // 定义一个私有的静态内部类，保存单个线程复用的字符缓冲区和计数器
+    private static final class Scratch {
+        // 声明复用的计数器
+        private final TermCounter counter = newCounter();
+        // 声明复用的字符缓冲区
+        private char[] buffer = new char[4096];
+
+        // 定义分词并汇总的方法
+        private Map<String, Long> count(String text) {
+            // 如果缓冲区不够大则扩容
+            if (buffer.length < text.length()) {
+                // 按文本长度重新分配
+                buffer = new char[text.length()];
+            }
+            // 将文本复制到缓冲区
+            text.getChars(0, text.length(), buffer, 0);
+            // 开始一个try块，确保计数器被清空
+            try {
+                // 分词并回调计数器
+                SEGMENTER.segment(buffer, 0, text.length(), counter);
+                // 转换为词语到计数的映射
+                return counter.toMap();
+            } finally {
+                // 清空计数器，供下次调用复用
+                counter.clear();
+            }
+        }
+    }
+}
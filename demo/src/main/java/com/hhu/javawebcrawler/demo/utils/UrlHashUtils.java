@@ -0,0 +1,82 @@
+// 定义了该Java文件所在的包名
+package com.hhu.javawebcrawler.demo.utils;
+
+// 导入 Java 标准库中的类，用于字符集处理
+import java.nio.charset.StandardCharsets;
+// 导入 Java 标准库中的类，用于计算消息摘要
+import java.security.MessageDigest;
+// 导入 Java 标准库中的异常类，表示摘要算法不可用
+import java.security.NoSuchAlgorithmException;
+// 导入 Java 标准库中的类，用于大小写转换时指定区域
+import java.util.Locale;
+
+// 定义一个公共的 UrlHashUtils 工具类，用于计算新闻URL的64位哈希，作为 url_hash 列的索引键
+public class UrlHashUtils {
+
+    // 定义一个线程本地的 MD5 摘要实例，避免每次调用都重新创建
+    private static final ThreadLocal<MessageDigest> MD5 = ThreadLocal.withInitial(() -> {
+        // 使用try-catch块处理算法不可用的异常
+        try {
+            // 返回一个新的MD5摘要实例
+            return MessageDigest.getInstance("MD5");
+        // 捕获算法不可用异常（所有标准JVM都提供MD5，实际不会发生）
+        } catch (NoSuchAlgorithmException e) {
+            // 包装为非受检异常抛出
+            throw new IllegalStateException("MD5 不可用", e);
+        }
+    });
+
+    // 定义一个私有构造函数，防止工具类被实例化
+    private UrlHashUtils() {
+    }
+
+    // 定义一个公共的静态方法，对URL进行规范化：去除首尾空格和片段标识符，并将协议和主机名转为小写
+    public static String normalize(String url) {
+        // 检查传入的URL是否为null
+        if (url == null) {
+            // 如果是，则返回空字符串
+            return "";
+        }
+        // 去除首尾空格
+        String result = url.trim();
+        // 查找哈希符号（#）首次出现的位置
+        int hashPos = result.indexOf('#');
+        // 如果找到了哈希符号
+        if (hashPos != -1) {
+            // 移除片段标识符，它不会发送到服务器，不影响页面身份
+            result = result.substring(0, hashPos);
+        }
+        // 查找协议分隔符的位置
+        int schemeEnd = result.indexOf("://");
+        // 如果URL包含协议
+        if (schemeEnd != -1) {
+            // 查找主机名之后第一个斜杠的位置
+            int pathStart = result.indexOf('/', schemeEnd + 3);
+            // 确定主机部分的结束位置
+            int hostEnd = pathStart == -1 ? result.length() : pathStart;
+            // 将协议和主机名转为小写，路径部分保持原样
+            result = result.substring(0, hostEnd).toLowerCase(Locale.ROOT) + result.substring(hostEnd);
+        }
+        // 返回规范化后的URL
+        return result;
+    }
+
+    // 定义一个公共的静态方法，计算规范化URL的MD5并取前8个字节作为64位哈希值
+    public static long hash(String url) {
+        // 获取当前线程的MD5实例
+        MessageDigest digest = MD5.get();
+        // 重置摘要状态
+        digest.reset();
+        // 计算规范化URL的UTF-8字节的摘要
+        byte[] bytes = digest.digest(normalize(url).getBytes(StandardCharsets.UTF_8));
+        // 初始化结果
+        long value = 0L;
+        // 依次取前8个字节，按大端序拼成一个long
+        for (int i = 0; i < 8; i++) {
+            // 左移8位后合并当前字节
+            value = (value << 8) | (bytes[i] & 0xFFL);
+        }
+        // 返回64位哈希值
+        return value;
+    }
+}
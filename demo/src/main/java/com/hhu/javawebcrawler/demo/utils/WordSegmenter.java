@@ -0,0 +1,270 @@
+// 定义了该Java文件所在的包名
+package com.hhu.javawebcrawler.demo.utils;
+
+// 导入 Java 标准库中的IO类，用于读取词典资源
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+// 导入 Java 标准库中的类，用于字符集处理
+import java.nio.charset.StandardCharsets;
+// 导入 Java 标准库中的集合类
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+
+// 定义一个公共的 WordSegmenter 类，基于双数组词典对中文文本做正向最大匹配分词，切分结果以词语ID回调，不为词典词创建字符串
+public final class WordSegmenter {
+
+    // 定义未登录汉字串整体作为一个词语的最大长度，更长的串按两字切分
+    private static final int MAX_OOV_LENGTH = 4;
+
+    // 声明词典的双数组
+    private final DoubleArrayTrie trie;
+    // 声明按词语ID排列的词语，回调方需要文本时直接取用，不再创建字符串
+    private final String[] words;
+    // 声明按词语ID排列的停用词标记
+    private final boolean[] stop;
+    // 声明停用词的双数组，只用于过滤未登录词，不参与切分
+    private final DoubleArrayTrie stopTrie;
+
+    // 定义一个公共的回调接口，接收分词结果
+    public interface TokenSink {
+        // 定义接收词典词的方法，只传递词语ID
+        void dictWord(int id);
+
+        // 定义接收未登录词的方法，传递原文及其区间[start, end)，由回调方决定是否创建字符串
+        void oovWord(char[] text, int start, int end);
+    }
+
+    // 定义一个私有构造函数，只能通过工厂方法创建
+    private WordSegmenter(List<String> sortedWords, Collection<String> stopWords) {
+        // 构建双数组
+        this.trie = DoubleArrayTrie.build(sortedWords);
+        // 保存词语表
+        this.words = sortedWords.toArray(new String[0]);
+        // 构建停用词的双数组，同样要求按字典序排列
+        this.stopTrie = DoubleArrayTrie.build(new ArrayList<>(new TreeSet<>(stopWords)));
+        // 初始化停用词标记
+        this.stop = new boolean[words.length];
+        // 遍历所有词语
+        for (int i = 0; i < words.length; i++) {
+            // 标记停用词
+            stop[i] = stopWords.contains(words[i]);
+        }
+    }
+
+    // 定义一个公共的静态方法，从类路径加载词典；停用词不进入词典，只在输出时过滤，避免单字停用词按最大匹配切断“华为”“着陆”之类的词语
+    public static WordSegmenter fromClasspath(String resource, Collection<String> stopWords) {
+        // 使用有序集合去重并排序，双数组构建要求词语按字典序排列
+        TreeSet<String> dictionary = new TreeSet<>();
+        // 使用try-with-resources打开词典资源
+        try (InputStream in = WordSegmenter.class.getClassLoader().getResourceAsStream(resource)) {
+            // 如果资源不存在
+            if (in == null) {
+                // 抛出异常，词典是分词的必要资源
+                throw new IllegalStateException("分词词典不存在: " + resource);
+            }
+            // 按UTF-8逐行读取
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            // 声明当前行
+            String line;
+            // 循环读取每一行
+            while ((line = reader.readLine()) != null) {
+                // 去除首尾空白
+                String trimmed = line.trim();
+                // 跳过空行和注释行
+                if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                    // 继续下一行
+                    continue;
+                }
+                // 一行可以包含多个以空白分隔的词语
+                for (String word : trimmed.split("\\s+")) {
+                    // 加入词典
+                    dictionary.add(word);
+                }
+            }
+        // 捕获读取异常
+        } catch (IOException e) {
+            // 包装为非受检异常抛出
+            throw new UncheckedIOException("读取分词词典失败: " + resource, e);
+        }
+        // 创建分词器
+        return new WordSegmenter(new ArrayList<>(dictionary), stopWords);
+    }
+
+    // 定义一个公共的静态方法，判断字符是否为参与分词的汉字，范围与原有的正则规则一致
+    public static boolean isHan(char c) {
+        // 判断是否在基本汉字区间内
+        return c >= '\u4e00' && c <= '\u9fa5';
+    }
+
+    // 定义一个私有的静态方法，判断字符是否为英文字母
+    private static boolean isLetter(char c) {
+        // 判断是否为大小写字母
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    // 定义一个公共方法，对text[start, end)分词并逐个回调：汉字串按最大匹配切分，长度至少为2的英文字母串作为未登录词，其余字符作为分隔
+    public void segment(char[] text, int start, int end, TokenSink sink) {
+        // 初始化当前位置
+        int i = start;
+        // 遍历整个区间
+        while (i < end) {
+            // 取出当前字符
+            char c = text[i];
+            // 如果是汉字，则处理整段连续汉字
+            if (isHan(c)) {
+                // 查找汉字串的结束位置
+                int runEnd = i + 1;
+                // 向后扩展到第一个非汉字字符
+                while (runEnd < end && isHan(text[runEnd])) {
+                    // 扩展一位
+                    runEnd++;
+                }
+                // 切分这段汉字
+                segmentHan(text, i, runEnd, sink);
+                // 跳过这段汉字
+                i = runEnd;
+            } else if (isLetter(c)) { // 如果是英文字母，则处理整段连续字母
+                // 查找字母串的结束位置
+                int runEnd = i + 1;
+                // 向后扩展到第一个非字母字符
+                while (runEnd < end && isLetter(text[runEnd])) {
+                    // 扩展一位
+                    runEnd++;
+                }
+                // 长度至少为2的字母串作为一个词语
+                if (runEnd - i >= 2) {
+                    // 回调未登录词
+                    emitWord(text, i, runEnd, sink);
+                }
+                // 跳过这段字母
+                i = runEnd;
+            } else {
+                // 其他字符只起分隔作用
+                i++;
+            }
+        }
+    }
+
+    // 定义一个私有方法，对一段连续汉字做正向最大匹配，词典词之间无法匹配的汉字累积为未登录串
+    private void segmentHan(char[] text, int start, int end, TokenSink sink) {
+        // 初始化未登录串的起点，-1表示当前没有未登录串
+        int oovStart = -1;
+        // 初始化当前位置
+        int i = start;
+        // 遍历整段汉字
+        while (i < end) {
+            // 查找从当前位置开始的最长词典词
+            long match = trie.longestMatch(text, i, end);
+            // 如果没有匹配到词典词
+            if (match < 0) {
+                // 记录未登录串的起点
+                if (oovStart < 0) {
+                    // 从当前位置开始
+                    oovStart = i;
+                }
+                // 前进一个字符
+                i++;
+                // 继续匹配
+                continue;
+            }
+            // 先输出之前累积的未登录串
+            if (oovStart >= 0) {
+                // 输出未登录串
+                emitOov(text, oovStart, i, sink);
+                // 清除未登录串
+                oovStart = -1;
+            }
+            // 取出词语ID
+            int id = (int) (match >>> 32);
+            // 停用词只用于切分，不输出
+            if (!stop[id]) {
+                // 回调词典词
+                sink.dictWord(id);
+            }
+            // 跳过匹配到的词语
+            i += (int) match;
+        }
+        // 输出末尾累积的未登录串
+        if (oovStart >= 0) {
+            // 输出未登录串
+            emitOov(text, oovStart, end, sink);
+        }
+    }
+
+    // 定义一个私有方法，输出未登录汉字串：单字丢弃，2至4字整体输出，更长的串按两字切分，末尾剩余的单字并入最后一段
+    private void emitOov(char[] text, int start, int end, TokenSink sink) {
+        // 计算长度
+        int length = end - start;
+        // 单字不构成词语
+        if (length < 2) {
+            // 直接返回
+            return;
+        }
+        // 较短的串整体作为一个词语
+        if (length <= MAX_OOV_LENGTH) {
+            // 回调未登录词
+            emitWord(text, start, end, sink);
+            // 直接返回
+            return;
+        }
+        // 按两字切分
+        int i = start;
+        // 循环直到剩余不足四字
+        while (end - i > 3) {
+            // 回调两字词语
+            emitWord(text, i, i + 2, sink);
+            // 前进两个字符
+            i += 2;
+        }
+        // 剩余的两字或三字作为最后一段
+        emitWord(text, i, end, sink);
+    }
+
+    // 定义一个私有方法，回调一个未登录词：去掉两端的单字停用词（如“华为的”中的“的”），但至少保留两个字，因此“着陆”“后台”不受影响；恰好是停用词时丢弃
+    private void emitWord(char[] text, int start, int end, TokenSink sink) {
+        // 去掉开头的单字停用词
+        while (end - start > 2 && stopTrie.exactMatch(text, start, start + 1) >= 0) {
+            // 起点后移
+            start++;
+        }
+        // 去掉末尾的单字停用词
+        while (end - start > 2 && stopTrie.exactMatch(text, end - 1, end) >= 0) {
+            // 终点前移
+            end--;
+        }
+        // 如果不是停用词
+        if (stopTrie.exactMatch(text, start, end) < 0) {
+            // 回调未登录词
+            sink.oovWord(text, start, end);
+        }
+    }
+
+    // 定义一个公共方法，返回词语ID对应的词语
+    public String word(int id) {
+        // 返回词语
+        return words[id];
+    }
+
+    // 定义一个公共方法，返回词语在词典中的ID，不在词典中时返回-1
+    public int idOf(String word) {
+        // 在双数组中精确查找
+        return trie.exactMatch(word);
+    }
+
+    // 定义一个公共方法，判断词语ID是否为停用词
+    public boolean isStop(int id) {
+        // 返回停用词标记
+        return stop[id];
+    }
+
+    // 定义一个公共方法，返回词典中的词语数量，即词语ID的上界
+    public int size() {
+        // 返回词语数量
+        return words.length;
+    }
+}
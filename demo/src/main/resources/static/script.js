@@ -371,12 +371,12 @@ function displayBatchCrawlResult(data, type) {
 // 获取最新的历史记录ID
 async function getLatestHistoryId() {
     try {
-        const response = await fetch('/api/history');
+        const response = await fetch('/api/history/page?size=1');
         if (response.ok) {
-            const historyData = await response.json();
-            if (historyData && historyData.length > 0) {
+            const page = await response.json();
+            if (page && page.items.length > 0) {
                 // 返回最新的历史记录ID（第一条记录）
-                return historyData[0].id;
+                return page.items[0].id;
             }
         }
         return null;
@@ -532,12 +532,19 @@ logoutBtn.addEventListener('click', () => {
     alert("您已退出登录。");
 });
 
-async function fetchAndDisplayHistory() {
+async function fetchAndDisplayHistory(cursor) {
     try {
-        const response = await fetch('/api/history');
+        // 按游标分页获取历史记录，单URL记录点击时需要url，params不需要
+        const params = new URLSearchParams({ size: 50, include: 'url' });
+        if (cursor) params.set('cursor', cursor);
+        const response = await fetch(`/api/history/page?${params}`);
         if (response.ok) {
-            const historyData = await response.json();
-            updateHistoryDisplay(historyData);
+            const page = await response.json();
+            updateHistoryDisplay(page.items, !!cursor);
+            if (page.hasMore) {
+                historyList.insertAdjacentHTML('beforeend',
+                    `<li class="history-more" style="padding: 10px; text-align: center; cursor: pointer; color: var(--text-color-secondary);" onclick="this.remove(); fetchAndDisplayHistory('${page.nextCursor}')">加载更多</li>`);
+            }
         } else if (response.status !== 401) {
             historyList.innerHTML = '<li style="padding: 10px; color: #ef4444;">加载历史失败</li>';
         }
@@ -546,32 +553,17 @@ async function fetchAndDisplayHistory() {
     }
 }
 
-function updateHistoryDisplay(history) {
-    if (!history || history.length === 0) {
+function updateHistoryDisplay(history, append) {
+    if (!append && (!history || history.length === 0)) {
         historyList.innerHTML = '<li style="padding: 10px; color: var(--text-color-secondary);">暂无历史记录</li>';
         return;
     }
-    historyList.innerHTML = history.map(item => {
+    const html = history.map(item => {
         // 确保URL是原始URL，不要再额外编码
         const url = item.url || '';
         
-        // 判断是否为批量爬取（二级爬取或关键词爬取）
-        let isBatchCrawl = item.crawlType === 'INDEX_CRAWL' || item.crawlType === 'KEYWORD_CRAWL';
-        
-        // 尝试解析params字段
-        let params = null;
-        if (item.params) {
-            try {
-                params = JSON.parse(item.params);
-            } catch (e) {
-                console.error('解析params失败:', e);
-            }
-        }
-        
-        // 如果是INDEX_CRAWL类型且params中包含totalCount，则认为是批量爬取
-        if (item.crawlType === 'INDEX_CRAWL' && params && params.totalCount) {
-            isBatchCrawl = true;
-        }
+        // 判断是否为批量爬取（二级爬取、关键词爬取或订阅分发）
+        const isBatchCrawl = item.crawlType === 'INDEX_CRAWL' || item.crawlType === 'KEYWORD_CRAWL' || item.crawlType === 'SUBSCRIPTION';
         
         // 根据是否为批量爬取决定点击事件
         const clickHandler = isBatchCrawl 
@@ -609,6 +601,11 @@ function updateHistoryDisplay(history) {
             </div>
         </li>`;
     }).join('');
+    if (append) {
+        historyList.insertAdjacentHTML('beforeend', html);
+    } else {
+        historyList.innerHTML = html;
+    }
 }
 
 async function loadHistoryItem(url) {
@@ -757,6 +754,8 @@ document.addEventListener('DOMContentLoaded', () => {
     showView(homeView); // 初始显示主页
 });
 
+const NEWS_PAGE_SIZE = 50;
+
 async function loadNewsByHistoryId(historyId, event) {
     if (event) event.stopPropagation();
     
@@ -770,48 +769,84 @@ async function loadNewsByHistoryId(historyId, event) {
     articleWrapper.innerHTML = '<div class="loading-container"><span><div class="loading"></div>正在获取关联新闻数据...</span></div>';
     
     try {
-        const response = await fetch(`/api/history/${historyId}/news`);
-        if (response.ok) {
-            const newsDataList = await response.json();
-            
-            if (newsDataList && newsDataList.length > 0) {
-                // 显示批量新闻列表
-                const resultHtml = `
-                    <div class="batch-result-summary">
-                        <h2 class="batch-result-title">爬取历史关联新闻</h2>
-                        <div class="batch-result-info">共找到 <strong>${newsDataList.length}</strong> 条关联新闻</div>
-                    </div>
-                    <div class="news-list">
-                        ${newsDataList.map((news, index) => `
-                            <div class="news-item" onclick="displayNewsDetail(${JSON.stringify(news).replace(/"/g, '&quot;')})">
-                                <div class="news-number">${index + 1}</div>
-                                <div class="news-content">
-                                    <h3 class="news-title">${news.title || '无标题'}</h3>
-                                    <div class="news-meta">
-                                        ${news.source ? `<span class="news-source">${news.source}</span>` : ''}
-                                        ${news.publishTime ? `<span class="news-time">${new Date(news.publishTime).toLocaleString()}</span>` : ''}
-                                    </div>
-                                </div>
-                            </div>
-                        `).join('')}
-                    </div>
-                `;
-                articleWrapper.innerHTML = resultHtml;
-            } else {
-                displayErrorResult('该爬取历史没有关联的新闻数据');
-            }
-        } else if (response.status === 404) {
-            displayErrorResult('未找到该爬取历史记录');
+        const page = await fetchNewsPage(historyId, null);
+        if (page.items.length > 0) {
+            // 显示批量新闻列表，后续页通过"加载更多"追加
+            const resultHtml = `
+                <div class="batch-result-summary">
+                    <h2 class="batch-result-title">爬取历史关联新闻</h2>
+                    <div class="batch-result-info">共找到 <strong>${page.total}</strong> 条关联新闻</div>
+                </div>
+                <div class="news-list" id="historyNewsList"></div>
+                <div class="article-actions" id="historyNewsMore"></div>
+            `;
+            articleWrapper.innerHTML = resultHtml;
+            appendNewsPage(historyId, page, 0);
         } else {
-            displayErrorResult(`获取关联新闻失败：${response.status} ${response.statusText}`);
+            displayErrorResult('该爬取历史没有关联的新闻数据');
         }
     } catch (error) {
         console.error('获取关联新闻错误:', error);
-        displayErrorResult('获取关联新闻时发生错误：' + error.message);
+        displayErrorResult(error.message);
+    }
+}
+
+// 按游标获取一页关联新闻，只请求列表需要的字段
+async function fetchNewsPage(historyId, cursor) {
+    const params = new URLSearchParams({ size: NEWS_PAGE_SIZE, fields: 'url,title,source,publishTime' });
+    if (cursor) params.set('cursor', cursor);
+    const response = await fetch(`/api/history/${historyId}/news/page?${params}`);
+    if (response.ok) {
+        return response.json();
+    } else if (response.status === 403 || response.status === 404) {
+        throw new Error('未找到该爬取历史记录');
+    }
+    throw new Error(`获取关联新闻失败：${response.status} ${response.statusText}`);
+}
+
+function appendNewsPage(historyId, page, offset) {
+    const list = getEl('historyNewsList');
+    const more = getEl('historyNewsMore');
+    if (!list || !more) return;
+    list.insertAdjacentHTML('beforeend', page.items.map((news, index) => {
+        const item = { ...news, crawlHistoryId: historyId };
+        return `
+            <div class="news-item" onclick="displayNewsDetail(${JSON.stringify(item).replace(/"/g, '&quot;')})">
+                <div class="news-number">${offset + index + 1}</div>
+                <div class="news-content">
+                    <h3 class="news-title">${news.title || '无标题'}</h3>
+                    <div class="news-meta">
+                        ${news.source ? `<span class="news-source">${news.source}</span>` : ''}
+                        ${news.publishTime ? `<span class="news-time">${new Date(news.publishTime).toLocaleString()}</span>` : ''}
+                    </div>
+                </div>
+            </div>
+        `;
+    }).join(''));
+    more.innerHTML = page.hasMore ? '<button class="btn btn-secondary">加载更多</button>' : '';
+    if (page.hasMore) {
+        const button = more.querySelector('button');
+        button.onclick = async () => {
+            button.disabled = true;
+            button.textContent = '加载中...';
+            try {
+                const next = await fetchNewsPage(historyId, page.nextCursor);
+                appendNewsPage(historyId, next, offset + page.items.length);
+            } catch (error) {
+                console.error('获取关联新闻错误:', error);
+                button.disabled = false;
+                button.textContent = '加载更多';
+            }
+        };
     }
 }
 
 function displayNewsDetail(newsData) {
+    // 列表接口不返回正文，首次打开时按URL获取详情（含正文）后再渲染
+    if (newsData.content == null && newsData.url) {
+        loadNewsContent(newsData);
+        return;
+    }
     currentArticleData = newsData; // 缓存数据用于导出
     const resultHtml = `
         <header class="article-header">
@@ -851,6 +886,19 @@ function displayNewsDetail(newsData) {
     articleWrapper.innerHTML = resultHtml;
 }
 
+async function loadNewsContent(newsData) {
+    articleWrapper.innerHTML = '<div class="loading-container"><span><div class="loading"></div>正在获取新闻正文...</span></div>';
+    try {
+        const response = await fetch(`/api/news/detail?url=${encodeURIComponent(newsData.url)}`);
+        const detail = response.ok ? await response.json() : {};
+        // 保留列表中的历史ID，订阅推送的新闻可能关联在其他历史记录下
+        displayNewsDetail({ ...newsData, ...detail, crawlHistoryId: newsData.crawlHistoryId, content: detail.content || '' });
+    } catch (error) {
+        console.error('获取新闻正文错误:', error);
+        displayNewsDetail({ ...newsData, content: '' });
+    }
+}
+
 /**
  * 导出文档
  * @param {Object} params 导出参数
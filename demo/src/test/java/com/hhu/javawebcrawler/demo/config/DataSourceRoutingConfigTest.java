@@ -0,0 +1,144 @@
+package com.hhu.javawebcrawler.demo.config;
+
+import com.hhu.javawebcrawler.demo.aspect.ReadReplica;
+import com.hhu.javawebcrawler.demo.aspect.ReadReplicaAspect;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// 读写路由的测试：主库和副本两个实例，@ReadReplica方法读副本，其余操作、onPrimary中和其他线程上的查询读主库
+class DataSourceRoutingConfigTest {
+
+    private final DataSourceRoutingConfig config = new DataSourceRoutingConfig();
+
+    private Statement primaryStatement;
+    private Statement replicaStatement;
+    private Queries queries;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        primaryStatement = mock(Statement.class);
+        replicaStatement = mock(Statement.class);
+        DataSource routing = config.dataSource(instance(primaryStatement), instance(replicaStatement));
+        AspectJProxyFactory factory = new AspectJProxyFactory(new Queries(routing));
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new ReadReplicaAspect());
+        queries = factory.getProxy();
+    }
+
+    @Test
+    void onlyReadReplicaMethodsUseTheReplica() throws SQLException {
+        assertSame(primaryStatement, queries.write());
+        assertSame(replicaStatement, queries.read());
+        assertSame(primaryStatement, queries.write());
+    }
+
+    @Test
+    void onPrimaryOverridesReadReplica() {
+        assertSame(primaryStatement, DataSourceRouting.onPrimary(queries::readUnchecked));
+        assertSame(replicaStatement, queries.readUnchecked());
+    }
+
+    @Test
+    void routingDoesNotFollowWorkToOtherThreadsUnlessPropagated() {
+        assertSame(primaryStatement, queries.readOnWorker(false));
+        assertSame(replicaStatement, queries.readOnWorker(true));
+        assertSame(primaryStatement, DataSourceRouting.onPrimary(() -> queries.readOnWorker(true)));
+    }
+
+    @Test
+    void primaryPoolBindsHikariProperties() {
+        new ApplicationContextRunner()
+                .withUserConfiguration(PropertiesConfig.class, DataSourceRoutingConfig.class)
+                .withPropertyValues(
+                        "spring.datasource.url=jdbc:mysql://localhost:3306/newscrawler",
+                        "spring.datasource.username=root",
+                        "spring.datasource.hikari.maximum-pool-size=7",
+                        "spring.datasource.hikari.connection-timeout=4000",
+                        "crawler.datasource.replica.url=jdbc:mysql://localhost:3307/newscrawler")
+                .run(context -> {
+                    HikariDataSource primary = context.getBean("primaryDataSource", HikariDataSource.class);
+                    assertEquals(7, primary.getMaximumPoolSize());
+                    assertEquals(4000, primary.getConnectionTimeout());
+                    assertEquals("primary", primary.getPoolName());
+                    HikariDataSource replica = context.getBean("replicaDataSource", HikariDataSource.class);
+                    assertEquals("jdbc:mysql://localhost:3307/newscrawler", replica.getJdbcUrl());
+                    assertEquals("root", replica.getUsername());
+                });
+    }
+
+    private static HikariDataSource instance(Statement statement) throws SQLException {
+        HikariDataSource dataSource = mock(HikariDataSource.class);
+        Connection connection = mock(Connection.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.createStatement()).thenReturn(statement);
+        return dataSource;
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @EnableConfigurationProperties(DataSourceProperties.class)
+    static class PropertiesConfig {
+    }
+
+    static class Queries {
+
+        private final DataSource dataSource;
+
+        Queries(DataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        Statement write() throws SQLException {
+            return statement();
+        }
+
+        @ReadReplica
+        Statement read() throws SQLException {
+            return statement();
+        }
+
+        @ReadReplica
+        Statement readUnchecked() {
+            return uncheckedStatement();
+        }
+
+        @ReadReplica
+        Statement readOnWorker(boolean propagate) {
+            if (propagate) {
+                return CompletableFuture.supplyAsync(DataSourceRouting.propagate(this::uncheckedStatement)).join();
+            }
+            return CompletableFuture.supplyAsync(this::uncheckedStatement).join();
+        }
+
+        private Statement uncheckedStatement() {
+            try {
+                return statement();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private Statement statement() throws SQLException {
+            // 延迟连接代理在第一条语句创建时才向路由数据源获取连接
+            try (Connection connection = dataSource.getConnection()) {
+                return connection.createStatement();
+            }
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.hhu.javawebcrawler.demo.service;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// HTTP缓存的测试：超过上限的响应体被拒绝而不是截断，启动时清理遗留的临时文件和旧格式文件，304重新验证后响应体与验证器一起保存
+class CachedHttpClientTest {
+
+    @TempDir
+    Path dir;
+
+    private HttpServer server;
+    private CachedHttpClient client;
+    private volatile String lastIfNoneMatch;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        // 声明了长度的超大响应
+        server.createContext("/declared", exchange -> {
+            exchange.getResponseHeaders().add("Cache-Control", "max-age=60");
+            exchange.sendResponseHeaders(200, CachedHttpClient.MAX_BODY_SIZE + 1L);
+            writeBytes(exchange.getResponseBody(), CachedHttpClient.MAX_BODY_SIZE + 1);
+        });
+        // 分块传输、不声明长度的超大响应
+        server.createContext("/chunked", exchange -> {
+            exchange.getResponseHeaders().add("Cache-Control", "max-age=60");
+            exchange.sendResponseHeaders(200, 0);
+            writeBytes(exchange.getResponseBody(), CachedHttpClient.MAX_BODY_SIZE + 1);
+        });
+        // 恰好等于上限的响应
+        server.createContext("/limit", exchange -> {
+            exchange.getResponseHeaders().add("Cache-Control", "max-age=60");
+            exchange.sendResponseHeaders(200, 0);
+            writeBytes(exchange.getResponseBody(), CachedHttpClient.MAX_BODY_SIZE);
+        });
+        // 每次都要求重新验证、带ETag的响应
+        server.createContext("/etag", exchange -> {
+            lastIfNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+            exchange.getResponseHeaders().add("Cache-Control", "no-cache");
+            exchange.getResponseHeaders().add("ETag", "\"v1\"");
+            if ("\"v1\"".equals(lastIfNoneMatch)) {
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+                return;
+            }
+            byte[] body = "<html>v1</html>".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        client = new CachedHttpClient(true, dir.toString(), 512, 3600);
+        client.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void oversizedBodiesAreRejectedAndNotCached() throws IOException {
+        assertThrows(IOException.class, () -> client.get(url("/declared"), 30_000));
+        assertThrows(IOException.class, () -> client.get(url("/chunked"), 30_000));
+
+        assertEquals(0L, client.getStats().get("entries"));
+        assertFalse(hasFiles(".entry"));
+    }
+
+    @Test
+    void bodyAtTheLimitIsKeptWhole() throws IOException {
+        CachedHttpClient.Response response = client.get(url("/limit"), 30_000);
+
+        assertEquals(CachedHttpClient.MAX_BODY_SIZE, response.getBody().length);
+        assertTrue(hasFiles(".entry"));
+        assertFalse(hasFiles(".tmp"));
+    }
+
+    @Test
+    void staleAndLegacyFilesAreDeletedAtStartup() throws IOException {
+        client.get(url("/etag"), 30_000);
+        Files.write(dir.resolve("abc123.tmp"), new byte[]{1, 2, 3});
+        Files.write(dir.resolve("abc123.body"), new byte[]{1});
+        Files.writeString(dir.resolve("abc123.meta"), "contentType=text/html\n");
+
+        CachedHttpClient restarted = new CachedHttpClient(true, dir.toString(), 512, 3600);
+        restarted.init();
+
+        assertFalse(hasFiles(".tmp"));
+        assertFalse(hasFiles(".body"));
+        assertFalse(hasFiles(".meta"));
+        assertEquals(1L, restarted.getStats().get("entries"));
+    }
+
+    @Test
+    void revalidationKeepsBodyAndValidatorsTogether() throws IOException {
+        CachedHttpClient.Response first = client.get(url("/etag"), 30_000);
+        CachedHttpClient.Response second = client.get(url("/etag"), 30_000);
+
+        assertFalse(first.isFromCache());
+        assertTrue(second.isFromCache());
+        assertArrayEquals(first.getBody(), second.getBody());
+        assertEquals(1L, client.getStats().get("revalidatedHits"));
+        assertEquals("\"v1\"", lastIfNoneMatch);
+    }
+
+    private String url(String path) {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + path;
+    }
+
+    private boolean hasFiles(String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.anyMatch(p -> p.getFileName().toString().endsWith(suffix));
+        }
+    }
+
+    private static void writeBytes(OutputStream out, int size) throws IOException {
+        byte[] block = new byte[64 * 1024];
+        try (out) {
+            for (int written = 0; written < size; written += block.length) {
+                out.write(block, 0, Math.min(block.length, size - written));
+            }
+        } catch (IOException e) {
+            // 客户端读到上限后可能提前关闭连接
+        }
+    }
+}
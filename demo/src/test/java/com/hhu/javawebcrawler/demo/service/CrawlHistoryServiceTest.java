@@ -0,0 +1,85 @@
+package com.hhu.javawebcrawler.demo.service;
+
+import com.hhu.javawebcrawler.demo.exception.CrawlerException;
+import com.hhu.javawebcrawler.demo.repository.CrawlHistoryRepository;
+import com.hhu.javawebcrawler.demo.repository.NewsHistoryRepository;
+import com.hhu.javawebcrawler.demo.utils.KeysetCursor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+// 历史分页的测试：合法游标从游标位置继续，不分页的接口只返回一页，缺少时间或无法解析的游标返回400，而不是回到第一页；未分发新闻的查询结果可被调用方修改
+class CrawlHistoryServiceTest {
+
+    private CrawlHistoryRepository repository;
+    private CrawlHistoryService service;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(CrawlHistoryRepository.class);
+        service = new CrawlHistoryService(repository, mock(NewsHistoryRepository.class), mock(TermStatService.class),
+                mock(PlatformTransactionManager.class), mock(ApplicationEventPublisher.class));
+    }
+
+    @Test
+    void validCursorContinuesAfterThePosition() {
+        LocalDateTime time = LocalDateTime.of(2024, 5, 1, 12, 0);
+        when(repository.findSummariesBefore(eq(1L), eq(time), eq(42L), any(Limit.class))).thenReturn(List.of());
+
+        service.getUserHistoryPage(1L, new KeysetCursor(time, 42L).encode(), 10, false, false);
+
+        verify(repository).findSummariesBefore(eq(1L), eq(time), eq(42L), any(Limit.class));
+    }
+
+    @Test
+    void unpagedHistoryIsLimitedToOnePage() {
+        service.getUserHistory(1L);
+
+        verify(repository).findByUserIdOrderByCrawlTimeDescIdDesc(1L, Limit.of(CrawlHistoryService.DEFAULT_HISTORY_PAGE_SIZE));
+    }
+
+    @Test
+    void cursorWithoutTimeIsRejected() {
+        String cursor = Base64.getUrlEncoder().withoutPadding().encodeToString("|42".getBytes(StandardCharsets.UTF_8));
+
+        CrawlerException e = assertThrows(CrawlerException.class, () -> service.getUserHistoryPage(1L, cursor, 10, false, false));
+
+        assertEquals(HttpStatus.BAD_REQUEST, e.getStatusCode());
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void malformedCursorIsRejected() {
+        CrawlerException e = assertThrows(CrawlerException.class, () -> service.getUserHistoryPage(1L, "not-a-cursor", 10, false, false));
+
+        assertEquals(HttpStatus.BAD_REQUEST, e.getStatusCode());
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void emptyUndeliveredResultIsMutable() {
+        Set<Long> undelivered = service.findUndeliveredNewsIds(7L, Set.of());
+
+        undelivered.remove(1L);
+        assertTrue(undelivered.isEmpty());
+    }
+}
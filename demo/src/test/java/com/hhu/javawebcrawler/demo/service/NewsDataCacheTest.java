@@ -0,0 +1,77 @@
+package com.hhu.javawebcrawler.demo.service;
+
+import com.hhu.javawebcrawler.demo.entity.NewsData;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+// 新闻缓存的测试：缓存保存不可变副本，加载期间发生的失效使加载结果不再进入缓存
+class NewsDataCacheTest {
+
+    private static final String URL = "https://news.sina.com.cn/c/2024-05-01/doc-1.shtml";
+
+    private final NewsDataCache cache = new NewsDataCache(600, 64);
+
+    @Test
+    void callersGetIndependentCopies() {
+        NewsData loaded = news("原标题");
+        cache.getByUrl(URL, url -> Optional.of(loaded));
+        loaded.setTitle("被调用方修改");
+
+        NewsData first = cache.getByUrl(URL, url -> Optional.empty()).orElseThrow();
+        first.setCrawlHistoryId(9L);
+        NewsData second = cache.getByUrl(URL, url -> Optional.empty()).orElseThrow();
+
+        assertEquals("原标题", first.getTitle());
+        assertNotSame(first, second);
+        assertNull(second.getCrawlHistoryId());
+    }
+
+    @Test
+    void invalidationDuringUrlLoadIsNotOverwritten() {
+        AtomicInteger loads = new AtomicInteger();
+        cache.getByUrl(URL, url -> {
+            loads.incrementAndGet();
+            cache.invalidateUrl(URL);
+            return Optional.of(news("过期的标题"));
+        });
+
+        cache.getByUrl(URL, url -> {
+            loads.incrementAndGet();
+            return Optional.of(news("新标题"));
+        });
+
+        assertEquals(2, loads.get());
+        assertEquals("新标题", cache.getByUrl(URL, url -> Optional.empty()).orElseThrow().getTitle());
+    }
+
+    @Test
+    void archivingDuringLoadIsNotOverwritten() {
+        cache.getById(1L, id -> {
+            cache.invalidateIds(List.of(1L));
+            return Optional.of(news("已归档"));
+        });
+        cache.getByUrl(URL, url -> {
+            cache.invalidateIds(List.of(2L));
+            return Optional.of(news("已归档"));
+        });
+
+        assertEquals(Optional.empty(), cache.getById(1L, id -> Optional.empty()));
+        assertEquals(Optional.empty(), cache.getByUrl(URL, url -> Optional.empty()));
+    }
+
+    private static NewsData news(String title) {
+        NewsData newsData = new NewsData();
+        newsData.setId(1L);
+        newsData.setUrl(URL);
+        newsData.setTitle(title);
+        newsData.setContent("<p>正文</p>");
+        return newsData;
+    }
+}
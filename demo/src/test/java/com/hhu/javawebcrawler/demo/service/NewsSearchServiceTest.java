@@ -0,0 +1,120 @@
+package com.hhu.javawebcrawler.demo.service;
+
+import com.hhu.javawebcrawler.demo.entity.NewsData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// 全文检索的测试：BM25排序在内存缓冲和段文件上结果一致，同一新闻只返回一次，超大页码不会溢出
+class NewsSearchServiceTest {
+
+    @TempDir
+    Path dir;
+
+    private NewsSearchService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        // 启动时新闻表为空，无需追赶；水位推进时也读不到新闻
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).thenReturn(0L);
+        // 按ID返回命中新闻的元数据
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (Object id : Arrays.copyOfRange(invocation.getArguments(), 2, invocation.getArguments().length)) {
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getLong("id")).thenReturn((Long) id);
+                when(rs.getString("title")).thenReturn("新闻" + id);
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), any(Object[].class));
+        service = new NewsSearchService(jdbcTemplate, null, true, dir.toString(), 1000, 8);
+        service.load();
+        service.onNewsSaved(new NewsSavedEvent(List.of(
+                news(1L, "华为发布新款手机", "华为今天发布了新款手机，手机销量有望增长。"),
+                news(2L, "芯片行业观察", "多家企业发布芯片，华为也在其中。芯片产能继续扩大，芯片价格回落。"),
+                news(3L, "股市收盘", "上证指数小幅上涨，成交量放大。"))));
+    }
+
+    @Test
+    void titleMatchesRankAboveBodyMatches() {
+        assertEquals(List.of(1L, 2L), ids(service.search("华为", null, null, null, null, 0, 10)));
+        assertEquals(List.of(2L), ids(service.search("芯片", null, null, null, null, 0, 10)));
+        assertEquals(List.of(), ids(service.search("汽车", null, null, null, null, 0, 10)));
+    }
+
+    @Test
+    void segmentsRankTheSameAsTheBuffer() {
+        Map<String, Object> buffered = service.search("华为 手机", null, null, null, null, 0, 10);
+        service.maintain();
+        Map<String, Object> flushed = service.search("华为 手机", null, null, null, null, 0, 10);
+
+        assertEquals(1, service.getStats().get("segments"));
+        assertEquals(0, service.getStats().get("bufferedDocs"));
+        assertEquals(ids(buffered), ids(flushed));
+        // 缓冲按double累加，段按float累加，得分只在舍入误差内一致
+        List<Float> before = scores(buffered);
+        List<Float> after = scores(flushed);
+        for (int i = 0; i < before.size(); i++) {
+            assertEquals(before.get(i), after.get(i), 1e-4);
+        }
+    }
+
+    @Test
+    void aNewsIndexedTwiceIsReturnedOnce() {
+        service.maintain();
+        service.onNewsSaved(new NewsSavedEvent(List.of(news(1L, "华为发布新款手机", "华为今天发布了新款手机，手机销量有望增长。"))));
+
+        Map<String, Object> result = service.search("华为", null, null, null, null, 0, 10);
+
+        assertEquals(List.of(1L, 2L), ids(result));
+        assertEquals(2L, result.get("total"));
+    }
+
+    @Test
+    void pagesBeyondTheWindowAreEmptyInsteadOfOverflowing() {
+        Map<String, Object> result = service.search("华为", null, null, null, null, Integer.MAX_VALUE, 100);
+
+        assertTrue(ids(result).isEmpty());
+        assertEquals(List.of(2L), ids(service.search("华为", null, null, null, null, 1, 1)));
+    }
+
+    private static NewsData news(Long id, String title, String plainText) {
+        NewsData newsData = new NewsData();
+        newsData.setId(id);
+        newsData.setTitle(title);
+        newsData.setPlainText(plainText);
+        newsData.setSource("新浪");
+        newsData.setFetchTime(LocalDateTime.of(2024, 1, 1, 0, 0));
+        return newsData;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Long> ids(Map<String, Object> result) {
+        return ((List<Map<String, Object>>) result.get("items")).stream().map(item -> (Long) item.get("id")).toList();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Float> scores(Map<String, Object> result) {
+        return ((List<Map<String, Object>>) result.get("items")).stream().map(item -> (Float) item.get("score")).toList();
+    }
+}
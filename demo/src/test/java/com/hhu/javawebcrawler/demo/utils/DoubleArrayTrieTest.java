@@ -0,0 +1,77 @@
+package com.hhu.javawebcrawler.demo.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// 双数组词典的测试：构建结果必须与词语列表一致，最长匹配只返回完整的词语
+class DoubleArrayTrieTest {
+
+    @Test
+    void exactMatchReturnsSortedIndex() {
+        List<String> words = List.of("中国", "中国人", "人民", "人民币", "国家");
+        DoubleArrayTrie trie = DoubleArrayTrie.build(words);
+        for (int i = 0; i < words.size(); i++) {
+            assertEquals(i, trie.exactMatch(words.get(i)));
+        }
+        // 前缀和不存在的词语返回-1
+        assertEquals(-1, trie.exactMatch("中"));
+        assertEquals(-1, trie.exactMatch("人民银行"));
+        assertEquals(-1, trie.exactMatch(""));
+    }
+
+    @Test
+    void childrenWhoseCodesAreNotInCharacterOrderAreBuiltCorrectly() {
+        // 字符编码按首次出现分配：b=1, a=2, c=3；“c”的子节点按字符序是a、b，按编码序却是b、a
+        List<String> words = List.of("ba", "c", "ca", "cb");
+        DoubleArrayTrie trie = DoubleArrayTrie.build(words);
+        for (int i = 0; i < words.size(); i++) {
+            assertEquals(i, trie.exactMatch(words.get(i)));
+        }
+    }
+
+    @Test
+    void longestMatchPrefersTheLongestWord() {
+        DoubleArrayTrie trie = DoubleArrayTrie.build(List.of("人民", "人民币", "币值"));
+        char[] text = "人民币值".toCharArray();
+        long match = trie.longestMatch(text, 0, text.length);
+        assertEquals(1, (int) (match >>> 32));
+        assertEquals(3, (int) match);
+        // 不以词语开头的位置没有匹配
+        assertEquals(-1L, trie.longestMatch(text, 3, text.length));
+    }
+
+    @Test
+    void rangeExactMatchAgreesWithStringLookup() {
+        DoubleArrayTrie trie = DoubleArrayTrie.build(List.of("的", "了", "可以"));
+        char[] text = "可以的".toCharArray();
+        assertEquals(2, trie.exactMatch(text, 0, 2));
+        assertEquals(0, trie.exactMatch(text, 2, 3));
+        assertEquals(-1, trie.exactMatch(text, 0, 1));
+    }
+
+    @Test
+    void randomDictionaryRoundTrips() {
+        // 随机生成的词典中每个词语都能查到，且ID等于排序后的下标
+        Random random = new Random(42);
+        TreeSet<String> set = new TreeSet<>();
+        while (set.size() < 2000) {
+            StringBuilder word = new StringBuilder();
+            int length = 1 + random.nextInt(5);
+            for (int i = 0; i < length; i++) {
+                word.append((char) ('一' + random.nextInt(300)));
+            }
+            set.add(word.toString());
+        }
+        List<String> words = new ArrayList<>(set);
+        DoubleArrayTrie trie = DoubleArrayTrie.build(words);
+        for (int i = 0; i < words.size(); i++) {
+            assertEquals(i, trie.exactMatch(words.get(i)));
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.hhu.javawebcrawler.demo.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// 原始类型散列表的测试：多次扩容后的累加结果必须与HashMap一致，清空后可以复用
+class IntLongHashMapTest {
+
+    @Test
+    void accumulatesLikeAHashMapAcrossRehashes() {
+        IntLongHashMap map = new IntLongHashMap(4);
+        Map<Integer, Long> expected = new HashMap<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 50_000; i++) {
+            // 连续的小ID和分散的大ID都要覆盖
+            int key = i % 3 == 0 ? random.nextInt(Integer.MAX_VALUE) : random.nextInt(5_000);
+            long delta = random.nextInt(100) - 20;
+            map.addTo(key, delta);
+            expected.merge(key, delta, Long::sum);
+        }
+
+        assertEquals(expected.size(), map.size());
+        expected.forEach((key, value) -> assertEquals(value, map.get(key)));
+        Map<Integer, Long> visited = new HashMap<>();
+        map.forEach(visited::put);
+        assertEquals(expected, visited);
+    }
+
+    @Test
+    void missingKeysReadAsZeroAndClearKeepsTheMapUsable() {
+        IntLongHashMap map = new IntLongHashMap(16);
+        map.addTo(0, 5);
+        map.addTo(42, 3_000_000_000L);
+        assertEquals(0L, map.get(1));
+        assertEquals(3_000_000_000L, map.get(42));
+
+        map.clear();
+        assertEquals(0, map.size());
+        assertEquals(0L, map.get(42));
+        map.addTo(42, 1);
+        assertEquals(1L, map.get(42));
+        assertEquals(1, map.size());
+    }
+}
@@ -0,0 +1,102 @@
+package com.hhu.javawebcrawler.demo.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// 检索段文件的测试：写入后重新打开必须读回相同的文档表和倒排表，合并时按新闻ID去重并丢弃被排除的新闻
+class SearchSegmentTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void writtenSegmentRoundTripsThroughTheFile() throws IOException {
+        SearchSegment.write(dir.resolve("a.seg"), List.of(
+                doc(30, "新浪", Map.of("华为", 3, "芯片", 1)),
+                doc(10, "网易", Map.of("华为", 1)),
+                doc(20, "新浪", Map.of("芯片", 2))));
+        SearchSegment segment = SearchSegment.open(dir.resolve("a.seg"));
+
+        assertEquals(3, segment.docCount());
+        assertEquals(4 + 1 + 2, segment.totalLength());
+        // 文档按新闻ID升序排列
+        assertEquals(10, segment.newsId(0));
+        assertEquals(20, segment.newsId(1));
+        assertEquals(30, segment.newsId(2));
+        assertEquals(1000 + 30, segment.time(2));
+        assertEquals(4, segment.length(2));
+        assertEquals(segment.sourceOrdinal("新浪"), segment.sourceOrdinal(1));
+        assertEquals(-1, segment.sourceOrdinal("搜狐"));
+        assertEquals(Map.of(0, 1, 2, 3), postings(segment, "华为"));
+        assertEquals(Map.of(1, 2, 2, 1), postings(segment, "芯片"));
+        assertEquals(2, segment.docFreq(bytes("芯片")));
+        assertEquals(0, segment.docFreq(bytes("手机")));
+    }
+
+    @Test
+    void writeKeepsTheLastCopyOfADuplicatedNews() throws IOException {
+        SearchSegment segment = SearchSegment.write(dir.resolve("a.seg"), List.of(
+                doc(1, "新浪", Map.of("旧词", 1)),
+                doc(1, "新浪", Map.of("新词", 1))));
+
+        assertEquals(1, segment.docCount());
+        assertEquals(0, segment.docFreq(bytes("旧词")));
+        assertEquals(1, segment.docFreq(bytes("新词")));
+    }
+
+    @Test
+    void mergeDeduplicatesByNewsIdAndDropsRejectedNews() throws IOException {
+        SearchSegment older = SearchSegment.write(dir.resolve("a.seg"), List.of(
+                doc(1, "新浪", Map.of("华为", 1)),
+                doc(2, "新浪", Map.of("华为", 2)),
+                doc(3, "网易", Map.of("芯片", 1))));
+        SearchSegment newer = SearchSegment.write(dir.resolve("b.seg"), List.of(
+                doc(2, "新浪", Map.of("芯片", 5)),
+                doc(4, "搜狐", Map.of("华为", 4))));
+
+        SearchSegment merged = SearchSegment.merge(dir.resolve("c.seg"), List.of(older, newer), id -> id != 3);
+
+        assertEquals(3, merged.docCount());
+        assertEquals(1, merged.newsId(0));
+        assertEquals(2, merged.newsId(1));
+        assertEquals(4, merged.newsId(2));
+        // 新闻2在两个段中都出现，只保留靠后的段中的版本
+        assertEquals(Map.of(0, 1, 2, 4), postings(merged, "华为"));
+        assertEquals(Map.of(1, 5), postings(merged, "芯片"));
+        assertEquals("搜狐", sourceOf(merged, 2));
+        assertEquals(1 + 5 + 4, merged.totalLength());
+    }
+
+    private static SearchSegment.Doc doc(long newsId, String source, Map<String, Integer> terms) {
+        int length = terms.values().stream().mapToInt(Integer::intValue).sum();
+        return new SearchSegment.Doc(newsId, 1000 + newsId, source, terms, length);
+    }
+
+    private static Map<Integer, Integer> postings(SearchSegment segment, String term) {
+        Map<Integer, Integer> result = new HashMap<>();
+        segment.postings(bytes(term), result::put);
+        return result;
+    }
+
+    private static String sourceOf(SearchSegment segment, int doc) {
+        for (String source : List.of("新浪", "网易", "搜狐")) {
+            if (segment.sourceOrdinal(source) == segment.sourceOrdinal(doc)) {
+                return source;
+            }
+        }
+        return null;
+    }
+
+    private static byte[] bytes(String term) {
+        return term.getBytes(StandardCharsets.UTF_8);
+    }
+}
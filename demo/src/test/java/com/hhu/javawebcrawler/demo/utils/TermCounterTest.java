@@ -0,0 +1,74 @@
+package com.hhu.javawebcrawler.demo.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// 词语计数器的测试：有界堆选出的前K个词语必须与完整排序的结果一致，计数不被截断为int
+class TermCounterTest {
+
+    @Test
+    void topKMatchesAFullSortWithTiesBrokenByTerm() {
+        TermCounter counter = TermExtractor.newCounter();
+        Map<String, Long> expected = new HashMap<>();
+        Random random = new Random(11);
+        // 词典词和未登录词混合，计数范围很小以制造大量并列
+        List<String> terms = List.of("芯片", "手机", "汽车", "电池", "外交部", "甲乙", "丙丁", "戊己", "庚辛", "壬癸", "alpha", "beta");
+        for (int i = 0; i < 500; i++) {
+            String term = terms.get(random.nextInt(terms.size()));
+            long count = random.nextInt(3) + 1;
+            counter.add(term, count);
+            expected.merge(term, count, Long::sum);
+        }
+
+        for (int k : new int[]{1, 3, 5, terms.size(), terms.size() + 5}) {
+            assertEquals(sortedTop(expected, k), new ArrayList<>(counter.top(k).entrySet()), "k=" + k);
+        }
+    }
+
+    @Test
+    void emptyOrZeroLimitReturnsNothing() {
+        TermCounter counter = TermExtractor.newCounter();
+        assertTrue(counter.top(5).isEmpty());
+        counter.add("芯片", 1);
+        assertTrue(counter.top(0).isEmpty());
+    }
+
+    @Test
+    void countsAreNotNarrowedToInt() {
+        TermCounter counter = TermExtractor.newCounter();
+        counter.add("芯片", 3_000_000_000L);
+        counter.add("未登录词", Integer.MAX_VALUE + 1L);
+
+        assertEquals(Map.of("芯片", 3_000_000_000L, "未登录词", Integer.MAX_VALUE + 1L), counter.toMap());
+        assertEquals(3_000_000_000L, counter.top(1).get("芯片"));
+    }
+
+    @Test
+    void clearResetsCountsAndUnknownWords() {
+        TermCounter counter = TermExtractor.newCounter();
+        counter.add("未登录词", 2);
+        counter.clear();
+        counter.add("芯片", 1);
+
+        assertEquals(Map.of("芯片", 1L), counter.toMap());
+    }
+
+    private static List<Map.Entry<String, Long>> sortedTop(Map<String, Long> counts, int k) {
+        Map<String, Long> result = new LinkedHashMap<>();
+        counts.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()).thenComparing(Map.Entry.comparingByKey()))
+                .limit(k)
+                .forEach(entry -> result.put(entry.getKey(), entry.getValue()));
+        return new ArrayList<>(result.entrySet());
+    }
+}
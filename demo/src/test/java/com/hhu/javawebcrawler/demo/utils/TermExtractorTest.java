@@ -0,0 +1,69 @@
+package com.hhu.javawebcrawler.demo.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// 新闻分词规则的测试：停用词只在输出时过滤，不能切断以停用字开头或结尾的词语
+class TermExtractorTest {
+
+    @Test
+    void wordsStartingWithStopCharactersStayWhole() {
+        // “华”“着”“后”不是停用词本身的一部分时，整词保留
+        assertEquals(Map.of("华为", 1L), TermExtractor.countWords("华为"));
+        assertEquals(Map.of("着陆", 1L), TermExtractor.countWords("着陆"));
+        assertEquals(Map.of("后台", 1L), TermExtractor.countWords("后台"));
+    }
+
+    @Test
+    void leadingStopCharactersAreNotDropped() {
+        // “上”“中”开头的未登录部分仍然输出
+        assertEquals(Set.of("上证", "指数"), TermExtractor.countWords("上证指数").keySet());
+        assertEquals(Set.of("中芯", "国际"), TermExtractor.countWords("中芯国际").keySet());
+        assertEquals(Set.of("中信", "证券"), TermExtractor.countWords("中信证券").keySet());
+    }
+
+    @Test
+    void personNameIsNotMergedWithFollowingCharacters() {
+        // 人名与后面的“今日”分开，而不是输出“毛宁今”
+        Map<String, Long> counts = TermExtractor.countWords("外交部发言人毛宁今日表示");
+        assertEquals(Set.of("外交部", "发言人", "毛宁", "今日", "表示"), counts.keySet());
+        assertTrue(TermExtractor.isSingleTerm("毛宁"));
+    }
+
+    @Test
+    void onlyDictionaryWordsAreCountedFromTheRollup() {
+        // 词典词语总是整体切出，可以从小时桶查询；未登录词和短语按子串匹配扫描
+        assertTrue(TermExtractor.isDictionaryTerm("芯片"));
+        assertTrue(TermExtractor.isDictionaryTerm(" 发言人 "));
+        assertFalse(TermExtractor.isDictionaryTerm("毛宁"));
+        assertFalse(TermExtractor.isDictionaryTerm("华为"));
+        assertFalse(TermExtractor.isDictionaryTerm("芯片产能"));
+        assertFalse(TermExtractor.isDictionaryTerm("中国"));
+    }
+
+    @Test
+    void stopWordsAreFilteredOnOutput() {
+        // 词典中的停用词被丢弃，未登录词两端的单字停用词被去掉
+        assertEquals(Set.of("华为", "手机", "销量"), TermExtractor.countWords("华为的手机销量").keySet());
+        assertEquals(Set.of("经济", "发展"), TermExtractor.countWords("中国的经济发展").keySet());
+        assertFalse(TermExtractor.countWords("的了和").containsKey("的了和"));
+    }
+
+    @Test
+    void repeatedWordsAreCounted() {
+        // 同一词语多次出现时累计次数
+        assertEquals(2, TermExtractor.countWords("华为发布会，华为手机").get("华为"));
+    }
+
+    @Test
+    void keywordsAreSplitOnCommasAndStopWordsDropped() {
+        // 关键词按逗号拆分，停用词被忽略
+        assertEquals(Map.of("华为", 1L, "芯片", 1L), TermExtractor.countKeywords("华为, 芯片,中国"));
+    }
+}